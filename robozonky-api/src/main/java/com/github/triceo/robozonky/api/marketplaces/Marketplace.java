@@ -17,9 +17,12 @@
 package com.github.triceo.robozonky.api.marketplaces;
 
 import java.util.Collection;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
 
 /**
  * Represents code that checks some remote marketplace for new loans. Use {@link #registerListener(Consumer)} as an
@@ -36,7 +39,21 @@ public interface Marketplace extends AutoCloseable, Runnable {
      * @param listener The endpoint to send loans to.
      * @return True if the listener has been set up to receive new loans, false if already registered before.
      */
-    boolean registerListener(Consumer<Collection<Loan>> listener);
+    boolean registerListener(Consumer<Collection<LoanSummary>> listener);
+
+    /**
+     * Tell the marketplace which loans the runtime is interested in, so that it may avoid retrieving the others. The
+     * runtime promises to execute this method before any calls to {@link #run()} are made and never after that. The
+     * supplier will be asked again before every marketplace check, since the profile may change over time.
+     *
+     * Implementations are free to ignore this, and the runtime must not rely on loans outside of the profile being
+     * filtered out.
+     *
+     * @param profile Empty when every loan is of interest.
+     */
+    default void registerInterestProfile(final Supplier<Optional<InterestProfile>> profile) {
+        // by default, all loans are retrieved
+    }
 
     /**
      * Allows the implementation to specify how it should be treated by the runtime.
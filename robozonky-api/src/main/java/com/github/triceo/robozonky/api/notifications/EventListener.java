@@ -26,12 +26,23 @@ package com.github.triceo.robozonky.api.notifications;
 public interface EventListener<E extends Event> extends java.util.EventListener {
 
     /**
-     * Implementation must be thread-safe. Never include any time-consuming logic, since RoboZonky core will block
-     * until all of this code is executed. If you need to submit a long-running task, do it asynchronously and do not
-     * block on the result.
+     * Implementation must be thread-safe. RoboZonky core does not wait for this code to be executed, but events for
+     * this listener will pile up while it runs. If you need to submit a long-running task, do it asynchronously and do
+     * not block on the result.
      *
      * @param event Event that is being listened to.
      */
     void handle(E event);
 
+    /**
+     * Allows the listener to skip events it has no use for, before they are ever queued for {@link #handle(Event)}.
+     * Called on the thread that fires the event, therefore the implementation must be quick and thread-safe.
+     *
+     * @param event Event that is being fired.
+     * @return True if the event should be handled. Defaults to true.
+     */
+    default boolean isInterestedIn(final E event) {
+        return true;
+    }
+
 }
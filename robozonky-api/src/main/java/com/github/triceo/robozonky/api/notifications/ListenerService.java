@@ -36,4 +36,16 @@ public interface ListenerService {
      */
     <T extends Event> Refreshable<EventListener<T>> findListener(final Class<T> eventType);
 
+    /**
+     * Declare the event types this service has listeners for. {@link #findListener(Class)} will only be called for
+     * those, and events which no service supports will not be distributed at all.
+     *
+     * @param eventType Type of the event in question.
+     * @return True if {@link #findListener(Class)} may return a listener for the event type. Defaults to true for
+     * services which do not declare their event types.
+     */
+    default boolean isSupported(final Class<? extends Event> eventType) {
+        return true;
+    }
+
 }
@@ -18,10 +18,10 @@ package com.github.triceo.robozonky.api.remote;
 
 import java.util.List;
 
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 
 public interface Api {
 
-    List<Loan> getLoans();
+    List<LoanSummary> getLoans();
 
 }
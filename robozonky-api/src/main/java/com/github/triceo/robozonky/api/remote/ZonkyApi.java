@@ -31,6 +31,7 @@ import javax.ws.rs.core.MediaType;
 import com.github.triceo.robozonky.api.remote.entities.BlockedAmount;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
 import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.entities.Statistics;
 import com.github.triceo.robozonky.api.remote.entities.Wallet;
 import com.github.triceo.robozonky.api.remote.enums.InvestmentStatuses;
@@ -74,7 +75,7 @@ public interface ZonkyApi extends Api {
 
     @GET
     @Path(ZonkyApi.MARKETPLACE)
-    List<Loan> getLoans(
+    List<LoanSummary> getLoans(
             @QueryParam("rating__in") Ratings ratings,
             @QueryParam("remainingInvestment__gt") @DefaultValue("0") int leastRemainingInvestment,
             @QueryParam("termInMonths__gte") @DefaultValue("0") int leastPossibleTermInMonths,
@@ -82,25 +83,25 @@ public interface ZonkyApi extends Api {
 
     @GET
     @Path(ZonkyApi.MARKETPLACE)
-    List<Loan> getLoans(
+    List<LoanSummary> getLoans(
             @QueryParam("rating__in") Ratings ratings,
             @QueryParam("remainingInvestment__gt") @DefaultValue("0") int leastRemainingInvestment,
             @QueryParam("termInMonths__gte") @DefaultValue("0") int leastPossibleTermInMonths);
 
     @GET
     @Path(ZonkyApi.MARKETPLACE)
-    List<Loan> getLoans(
+    List<LoanSummary> getLoans(
             @QueryParam("rating__in") Ratings ratings,
             @QueryParam("remainingInvestment__gt") @DefaultValue("0") int leastRemainingInvestment);
 
     @GET
     @Path(ZonkyApi.MARKETPLACE)
-    List<Loan> getLoans(@QueryParam("rating__in") Ratings ratings);
+    List<LoanSummary> getLoans(@QueryParam("rating__in") Ratings ratings);
 
     @GET
     @Path(ZonkyApi.MARKETPLACE)
     @Override
-    List<Loan> getLoans();
+    List<LoanSummary> getLoans();
 
 
     @GET
@@ -26,11 +26,19 @@ abstract class BaseInvestment extends BaseEntity {
         // for JAXB
     }
 
-    BaseInvestment(final Loan loan, final int amount) {
+    /**
+     * @param loan Loan to look into.
+     * @return Null unless full {@link Loan} with the user's investment.
+     */
+    static MyInvestment getMyInvestment(final LoanSummary loan) {
+        return (loan instanceof Loan) ? ((Loan) loan).getMyInvestment() : null;
+    }
+
+    BaseInvestment(final LoanSummary loan, final int amount) {
         this.loanId = loan.getId();
         this.amount = amount;
-        if (loan.getMyInvestment() != null) {
-            final MyInvestment m = loan.getMyInvestment();
+        final MyInvestment m = BaseInvestment.getMyInvestment(loan);
+        if (m != null) {
             this.id = m.getId();
             this.additionalAmount = m.getAdditionalAmount();
             this.firstAmount = m.getFirstAmount();
@@ -34,7 +34,7 @@ public class Investment extends BaseInvestment {
         // for JAXB
     }
 
-    public Investment(final Loan loan, final int amount) {
+    public Investment(final LoanSummary loan, final int amount) {
         super(loan, amount);
         this.loanName = loan.getName();
         this.nickname = loan.getNickName();
@@ -46,8 +46,9 @@ public class Investment extends BaseInvestment {
         this.paid = BigDecimal.ZERO;
         this.paidPrincipal = BigDecimal.ZERO;
         this.duePrincipal = BigDecimal.valueOf(amount);
-        if (loan.getMyInvestment() != null) {
-            this.investmentDate = loan.getMyInvestment().getTimeCreated();
+        final MyInvestment m = BaseInvestment.getMyInvestment(loan);
+        if (m != null) {
+            this.investmentDate = m.getTimeCreated();
         } else {
             this.investmentDate = OffsetDateTime.now();
         }
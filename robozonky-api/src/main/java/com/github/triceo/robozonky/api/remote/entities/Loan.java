@@ -16,8 +16,6 @@
 
 package com.github.triceo.robozonky.api.remote.entities;
 
-import java.math.BigDecimal;
-import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,7 +25,6 @@ import com.github.triceo.robozonky.api.remote.enums.MainIncomeType;
 import com.github.triceo.robozonky.api.remote.enums.Purpose;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
 import com.github.triceo.robozonky.api.remote.enums.Region;
-import com.github.triceo.robozonky.internal.api.Defaults;
 
 /**
  * This class carries several enumeration-based fields. Some of the enums are extremely important to the core function
@@ -35,36 +32,25 @@ import com.github.triceo.robozonky.internal.api.Defaults;
  * additional metadata. If the important enums change, we need RoboZonky to fail. However, in case of the others, we
  * provide non-failing deserializers which handle the missing values gracefully and provide a message warning users that
  * something needs an upgrade.
+ *
+ * This is the full detail of a loan, as retrieved individually. The marketplace only provides {@link LoanSummary}.
  */
-public class Loan extends BaseEntity {
+public class Loan extends LoanSummary {
 
-    private boolean topped, covered, published;
-    private int id, termInMonths, investmentsCount, questionsCount, userId;
-    private double amount, remainingInvestment;
-    private String name, nickName, story;
-    private BigDecimal interestRate = BigDecimal.ZERO;
-    private OffsetDateTime datePublished, deadline = OffsetDateTime.MAX;
-    private Rating rating;
+    private String story;
     private Collection<Photo> photos = Collections.emptyList();
-    private BigDecimal investmentRate = BigDecimal.ZERO;
     private MyInvestment myInvestment;
-    private MainIncomeType mainIncomeType = MainIncomeType.OTHERS_MAIN;
-    private Region region = Region.UNKNOWN;
-    private Purpose purpose = Purpose.JINE;
 
     protected Loan() {
         // for JAXB
     }
 
     public Loan(final int id, final int amount) { // creates a simple "fake" loan
-        this(id, amount, OffsetDateTime.ofInstant(Instant.EPOCH, Defaults.ZONE_ID));
+        super(id, amount);
     }
 
     public Loan(final int id, final int amount, final OffsetDateTime datePublished) { // creates a simple "fake" loan
-        this.id = id;
-        this.amount = amount;
-        this.remainingInvestment = amount;
-        this.datePublished = datePublished;
+        super(id, amount, datePublished);
     }
 
     @XmlElement
@@ -72,114 +58,14 @@ public class Loan extends BaseEntity {
         return myInvestment;
     }
 
-    @XmlElement
-    public MainIncomeType getMainIncomeType() {
-        return mainIncomeType;
-    }
-
-    @XmlElement
-    public BigDecimal getInvestmentRate() {
-        return investmentRate;
-    }
-
-    @XmlElement
-    public Region getRegion() {
-        return region;
-    }
-
-    @XmlElement
-    public Purpose getPurpose() {
-        return purpose;
-    }
-
-    @XmlElement
-    public int getId() {
-        return id;
-    }
-
-    @XmlElement
-    public String getName() {
-        return name;
-    }
-
     @XmlElement
     public String getStory() {
         return story;
     }
 
-    @XmlElement
-    public String getNickName() {
-        return nickName;
-    }
-
-    @XmlElement
-    public int getTermInMonths() {
-        return termInMonths;
-    }
-
-    @XmlElement
-    public BigDecimal getInterestRate() {
-        return interestRate;
-    }
-
-    @XmlElement
-    public Rating getRating() {
-        return rating;
-    }
-
-    @XmlElement
-    public boolean isTopped() {
-        return topped;
-    }
-
-    @XmlElement
-    public double getAmount() {
-        return amount;
-    }
-
-    @XmlElement
-    public double getRemainingInvestment() {
-        return remainingInvestment;
-    }
-
-    @XmlElement
-    public boolean isCovered() {
-        return covered;
-    }
-
-    @XmlElement
-    public boolean isPublished() {
-        return published;
-    }
-
-    @XmlElement
-    public OffsetDateTime getDatePublished() {
-        return datePublished;
-    }
-
-    @XmlElement
-    public OffsetDateTime getDeadline() {
-        return deadline;
-    }
-
-    @XmlElement
-    public int getInvestmentsCount() {
-        return investmentsCount;
-    }
-
-    @XmlElement
-    public int getQuestionsCount() {
-        return questionsCount;
-    }
-
     @XmlElement
     public Collection<Photo> getPhotos() {
         return photos;
     }
 
-    @XmlElement
-    public int getUserId() {
-        return userId;
-    }
-
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.api.remote.entities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.triceo.robozonky.api.remote.enums.MainIncomeType;
+import com.github.triceo.robozonky.api.remote.enums.Purpose;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.remote.enums.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the marketplace, a JSON array of loans, token by token straight into {@link LoanSummary} instances. Compared
+ * to the generic JSON provider, no intermediate tree and no reflection is involved, and the largest parts of every
+ * loan - the story, photos and the user's own investment - are skipped without being turned into strings or objects.
+ * Field names are canonicalized by the parser and parsing buffers are recycled between calls, so that a marketplace
+ * check mostly only allocates the loans themselves.
+ *
+ * Everything that the strategies and the rest of RoboZonky need from a marketplace loan is read. Whoever needs the
+ * skipped parts needs to retrieve the full {@link Loan} individually.
+ */
+public final class LoanDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoanDecoder.class);
+    /**
+     * Thread-safe. Recycles parser buffers per thread.
+     */
+    private static final JsonFactory FACTORY = new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    /**
+     * So that unknown fields are only reported once, instead of for every loan on every marketplace check.
+     */
+    private static final Set<String> UNKNOWN_FIELDS = ConcurrentHashMap.newKeySet();
+
+    private static String getString(final JsonParser parser) throws IOException {
+        return parser.getCurrentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    private static OffsetDateTime getDateTime(final JsonParser parser, final OffsetDateTime defaultValue)
+            throws IOException {
+        final String value = LoanDecoder.getString(parser);
+        return value == null ? defaultValue : OffsetDateTime.parse(value);
+    }
+
+    private static Rating getRating(final JsonParser parser) throws IOException {
+        final String value = LoanDecoder.getString(parser);
+        try {
+            return value == null ? null : Rating.valueOf(value);
+        } catch (final IllegalArgumentException ex) { // rating is essential, unknown rating must fail
+            throw new JsonParseException(parser, "Unknown rating: " + value, ex);
+        }
+    }
+
+    private static void readField(final JsonParser parser, final String field, final LoanSummary loan)
+            throws IOException {
+        switch (field) {
+            case "id":
+                loan.id = parser.getIntValue();
+                break;
+            case "name":
+                loan.name = LoanDecoder.getString(parser);
+                break;
+            case "nickName":
+                loan.nickName = LoanDecoder.getString(parser);
+                break;
+            case "termInMonths":
+                loan.termInMonths = parser.getIntValue();
+                break;
+            case "interestRate":
+                loan.interestRate = parser.getDecimalValue();
+                break;
+            case "investmentRate":
+                loan.investmentRate = parser.getDecimalValue();
+                break;
+            case "rating":
+                loan.rating = LoanDecoder.getRating(parser);
+                break;
+            case "topped":
+                loan.topped = parser.getValueAsBoolean();
+                break;
+            case "covered":
+                loan.covered = parser.getValueAsBoolean();
+                break;
+            case "published":
+                loan.published = parser.getValueAsBoolean();
+                break;
+            case "amount":
+                loan.amount = parser.getValueAsDouble();
+                break;
+            case "remainingInvestment":
+                loan.remainingInvestment = parser.getValueAsDouble();
+                break;
+            case "datePublished":
+                loan.datePublished = LoanDecoder.getDateTime(parser, null);
+                break;
+            case "deadline":
+                loan.deadline = LoanDecoder.getDateTime(parser, OffsetDateTime.MAX);
+                break;
+            case "investmentsCount":
+                loan.investmentsCount = parser.getValueAsInt();
+                break;
+            case "questionsCount":
+                loan.questionsCount = parser.getValueAsInt();
+                break;
+            case "userId":
+                loan.userId = parser.getValueAsInt();
+                break;
+            case "mainIncomeType":
+                loan.mainIncomeType = MainIncomeType.fromZonkyValue(LoanDecoder.getString(parser));
+                break;
+            case "region":
+                loan.region = Region.fromZonkyValue(LoanDecoder.getString(parser));
+                break;
+            case "purpose":
+                loan.purpose = Purpose.fromZonkyValue(LoanDecoder.getString(parser));
+                break;
+            case "story":
+            case "photos":
+            case "myInvestment":
+            case "url":
+                parser.skipChildren(); // no-op for scalars; their text is never materialized
+                break;
+            default:
+                if (LoanDecoder.UNKNOWN_FIELDS.add(field)) {
+                    LoanDecoder.LOGGER.debug("Ignoring unknown property '{}'."
+                            + " Indicates an unexpected API change, RoboZonky may misbehave.", field);
+                }
+                parser.skipChildren();
+        }
+    }
+
+    private static LoanSummary readLoan(final JsonParser parser) throws IOException {
+        final LoanSummary loan = new LoanSummary();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            LoanDecoder.readField(parser, field, loan);
+        }
+        return loan;
+    }
+
+    /**
+     * Read loans from the stream. The stream is not closed.
+     *
+     * @param stream JSON array of loans, as returned by the marketplace endpoints of Zonky API.
+     * @return Loans in the order in which they appeared in the stream.
+     * @throws IOException When the stream could not be read or did not contain a JSON array of loans.
+     */
+    public List<LoanSummary> decode(final InputStream stream) throws IOException {
+        try (final JsonParser parser = LoanDecoder.FACTORY.createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of loans.");
+            }
+            final List<LoanSummary> result = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                result.add(LoanDecoder.readLoan(parser));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a loan, got " + token + ".");
+            }
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.api.remote.entities;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import javax.xml.bind.annotation.XmlElement;
+
+import com.github.triceo.robozonky.api.remote.enums.MainIncomeType;
+import com.github.triceo.robozonky.api.remote.enums.Purpose;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.remote.enums.Region;
+import com.github.triceo.robozonky.internal.api.Defaults;
+
+/**
+ * The part of a {@link Loan} that is available on the marketplace and that is all the robot needs in order to decide
+ * whether or not to invest. Marketplace checks only ever produce instances of this class, decoded by
+ * {@link LoanDecoder}. Loans retrieved individually are full {@link Loan}s, which additionally carry the story, photos
+ * and the user's own investment.
+ *
+ * See {@link Loan} for how the enumeration-based fields are handled.
+ */
+public class LoanSummary extends BaseEntity {
+
+    // fields are package-private so that LoanDecoder can fill them directly
+    boolean topped, covered, published;
+    int id, termInMonths, investmentsCount, questionsCount, userId;
+    double amount, remainingInvestment;
+    String name, nickName;
+    BigDecimal interestRate = BigDecimal.ZERO;
+    OffsetDateTime datePublished, deadline = OffsetDateTime.MAX;
+    Rating rating;
+    BigDecimal investmentRate = BigDecimal.ZERO;
+    MainIncomeType mainIncomeType = MainIncomeType.OTHERS_MAIN;
+    Region region = Region.UNKNOWN;
+    Purpose purpose = Purpose.JINE;
+
+    protected LoanSummary() {
+        // for JAXB
+    }
+
+    public LoanSummary(final int id, final int amount) { // creates a simple "fake" loan
+        this(id, amount, OffsetDateTime.ofInstant(Instant.EPOCH, Defaults.ZONE_ID));
+    }
+
+    public LoanSummary(final int id, final int amount, final OffsetDateTime datePublished) { // a simple "fake" loan
+        this.id = id;
+        this.amount = amount;
+        this.remainingInvestment = amount;
+        this.datePublished = datePublished;
+    }
+
+    @XmlElement
+    public MainIncomeType getMainIncomeType() {
+        return mainIncomeType;
+    }
+
+    @XmlElement
+    public BigDecimal getInvestmentRate() {
+        return investmentRate;
+    }
+
+    @XmlElement
+    public Region getRegion() {
+        return region;
+    }
+
+    @XmlElement
+    public Purpose getPurpose() {
+        return purpose;
+    }
+
+    @XmlElement
+    public int getId() {
+        return id;
+    }
+
+    @XmlElement
+    public String getName() {
+        return name;
+    }
+
+    @XmlElement
+    public String getNickName() {
+        return nickName;
+    }
+
+    @XmlElement
+    public int getTermInMonths() {
+        return termInMonths;
+    }
+
+    @XmlElement
+    public BigDecimal getInterestRate() {
+        return interestRate;
+    }
+
+    @XmlElement
+    public Rating getRating() {
+        return rating;
+    }
+
+    @XmlElement
+    public boolean isTopped() {
+        return topped;
+    }
+
+    @XmlElement
+    public double getAmount() {
+        return amount;
+    }
+
+    @XmlElement
+    public double getRemainingInvestment() {
+        return remainingInvestment;
+    }
+
+    @XmlElement
+    public boolean isCovered() {
+        return covered;
+    }
+
+    @XmlElement
+    public boolean isPublished() {
+        return published;
+    }
+
+    @XmlElement
+    public OffsetDateTime getDatePublished() {
+        return datePublished;
+    }
+
+    @XmlElement
+    public OffsetDateTime getDeadline() {
+        return deadline;
+    }
+
+    @XmlElement
+    public int getInvestmentsCount() {
+        return investmentsCount;
+    }
+
+    @XmlElement
+    public int getQuestionsCount() {
+        return questionsCount;
+    }
+
+    @XmlElement
+    public int getUserId() {
+        return userId;
+    }
+
+}
@@ -40,19 +40,28 @@ public enum MainIncomeType {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MainIncomeType.class);
 
+    /**
+     * Convert the value used by Zonky API to the enum.
+     *
+     * @param id Name of the income type, as used by Zonky API.
+     * @return {@link #OTHERS_MAIN} if the value is not recognized.
+     */
+    public static MainIncomeType fromZonkyValue(final String id) {
+        try {
+            return MainIncomeType.valueOf(id);
+        } catch (final IllegalArgumentException | NullPointerException ex) { // don't fail on this unimportant enum
+            MainIncomeType.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
+            return MainIncomeType.OTHERS_MAIN;
+        }
+    }
+
     static class MainIncomeTypeDeserializer extends JsonDeserializer<MainIncomeType> {
 
         @Override
         public MainIncomeType deserialize(final JsonParser jsonParser,
                                           final DeserializationContext deserializationContext)
                 throws IOException {
-            final String id = jsonParser.getText();
-            try {
-                return MainIncomeType.valueOf(id);
-            } catch (final IllegalArgumentException ex) { // whatever went wrong, don't fail on this unimportant enum
-                MainIncomeType.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
-                return MainIncomeType.OTHERS_MAIN;
-            }
+            return MainIncomeType.fromZonkyValue(jsonParser.getText());
         }
 
     }
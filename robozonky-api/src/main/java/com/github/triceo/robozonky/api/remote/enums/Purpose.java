@@ -32,19 +32,28 @@ public enum Purpose {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Purpose.class);
 
+    /**
+     * Convert the value used by Zonky API to the enum.
+     *
+     * @param id Purpose ID, as used by Zonky API.
+     * @return {@link #JINE} if the value is not recognized.
+     */
+    public static Purpose fromZonkyValue(final String id) {
+        try {
+            final int actualId = Integer.parseInt(id) - 1; // purposes in Zonky API are indexed from 1
+            return Purpose.values()[actualId];
+        } catch (final RuntimeException ex) { // whatever went wrong, don't fail on this unimportant enum
+            Purpose.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
+            return Purpose.JINE;
+        }
+    }
+
     static class PurposeDeserializer extends JsonDeserializer<Purpose> {
 
         @Override
         public Purpose deserialize(final JsonParser jsonParser, final DeserializationContext deserializationContext)
                 throws IOException {
-            final String id = jsonParser.getText();
-            try {
-                final int actualId = Integer.parseInt(id) - 1; // purposes in Zonky API are indexed from 1
-                return Purpose.values()[actualId];
-            } catch (final RuntimeException ex) { // whatever went wrong, don't fail on this unimportant enum
-                Purpose.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
-                return Purpose.JINE;
-            }
+            return Purpose.fromZonkyValue(jsonParser.getText());
         }
 
     }
@@ -37,19 +37,28 @@ public enum Region {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Region.class);
 
+    /**
+     * Convert the value used by Zonky API to the enum.
+     *
+     * @param id Region ID, as used by Zonky API.
+     * @return {@link #UNKNOWN} if the value is not recognized.
+     */
+    public static Region fromZonkyValue(final String id) {
+        try {
+            final int actualId = Integer.parseInt(id) - 1; // regions in Zonky API are indexed from 1
+            return Region.values()[actualId];
+        } catch (final RuntimeException ex) { // whatever went wrong, don't fail on this unimportant enum
+            Region.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
+            return Region.UNKNOWN;
+        }
+    }
+
     static class RegionDeserializer extends JsonDeserializer<Region> {
 
         @Override
         public Region deserialize(final JsonParser jsonParser, final DeserializationContext deserializationContext)
                 throws IOException {
-            final String id = jsonParser.getText();
-            try {
-                final int actualId = Integer.parseInt(id) - 1; // regions in Zonky API are indexed from 1
-                return Region.values()[actualId];
-            } catch (final RuntimeException ex) { // whatever went wrong, don't fail on this unimportant enum
-                Region.LOGGER.warn("Unknown value '{}', API may be incomplete.", id);
-                return Region.UNKNOWN;
-            }
+            return Region.fromZonkyValue(jsonParser.getText());
         }
 
     }
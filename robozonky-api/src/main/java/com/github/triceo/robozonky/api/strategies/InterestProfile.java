@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.api.strategies;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+
+/**
+ * Describes the loans that an {@link InvestmentStrategy} may ever recommend, regardless of the portfolio. Loans outside
+ * of the profile need not be retrieved from the marketplace at all. See
+ * {@link InvestmentStrategy#getInterestProfile()}.
+ */
+public final class InterestProfile {
+
+    private final Set<Rating> ratings;
+    private final int minimumTermInMonths, maximumTermInMonths, minimumRemainingInvestment;
+
+    /**
+     *
+     * @param ratings Ratings of the loans that may be recommended. Must not be empty.
+     * @param minimumTermInMonths Shortest acceptable term, inclusive.
+     * @param maximumTermInMonths Longest acceptable term, inclusive. {@link Integer#MAX_VALUE} if unbounded.
+     * @param minimumRemainingInvestment Least remaining investment in CZK that a loan must have, inclusive.
+     */
+    public InterestProfile(final Collection<Rating> ratings, final int minimumTermInMonths,
+                           final int maximumTermInMonths, final int minimumRemainingInvestment) {
+        if (ratings.isEmpty()) {
+            throw new IllegalArgumentException("At least one rating must be acceptable.");
+        } else if (minimumTermInMonths > maximumTermInMonths) {
+            throw new IllegalArgumentException("Minimum term must not be larger than maximum term.");
+        }
+        this.ratings = EnumSet.copyOf(ratings);
+        this.minimumTermInMonths = Math.max(0, minimumTermInMonths);
+        this.maximumTermInMonths = maximumTermInMonths;
+        this.minimumRemainingInvestment = Math.max(0, minimumRemainingInvestment);
+    }
+
+    public Set<Rating> getRatings() {
+        return Collections.unmodifiableSet(ratings);
+    }
+
+    public int getMinimumTermInMonths() {
+        return minimumTermInMonths;
+    }
+
+    public int getMaximumTermInMonths() {
+        return maximumTermInMonths;
+    }
+
+    public boolean isMaximumTermBounded() {
+        return maximumTermInMonths < Integer.MAX_VALUE;
+    }
+
+    public int getMinimumRemainingInvestment() {
+        return minimumRemainingInvestment;
+    }
+
+    /**
+     *
+     * @param loan Loan to check.
+     * @return True if the loan is within the profile.
+     */
+    public boolean isInterestedIn(final LoanSummary loan) {
+        final int term = loan.getTermInMonths();
+        return ratings.contains(loan.getRating()) && term >= minimumTermInMonths && term <= maximumTermInMonths &&
+                loan.getRemainingInvestment() >= minimumRemainingInvestment;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InterestProfile)) {
+            return false;
+        }
+        final InterestProfile that = (InterestProfile) o;
+        return minimumTermInMonths == that.minimumTermInMonths && maximumTermInMonths == that.maximumTermInMonths &&
+                minimumRemainingInvestment == that.minimumRemainingInvestment && Objects.equals(ratings, that.ratings);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ratings, minimumTermInMonths, maximumTermInMonths, minimumRemainingInvestment);
+    }
+
+    @Override
+    public String toString() {
+        return "InterestProfile{" +
+                "ratings=" + ratings +
+                ", minimumTermInMonths=" + minimumTermInMonths +
+                ", maximumTermInMonths=" + maximumTermInMonths +
+                ", minimumRemainingInvestment=" + minimumRemainingInvestment +
+                '}';
+    }
+}
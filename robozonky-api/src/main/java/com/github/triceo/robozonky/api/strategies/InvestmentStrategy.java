@@ -18,6 +18,7 @@ package com.github.triceo.robozonky.api.strategies;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Determines which loans will be invested into, and how much. What the strategy does or does not allow depends on the
@@ -37,4 +38,14 @@ public interface InvestmentStrategy {
      */
     List<Recommendation> recommend(Collection<LoanDescriptor> availableLoans, PortfolioOverview portfolio);
 
+    /**
+     * Describe the loans that this strategy may ever recommend, so that marketplaces may avoid retrieving the others.
+     * Strategies must not rely on this, as they may still be given loans outside of the profile.
+     *
+     * @return Empty if the strategy may recommend any loan, or if it can not tell.
+     */
+    default Optional<InterestProfile> getInterestProfile() {
+        return Optional.empty();
+    }
+
 }
@@ -23,31 +23,31 @@ import java.util.Objects;
 import java.util.Optional;
 
 import com.github.triceo.robozonky.api.confirmations.ConfirmationProvider;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.internal.api.Defaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Carries metadata regarding a {@link Loan}.
+ * Carries metadata regarding a {@link LoanSummary}.
  */
 public final class LoanDescriptor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoanDescriptor.class);
 
-    private final Loan loan;
+    private final LoanSummary loan;
     private final OffsetDateTime captchaExpirationDateTime;
 
-    public LoanDescriptor(final Loan loan, final TemporalAmount captchaProtectionDuration) {
+    public LoanDescriptor(final LoanSummary loan, final TemporalAmount captchaProtectionDuration) {
         this.loan = loan;
         this.captchaExpirationDateTime = loan.getDatePublished().plus(captchaProtectionDuration);
     }
 
-    public LoanDescriptor(final Loan loan) {
+    public LoanDescriptor(final LoanSummary loan) {
         this(loan, Duration.ZERO);
     }
 
-    public Loan getLoan() {
+    public LoanSummary getLoan() {
         return this.loan;
     }
 
@@ -21,13 +21,12 @@ import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.RiskPortfolio;
 import com.github.triceo.robozonky.api.remote.entities.Statistics;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
 
@@ -37,8 +36,14 @@ import com.github.triceo.robozonky.api.remote.enums.Rating;
  */
 public class PortfolioOverview {
 
-    private static int sum(final Collection<Integer> vals) {
-        return vals.stream().reduce(0, (a, b) -> a + b);
+    private static final Rating[] RATINGS = Rating.values();
+    /**
+     * Investments without a rating are only counted towards the total. They are stored at this index.
+     */
+    private static final int UNRATED = PortfolioOverview.RATINGS.length;
+
+    private static int index(final Rating r) {
+        return r == null ? PortfolioOverview.UNRATED : r.ordinal();
     }
 
     /**
@@ -51,44 +56,50 @@ public class PortfolioOverview {
      */
     public static PortfolioOverview calculate(final BigDecimal balance, final Statistics stats,
                                               final Collection<Investment> investments) {
+        final int[] amounts = new int[PortfolioOverview.RATINGS.length + 1];
         // first figure out how much we have in outstanding loans
-        final Map<Rating, Integer> amounts = stats.getRiskPortfolio().stream().collect(
-                Collectors.toMap(RiskPortfolio::getRating, p -> p.getTotalAmount() - p.getPaid())
-        );
+        stats.getRiskPortfolio().forEach(p -> amounts[PortfolioOverview.index(p.getRating())] +=
+                p.getTotalAmount() - p.getPaid());
         // then make sure the share reflects investments made by RoboZonky which have not yet been reflected in the API
-        investments.forEach(previousInvestment -> {
-            final Rating r = previousInvestment.getRating();
-            amounts.compute(r, (k, v) -> (v == null ? 0 : v) + previousInvestment.getAmount());
-        });
-        return new PortfolioOverview(balance, amounts);
+        investments.forEach(i -> amounts[PortfolioOverview.index(i.getRating())] += i.getAmount());
+        return new PortfolioOverview(balance.intValue(), amounts);
     }
 
-    private final int czkAvailable, czkInvested, czkExpectedYield;
-    private final Map<Rating, Integer> czkInvestedPerRating;
-    private final Map<Rating, BigDecimal> sharesOnInvestment;
-    private final BigDecimal relativeExpectedYield;
+    private final int czkAvailable, czkInvested;
+    private final int[] czkInvestedPerRating;
+    private volatile Map<Rating, BigDecimal> sharesOnInvestment; // lazily calculated, as it is the expensive part
+    private volatile BigDecimal relativeExpectedYield;
 
-    private PortfolioOverview(final BigDecimal czkAvailable, final Map<Rating, Integer> czkInvestedPerRating) {
-        this.czkAvailable = czkAvailable.intValue();
-        this.czkInvested = PortfolioOverview.sum(czkInvestedPerRating.values());
+    private PortfolioOverview(final int czkAvailable, final int[] czkInvestedPerRating) {
+        this.czkAvailable = czkAvailable;
         this.czkInvestedPerRating = czkInvestedPerRating;
+        this.czkInvested = IntStream.of(czkInvestedPerRating).sum();
+    }
+
+    /**
+     * Prepare a new portfolio overview, as if a given investment was made on top of this one. This is much cheaper than
+     * calling {@link #calculate(BigDecimal, Statistics, Collection)} again with the new investment included.
+     *
+     * @param investment The investment just made, which also reduced the available balance.
+     * @return Never null.
+     */
+    public PortfolioOverview add(final Investment investment) {
+        final int[] amounts = Arrays.copyOf(this.czkInvestedPerRating, this.czkInvestedPerRating.length);
+        amounts[PortfolioOverview.index(investment.getRating())] += investment.getAmount();
+        return new PortfolioOverview(this.czkAvailable - investment.getAmount(), amounts);
+    }
+
+    private Map<Rating, BigDecimal> calculateSharesOnInvestment() {
         if (this.czkInvested == 0) {
-            this.sharesOnInvestment = Collections.emptyMap();
-        } else {
-            this.sharesOnInvestment = Arrays.stream(Rating.values()).collect(Collectors.toMap(
-                    Function.identity(),
-                    r -> {
-                        final BigDecimal invested = BigDecimal.valueOf(this.czkInvested);
-                        final BigDecimal investedPerRating = BigDecimal.valueOf(this.getCzkInvested(r));
-                        return investedPerRating.divide(invested, 4, RoundingMode.HALF_EVEN);
-                    })
-            );
+            return Collections.emptyMap();
         }
-        this.relativeExpectedYield = Stream.of(Rating.values())
-                .map(r -> r.getExpectedYield().multiply(this.getShareOnInvestment(r)))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        this.czkExpectedYield =
-                this.relativeExpectedYield.multiply(BigDecimal.valueOf(this.czkInvested)).intValue();
+        final BigDecimal invested = BigDecimal.valueOf(this.czkInvested);
+        final Map<Rating, BigDecimal> result = new EnumMap<>(Rating.class);
+        for (final Rating r : PortfolioOverview.RATINGS) {
+            final BigDecimal investedPerRating = BigDecimal.valueOf(this.getCzkInvested(r));
+            result.put(r, investedPerRating.divide(invested, 4, RoundingMode.HALF_EVEN));
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     /**
@@ -113,7 +124,7 @@ public class PortfolioOverview {
      * @return Amount in CZK.
      */
     public int getCzkInvested(final Rating r) {
-        return this.czkInvestedPerRating.getOrDefault(r, 0);
+        return this.czkInvestedPerRating[PortfolioOverview.index(r)];
     }
 
     /**
@@ -130,6 +141,9 @@ public class PortfolioOverview {
      * @return All ratings will be present.
      */
     public Map<Rating, BigDecimal> getSharesOnInvestment() {
+        if (this.sharesOnInvestment == null) { // the result is always the same, no need to synchronize
+            this.sharesOnInvestment = this.calculateSharesOnInvestment();
+        }
         return this.sharesOnInvestment;
     }
 
@@ -138,7 +152,7 @@ public class PortfolioOverview {
      * @return Amount in CZK of the expected yield in the next 12 months.
      */
     public int getCzkExpectedYield() {
-        return czkExpectedYield;
+        return this.getRelativeExpectedYield().multiply(BigDecimal.valueOf(this.czkInvested)).intValue();
     }
 
     /**
@@ -146,6 +160,11 @@ public class PortfolioOverview {
      * @return Expected yield in the next 12 months, as a percentage.
      */
     public BigDecimal getRelativeExpectedYield() {
-        return relativeExpectedYield;
+        if (this.relativeExpectedYield == null) {
+            this.relativeExpectedYield = Stream.of(PortfolioOverview.RATINGS)
+                    .map(r -> r.getExpectedYield().multiply(this.getShareOnInvestment(r)))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+        return this.relativeExpectedYield;
     }
 }
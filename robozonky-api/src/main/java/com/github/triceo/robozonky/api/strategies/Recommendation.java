@@ -19,11 +19,11 @@ package com.github.triceo.robozonky.api.strategies;
 import java.util.Objects;
 
 import com.github.triceo.robozonky.api.confirmations.ConfirmationProvider;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.internal.api.Defaults;
 
 /**
- * Represents the decision of the {@link InvestmentStrategy} to recommend a {@link Loan} for investing.
+ * Represents the decision of the {@link InvestmentStrategy} to recommend a {@link LoanSummary} for investing.
  */
 public final class Recommendation {
 
@@ -69,6 +69,10 @@ public final class Defaults {
         }
     }
 
+    private static String getPropertyValue(final String propertyName, final String defaultValue) {
+        return System.getProperty(propertyName, defaultValue);
+    }
+
     private static boolean getPropertyValue(final String propertyName, final boolean defaultValue) {
         final String value = System.getProperty(propertyName, String.valueOf(defaultValue));
         try {
@@ -79,7 +83,7 @@ public final class Defaults {
     }
 
     /**
-     * When set to true, this is essentially a controlled memory leak. Generally only useful for testing.
+     * When set to true, the most recent events will be kept in memory, up to {@link #getEventJournalCapacity()}.
      * @return
      */
     public static boolean isDebugEventStorageEnabled() {
@@ -102,4 +106,136 @@ public final class Defaults {
         return Defaults.getPropertyValue("robozonky.default.dry_run_balance", -1);
     }
 
+    /**
+     * How long to remember loans invested into during this run of the daemon, after they left the marketplace.
+     * @return Negative if such loans should never be forgotten.
+     */
+    public static int getInvestedLoanEvictionInMinutes() {
+        return Defaults.getPropertyValue("robozonky.default.invested_loan_eviction_minutes", 60);
+    }
+
+    /**
+     * How many investments to attempt at the same time when there are more loans to invest into.
+     * @return 1 to invest strictly one after another.
+     */
+    public static int getMaximumConcurrentInvestments() {
+        return Defaults.getPropertyValue("robozonky.default.concurrent_investments", 1);
+    }
+
+    /**
+     * How long to keep loans retrieved from Zonky before they need to be retrieved again.
+     * @return Time in seconds.
+     */
+    public static int getLoanCacheTimeToLiveInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.loan_cache_ttl_seconds", 60);
+    }
+
+    /**
+     * Maximum number of loans to keep in the cache.
+     * @return Least recently used loans will be evicted over this size.
+     */
+    public static int getLoanCacheMaximumSize() {
+        return Defaults.getPropertyValue("robozonky.default.loan_cache_size", 1000);
+    }
+
+    /**
+     * How long to keep account information, such as balance or statistics, before retrieving it from Zonky again.
+     * @return Time in seconds.
+     */
+    public static int getAccountRefreshIntervalInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.account_refresh_seconds", 300);
+    }
+
+    /**
+     * Whether to invest into loans recommended while protected by CAPTCHA exactly when the protection expires, as
+     * opposed to on the next marketplace check. Disabled unless explicitly enabled.
+     * @return True if enabled.
+     */
+    public static boolean isCaptchaSniperEnabled() {
+        return Defaults.getPropertyValue("robozonky.default.captcha_sniper_enabled", false);
+    }
+
+    /**
+     * Longest the daemon will wait between marketplace checks when the marketplace is quiet. The shortest is given on
+     * the command line.
+     * @return Time in seconds. When not over the shortest, marketplace checks are always made the shortest apart.
+     */
+    public static int getMaximumMarketplaceCheckDelayInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.marketplace_check_max_seconds", 60);
+    }
+
+    /**
+     * When checking several marketplaces at once, how long to wait for the slower ones before treating them as lagging.
+     * @return Time in seconds.
+     */
+    public static int getMarketplaceSourceTimeoutInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.marketplace_source_timeout_seconds", 10);
+    }
+
+    /**
+     * Maximum number of HTTP connections kept open to all remote servers combined.
+     * @return Number of connections.
+     */
+    public static int getMaximumHttpConnections() {
+        return Defaults.getPropertyValue("robozonky.default.http_connections_total", 20);
+    }
+
+    /**
+     * Maximum number of HTTP connections kept open to any single remote server.
+     * @return Number of connections.
+     */
+    public static int getMaximumHttpConnectionsPerRoute() {
+        return Defaults.getPropertyValue("robozonky.default.http_connections_per_route", 10);
+    }
+
+    /**
+     * How long an HTTP connection may stay unused before it is closed.
+     * @return Time in seconds.
+     */
+    public static int getHttpConnectionIdleTimeoutInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.http_idle_seconds", 60);
+    }
+
+    /**
+     * Maximum size of HTTP responses kept in memory by the HTTP cache shared by all REST clients.
+     * @return Size in kilobytes.
+     */
+    public static int getHttpCacheSizeInKilobytes() {
+        return Defaults.getPropertyValue("robozonky.default.http_cache_kilobytes", 2048);
+    }
+
+    /**
+     * How long before a known important moment, such as CAPTCHA protection expiring, to open a connection to Zonky so
+     * that the subsequent requests need not wait for the TLS handshake.
+     * @return Time in seconds. Zero or less to disable.
+     */
+    public static int getHttpConnectionWarmUpInSeconds() {
+        return Defaults.getPropertyValue("robozonky.default.http_warmup_seconds", 5);
+    }
+
+    /**
+     * Maximum number of events waiting to be handled by any single event listener.
+     * @return Number of events.
+     */
+    public static int getEventQueueCapacity() {
+        return Defaults.getPropertyValue("robozonky.default.event_queue_capacity", 1000);
+    }
+
+    /**
+     * What to do with an event when an event listener already has {@link #getEventQueueCapacity()} events waiting.
+     * @return "block" to wait until there is space, "drop_newest" to throw away the new event, "drop_oldest" to throw
+     * away the event that has been waiting the longest.
+     */
+    public static String getEventQueueOverflowPolicy() {
+        return Defaults.getPropertyValue("robozonky.default.event_queue_overflow", "block");
+    }
+
+    /**
+     * Maximum number of events kept in memory, see {@link #isDebugEventStorageEnabled()}.
+     * @return Number of events.
+     */
+    public static int getEventJournalCapacity() {
+        return Defaults.getPropertyValue("robozonky.default.event_journal_capacity", 1000);
+    }
+
 }
@@ -47,6 +47,10 @@ public enum State {
             this.classIdentifier = clz.getName();
         }
 
+        ClassSpecificState(final Class<?> clz, final String namespace) {
+            this.classIdentifier = clz.getName() + "@" + namespace;
+        }
+
         /**
          * Retrieve a value from this class-specific state storage.
          *
@@ -118,6 +122,17 @@ public enum State {
         return new State.ClassSpecificState(clz);
     }
 
+    /**
+     * Get state storage for a particular class, isolated from the storage of any other namespace of the same class.
+     * @param clz Namespace for the state storage. It is recommended for this to be the calling class.
+     * @param namespace Further distinguishes the state storage, such as when the calling class acts on behalf of
+     * several users.
+     * @return State storage unique for the class and the namespace.
+     */
+    public synchronized State.ClassSpecificState forClass(final Class<?> clz, final String namespace) {
+        return new State.ClassSpecificState(clz, namespace);
+    }
+
     synchronized boolean containskey(final String section, final String key) {
         final boolean hasSection = this.stateFile.keySet().contains(section);
         return hasSection && this.stateFile.get(section).containsKey(key);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.api.remote.entities;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import com.github.triceo.robozonky.api.remote.enums.MainIncomeType;
+import com.github.triceo.robozonky.api.remote.enums.Purpose;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.remote.enums.Region;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class LoanDecoderTest {
+
+    private static final String LOAN = "{\"id\":123,\"url\":\"https://app.zonky.cz/loan/123\",\"name\":\"Auto\"," +
+            "\"story\":\"A very long story.\",\"nickName\":\"zonky0\",\"termInMonths\":48,\"interestRate\":0.0999," +
+            "\"rating\":\"B\",\"topped\":null,\"amount\":200000.0,\"remainingInvestment\":12345.0," +
+            "\"investmentRate\":0.9,\"covered\":false,\"datePublished\":\"2017-03-01T12:00:00.000+01:00\"," +
+            "\"published\":true,\"deadline\":\"2017-03-03T12:00:00.000+01:00\",\"investmentsCount\":250," +
+            "\"questionsCount\":2,\"region\":\"7\",\"mainIncomeType\":\"EMPLOYMENT\",\"purpose\":\"1\"," +
+            "\"userId\":456,\"photos\":[{\"name\":\"photo\",\"url\":\"/loans/123/photos/1\"}]," +
+            "\"myInvestment\":null,\"someNewProperty\":{\"a\":[1,2,3]}}";
+
+    private static InputStream toStream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(Defaults.CHARSET));
+    }
+
+    @Test
+    public void decodesLoans() throws IOException {
+        final List<LoanSummary> loans =
+                new LoanDecoder().decode(LoanDecoderTest.toStream("[" + LoanDecoderTest.LOAN + ", {\"id\":1}]"));
+        Assertions.assertThat(loans).hasSize(2);
+        final LoanSummary loan = loans.get(0);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(loan.getId()).isEqualTo(123);
+            softly.assertThat(loan.getName()).isEqualTo("Auto");
+            softly.assertThat(loan.getNickName()).isEqualTo("zonky0");
+            softly.assertThat(loan.getTermInMonths()).isEqualTo(48);
+            softly.assertThat(loan.getInterestRate()).isEqualByComparingTo(new BigDecimal("0.0999"));
+            softly.assertThat(loan.getRating()).isEqualTo(Rating.B);
+            softly.assertThat(loan.isTopped()).isFalse();
+            softly.assertThat(loan.getAmount()).isEqualTo(200000.0);
+            softly.assertThat(loan.getRemainingInvestment()).isEqualTo(12345.0);
+            softly.assertThat(loan.isCovered()).isFalse();
+            softly.assertThat(loan.isPublished()).isTrue();
+            softly.assertThat(loan.getDatePublished()).isEqualTo(OffsetDateTime.parse("2017-03-01T12:00:00+01:00"));
+            softly.assertThat(loan.getDeadline()).isEqualTo(OffsetDateTime.parse("2017-03-03T12:00:00+01:00"));
+            softly.assertThat(loan.getInvestmentsCount()).isEqualTo(250);
+            softly.assertThat(loan.getRegion()).isEqualTo(Region.LIBERECKY);
+            softly.assertThat(loan.getMainIncomeType()).isEqualTo(MainIncomeType.EMPLOYMENT);
+            softly.assertThat(loan.getPurpose()).isEqualTo(Purpose.AUTO_MOTO);
+            softly.assertThat(loan.getUserId()).isEqualTo(456);
+            // skipped
+            softly.assertThat(loan).isNotInstanceOf(Loan.class); // story, photos etc. need to be retrieved separately
+        });
+        Assertions.assertThat(loans.get(1).getDeadline()).isEqualTo(OffsetDateTime.MAX);
+    }
+
+    @Test
+    public void decodesEmpty() throws IOException {
+        Assertions.assertThat(new LoanDecoder().decode(LoanDecoderTest.toStream("[]"))).isEmpty();
+    }
+
+    @Test
+    public void failsOnUnknownRating() {
+        Assertions.assertThatThrownBy(() -> new LoanDecoder().decode(LoanDecoderTest.toStream("[{\"rating\":\"X\"}]")))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void failsOnNonArray() {
+        Assertions.assertThatThrownBy(() -> new LoanDecoder().decode(LoanDecoderTest.toStream("{\"id\":1}")))
+                .isInstanceOf(IOException.class);
+    }
+
+}
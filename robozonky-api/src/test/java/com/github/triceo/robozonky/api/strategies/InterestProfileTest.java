@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.api.strategies;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class InterestProfileTest {
+
+    private static LoanSummary mockLoan(final Rating rating, final int term, final double remaining) {
+        final LoanSummary loan = Mockito.mock(LoanSummary.class);
+        Mockito.when(loan.getRating()).thenReturn(rating);
+        Mockito.when(loan.getTermInMonths()).thenReturn(term);
+        Mockito.when(loan.getRemainingInvestment()).thenReturn(remaining);
+        return loan;
+    }
+
+    @Test
+    public void interest() {
+        final InterestProfile p = new InterestProfile(EnumSet.of(Rating.A, Rating.B), 6, 24, 400);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(p.isMaximumTermBounded()).isTrue();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.A, 6, 400))).isTrue();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.B, 24, 1000))).isTrue();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.C, 12, 1000))).isFalse();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.A, 5, 1000))).isFalse();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.A, 25, 1000))).isFalse();
+            softly.assertThat(p.isInterestedIn(InterestProfileTest.mockLoan(Rating.A, 12, 399))).isFalse();
+        });
+    }
+
+    @Test
+    public void getters() {
+        final InterestProfile p = new InterestProfile(EnumSet.of(Rating.A, Rating.B), -1, Integer.MAX_VALUE, -200);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(p.getRatings()).containsOnly(Rating.A, Rating.B);
+            softly.assertThat(p.getMinimumTermInMonths()).isEqualTo(0);
+            softly.assertThat(p.getMaximumTermInMonths()).isEqualTo(Integer.MAX_VALUE);
+            softly.assertThat(p.isMaximumTermBounded()).isFalse();
+            softly.assertThat(p.getMinimumRemainingInvestment()).isEqualTo(0);
+        });
+        Assertions.assertThatThrownBy(() -> p.getRatings().add(Rating.C))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void noRatings() {
+        Assertions.assertThatThrownBy(() -> new InterestProfile(Collections.emptySet(), 0, Integer.MAX_VALUE, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void wrongTerms() {
+        Assertions.assertThatThrownBy(() -> new InterestProfile(EnumSet.of(Rating.A), 2, 1, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void equality() {
+        final InterestProfile p = new InterestProfile(EnumSet.of(Rating.A), 0, Integer.MAX_VALUE, 200);
+        final InterestProfile p2 = new InterestProfile(Collections.singleton(Rating.A), 0, Integer.MAX_VALUE, 200);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(p).isEqualTo(p);
+            softly.assertThat(p).isEqualTo(p2);
+            softly.assertThat(p.hashCode()).isEqualTo(p2.hashCode());
+            softly.assertThat(p).isNotEqualTo(null);
+            softly.assertThat(p).isNotEqualTo(p.toString());
+            softly.assertThat(p).isNotEqualTo(new InterestProfile(EnumSet.of(Rating.B), 0, Integer.MAX_VALUE, 200));
+            softly.assertThat(p).isNotEqualTo(new InterestProfile(EnumSet.of(Rating.A), 1, Integer.MAX_VALUE, 200));
+            softly.assertThat(p).isNotEqualTo(new InterestProfile(EnumSet.of(Rating.A), 0, 12, 200));
+            softly.assertThat(p).isNotEqualTo(new InterestProfile(EnumSet.of(Rating.A), 0, Integer.MAX_VALUE, 400));
+            softly.assertThat(p.hashCode())
+                    .isNotEqualTo(new InterestProfile(EnumSet.of(Rating.A), 0, 12, 200).hashCode());
+        });
+    }
+
+}
@@ -103,5 +103,30 @@ public class PortfolioOverviewTest {
         PortfolioOverviewTest.assertProperRatingShare(result, Rating.C, 0, newTotalPie);
     }
 
+    @Test
+    public void addingInvestmentMatchesRecalculation() {
+        final RiskPortfolio riskAA = new RiskPortfolio(Rating.AA, 0, 300, 0);
+        final RiskPortfolio riskD = new RiskPortfolio(Rating.D, 0, 100, 0);
+        final Statistics stats = Mockito.mock(Statistics.class);
+        Mockito.when(stats.getRiskPortfolio()).thenReturn(Arrays.asList(riskAA, riskD));
+        final BigDecimal balance = BigDecimal.valueOf(10000);
+        final PortfolioOverview original = PortfolioOverview.calculate(balance, stats, Collections.emptyList());
+        final List<Investment> investments = PortfolioOverviewTest.getMockInvestmentWithBalance(400);
+        final Investment i = investments.get(0);
+        Mockito.when(i.getRating()).thenReturn(Rating.D);
+        final PortfolioOverview added = original.add(i);
+        final PortfolioOverview recalculated =
+                PortfolioOverview.calculate(balance.subtract(BigDecimal.valueOf(400)), stats, investments);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(added.getCzkAvailable()).isEqualTo(recalculated.getCzkAvailable());
+            softly.assertThat(added.getCzkInvested()).isEqualTo(recalculated.getCzkInvested());
+            softly.assertThat(added.getSharesOnInvestment()).isEqualTo(recalculated.getSharesOnInvestment());
+            softly.assertThat(added.getRelativeExpectedYield()).isEqualTo(recalculated.getRelativeExpectedYield());
+            softly.assertThat(added.getCzkExpectedYield()).isEqualTo(recalculated.getCzkExpectedYield());
+            // the original is not modified
+            softly.assertThat(original.getCzkInvested(Rating.D)).isEqualTo(100);
+            softly.assertThat(original.getCzkAvailable()).isEqualTo(10000);
+        });
+    }
 
 }
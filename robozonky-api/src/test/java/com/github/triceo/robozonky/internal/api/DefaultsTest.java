@@ -35,6 +35,22 @@ public class DefaultsTest {
             softly.assertThat(Defaults.getRemoteResourceRefreshIntervalInMinutes()).isEqualTo(5);
             softly.assertThat(Defaults.getCaptchaDelayInSeconds()).isEqualTo(120);
             softly.assertThat(Defaults.getDefaultDryRunBalance()).isEqualTo(-1);
+            softly.assertThat(Defaults.getInvestedLoanEvictionInMinutes()).isEqualTo(60);
+            softly.assertThat(Defaults.getMaximumConcurrentInvestments()).isEqualTo(1);
+            softly.assertThat(Defaults.getLoanCacheTimeToLiveInSeconds()).isEqualTo(60);
+            softly.assertThat(Defaults.getLoanCacheMaximumSize()).isEqualTo(1000);
+            softly.assertThat(Defaults.getAccountRefreshIntervalInSeconds()).isEqualTo(300);
+            softly.assertThat(Defaults.getMaximumHttpConnections()).isEqualTo(20);
+            softly.assertThat(Defaults.getMaximumHttpConnectionsPerRoute()).isEqualTo(10);
+            softly.assertThat(Defaults.getHttpConnectionIdleTimeoutInSeconds()).isEqualTo(60);
+            softly.assertThat(Defaults.getHttpConnectionWarmUpInSeconds()).isEqualTo(5);
+            softly.assertThat(Defaults.isCaptchaSniperEnabled()).isFalse();
+            softly.assertThat(Defaults.getMaximumMarketplaceCheckDelayInSeconds()).isEqualTo(60);
+            softly.assertThat(Defaults.getHttpCacheSizeInKilobytes()).isEqualTo(2048);
+            softly.assertThat(Defaults.getMarketplaceSourceTimeoutInSeconds()).isEqualTo(10);
+            softly.assertThat(Defaults.getEventQueueCapacity()).isEqualTo(1000);
+            softly.assertThat(Defaults.getEventQueueOverflowPolicy()).isEqualTo("block");
+            softly.assertThat(Defaults.getEventJournalCapacity()).isEqualTo(1000);
         });
     }
 
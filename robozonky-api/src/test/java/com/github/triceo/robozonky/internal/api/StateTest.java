@@ -68,6 +68,20 @@ public class StateTest {
         Assertions.assertThat(first.unsetValue(key)).isFalse();
     }
 
+    @Test
+    public void isolatedNamespaces() {
+        final String key = UUID.randomUUID().toString();
+        final State.ClassSpecificState first = State.INSTANCE.forClass(StateTest.class, "someone@somewhere.cz");
+        first.setValue(key, "first");
+        final State.ClassSpecificState second = State.INSTANCE.forClass(StateTest.class, "someone@elsewhere.cz");
+        second.setValue(key, "second");
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(first.getValue(key)).contains("first");
+            softly.assertThat(second.getValue(key)).contains("second");
+            softly.assertThat(State.INSTANCE.forClass(StateTest.class).getValue(key)).isEmpty();
+        });
+    }
+
     @Test
     public void gracefullyHandleDeletedState() {
         final State.ClassSpecificState first = State.INSTANCE.forClass(StateTest.class);
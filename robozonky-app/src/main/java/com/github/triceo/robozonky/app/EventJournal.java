@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.github.triceo.robozonky.api.notifications.Event;
+import com.github.triceo.robozonky.api.notifications.InvestmentDelegatedEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentRejectedEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentRequestedEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentSkippedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanRecommendedEvent;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
+
+/**
+ * Remembers the most recent events, up to a fixed capacity. Once full, every new event overwrites the oldest one.
+ * Events may be stored from any number of threads at the same time, without locking.
+ */
+public class EventJournal {
+
+    private static final class Entry {
+
+        private final long sequence;
+        private final Event event;
+
+        public Entry(final long sequence, final Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+
+    }
+
+    private static OptionalInt getLoanId(final Recommendation recommendation) {
+        return OptionalInt.of(recommendation.getLoanDescriptor().getLoan().getId());
+    }
+
+    /**
+     *
+     * @param event Event in question.
+     * @return Empty if the event does not relate to any single loan.
+     */
+    static OptionalInt getLoanId(final Event event) {
+        if (event instanceof LoanArrivedEvent) {
+            return OptionalInt.of(((LoanArrivedEvent) event).getLoanDescriptor().getLoan().getId());
+        } else if (event instanceof LoanRecommendedEvent) {
+            return EventJournal.getLoanId(((LoanRecommendedEvent) event).getRecommendation());
+        } else if (event instanceof InvestmentRequestedEvent) {
+            return EventJournal.getLoanId(((InvestmentRequestedEvent) event).getRecommendation());
+        } else if (event instanceof InvestmentDelegatedEvent) {
+            return EventJournal.getLoanId(((InvestmentDelegatedEvent) event).getRecommendation());
+        } else if (event instanceof InvestmentRejectedEvent) {
+            return EventJournal.getLoanId(((InvestmentRejectedEvent) event).getRecommendation());
+        } else if (event instanceof InvestmentSkippedEvent) {
+            return EventJournal.getLoanId(((InvestmentSkippedEvent) event).getRecommendation());
+        } else if (event instanceof InvestmentMadeEvent) {
+            return OptionalInt.of(((InvestmentMadeEvent) event).getInvestment().getLoanId());
+        } else {
+            return OptionalInt.empty();
+        }
+    }
+
+    private final AtomicReferenceArray<EventJournal.Entry> entries;
+    private final AtomicLong nextSequence = new AtomicLong(0);
+    /**
+     * Entries with a lower sequence number have been cleared and will not be reported.
+     */
+    private volatile long firstSequence = 0;
+
+    public EventJournal(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int getCapacity() {
+        return entries.length();
+    }
+
+    private int getIndex(final long sequence) {
+        return (int) (sequence % entries.length());
+    }
+
+    public void add(final Event event) {
+        final long sequence = nextSequence.getAndIncrement();
+        final int index = this.getIndex(sequence);
+        final EventJournal.Entry entry = new EventJournal.Entry(sequence, event);
+        while (true) {
+            final EventJournal.Entry current = entries.get(index);
+            if (current != null && current.getSequence() > sequence) { // a newer event got there first
+                return;
+            } else if (entries.compareAndSet(index, current, entry)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Forget all events stored so far.
+     */
+    public void clear() {
+        firstSequence = nextSequence.get();
+    }
+
+    /**
+     * Events that are being overwritten while this runs may or may not be included.
+     *
+     * @param filter Only include events that match.
+     * @return Matching events, oldest first.
+     */
+    public List<Event> getMatching(final Predicate<Event> filter) {
+        final long last = nextSequence.get();
+        final long first = Math.max(firstSequence, last - entries.length());
+        final List<Event> result = new ArrayList<>((int) Math.max(0, last - first));
+        for (long sequence = first; sequence < last; sequence++) {
+            final EventJournal.Entry entry = entries.get(this.getIndex(sequence));
+            // slot may still hold an older entry, or already a newer one
+            if (entry == null || entry.getSequence() != sequence) {
+                continue;
+            }
+            final Event event = entry.getEvent();
+            if (filter.test(event)) {
+                result.add(event);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     *
+     * @return All events stored, oldest first.
+     */
+    public List<Event> getAll() {
+        return this.getMatching(e -> true);
+    }
+
+    /**
+     *
+     * @param eventType Type of events to look for, including its subtypes.
+     * @param <E> Type of events to look for.
+     * @return Matching events, oldest first.
+     */
+    public <E extends Event> List<E> getOfType(final Class<E> eventType) {
+        return this.getMatching(eventType::isInstance).stream()
+                .map(eventType::cast)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     *
+     * @param loanId ID of the loan in question.
+     * @return Events related to the loan, oldest first.
+     */
+    public List<Event> getForLoan(final int loanId) {
+        return this.getMatching(e -> {
+            final OptionalInt id = EventJournal.getLoanId(e);
+            return id.isPresent() && id.getAsInt() == loanId;
+        });
+    }
+
+    /**
+     *
+     * @param from Beginning of the time range, inclusive.
+     * @param to End of the time range, exclusive.
+     * @return Events created within the time range, oldest first.
+     */
+    public List<Event> getCreatedBetween(final OffsetDateTime from, final OffsetDateTime to) {
+        return this.getMatching(e -> !e.getCreatedOn().isBefore(from) && e.getCreatedOn().isBefore(to));
+    }
+
+}
@@ -17,13 +17,19 @@
 package com.github.triceo.robozonky.app;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import com.github.triceo.robozonky.api.Refreshable;
@@ -38,7 +44,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Used for registering distributing events to listener registered through {@link ListenerService}.
  *
- * No guarantees are given as to the order in which the listeners will be executed.
+ * Listeners are executed in the background, so that firing an event never waits for slow listeners such as e-mail
+ * notifications. All listeners coming from the same {@link ListenerService} receive events in the order in which they
+ * were fired, regardless of the event type. No guarantees are given as to the order in which listeners from different
+ * services will be executed.
  */
 public enum Events {
 
@@ -47,19 +56,230 @@ public enum Events {
      */
     INSTANCE;
 
+    /**
+     * What to do with an event when a listener already has {@link Defaults#getEventQueueCapacity()} events waiting.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Wait until the listener makes space. No events are lost, but the thread firing the event is held up.
+         */
+        BLOCK,
+        /**
+         * Throw away the event being fired.
+         */
+        DROP_NEWEST,
+        /**
+         * Throw away the event that has been waiting the longest.
+         */
+        DROP_OLDEST;
+
+        static Events.OverflowPolicy getDefault() {
+            final String policy = Defaults.getEventQueueOverflowPolicy();
+            try {
+                return Events.OverflowPolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+            } catch (final IllegalArgumentException ex) {
+                Events.LOGGER.warn("Unknown event queue overflow policy '{}', using {}.", policy,
+                        Events.OverflowPolicy.BLOCK);
+                return Events.OverflowPolicy.BLOCK;
+            }
+        }
+
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(Events.class);
-    private static final List<Event> EVENTS_FIRED = new ArrayList<>();
+    private static final EventJournal JOURNAL = new EventJournal(Defaults.getEventJournalCapacity());
+    /**
+     * Threads are only held while there are events waiting, therefore listeners which have nothing to do cost nothing.
+     */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        final Thread t = new Thread(r, "rzEvents");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Delivers events to all the listeners of a single source, one by one and in the order in which they were fired, no
+     * matter what type they are. Events wait in a bounded queue, which is drained by {@link #WORKERS} whenever it is
+     * not empty.
+     */
+    private static final class Mailbox {
+
+        private final String owner;
+        private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(Defaults.getEventQueueCapacity());
+        private final Events.OverflowPolicy overflowPolicy = Events.OverflowPolicy.getDefault();
+        private final AtomicBoolean isDraining = new AtomicBoolean(false);
+
+        public Mailbox(final Object owner) {
+            this.owner = String.valueOf(owner);
+        }
+
+        private boolean put(final Runnable task) {
+            try {
+                queue.put(task);
+                return true;
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Events.LOGGER.warn("Interrupted while waiting for {}.", owner, ex);
+                return false;
+            }
+        }
+
+        /**
+         * Queue the event for the listener, according to the {@link Events.OverflowPolicy}.
+         *
+         * @param event Event to deliver.
+         * @param task Delivers the event to the listener.
+         */
+        public void deliver(final Event event, final Runnable task) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    if (!queue.offer(task)) {
+                        Events.LOGGER.warn("Too many events waiting for {}, dropping {}.", owner, event);
+                        return;
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!queue.offer(task)) {
+                        if (queue.poll() != null) {
+                            Events.LOGGER.warn("Too many events waiting for {}, dropping the oldest.", owner);
+                        }
+                    }
+                    break;
+                default:
+                    if (!this.put(task)) {
+                        return;
+                    }
+            }
+            this.schedule();
+        }
+
+        /**
+         * Queue the task, waiting for space if necessary.
+         *
+         * @param task Task to execute in the listener's turn.
+         * @return Completes when the task has been executed, or when it could not be queued.
+         */
+        public CompletableFuture<Void> deliverAndNotify(final Runnable task) {
+            final CompletableFuture<Void> handled = new CompletableFuture<>();
+            final boolean isQueued = this.put(() -> {
+                try {
+                    task.run();
+                } finally {
+                    handled.complete(null);
+                }
+            });
+            if (isQueued) {
+                this.schedule();
+            } else {
+                handled.complete(null);
+            }
+            return handled;
+        }
+
+        /**
+         * @return Completes when the listener has handled all the events queued so far.
+         */
+        public CompletableFuture<Void> flush() {
+            return this.deliverAndNotify(() -> {
+                // nothing to do, only waiting for the events queued before
+            });
+        }
+
+        private void schedule() {
+            if (!isDraining.compareAndSet(false, true)) { // a worker is already on it
+                return;
+            }
+            try {
+                Events.WORKERS.execute(this::drain);
+            } catch (final RejectedExecutionException ex) {
+                isDraining.set(false);
+                Events.LOGGER.warn("Failed delivering events to {}.", owner, ex);
+            }
+        }
+
+        private void drain() {
+            do {
+                Runnable task;
+                while ((task = queue.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (final Throwable t) { // otherwise the listener would never be called again
+                        Events.LOGGER.warn("Listener failed: {}.", owner, t);
+                    }
+                }
+                isDraining.set(false);
+                // an event may have been queued after the last poll, but before the flag was reset
+            } while (!queue.isEmpty() && isDraining.compareAndSet(false, true));
+        }
+
+    }
+
+    /**
+     * Listener for a particular event type. Listeners coming from the same source share a {@link Events.Mailbox}, so
+     * that the source receives events of all types in the order in which they were fired.
+     *
+     * @param <E> Event type to deliver.
+     */
+    private static final class Subscriber<E extends Event> {
+
+        private final Refreshable<EventListener<E>> listener;
+        private final Events.Mailbox mailbox;
+
+        public Subscriber(final Refreshable<EventListener<E>> listener, final Events.Mailbox mailbox) {
+            this.listener = listener;
+            this.mailbox = mailbox;
+        }
+
+        public Refreshable<EventListener<E>> getListener() {
+            return listener;
+        }
+
+        public boolean isListening() {
+            return listener.getLatest().isPresent();
+        }
+
+        public boolean accepts(final E event) {
+            final Optional<EventListener<E>> latest = listener.getLatest();
+            return latest.isPresent() && latest.get().isInterestedIn(event);
+        }
+
+        private void handle(final E event) {
+            listener.getLatest().ifPresent(l -> Events.fire(event, l));
+        }
+
+        public void deliver(final E event) {
+            mailbox.deliver(event, () -> this.handle(event));
+        }
 
+        public CompletableFuture<Void> deliverAndNotify(final E event) {
+            return mailbox.deliverAndNotify(() -> this.handle(event));
+        }
+
+    }
+
+    /**
+     * Listeners are only ever added, never removed. Therefore the list is replaced on every change and firing an event
+     * can read it without locking.
+     *
+     * @param <E> Event type to deliver.
+     */
     private static class EventSpecific<E extends Event> {
 
-        private final Set<Refreshable<EventListener<E>>> listeners = new HashSet<>();
+        private volatile List<Events.Subscriber<E>> subscribers = Collections.emptyList();
 
-        public void addListener(final Refreshable<EventListener<E>> eventListener) {
-            listeners.add(eventListener);
+        public synchronized void addListener(final Refreshable<EventListener<E>> eventListener,
+                                             final Events.Mailbox mailbox) {
+            if (subscribers.stream().anyMatch(s -> s.getListener().equals(eventListener))) {
+                return;
+            }
+            final List<Events.Subscriber<E>> updated = new ArrayList<>(subscribers);
+            updated.add(new Events.Subscriber<>(eventListener, mailbox));
+            subscribers = Collections.unmodifiableList(updated);
         }
 
-        public Collection<Refreshable<EventListener<E>>> getListeners() {
-            return Collections.unmodifiableSet(new HashSet<>(this.listeners)); // defensive copy
+        public List<Events.Subscriber<E>> getSubscribers() {
+            return subscribers;
         }
 
     }
@@ -72,40 +292,94 @@ public enum Events {
         }
     }
 
-    final Map<Class<? extends Event>, Events.EventSpecific<? extends Event>> registries = new HashMap<>();
+    final Map<Class<? extends Event>, Events.EventSpecific<? extends Event>> registries = new ConcurrentHashMap<>();
+    /**
+     * One per {@link ListenerService} and one per listener added through {@link #addListener(Class, EventListener)}.
+     */
+    final Map<Object, Events.Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private Events.Mailbox getMailbox(final Object owner) {
+        return this.mailboxes.computeIfAbsent(owner, Events.Mailbox::new);
+    }
 
     @SuppressWarnings("unchecked")
     private <E extends Event> void loadListeners(final Class<E> eventClass) {
         this.loadListeners(eventClass, null);
     }
 
-    @SuppressWarnings("unchecked")
     synchronized <E extends Event> void loadListeners(final Class<E> eventClass,
                                                       final Refreshable<EventListener<E>> listener) {
         if (this.registries.containsKey(eventClass)) {
             return;
         }
         Events.LOGGER.trace("Registering event listeners for {}.", eventClass);
-        this.registries.put(eventClass, new Events.EventSpecific<E>());
-        final Stream<Refreshable<EventListener<E>>> listeners = Stream.concat(
-                ListenerServiceLoader.load(eventClass).stream(),
-                listener == null ? Stream.empty() : Stream.of(listener)
-        );
-        listeners.forEach(l -> ((Events.EventSpecific<E>) this.registries.get(eventClass)).addListener(l));
+        final Events.EventSpecific<E> registry = new Events.EventSpecific<>();
+        ListenerServiceLoader.loadBySource(eventClass)
+                .forEach((service, l) -> registry.addListener(l, this.getMailbox(service)));
+        if (listener != null) {
+            registry.addListener(listener, this.getMailbox(listener));
+        }
+        this.registries.put(eventClass, registry); // only publish when complete
     }
 
     @SuppressWarnings("unchecked")
-    synchronized <E extends Event> Stream<Refreshable<EventListener<E>>> getListeners(final Class<E> eventClass) {
+    private <E extends Event> Events.EventSpecific<E> getRegistry(final Class<E> eventClass) {
+        final Events.EventSpecific<?> registry = this.registries.get(eventClass);
+        if (registry != null) { // the common case, no locking
+            return (Events.EventSpecific<E>) registry;
+        }
         this.loadListeners(eventClass);
-        return ((Events.EventSpecific<E>) this.registries.get(eventClass)).getListeners().stream();
+        return (Events.EventSpecific<E>) this.registries.get(eventClass);
+    }
+
+    /**
+     * Register a listener from within RoboZonky itself, in addition to those coming through {@link ListenerService}.
+     *
+     * @param eventClass Event to listen to.
+     * @param listener Listener to be called whenever the event is fired.
+     * @param <E> Event type to listen to.
+     */
+    public synchronized <E extends Event> void addListener(final Class<E> eventClass,
+                                                           final EventListener<E> listener) {
+        final Refreshable<EventListener<E>> r = Refreshable.createImmutable(listener);
+        r.run(); // make the listener available immediately
+        this.getRegistry(eventClass).addListener(r, this.getMailbox(listener));
+    }
+
+    <E extends Event> Stream<Refreshable<EventListener<E>>> getListeners(final Class<E> eventClass) {
+        return this.getRegistry(eventClass).getSubscribers().stream().map(Events.Subscriber::getListener);
+    }
+
+    private static void store(final Event event) {
+        if (Defaults.isDebugEventStorageEnabled()) {
+            Events.JOURNAL.add(event);
+        }
+    }
+
+    /**
+     * Allows to skip creating events which would not be distributed anywhere. The listeners for each event type are
+     * only looked up once, so this is cheap.
+     *
+     * @param eventClass Event type in question.
+     * @param <E> Event type in question.
+     * @return False if firing an event of the type would have no effect.
+     */
+    public static <E extends Event> boolean isListenedTo(final Class<E> eventClass) {
+        if (Defaults.isDebugEventStorageEnabled()) {
+            return true;
+        }
+        return Events.INSTANCE.getRegistry(eventClass).getSubscribers().stream()
+                .anyMatch(Events.Subscriber::isListening);
     }
 
     /**
      * Distribute a particular event to all listeners that have been added and not yet removed for that particular
      * event. This MUST NOT be called by users and is not part of the public API.
      * <p>
-     * The listeners may be executed in parallel, no execution order guarantees are given. When this method returns,
-     * all listeners' {@link EventListener#handle(Event)} method will have returned.
+     * Listeners which are not {@link EventListener#isInterestedIn(Event)} will not receive the event at all. The others
+     * will be executed in the background, this method does not wait for them. When a listener has too
+     * many events waiting, {@link Events.OverflowPolicy} applies. See {@link #fireAndWait(Event)} for events which
+     * must be handled before going any further.
      * @param event Event to distribute.
      * @param <E> Event type to distribute.
      */
@@ -113,22 +387,53 @@ public enum Events {
     public static <E extends Event> void fire(final E event) {
         final Class<E> eventClass = (Class<E>) event.getClass();
         Events.LOGGER.debug("Firing {}.", eventClass);
-        Events.INSTANCE.getListeners(eventClass).parallel()
-                .flatMap(r -> r.getLatest().map(Stream::of).orElse(Stream.empty()))
-                .forEach(l -> Events.fire(event, l));
-        if (Defaults.isDebugEventStorageEnabled()) {
-            Events.EVENTS_FIRED.add(event);
+        for (final Events.Subscriber<E> subscriber : Events.INSTANCE.getRegistry(eventClass).getSubscribers()) {
+            if (subscriber.accepts(event)) {
+                subscriber.deliver(event);
+            }
         }
+        Events.store(event);
+    }
+
+    /**
+     * Same as {@link #fire(Event)}, but no event is ever dropped and the method only returns after all the listeners'
+     * {@link EventListener#handle(Event)} methods have returned. Also waits for all the events fired before, of any
+     * type, to be handled. Intended for events such as the application shutting down, where nothing would be left to
+     * handle the events later. Must not be called from within a listener.
+     * @param event Event to distribute.
+     * @param <E> Event type to distribute.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Event> void fireAndWait(final E event) {
+        final Class<E> eventClass = (Class<E>) event.getClass();
+        Events.LOGGER.debug("Firing {} and waiting.", eventClass);
+        final Stream<CompletableFuture<Void>> handled = Events.INSTANCE.getRegistry(eventClass).getSubscribers()
+                .stream()
+                .filter(s -> s.accepts(event))
+                .map(s -> s.deliverAndNotify(event));
+        final Stream<CompletableFuture<Void>> flushed = Events.INSTANCE.mailboxes.values().stream()
+                .map(Events.Mailbox::flush);
+        final CompletableFuture<?>[] all = Stream.concat(handled, flushed).toArray(CompletableFuture[]::new);
+        Events.store(event);
+        CompletableFuture.allOf(all).join();
+    }
+
+    /**
+     * Also see {@link Defaults#isDebugEventStorageEnabled()}.
+     *
+     * @return The most recent events that were fired.
+     */
+    public static EventJournal getJournal() {
+        return Events.JOURNAL;
     }
 
     /**
      * This only exists for testing purposes. Also see {@link Defaults#isDebugEventStorageEnabled()}.
      *
-     * @return Events that were stored, if any. Returns the storage directly, any mutation operations will mutate the
-     * storage.
+     * @return Events that were stored, if any, oldest first. Unmodifiable, see {@link EventJournal#clear()}.
      */
     public static List<Event> getFired() {
-        return Events.EVENTS_FIRED;
+        return Events.JOURNAL.getAll();
     }
 
 }
@@ -41,9 +41,9 @@ class RoboZonkyStartupNotifier implements ShutdownHook.Handler {
         Events.fire(new RoboZonkyInitializedEvent(Defaults.ROBOZONKY_VERSION));
         return Optional.of((result) -> {
             if (result.getReturnCode() == ReturnCode.OK) {
-                Events.fire(new RoboZonkyEndingEvent(Defaults.ROBOZONKY_VERSION));
+                Events.fireAndWait(new RoboZonkyEndingEvent(Defaults.ROBOZONKY_VERSION));
             } else {
-                Events.fire(new RoboZonkyCrashedEvent(result.getReturnCode(), result.getCause()));
+                Events.fireAndWait(new RoboZonkyCrashedEvent(result.getReturnCode(), result.getCause()));
             }
             RoboZonkyStartupNotifier.LOGGER.info("===== RoboZonky out. =====");
         });
@@ -83,7 +83,15 @@ public class AuthenticationHandler {
         return data;
     }
 
-    private Function<ApiProvider, Authentication> buildAuthenticatorWithPassword() {
+    boolean isTokenBased() {
+        return tokenBased;
+    }
+
+    TemporalAmount getTokenRefreshBeforeExpiration() {
+        return tokenRefreshBeforeExpiration;
+    }
+
+    Function<ApiProvider, Authentication> buildAuthenticatorWithPassword() {
         return Authenticator.withCredentials(this.data.getUsername(), this.data.getPassword());
     }
 
@@ -92,7 +100,7 @@ public class AuthenticationHandler {
      *
      * @return Authentication method matching user preferences.
      */
-    private Function<ApiProvider, Authentication> buildAuthenticator() {
+    Function<ApiProvider, Authentication> buildAuthenticator() {
         if (!this.tokenBased) {
             AuthenticationHandler.LOGGER.debug("Password-based authentication requested.");
             return this.buildAuthenticatorWithPassword();
@@ -152,6 +160,17 @@ public class AuthenticationHandler {
         }
     }
 
+    /**
+     * Open a long-lived authenticated session, to be used instead of repeated calls to
+     * {@link #execute(ApiProvider, Function)}.
+     *
+     * @param provider API provider to be used for constructing the authenticated API.
+     * @return Session that will authenticate when first used.
+     */
+    public Session openSession(final ApiProvider provider) {
+        return new Session(this, provider);
+    }
+
     /**
      * Execute investment operation over authenticated API.
      *
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.authentication;
+
+import java.time.Duration;
+import java.time.temporal.TemporalAmount;
+import java.util.function.Function;
+import javax.ws.rs.NotAuthorizedException;
+import javax.xml.bind.JAXBException;
+
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Long-lived authenticated connection to the Zonky API. Unlike
+ * {@link AuthenticationHandler#execute(ApiProvider, Function)}, which authenticates and creates new APIs every time,
+ * the session keeps the same authenticated API for as long as the access token is valid, refreshing the token only as
+ * it approaches expiration. Needs to be {@link #close()}d before the {@link ApiProvider} is.
+ */
+public final class Session implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Session.class);
+    /**
+     * Tokens expiring sooner than this will not be refreshed, a new one will be obtained using the password instead.
+     */
+    private static final TemporalAmount SAFETY_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private final AuthenticationHandler handler;
+    private final ApiProvider provider;
+    private final TemporalAmount refreshBeforeExpiration;
+    private Authentication authentication;
+    private ApiProvider.ApiWrapper<ZonkyApi> api;
+
+    Session(final AuthenticationHandler handler, final ApiProvider provider) {
+        this.handler = handler;
+        this.provider = provider;
+        this.refreshBeforeExpiration = handler.isTokenBased() ?
+                handler.getTokenRefreshBeforeExpiration() :
+                Duration.ofSeconds(Defaults.getTokenRefreshBeforeExpirationInSeconds());
+    }
+
+    private Function<ApiProvider, Authentication> getAuthenticator() {
+        final ZonkyApiToken token = authentication == null ? null : authentication.getZonkyApiToken();
+        if (token == null) { // first authentication of the session
+            return handler.buildAuthenticator();
+        }
+        if (token.willExpireIn(Session.SAFETY_REFRESH_INTERVAL)) {
+            Session.LOGGER.debug("Token expired or expiring too soon, using password.");
+            return handler.buildAuthenticatorWithPassword();
+        }
+        return Authenticator.withAccessToken(handler.getSecretProvider().getUsername(), token,
+                refreshBeforeExpiration);
+    }
+
+    private boolean isValid() {
+        if (api == null) {
+            return false;
+        }
+        final ZonkyApiToken token = authentication.getZonkyApiToken();
+        return token != null && !token.willExpireIn(refreshBeforeExpiration);
+    }
+
+    private void invalidate() {
+        if (api != null) {
+            api.close();
+        }
+        api = null;
+        authentication = null;
+    }
+
+    private synchronized void invalidate(final ApiProvider.ApiWrapper<ZonkyApi> failed) {
+        if (api == failed) { // otherwise somebody else already authenticated again
+            this.invalidate();
+        }
+    }
+
+    private synchronized ApiProvider.ApiWrapper<ZonkyApi> getApi() {
+        if (this.isValid()) {
+            return api;
+        }
+        final Authentication newAuthentication = this.getAuthenticator().apply(provider);
+        if (handler.isTokenBased()) { // only write the token when it changes, not on every operation
+            try {
+                handler.storeToken(newAuthentication.getZonkyApiToken());
+            } catch (final JAXBException ex) {
+                Session.LOGGER.info("Access token not written, will need to use password next time.", ex);
+            }
+        }
+        if (api != null) {
+            api.close();
+        }
+        authentication = newAuthentication;
+        api = newAuthentication.newZonkyApi();
+        return api;
+    }
+
+    /**
+     * Execute an operation over the authenticated API, authenticating first if necessary. Only authentication is
+     * exclusive, operations themselves may run concurrently, so that one long operation does not delay the others.
+     *
+     * @param operation Operation to execute.
+     * @param <T> Return type of the operation.
+     * @return Whatever the operation returned.
+     */
+    public <T> T execute(final Function<ZonkyApi, T> operation) {
+        final ApiProvider.ApiWrapper<ZonkyApi> current = this.getApi();
+        try {
+            return current.execute(operation);
+        } catch (final NotAuthorizedException ex) { // token no longer accepted; start over next time
+            Session.LOGGER.debug("Authentication lost, will re-authenticate.");
+            this.invalidate(current);
+            throw ex;
+        }
+    }
+
+    /**
+     * Refresh the access token if it is approaching expiration. Will not authenticate unless already authenticated.
+     *
+     * @return True if the session is authenticated.
+     */
+    public synchronized boolean refresh() {
+        if (api == null) {
+            return false;
+        }
+        this.getApi();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (api == null) {
+            return;
+        }
+        try {
+            if (!handler.isTokenBased()) { // password-based sessions need to log out, tokens stay alive
+                Session.LOGGER.info("Logging out.");
+                api.execute(ZonkyApi::logout);
+            }
+        } finally {
+            this.invalidate();
+        }
+    }
+}
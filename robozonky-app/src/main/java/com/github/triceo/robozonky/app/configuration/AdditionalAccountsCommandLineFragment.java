@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.configuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+class AdditionalAccountsCommandLineFragment extends AbstractCommandLineFragment {
+
+    static final String SEPARATOR = "=";
+
+    @Parameter(names = {"-o", "--other-account"},
+            description = "Also invest from another account, given as guarded storage with the account's credentials " +
+                    "and location of the account's strategy, separated by '" + AdditionalAccountsCommandLineFragment
+                    .SEPARATOR + "'. Guarded storage must use the same password as the main account. Repeat to " +
+                    "invest from more accounts.")
+    List<String> accounts = new ArrayList<>(0);
+
+    /**
+     *
+     * @return Guarded storages of the additional accounts, mapped to the locations of their strategies.
+     */
+    public Map<File, String> getAccounts() {
+        final Map<File, String> result = new LinkedHashMap<>(accounts.size());
+        accounts.forEach(account -> {
+            final int separatorIndex = account.indexOf(AdditionalAccountsCommandLineFragment.SEPARATOR);
+            final File keyStore = new File(account.substring(0, separatorIndex));
+            result.put(keyStore, account.substring(separatorIndex + AdditionalAccountsCommandLineFragment.SEPARATOR
+                    .length()));
+        });
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void validate() throws ParameterException {
+        for (final String account : accounts) {
+            final int separatorIndex = account.indexOf(AdditionalAccountsCommandLineFragment.SEPARATOR);
+            if (separatorIndex < 1 || separatorIndex == account.length() - 1) {
+                throw new ParameterException("Account must be given as guarded storage and strategy: " + account);
+            } else if (!new File(account.substring(0, separatorIndex)).canRead()) {
+                throw new ParameterException("Guarded storage of the account can not be read: " + account);
+            }
+        }
+    }
+}
@@ -68,7 +68,10 @@ public class CommandLineInterface {
         final CommandLineInterface cli = new CommandLineInterface();
         final JCommander jc = new JCommander(cli);
         jc.setProgramName(CommandLineInterface.getScriptIdentifier());
-        Stream.of(OperatingMode.values()).forEach(mode -> jc.addCommand(mode.getName(), mode));
+        Stream.of(OperatingMode.values()).forEach(mode -> {
+            mode.reset();
+            jc.addCommand(mode.getName(), mode);
+        });
         try { // internal validation
             jc.parse(args);
             if (cli.help) { // don't validate since the CLI is likely to be invalid
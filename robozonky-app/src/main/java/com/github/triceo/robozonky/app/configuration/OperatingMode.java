@@ -16,21 +16,28 @@
 
 package com.github.triceo.robozonky.app.configuration;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.Parameters;
 import com.beust.jcommander.ParametersDelegate;
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.confirmations.ConfirmationProvider;
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
+import com.github.triceo.robozonky.app.investing.Account;
 import com.github.triceo.robozonky.app.investing.DaemonInvestmentMode;
 import com.github.triceo.robozonky.app.investing.DirectInvestmentMode;
 import com.github.triceo.robozonky.app.investing.InvestmentMode;
+import com.github.triceo.robozonky.app.investing.MultiAccountDaemonInvestmentMode;
 import com.github.triceo.robozonky.app.investing.SingleShotInvestmentMode;
 import com.github.triceo.robozonky.app.investing.ZonkyProxy;
 import com.github.triceo.robozonky.common.extensions.Checker;
@@ -63,6 +70,12 @@ enum OperatingMode implements CommandLineFragment {
             return "direct";
         }
 
+        @Override
+        void reset() {
+            loanId = 0;
+            loanAmount = Defaults.MINIMUM_INVESTMENT_IN_CZK;
+        }
+
         @Override
         protected Optional<InvestmentMode> getInvestmentMode(final CommandLineInterface cli,
                                                              final AuthenticationHandler auth,
@@ -84,6 +97,12 @@ enum OperatingMode implements CommandLineFragment {
             return "single";
         }
 
+        @Override
+        void reset() {
+            marketplaceFragment = new MarketplaceCommandLineFragment();
+            strategyFragment = new StrategyCommandLineFragment();
+        }
+
         @Override
         protected Optional<InvestmentMode> getInvestmentMode(final CommandLineInterface cli,
                                                              final AuthenticationHandler auth,
@@ -109,11 +128,58 @@ enum OperatingMode implements CommandLineFragment {
         @ParametersDelegate
         StrategyCommandLineFragment strategyFragment = new StrategyCommandLineFragment();
 
+        @ParametersDelegate
+        AdditionalAccountsCommandLineFragment accountsFragment = new AdditionalAccountsCommandLineFragment();
+
         @Override
         public String getName() {
             return "daemon";
         }
 
+        @Override
+        void reset() {
+            marketplaceFragment = new DaemonModeMarketplaceCommandLineFragment();
+            strategyFragment = new StrategyCommandLineFragment();
+            accountsFragment = new AdditionalAccountsCommandLineFragment();
+        }
+
+        @Override
+        public void validate() throws ParameterException {
+            accountsFragment.validate();
+        }
+
+        private Optional<Account> getAccount(final CommandLineInterface cli, final File keyStore,
+                                             final String strategyLocation) {
+            return SecretProviderFactory.getSecretProvider(keyStore, cli.getAuthenticationFragment().getPassword())
+                    .map(secrets -> OperatingMode.getZonkyProxyBuilder(cli, secrets)
+                            .map(builder -> {
+                                final AuthenticationHandler auth =
+                                        cli.getAuthenticationFragment().createAuthenticationHandler(secrets);
+                                final Refreshable<InvestmentStrategy> strategy =
+                                        RefreshableInvestmentStrategy.create(strategyLocation);
+                                return Optional.of(new Account(auth, builder, strategy));
+                            }).orElse(Optional.empty()))
+                    .orElse(Optional.empty());
+        }
+
+        private Optional<InvestmentMode> getMultiAccountInvestmentMode(final CommandLineInterface cli,
+                                                                       final Account mainAccount,
+                                                                       final Marketplace marketplace) {
+            final Collection<Account> accounts = new ArrayList<>();
+            accounts.add(mainAccount);
+            for (final Map.Entry<File, String> entry : accountsFragment.getAccounts().entrySet()) {
+                final Optional<Account> account = this.getAccount(cli, entry.getKey(), entry.getValue());
+                if (!account.isPresent()) {
+                    OperatingMode.LOGGER.error("Failed setting up account from guarded storage {}.", entry.getKey());
+                    return Optional.empty();
+                }
+                accounts.add(account.get());
+            }
+            return Optional.of(new MultiAccountDaemonInvestmentMode(accounts, cli.getTweaksFragment().isFaultTolerant(),
+                    marketplace, marketplaceFragment.getMaximumSleepDuration(),
+                    marketplaceFragment.getDelayBetweenChecks()));
+        }
+
         @Override
         protected Optional<InvestmentMode> getInvestmentMode(final CommandLineInterface cli,
                                                              final AuthenticationHandler auth,
@@ -125,6 +191,10 @@ enum OperatingMode implements CommandLineFragment {
                     auth.getSecretProvider());
             return MarketplaceLoader.load(cred)
                     .map(marketplace -> {
+                        if (!accountsFragment.getAccounts().isEmpty()) {
+                            final Account account = new Account(auth, builder, strategy);
+                            return this.getMultiAccountInvestmentMode(cli, account, marketplace);
+                        }
                         final InvestmentMode m = new DaemonInvestmentMode(auth, builder, fragment.isFaultTolerant(),
                                 marketplace, strategy, marketplaceFragment.getMaximumSleepDuration(),
                                 marketplaceFragment.getDelayBetweenChecks());
@@ -207,26 +277,47 @@ enum OperatingMode implements CommandLineFragment {
 
     public abstract String getName();
 
+    /**
+     * Enum constants are singletons, yet they receive values from every command line parsed. Therefore, before every
+     * parse, the values from any previous parse need to be forgotten.
+     */
+    void reset() {
+        // nothing to reset by default
+    }
+
     protected abstract Optional<InvestmentMode> getInvestmentMode(final CommandLineInterface cli,
                                                                   final AuthenticationHandler auth,
                                                                   final ZonkyProxy.Builder builder);
 
-    public Optional<InvestmentMode> configure(final CommandLineInterface cli, final AuthenticationHandler auth) {
+    /**
+     * Prepare the proxy for investing from a given account, as requested on the command line.
+     *
+     * @param cli Command line interface coming from the application.
+     * @param secrets Secrets of the account to invest from.
+     * @return Empty in case of a configuration problem.
+     */
+    static Optional<ZonkyProxy.Builder> getZonkyProxyBuilder(final CommandLineInterface cli,
+                                                             final SecretProvider secrets) {
         final Optional<Credentials> cred = cli.getConfirmationFragment().getConfirmationCredentials()
-                .map(value -> Optional.of(new Credentials(value, auth.getSecretProvider())))
+                .map(value -> Optional.of(new Credentials(value, secrets)))
                 .orElse(Optional.empty());
         final Optional<ZonkyProxy.Builder> optionalBuilder = cred
-                .map(credentials -> OperatingMode.getZonkyProxyBuilder(credentials, auth.getSecretProvider()))
+                .map(credentials -> OperatingMode.getZonkyProxyBuilder(credentials, secrets))
                 .orElse(Optional.of(new ZonkyProxy.Builder()));
-        return optionalBuilder
-                .map(builder -> {
-                    if (cli.getTweaksFragment().isDryRunEnabled()) {
-                        OperatingMode.LOGGER.info("RoboZonky is doing a dry run. It will not invest any real money.");
-                        builder.asDryRun();
-                    }
-                    builder.asUser(auth.getSecretProvider().getUsername());
-                    return this.getInvestmentMode(cli, auth, builder);
-                })
+        return optionalBuilder.map(builder -> {
+            if (cli.getTweaksFragment().isDryRunEnabled()) {
+                builder.asDryRun();
+            }
+            return builder.asUser(secrets.getUsername());
+        });
+    }
+
+    public Optional<InvestmentMode> configure(final CommandLineInterface cli, final AuthenticationHandler auth) {
+        if (cli.getTweaksFragment().isDryRunEnabled()) {
+            OperatingMode.LOGGER.info("RoboZonky is doing a dry run. It will not invest any real money.");
+        }
+        return OperatingMode.getZonkyProxyBuilder(cli, auth.getSecretProvider())
+                .map(builder -> this.getInvestmentMode(cli, auth, builder))
                 .orElse(Optional.empty());
     }
 
@@ -103,6 +103,22 @@ final class SecretProviderFactory {
                 });
     }
 
+    /**
+     * Obtain keystore-based secret provider for an already existing keystore.
+     *
+     * @param keyStoreLocation The keystore to open.
+     * @param password Password to the keystore.
+     * @return Empty in case the keystore could not be opened.
+     */
+    static Optional<SecretProvider> getSecretProvider(final File keyStoreLocation, final char[] password) {
+        try {
+            return Optional.of(SecretProviderFactory.existingSecretProvider(password, keyStoreLocation));
+        } catch (final IOException | KeyStoreException ex) {
+            SecretProviderFactory.LOGGER.error("Failed opening guarded storage: {}.", keyStoreLocation, ex);
+            return Optional.empty();
+        }
+    }
+
     public static Optional<SecretProvider> getSecretProvider(final CommandLineInterface cli) {
         try {
             return SecretProviderFactory.newSecretProvider(cli, SecretProviderFactory.DEFAULT_KEYSTORE);
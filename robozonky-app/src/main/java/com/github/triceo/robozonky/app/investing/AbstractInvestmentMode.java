@@ -23,7 +23,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
@@ -81,7 +81,7 @@ abstract class AbstractInvestmentMode implements InvestmentMode {
      *
      * @param target The buffer to start putting loans into.
      */
-    protected abstract void openMarketplace(Consumer<Collection<Loan>> target);
+    protected abstract void openMarketplace(Consumer<Collection<LoanSummary>> target);
 
     /**
      * Provide the investing algorithm.
@@ -91,6 +91,25 @@ abstract class AbstractInvestmentMode implements InvestmentMode {
      */
     protected abstract Function<Collection<LoanDescriptor>, Collection<Investment>> getInvestor(ApiProvider apiProvider);
 
+    /**
+     * Called with every state of the marketplace, before {@link #isInvestingRequired(MarketplaceView)}.
+     *
+     * @param view The marketplace, along with changes since it was last seen.
+     */
+    protected void registerMarketplaceCheck(final MarketplaceView view) {
+        // nothing to do by default
+    }
+
+    /**
+     * Decide whether or not the investing algorithm needs to be executed for a given state of the marketplace.
+     *
+     * @param view The marketplace, along with changes since it was last seen.
+     * @return True if the investing algorithm should be executed.
+     */
+    protected boolean isInvestingRequired(final MarketplaceView view) {
+        return true;
+    }
+
     /**
      * Execute the algorithm and give it a circuit breaker which, when turning true, tells the orchestration to
      * finish the operation and terminate.
@@ -101,14 +120,20 @@ abstract class AbstractInvestmentMode implements InvestmentMode {
      */
     protected Optional<Collection<Investment>> execute(final ApiProvider apiProvider, final Semaphore circuitBreaker) {
         LOGGER.trace("Executing.");
+        final Function<Collection<LoanDescriptor>, Collection<Investment>> investor = getInvestor(apiProvider);
         try {
             final ResultTracker buffer = new ResultTracker();
-            final Consumer<Collection<Loan>> investor = (loans) -> {
-                final Collection<LoanDescriptor> descriptors = buffer.acceptLoansFromMarketplace(loans);
-                final Collection<Investment> result = getInvestor(apiProvider).apply(descriptors);
+            final Consumer<Collection<LoanSummary>> target = (loans) -> {
+                final MarketplaceView view = buffer.acceptMarketplace(loans);
+                registerMarketplaceCheck(view);
+                if (!isInvestingRequired(view)) {
+                    LOGGER.debug("Marketplace unchanged, not investing: {}.", view);
+                    return;
+                }
+                final Collection<Investment> result = investor.apply(view.getLoans());
                 buffer.acceptInvestmentsFromRobot(result);
             };
-            openMarketplace(investor);
+            openMarketplace(target);
             LOGGER.trace("Will wait for user stop.");
             circuitBreaker.acquireUninterruptibly(Math.max(1, circuitBreaker.availablePermits()));
             LOGGER.trace("User stop received.");
@@ -117,11 +142,25 @@ abstract class AbstractInvestmentMode implements InvestmentMode {
         } catch (final Exception ex) {
             LOGGER.error("Failed executing investments.", ex);
             return Optional.empty();
+        } finally { // investors may hold on to resources of the API provider, such as authenticated sessions
+            AbstractInvestmentMode.close(investor);
+        }
+    }
+
+    private static void close(final Object investor) {
+        if (!(investor instanceof AutoCloseable)) {
+            return;
+        }
+        try {
+            ((AutoCloseable) investor).close();
+        } catch (final Exception ex) {
+            LoggerFactory.getLogger(AbstractInvestmentMode.class).debug("Failed closing investor.", ex);
         }
     }
 
     @Override
     public void close() throws Exception {
         LOGGER.trace("Closing investing operations.");
+        InvestmentTracker.flush();
     }
 }
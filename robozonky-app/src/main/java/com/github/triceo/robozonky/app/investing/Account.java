@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import com.github.triceo.robozonky.api.Refreshable;
+import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
+import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
+
+/**
+ * Everything that is needed to invest from a single Zonky account. See {@link MultiAccountDaemonInvestmentMode}.
+ */
+public final class Account {
+
+    private final AuthenticationHandler authenticationHandler;
+    private final ZonkyProxy.Builder proxyBuilder;
+    private final Refreshable<InvestmentStrategy> strategy;
+
+    public Account(final AuthenticationHandler authenticationHandler, final ZonkyProxy.Builder proxyBuilder,
+                   final Refreshable<InvestmentStrategy> strategy) {
+        this.authenticationHandler = authenticationHandler;
+        this.proxyBuilder = proxyBuilder;
+        this.strategy = strategy;
+    }
+
+    public String getUsername() {
+        return authenticationHandler.getSecretProvider().getUsername();
+    }
+
+    public AuthenticationHandler getAuthenticationHandler() {
+        return authenticationHandler;
+    }
+
+    public ZonkyProxy.Builder getProxyBuilder() {
+        return proxyBuilder;
+    }
+
+    public Refreshable<InvestmentStrategy> getStrategy() {
+        return strategy;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.temporal.TemporalAmount;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invests from a single {@link Account}, as the marketplace changes. Every pipeline has its own thread, so that an
+ * account which takes long to invest does not delay any other account. Marketplaces received while the pipeline is
+ * still investing are not queued; once the pipeline is done, it only looks at the most recent one.
+ */
+class AccountPipeline implements Consumer<Collection<LoanSummary>>,
+                                 AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccountPipeline.class);
+
+    private final String username;
+    private final ApiProvider apiProvider;
+    private final ResultTracker buffer = new ResultTracker();
+    private final StrategyExecution investor;
+    private final InvestingThrottle throttle;
+    private final AtomicReference<Collection<LoanSummary>> pending = new AtomicReference<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "rzAccount");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param account Account to invest from.
+     * @param apiProvider Provider of the APIs to invest through. Only to be used by this pipeline, since authenticated
+     * APIs of one provider all share the same token. Will be closed together with the pipeline.
+     * @param maximumSleepPeriod The longest time that the pipeline may go without investing.
+     */
+    public AccountPipeline(final Account account, final ApiProvider apiProvider,
+                           final TemporalAmount maximumSleepPeriod) {
+        this.username = account.getUsername();
+        this.apiProvider = apiProvider;
+        this.throttle = new InvestingThrottle(maximumSleepPeriod);
+        this.investor = new StrategyExecution(apiProvider, account.getProxyBuilder(), account.getStrategy(),
+                account.getAuthenticationHandler(), maximumSleepPeriod, username);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Hand the marketplace over to the pipeline's own thread and return immediately.
+     *
+     * @param loans Loans as received from the marketplace.
+     */
+    @Override
+    public void accept(final Collection<LoanSummary> loans) {
+        if (loans == null) { // marketplace failure, which is reported elsewhere
+            return;
+        } else if (pending.getAndSet(loans) != null) { // the pipeline is busy and will pick up the latest loans later
+            AccountPipeline.LOGGER.debug("Account {} still busy, skipping older marketplace.", username);
+            return;
+        }
+        try {
+            executor.submit(this::process);
+        } catch (final RejectedExecutionException ex) {
+            AccountPipeline.LOGGER.trace("Account {} already closed.", username, ex);
+        }
+    }
+
+    private void process() {
+        final Collection<LoanSummary> loans = pending.getAndSet(null);
+        try {
+            final MarketplaceView view = buffer.acceptMarketplace(loans);
+            if (!throttle.isInvestingRequired(view)) { // same as DaemonInvestmentMode
+                AccountPipeline.LOGGER.debug("Marketplace unchanged, not investing for {}: {}.", username, view);
+                return;
+            }
+            final Collection<Investment> result = investor.apply(view.getLoans());
+            buffer.acceptInvestmentsFromRobot(result);
+        } catch (final Throwable t) {
+            new DaemonRuntimeExceptionHandler().handle(t);
+        }
+    }
+
+    public Collection<Investment> getInvestmentsMade() {
+        return buffer.getInvestmentsMade();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            investor.close();
+        } finally { // the session needs the provider to log out
+            apiProvider.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.github.triceo.robozonky.api.notifications.EventListener;
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.entities.BlockedAmount;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Statistics;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the state of the user's account between investing sessions, so that it needs not be retrieved from Zonky
+ * every time. Successful investments are reflected locally, as announced by {@link InvestmentMadeEvent}s. Every piece
+ * of information is retrieved again once it is older than the given maximum age.
+ */
+final class AccountSnapshot implements EventListener<InvestmentMadeEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccountSnapshot.class);
+
+    private static final class Cached<T> {
+
+        private T value;
+        private Instant retrievedOn;
+
+        public synchronized boolean isOlderThan(final TemporalAmount age) {
+            return retrievedOn == null || !Instant.now().isBefore(retrievedOn.plus(age));
+        }
+
+        public synchronized T get(final Supplier<T> loader, final TemporalAmount maximumAge) {
+            if (this.isOlderThan(maximumAge)) {
+                this.refresh(loader);
+            }
+            return value;
+        }
+
+        public synchronized T refresh(final Supplier<T> loader) {
+            value = loader.get();
+            retrievedOn = Instant.now();
+            return value;
+        }
+
+        public synchronized void update(final UnaryOperator<T> updater) {
+            if (value != null) { // nothing to update
+                value = updater.apply(value);
+            }
+        }
+    }
+
+    /**
+     * Zonky API may return {@link ZonkyApi#getStatistics()} as null if the account has no previous investments.
+     *
+     * @param api API to execute the operation.
+     * @return Either what the API returns, or an empty object.
+     */
+    private static Statistics retrieveStatistics(final ZonkyProxy api) {
+        final Statistics returned = api.execute(ZonkyApi::getStatistics);
+        return returned == null ? new Statistics() : returned;
+    }
+
+    private static List<BlockedAmount> retrieveBlockedAmounts(final ZonkyProxy api) {
+        return Collections.unmodifiableList(api.execute(zonky -> zonky.getBlockedAmounts(Integer.MAX_VALUE, 0)));
+    }
+
+    /**
+     * Create a snapshot which will retrieve the information from Zonky every time it is requested.
+     *
+     * @return New instance.
+     */
+    public static AccountSnapshot uncached() {
+        return new AccountSnapshot(Duration.ZERO);
+    }
+
+    private final Duration maximumAge;
+    private final AccountSnapshot.Cached<BigDecimal> balance = new AccountSnapshot.Cached<>();
+    private final AccountSnapshot.Cached<Statistics> statistics = new AccountSnapshot.Cached<>();
+    private final AccountSnapshot.Cached<List<BlockedAmount>> blockedAmounts = new AccountSnapshot.Cached<>();
+    private final Set<Integer> claimedLoans = ConcurrentHashMap.newKeySet();
+
+    public AccountSnapshot() {
+        this(Duration.ofSeconds(Defaults.getAccountRefreshIntervalInSeconds()));
+    }
+
+    public AccountSnapshot(final Duration maximumAge) {
+        this.maximumAge = maximumAge;
+    }
+
+    public BigDecimal getBalance(final ZonkyProxy api) {
+        return balance.get(() -> StrategyExecution.getAvailableBalance(api), maximumAge);
+    }
+
+    /**
+     * Retrieve the balance from Zonky, regardless of how old the known balance is. To be used before investments
+     * made long after the rest of the account information was retrieved, as the user may have withdrawn money since.
+     *
+     * @param api API to retrieve the balance from.
+     * @return The balance, which will also be returned by {@link #getBalance(ZonkyProxy)} from now on.
+     */
+    public BigDecimal getFreshBalance(final ZonkyProxy api) {
+        return balance.refresh(() -> StrategyExecution.getAvailableBalance(api));
+    }
+
+    public Statistics getStatistics(final ZonkyProxy api) {
+        return statistics.get(() -> AccountSnapshot.retrieveStatistics(api), maximumAge);
+    }
+
+    public List<BlockedAmount> getBlockedAmounts(final ZonkyProxy api) {
+        return blockedAmounts.get(() -> AccountSnapshot.retrieveBlockedAmounts(api), maximumAge);
+    }
+
+    /**
+     * Claim a loan for investing, so that it is not invested into from the same account twice, such as by the regular
+     * investing and by {@link CaptchaSniper} at the same time. Unless the investment succeeded, the claim must be
+     * {@link #releaseClaim(int)}d afterwards. Otherwise it is kept, so that the loan is not invested into again.
+     *
+     * @param loanId ID of the loan in question.
+     * @return False if the loan is already being invested into, or has already been invested into.
+     */
+    public boolean claim(final int loanId) {
+        return claimedLoans.add(loanId);
+    }
+
+    /**
+     * Make a loan {@link #claim(int)}ed before available for investing again.
+     *
+     * @param loanId ID of the loan in question.
+     */
+    public void releaseClaim(final int loanId) {
+        claimedLoans.remove(loanId);
+    }
+
+    /**
+     * Whether any of the information has reached half of its maximum age, and should therefore be refreshed ahead of
+     * time to keep the investing sessions from having to wait for it.
+     *
+     * @return True if {@link #refresh(ZonkyProxy)} should be called.
+     */
+    public boolean isRefreshDue() {
+        final Duration halfAge = maximumAge.dividedBy(2);
+        return balance.isOlderThan(halfAge) || statistics.isOlderThan(halfAge) || blockedAmounts.isOlderThan(halfAge);
+    }
+
+    /**
+     * Retrieve all the information from Zonky again.
+     *
+     * @param api API to retrieve the information from.
+     */
+    public void refresh(final ZonkyProxy api) {
+        AccountSnapshot.LOGGER.debug("Refreshing account information.");
+        balance.refresh(() -> StrategyExecution.getAvailableBalance(api));
+        statistics.refresh(() -> AccountSnapshot.retrieveStatistics(api));
+        blockedAmounts.refresh(() -> AccountSnapshot.retrieveBlockedAmounts(api));
+    }
+
+    /**
+     * Reflect the investment in the balance and the blocked amounts, exactly as Zonky would. Dry runs are ignored,
+     * since they do not change anything on Zonky.
+     *
+     * @param event Event announcing the investment.
+     */
+    @Override
+    public void handle(final InvestmentMadeEvent event) {
+        if (event.isDryRun()) {
+            return;
+        }
+        final Investment i = event.getInvestment();
+        balance.update(b -> b.subtract(BigDecimal.valueOf(i.getAmount())));
+        blockedAmounts.update(blocked -> {
+            final List<BlockedAmount> result = new ArrayList<>(blocked);
+            result.add(new BlockedAmount(i.getLoanId(), i.getAmount()));
+            return Collections.unmodifiableList(result);
+        });
+    }
+}
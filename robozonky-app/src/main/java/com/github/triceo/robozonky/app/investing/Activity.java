@@ -49,6 +49,7 @@ class Activity {
 
     private final TemporalAmount sleepInterval;
     private final Collection<LoanDescriptor> recentLoansDescending;
+    private final State.ClassSpecificState state;
     private Runnable settler = null;
 
     Activity(final Collection<LoanDescriptor> loans) {
@@ -56,12 +57,27 @@ class Activity {
     }
 
     public Activity(final Collection<LoanDescriptor> loans, final TemporalAmount maximumSleepPeriod) {
+        this(loans, maximumSleepPeriod, InvestmentTracker.SHARED_NAMESPACE);
+    }
+
+    /**
+     * @param loans Loans currently on the marketplace.
+     * @param maximumSleepPeriod The longest time that the application may sleep.
+     * @param namespace Only activities in the same namespace share the time the marketplace was last checked.
+     */
+    public Activity(final Collection<LoanDescriptor> loans, final TemporalAmount maximumSleepPeriod,
+                    final String namespace) {
         this.sleepInterval = maximumSleepPeriod;
         this.recentLoansDescending = new ArrayList<>(loans);
+        this.state = namespace.isEmpty() ? Activity.STATE : State.INSTANCE.forClass(Activity.class, namespace);
     }
 
     static OffsetDateTime getLatestMarketplaceAction() {
-        return Activity.STATE.getValue(Activity.LAST_MARKETPLACE_CHECK_STATE_ID).map(s -> {
+        return Activity.getLatestMarketplaceAction(Activity.STATE);
+    }
+
+    private static OffsetDateTime getLatestMarketplaceAction(final State.ClassSpecificState state) {
+        return state.getValue(Activity.LAST_MARKETPLACE_CHECK_STATE_ID).map(s -> {
             try {
                 return OffsetDateTime.parse(s);
             } catch (final DateTimeParseException ex) {
@@ -97,7 +113,7 @@ class Activity {
      * @return True if no further contact should be made during this run of the app.
      */
     public boolean shouldSleep() {
-        final OffsetDateTime lastKnownAction = Activity.getLatestMarketplaceAction();
+        final OffsetDateTime lastKnownAction = Activity.getLatestMarketplaceAction(this.state);
         final boolean hasUnactionableLoans = !this.getUnactionableLoans().isEmpty();
         boolean shouldSleep = true;
         final Collection<LoanDescriptor> newLoans = this.getLoansNewerThan(lastKnownAction);
@@ -149,6 +165,6 @@ class Activity {
         } else {
             Activity.LOGGER.debug("New marketplace last checked time is {}.", result);
         }
-        Activity.STATE.setValue(Activity.LAST_MARKETPLACE_CHECK_STATE_ID, result.toString());
+        this.state.setValue(Activity.LAST_MARKETPLACE_CHECK_STATE_ID, result.toString());
     }
 }
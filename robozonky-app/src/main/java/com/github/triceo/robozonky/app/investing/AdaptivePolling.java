@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import com.github.triceo.robozonky.internal.api.Defaults;
+import com.github.triceo.robozonky.internal.api.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides how long to wait before the next marketplace check. While the marketplace keeps changing, checks are made as
+ * often as allowed. When nothing is happening, the delay doubles with every check, up to a maximum.
+ *
+ * Hours of the day during which loans are usually released are learned and remembered across restarts. During those,
+ * the delay never grows beyond a few multiples of the minimum, even when the marketplace is currently quiet.
+ */
+public class AdaptivePolling {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptivePolling.class);
+    static final State.ClassSpecificState STATE = State.INSTANCE.forClass(AdaptivePolling.class);
+    static final String ACTIVITY_STATE_ID = "activityByHour";
+    private static final int HOURS_IN_DAY = 24;
+    /**
+     * Applied to the learned activity every hour, so that old activity is forgotten after about a week.
+     */
+    private static final double HOURLY_DECAY = 0.995;
+    private static final int MAXIMUM_MULTIPLIER_DURING_BUSY_HOURS = 4;
+
+    private static double[] loadActivity() {
+        final double[] result = new double[AdaptivePolling.HOURS_IN_DAY];
+        AdaptivePolling.STATE.getValue(AdaptivePolling.ACTIVITY_STATE_ID).ifPresent(s -> {
+            try {
+                final double[] stored = Arrays.stream(s.split(";")).mapToDouble(Double::parseDouble).toArray();
+                System.arraycopy(stored, 0, result, 0, Math.min(stored.length, result.length));
+            } catch (final NumberFormatException ex) {
+                AdaptivePolling.LOGGER.debug("Failed reading marketplace activity, starting over.", ex);
+            }
+        });
+        return result;
+    }
+
+    private final Duration minimum, maximum, maximumDuringBusyHours;
+    private final Clock clock;
+    private final double[] activityByHour;
+    private Duration current;
+    private long lastHourSinceEpoch;
+    private boolean isFirst = true;
+
+    public AdaptivePolling(final Duration minimum, final Duration maximum) {
+        this(minimum, maximum, Clock.system(Defaults.ZONE_ID));
+    }
+
+    AdaptivePolling(final Duration minimum, final Duration maximum, final Clock clock) {
+        this.minimum = minimum;
+        this.maximum = maximum.compareTo(minimum) < 0 ? minimum : maximum;
+        final Duration busyMaximum = minimum.multipliedBy(AdaptivePolling.MAXIMUM_MULTIPLIER_DURING_BUSY_HOURS);
+        this.maximumDuringBusyHours = busyMaximum.compareTo(this.maximum) < 0 ? busyMaximum : this.maximum;
+        this.clock = clock;
+        this.current = minimum;
+        this.activityByHour = AdaptivePolling.loadActivity();
+        this.lastHourSinceEpoch = this.getHoursSinceEpoch();
+    }
+
+    private long getHoursSinceEpoch() {
+        return Duration.ofMillis(clock.millis()).toHours();
+    }
+
+    private int getHourOfDay(final Instant instant) {
+        return LocalDateTime.ofInstant(instant, clock.getZone()).getHour();
+    }
+
+    /**
+     * Whether loans are usually released during the given hour of day.
+     *
+     * @param hourOfDay 0 to 23.
+     * @return True if the hour saw at least double the average activity.
+     */
+    synchronized boolean isBusy(final int hourOfDay) {
+        final double activity = activityByHour[hourOfDay];
+        final double average = DoubleStream.of(activityByHour).average().orElse(0);
+        return activity > 0 && activity >= 2 * average;
+    }
+
+    private void decayIfNecessary() {
+        final long hourSinceEpoch = this.getHoursSinceEpoch();
+        final long hoursPassed = hourSinceEpoch - lastHourSinceEpoch;
+        if (hoursPassed <= 0) {
+            return;
+        }
+        lastHourSinceEpoch = hourSinceEpoch;
+        final double decay = Math.pow(AdaptivePolling.HOURLY_DECAY, hoursPassed);
+        for (int i = 0; i < activityByHour.length; i++) {
+            activityByHour[i] *= decay;
+        }
+        AdaptivePolling.STATE.setValue(AdaptivePolling.ACTIVITY_STATE_ID, DoubleStream.of(activityByHour)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(";")));
+    }
+
+    /**
+     * Adjust the delay based on the latest marketplace check.
+     *
+     * @param view Result of the latest marketplace check.
+     * @return Delay before the next marketplace check.
+     */
+    public synchronized Duration register(final MarketplaceView view) {
+        this.decayIfNecessary();
+        final boolean isActive = !view.getAdded().isEmpty() || !view.getChanged().isEmpty();
+        final Instant now = clock.instant();
+        if (isActive) {
+            if (!isFirst) { // the first check sees all loans as new, that says nothing about the time of day
+                activityByHour[this.getHourOfDay(now)] += 1;
+            }
+            current = minimum;
+        } else {
+            final Duration doubled = current.multipliedBy(2);
+            final boolean isBusy = this.isBusy(this.getHourOfDay(now.plus(doubled)));
+            final Duration limit = isBusy ? maximumDuringBusyHours : maximum;
+            current = doubled.compareTo(limit) < 0 ? doubled : limit;
+        }
+        isFirst = false;
+        AdaptivePolling.LOGGER.trace("Next marketplace check in {}.", current);
+        return current;
+    }
+
+    public synchronized Duration getCurrentInterval() {
+        return current;
+    }
+
+    /**
+     *
+     * @return Hours of the day, as in {@link #isBusy(int)}, in ascending order.
+     */
+    public synchronized List<Integer> getBusyHours() {
+        return IntStream.range(0, AdaptivePolling.HOURS_IN_DAY)
+                .filter(this::isBusy)
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
+import com.github.triceo.robozonky.common.remote.ConnectionPool;
+import com.github.triceo.robozonky.common.remote.LoanCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invests into loans that the strategy recommended while they were still protected by CAPTCHA, at the very moment the
+ * protection expires. Without this, such loans would only be invested into after the first marketplace check following
+ * the expiry, and only after the strategy had been executed again.
+ */
+class CaptchaSniper implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CaptchaSniper.class);
+
+    /**
+     * Check whether the loan can still be invested into. Usually cheap, since the marketplace checks keep
+     * {@link LoanCache} up to date. Only contacts Zonky when the loan is no longer cached.
+     *
+     * @param recommendation Recommendation to check.
+     * @param loader Will be used to retrieve the loan if not cached.
+     * @return False if the loan does not have enough remaining investment.
+     */
+    static boolean isStillValid(final Recommendation recommendation, final IntFunction<Loan> loader) {
+        final int loanId = recommendation.getLoanDescriptor().getLoan().getId();
+        final LoanSummary loan = LoanCache.INSTANCE.getCachedLoan(loanId)
+                .orElseGet(() -> LoanCache.INSTANCE.getLoan(loanId, loader));
+        return loan.getRemainingInvestment() >= recommendation.getRecommendedInvestmentAmount();
+    }
+
+    private final Function<Recommendation, Optional<Investment>> investor;
+    private final IntFunction<Loan> loader;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "rzCaptchaSniper");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Integer, ScheduledFuture<?>> armed = new ConcurrentHashMap<>();
+    private volatile boolean isClosed = false;
+
+    /**
+     * @param investor Will be called to perform the investment once the CAPTCHA protection is over. Since that may be
+     * long after the recommendation was made, it is expected to check the balance again before investing.
+     * @param loader Will be called to retrieve the loan when it is no longer cached at the time of investing.
+     */
+    public CaptchaSniper(final Function<Recommendation, Optional<Investment>> investor,
+                         final IntFunction<Loan> loader) {
+        this.investor = investor;
+        this.loader = loader;
+    }
+
+    /**
+     * Schedule an investment for when the loan's CAPTCHA protection expires.
+     *
+     * @param recommendation Recommendation made while the loan was protected by CAPTCHA.
+     * @return True if the investment was scheduled, false if the loan is not protected by CAPTCHA (any more), the
+     * recommendation requires confirmation or an investment into the loan is already scheduled.
+     */
+    public boolean arm(final Recommendation recommendation) {
+        final Optional<OffsetDateTime> expiry = this.schedule(recommendation);
+        // outside of the lock, since the connection pool may need to be created first
+        expiry.ifPresent(ConnectionPool.INSTANCE::warmUpBefore);
+        return expiry.isPresent();
+    }
+
+    private synchronized Optional<OffsetDateTime> schedule(final Recommendation recommendation) {
+        if (isClosed || recommendation.isConfirmationRequired()) {
+            return Optional.empty();
+        }
+        final LoanDescriptor loan = recommendation.getLoanDescriptor();
+        final int loanId = loan.getLoan().getId();
+        final Optional<OffsetDateTime> expiry = loan.getLoanCaptchaProtectionEndDateTime();
+        if (!expiry.isPresent() || armed.containsKey(loanId)) {
+            return Optional.empty();
+        }
+        final long delayInMillis = Duration.between(OffsetDateTime.now(), expiry.get()).toMillis();
+        if (delayInMillis <= 0) { // already investable, regular investing will take care of it
+            return Optional.empty();
+        }
+        armed.put(loanId, executor.schedule(() -> this.fire(recommendation), delayInMillis, TimeUnit.MILLISECONDS));
+        CaptchaSniper.LOGGER.debug("Will invest into loan #{} in {} ms, when CAPTCHA expires.", loanId, delayInMillis);
+        return expiry;
+    }
+
+    /**
+     * Cancel a scheduled investment, such as when the loan has already been invested into by other means.
+     *
+     * @param loanId ID of the loan in question.
+     */
+    public void disarm(final int loanId) {
+        final ScheduledFuture<?> future = armed.remove(loanId);
+        if (future != null) {
+            future.cancel(false);
+            CaptchaSniper.LOGGER.debug("No longer going to invest into loan #{}.", loanId);
+        }
+    }
+
+    public int getArmedCount() {
+        return armed.size();
+    }
+
+    void fire(final Recommendation recommendation) {
+        final int loanId = recommendation.getLoanDescriptor().getLoan().getId();
+        if (armed.remove(loanId) == null) { // disarmed in the meantime
+            return;
+        }
+        try {
+            if (!CaptchaSniper.isStillValid(recommendation, loader)) {
+                CaptchaSniper.LOGGER.info("Not investing into loan #{} after CAPTCHA expired, no longer available.",
+                        loanId);
+                return;
+            }
+            final Optional<Investment> result = investor.apply(recommendation);
+            if (result.isPresent()) {
+                CaptchaSniper.LOGGER.info("Invested {} CZK into loan #{} as soon as CAPTCHA expired.",
+                        result.get().getAmount(), loanId);
+            } else {
+                CaptchaSniper.LOGGER.info("Not invested into loan #{} after CAPTCHA expired.", loanId);
+            }
+        } catch (final Exception ex) {
+            CaptchaSniper.LOGGER.warn("Failed investing into loan #{} after CAPTCHA expired.", loanId, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        isClosed = true;
+        executor.shutdownNow();
+        armed.clear();
+    }
+}
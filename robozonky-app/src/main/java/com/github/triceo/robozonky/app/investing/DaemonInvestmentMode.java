@@ -22,6 +22,7 @@ import java.time.temporal.TemporalAmount;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -31,60 +32,66 @@ import java.util.function.Function;
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.marketplaces.Marketplace;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.app.ShutdownEnabler;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
+import com.github.triceo.robozonky.app.management.MBean;
+import com.github.triceo.robozonky.app.management.Polling;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DaemonInvestmentMode extends AbstractInvestmentMode {
 
     private final Refreshable<InvestmentStrategy> refreshableStrategy;
     private final Marketplace marketplace;
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-    private final TemporalAmount maximumSleepPeriod, periodBetweenChecks;
+    private final TemporalAmount maximumSleepPeriod;
+    private final AdaptivePolling polling;
+    private final InvestingThrottle throttle;
     public static final Semaphore BLOCK_UNTIL_RELEASED = new Semaphore(1);
 
-    public DaemonInvestmentMode(final AuthenticationHandler auth, final ZonkyProxy.Builder builder,
-                                final boolean isFaultTolerant, final Marketplace marketplace,
-                                final Refreshable<InvestmentStrategy> strategy,
-                                final TemporalAmount maximumSleepPeriod, final TemporalAmount periodBetweenChecks) {
-        super(auth, builder, isFaultTolerant);
-        this.refreshableStrategy = strategy;
-        this.marketplace = marketplace;
-        this.maximumSleepPeriod = maximumSleepPeriod;
-        this.periodBetweenChecks = periodBetweenChecks;
+    /**
+     * Make sure that the daemon, once started, is terminated by the JVM shutting down and that the JVM only shuts down
+     * once the daemon has been closed.
+     */
+    static void addShutdownHook() {
+        final Logger logger = LoggerFactory.getLogger(DaemonInvestmentMode.class);
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            LOGGER.debug("Shutdown requested.");
+            logger.debug("Shutdown requested.");
             // will release the main thread and thus terminate the daemon
             DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release();
             // only allow to shut down after the daemon has been closed by the app
             ShutdownEnabler.DAEMON_ALLOWED_TO_TERMINATE.acquireUninterruptibly();
-            LOGGER.debug("Shutdown allowed.");
+            logger.debug("Shutdown allowed.");
         }));
     }
 
-    public DaemonInvestmentMode(final AuthenticationHandler auth, final ZonkyProxy.Builder builder,
-                                final boolean isFaultTolerant, final Marketplace marketplace,
-                                final Refreshable<InvestmentStrategy> strategy) {
-        this(auth, builder, isFaultTolerant, marketplace, strategy, Duration.ofMinutes(60), Duration.ofSeconds(1));
-    }
-
-    @Override
-    protected Optional<Collection<Investment>> execute(final ApiProvider apiProvider) {
+    /**
+     * Block the calling thread until the daemon is requested to terminate.
+     */
+    static void blockUntilReleased() {
         /*
          * in tests, the number of available permits may get over 1 as the semaphore is released multiple times.
          * let's make sure we always acquire all the available permits, no matter what the actual number is.
          */
         final int permitCount = Math.max(1, DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.availablePermits());
         DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.acquireUninterruptibly(permitCount);
-        return execute(apiProvider, DaemonInvestmentMode.BLOCK_UNTIL_RELEASED);
     }
 
-    @Override
-    protected void openMarketplace(final Consumer<Collection<Loan>> target) {
-        marketplace.registerListener(target);
+    /**
+     * Start checking the marketplace, as often as the marketplace requires.
+     *
+     * @param marketplace Marketplace to check, with its listeners already registered.
+     * @param executor Will perform the checks.
+     * @param polling Determines the delay between the checks, unless the marketplace is only to be listened to.
+     */
+    static void startMarketplace(final Marketplace marketplace, final ScheduledExecutorService executor,
+                                 final AdaptivePolling polling) {
+        final Logger logger = LoggerFactory.getLogger(DaemonInvestmentMode.class);
         final Runnable marketplaceCheck = () -> {
             try {
                 marketplace.run();
@@ -94,12 +101,26 @@ public class DaemonInvestmentMode extends AbstractInvestmentMode {
         };
         switch (marketplace.specifyExpectedTreatment()) {
             case POLLING:
-                final long checkPeriodInSeconds = this.periodBetweenChecks.get(ChronoUnit.SECONDS);
-                LOGGER.debug("Scheduling marketplace checks {} seconds apart.", checkPeriodInSeconds);
-                executor.scheduleWithFixedDelay(marketplaceCheck, 0, checkPeriodInSeconds, TimeUnit.SECONDS);
+                logger.debug("Scheduling marketplace checks at least {} apart.", polling.getCurrentInterval());
+                ((Polling) MBean.POLLING.getImplementation()).register(polling);
+                executor.submit(new Runnable() { // the delay is only known after the check, so reschedule every time
+                    @Override
+                    public void run() {
+                        marketplaceCheck.run();
+                        if (executor.isShutdown()) {
+                            return;
+                        }
+                        try {
+                            final long delay = polling.getCurrentInterval().toMillis();
+                            executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                        } catch (final RejectedExecutionException ex) {
+                            logger.trace("Marketplace checks stopped.", ex);
+                        }
+                    }
+                });
                 break;
             case LISTENING:
-                LOGGER.debug("Starting marketplace listener.");
+                logger.debug("Starting marketplace listener.");
                 executor.submit(marketplaceCheck);
                 break;
             default:
@@ -107,6 +128,63 @@ public class DaemonInvestmentMode extends AbstractInvestmentMode {
         }
     }
 
+    public DaemonInvestmentMode(final AuthenticationHandler auth, final ZonkyProxy.Builder builder,
+                                final boolean isFaultTolerant, final Marketplace marketplace,
+                                final Refreshable<InvestmentStrategy> strategy,
+                                final TemporalAmount maximumSleepPeriod, final TemporalAmount periodBetweenChecks) {
+        super(auth, builder, isFaultTolerant);
+        this.refreshableStrategy = strategy;
+        this.marketplace = marketplace;
+        this.maximumSleepPeriod = maximumSleepPeriod;
+        this.throttle = new InvestingThrottle(maximumSleepPeriod);
+        final Duration minimumDelay = Duration.ofSeconds(periodBetweenChecks.get(ChronoUnit.SECONDS));
+        final Duration maximumDelay = Duration.ofSeconds(Defaults.getMaximumMarketplaceCheckDelayInSeconds());
+        this.polling = new AdaptivePolling(minimumDelay, maximumDelay);
+        DaemonInvestmentMode.addShutdownHook();
+    }
+
+    public DaemonInvestmentMode(final AuthenticationHandler auth, final ZonkyProxy.Builder builder,
+                                final boolean isFaultTolerant, final Marketplace marketplace,
+                                final Refreshable<InvestmentStrategy> strategy) {
+        this(auth, builder, isFaultTolerant, marketplace, strategy, Duration.ofMinutes(60), Duration.ofSeconds(1));
+    }
+
+    @Override
+    protected Optional<Collection<Investment>> execute(final ApiProvider apiProvider) {
+        DaemonInvestmentMode.blockUntilReleased();
+        return execute(apiProvider, DaemonInvestmentMode.BLOCK_UNTIL_RELEASED);
+    }
+
+    @Override
+    protected void openMarketplace(final Consumer<Collection<LoanSummary>> target) {
+        marketplace.registerListener(target);
+        marketplace.registerInterestProfile(() -> refreshableStrategy.getLatest()
+                .flatMap(InvestmentStrategy::getInterestProfile));
+        DaemonInvestmentMode.startMarketplace(marketplace, executor, polling);
+    }
+
+    /**
+     * Every marketplace check passes through here, which is why this is where {@link AdaptivePolling} learns whether
+     * the marketplace is active.
+     *
+     * @param view The marketplace, along with changes since it was last seen.
+     */
+    @Override
+    protected void registerMarketplaceCheck(final MarketplaceView view) {
+        polling.register(view);
+    }
+
+    /**
+     * Only run the investing algorithm when there is something new to look at, see {@link InvestingThrottle}.
+     *
+     * @param view The marketplace, along with changes since it was last seen.
+     * @return True if the investing algorithm should be executed.
+     */
+    @Override
+    protected boolean isInvestingRequired(final MarketplaceView view) {
+        return throttle.isInvestingRequired(view);
+    }
+
     @Override
     protected Function<Collection<LoanDescriptor>, Collection<Investment>> getInvestor(final ApiProvider apiProvider) {
         return new StrategyExecution(apiProvider, getProxyBuilder(), refreshableStrategy, getAuthenticationHandler(),
@@ -119,6 +197,7 @@ public class DaemonInvestmentMode extends AbstractInvestmentMode {
         DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release(); // just in case
         LOGGER.trace("Shutting down executor.");
         this.executor.shutdownNow();
+        ((Polling) MBean.POLLING.getImplementation()).unregister(polling);
         LOGGER.trace("Closing marketplace.");
         this.marketplace.close();
     }
@@ -25,7 +25,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
@@ -43,7 +43,7 @@ public class DirectInvestmentMode extends AbstractInvestmentMode {
 
         @Override
         public Collection<LoanDescriptor> getLoans() {
-            return Collections.singletonList(new LoanDescriptor(new Loan(loanId, loanAmount)));
+            return Collections.singletonList(new LoanDescriptor(new LoanSummary(loanId, loanAmount)));
         }
 
         @Override
@@ -77,9 +77,9 @@ public class DirectInvestmentMode extends AbstractInvestmentMode {
     }
 
     @Override
-    protected void openMarketplace(final Consumer<Collection<Loan>> target) {
+    protected void openMarketplace(final Consumer<Collection<LoanSummary>> target) {
         final DirectInvestmentMode.DirectInvestmentCommand c = investmentCommand;
-        target.accept(Collections.singleton(new Loan(c.getLoanId(), c.getLoanAmount())));
+        target.accept(Collections.singleton(new LoanSummary(c.getLoanId(), c.getLoanAmount())));
     }
 
     @Override
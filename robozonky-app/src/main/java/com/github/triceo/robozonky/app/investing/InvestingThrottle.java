@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.TemporalAmount;
+
+/**
+ * Decides whether the investing algorithm needs to run for a given state of the marketplace. That is when the
+ * marketplace changed, or when the balance may have changed - which, without the marketplace changing, can only happen
+ * through the user's deposits. These are picked up after the maximum sleep period, same as {@link Activity} would.
+ */
+final class InvestingThrottle {
+
+    private final TemporalAmount maximumSleepPeriod;
+    private OffsetDateTime lastInvestingRun = OffsetDateTime.MIN;
+
+    /**
+     * @param maximumSleepPeriod The longest time that may pass without investing.
+     */
+    public InvestingThrottle(final TemporalAmount maximumSleepPeriod) {
+        this.maximumSleepPeriod = maximumSleepPeriod;
+    }
+
+    /**
+     * @param view The marketplace, along with changes since it was last seen.
+     * @return True if the investing algorithm should be executed. In that case, the investing is considered to have
+     * been run now.
+     */
+    public synchronized boolean isInvestingRequired(final MarketplaceView view) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        if (!view.isChanged() && lastInvestingRun.plus(maximumSleepPeriod).isAfter(now)) {
+            return false;
+        }
+        lastInvestingRun = now;
+        return true;
+    }
+}
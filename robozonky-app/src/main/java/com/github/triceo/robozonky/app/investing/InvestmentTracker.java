@@ -23,7 +23,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -44,61 +45,88 @@ final class InvestmentTracker {
     private static final String UNTOUCHABLE_INVESTMENTS_ID = "untouchableInvestments";
     private static final Logger LOGGER = LoggerFactory.getLogger(InvestmentTracker.class);
 
-    private static Collection<Integer> readInvestments(final String propertyName) {
-        final Optional<String> result = InvestmentTracker.STATE.getValue(propertyName);
-        return result.map(s -> Stream.of(s.split(","))
-                .map(Integer::parseInt)
-                .sorted()
-                .collect(Collectors.toSet()))
-                .orElse(new LinkedHashSet<>(0));
-    }
+    /**
+     * Used by all trackers that were not given a namespace of their own.
+     */
+    static final String SHARED_NAMESPACE = "";
 
-    private static Collection<Integer> readUntouchableInvestments() {
-        return InvestmentTracker.readInvestments(InvestmentTracker.UNTOUCHABLE_INVESTMENTS_ID);
-    }
+    /**
+     * Loan IDs that trackers in a given namespace share between sessions.
+     */
+    private static final class PersistedState {
 
-    private static Collection<Integer> readSeenInvestments() {
-        return InvestmentTracker.readInvestments(InvestmentTracker.SEEN_INVESTMENTS_ID);
-    }
+        private final PersistedLoanIds discardedLoans, seenLoans;
 
-    private static void writeInvestments(final String propertyName, final Collection<Integer> rejectedInvestments) {
-        final String result = rejectedInvestments.stream()
-                .distinct()
-                .sorted()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        InvestmentTracker.STATE.setValue(propertyName, result);
-    }
+        public PersistedState(final State.ClassSpecificState state) {
+            this.discardedLoans = new PersistedLoanIds(state, InvestmentTracker.UNTOUCHABLE_INVESTMENTS_ID);
+            this.seenLoans = new PersistedLoanIds(state, InvestmentTracker.SEEN_INVESTMENTS_ID);
+        }
 
-    private static void writeUntouchableInvestments(final Collection<Integer> rejectedInvestments) {
-        InvestmentTracker.writeInvestments(InvestmentTracker.UNTOUCHABLE_INVESTMENTS_ID, rejectedInvestments);
+        public void flush() {
+            seenLoans.flush();
+            discardedLoans.flush();
+        }
     }
 
-    private static void writeSeenInvestments(final Collection<Integer> seenInvestments) {
-        InvestmentTracker.writeInvestments(InvestmentTracker.SEEN_INVESTMENTS_ID, seenInvestments);
+    /**
+     * Held in memory throughout the lifetime of the application, so that no I/O is performed during investing.
+     */
+    private static final Map<String, InvestmentTracker.PersistedState> PERSISTED_STATES = new ConcurrentHashMap<>(0);
+
+    private static InvestmentTracker.PersistedState getPersistedState(final String namespace) {
+        return InvestmentTracker.PERSISTED_STATES.computeIfAbsent(namespace, ns -> {
+            final State.ClassSpecificState state = ns.isEmpty() ?
+                    InvestmentTracker.STATE :
+                    State.INSTANCE.forClass(InvestmentTracker.class, ns);
+            return new InvestmentTracker.PersistedState(state);
+        });
     }
 
-    private static Collection<Integer> cleanIds(final Collection<Integer> loanIds,
-                                                final Collection<LoanDescriptor> availableLoans) {
-        final Collection<Integer> availableLoanIds = availableLoans.stream()
-                .map(l -> l.getLoan().getId())
-                .collect(Collectors.toSet());
-        loanIds.removeIf(id -> !availableLoanIds.contains(id)); // prevent old stale IDs from piling up
-        return loanIds;
+    /**
+     * Persist all changes made by any of the trackers that have not yet been persisted in the background.
+     */
+    static void flush() {
+        InvestmentTracker.PERSISTED_STATES.values().forEach(InvestmentTracker.PersistedState::flush);
     }
 
-    private final Collection<Integer> discardedLoans, seenLoans;
+    private final PersistedLoanIds discardedLoans, seenLoans;
     private final List<LoanDescriptor> loansStillAvailable;
     private final Collection<Investment> investmentsMade = new LinkedHashSet<>();
     private final Collection<Investment> investmentsPreviouslyMade = new HashSet<>();
-    private BigDecimal currentBalance;
+    private BigDecimal currentBalance, reservedBalance = BigDecimal.ZERO;
 
     public InvestmentTracker(final Collection<LoanDescriptor> availableLoans, final BigDecimal currentBalance) {
+        this(availableLoans, currentBalance, true);
+    }
+
+    InvestmentTracker(final Collection<LoanDescriptor> availableLoans, final BigDecimal currentBalance,
+                      final boolean isWholeMarketplace) {
+        this(availableLoans, currentBalance, isWholeMarketplace, InvestmentTracker.SHARED_NAMESPACE);
+    }
+
+    /**
+     * @param availableLoans Loans available for investing.
+     * @param currentBalance Balance available for investing.
+     * @param isWholeMarketplace Whether the available loans represent the entire marketplace. If so, information on
+     * loans no longer available is forgotten.
+     * @param namespace Trackers only share the loans seen and discarded with other trackers in the same namespace.
+     */
+    InvestmentTracker(final Collection<LoanDescriptor> availableLoans, final BigDecimal currentBalance,
+                      final boolean isWholeMarketplace, final String namespace) {
+        final InvestmentTracker.PersistedState persisted = InvestmentTracker.getPersistedState(namespace);
+        this.discardedLoans = persisted.discardedLoans;
+        this.seenLoans = persisted.seenLoans;
         this.currentBalance = currentBalance;
-        this.discardedLoans = InvestmentTracker.cleanIds(InvestmentTracker.readUntouchableInvestments(), availableLoans);
-        InvestmentTracker.LOGGER.debug("Loans previously discarded: {}", discardedLoans);
-        this.seenLoans = InvestmentTracker.cleanIds(InvestmentTracker.readSeenInvestments(), availableLoans);
-        InvestmentTracker.LOGGER.debug("Loans previously seen: {}", seenLoans);
+        if (isWholeMarketplace) {
+            final Collection<Integer> availableLoanIds = availableLoans.stream()
+                    .map(l -> l.getLoan().getId())
+                    .collect(Collectors.toSet());
+            // prevent old stale IDs from piling up
+            this.discardedLoans.retainAll(availableLoanIds);
+            InvestmentTracker.LOGGER.debug("Loans previously discarded: {}", discardedLoans.getAll());
+            this.seenLoans.retainAll(availableLoanIds);
+            InvestmentTracker.LOGGER.debug("Loans previously seen: {}", seenLoans.getAll());
+        }
         this.loansStillAvailable = availableLoans.stream()
                 .filter(l -> !this.discardedLoans.contains(l.getLoan().getId()))
                 .collect(Collectors.toList());
@@ -107,9 +135,9 @@ final class InvestmentTracker {
     /**
      * Get account balance reflecting the current state of the tracker.
      *
-     * @return The balance.
+     * @return The balance, not including any {@link #getReservedBalance()}.
      */
-    public BigDecimal getCurrentBalance() {
+    public synchronized BigDecimal getCurrentBalance() {
         return currentBalance;
     }
 
@@ -124,6 +152,44 @@ final class InvestmentTracker {
         this.currentBalance = this.currentBalance.subtract(BigDecimal.valueOf(investment.getAmount()));
     }
 
+    /**
+     * Set a given amount aside for an investment which is about to be attempted, so that it can not be used by any
+     * other investment in the meantime. Every successful reservation must eventually be
+     * {@link #releaseReservation(int)}d, regardless of the result of the investment.
+     *
+     * @param amount Amount in CZK to reserve.
+     * @return False if the balance is not sufficient for the reservation.
+     */
+    public synchronized boolean reserve(final int amount) {
+        final BigDecimal toReserve = BigDecimal.valueOf(amount);
+        if (this.currentBalance.compareTo(toReserve) < 0) {
+            return false;
+        }
+        this.currentBalance = this.currentBalance.subtract(toReserve);
+        this.reservedBalance = this.reservedBalance.add(toReserve);
+        return true;
+    }
+
+    /**
+     * Return a previously {@link #reserve(int)}d amount back to the balance. Successful investments reduce the balance
+     * on their own, see {@link #makeInvestment(Investment)}.
+     *
+     * @param amount Amount in CZK that was reserved.
+     */
+    public synchronized void releaseReservation(final int amount) {
+        final BigDecimal toRelease = BigDecimal.valueOf(amount);
+        this.reservedBalance = this.reservedBalance.subtract(toRelease);
+        this.currentBalance = this.currentBalance.add(toRelease);
+    }
+
+    /**
+     *
+     * @return Sum of all amounts {@link #reserve(int)}d and not yet {@link #releaseReservation(int)}d.
+     */
+    public synchronized BigDecimal getReservedBalance() {
+        return this.reservedBalance;
+    }
+
     public synchronized boolean isSeenBefore(final int loanId) {
         return this.seenLoans.contains(loanId);
     }
@@ -140,7 +206,6 @@ final class InvestmentTracker {
     public synchronized void ignoreLoan(final int loanId) {
         this.loansStillAvailable.removeIf(l -> loanId == l.getLoan().getId());
         this.seenLoans.add(loanId);
-        InvestmentTracker.writeSeenInvestments(this.seenLoans);
     }
 
     /**
@@ -151,7 +216,6 @@ final class InvestmentTracker {
     public synchronized void discardLoan(final int loanId) {
         this.ignoreLoan(loanId);
         this.discardedLoans.add(loanId);
-        InvestmentTracker.writeUntouchableInvestments(this.discardedLoans);
     }
 
     /**
@@ -19,14 +19,22 @@ package com.github.triceo.robozonky.app.investing;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.github.triceo.robozonky.api.notifications.Event;
+import com.github.triceo.robozonky.api.notifications.EventListener;
 import com.github.triceo.robozonky.api.notifications.InvestmentDelegatedEvent;
 import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
 import com.github.triceo.robozonky.api.notifications.InvestmentRejectedEvent;
@@ -35,16 +43,17 @@ import com.github.triceo.robozonky.api.notifications.InvestmentSkippedEvent;
 import com.github.triceo.robozonky.api.notifications.LoanRecommendedEvent;
 import com.github.triceo.robozonky.api.notifications.StrategyCompletedEvent;
 import com.github.triceo.robozonky.api.notifications.StrategyStartedEvent;
-import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.api.remote.entities.BlockedAmount;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
 import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.entities.Statistics;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.api.strategies.PortfolioOverview;
 import com.github.triceo.robozonky.api.strategies.Recommendation;
 import com.github.triceo.robozonky.app.Events;
+import com.github.triceo.robozonky.common.remote.LoanCache;
 import com.github.triceo.robozonky.internal.api.Defaults;
 import com.github.triceo.robozonky.internal.api.Retriever;
 import org.slf4j.Logger;
@@ -56,6 +65,17 @@ import org.slf4j.LoggerFactory;
 class Investor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Investor.class);
+    private static final EventListener<Event> NO_ACCOUNT_LISTENER = e -> {
+        // nobody is interested
+    };
+    /**
+     * The amount of threads is bounded by {@link #concurrentInvestments} of all the running investors.
+     */
+    private static final ExecutorService INVESTING_POOL = Executors.newCachedThreadPool(r -> {
+        final Thread t = new Thread(r, "rzInvestor");
+        t.setDaemon(true);
+        return t;
+    });
 
     /**
      * The core investing call. Receives a particular loan, checks if the user has enough money to invest, and sends the
@@ -68,6 +88,22 @@ class Investor {
      */
     static Optional<Investment> actuallyInvest(final Recommendation recommendation, final ZonkyProxy api,
                                                final InvestmentTracker tracker) {
+        return Investor.actuallyInvest(recommendation, api, tracker, Investor.NO_ACCOUNT_LISTENER);
+    }
+
+    /**
+     * Same as {@link #actuallyInvest(Recommendation, ZonkyProxy, InvestmentTracker)}, additionally announcing the
+     * outcome to a listener which only cares about the account being invested from.
+     *
+     * @param recommendation Recommendation to invest.
+     * @param api API to invest through.
+     * @param tracker Status of the investing session.
+     * @param accountListener Will receive the events of this investment, in addition to {@link Events}.
+     * @return Present if input valid and operation succeeded, empty otherwise.
+     */
+    static Optional<Investment> actuallyInvest(final Recommendation recommendation, final ZonkyProxy api,
+                                               final InvestmentTracker tracker,
+                                               final EventListener<Event> accountListener) {
         final int amount = recommendation.getRecommendedInvestmentAmount();
         final int loanId = recommendation.getLoanDescriptor().getLoan().getId();
         final BigDecimal balance = tracker.getCurrentBalance();
@@ -76,26 +112,50 @@ class Investor {
                     amount, balance);
             return Optional.empty();
         }
-        Events.fire(new InvestmentRequestedEvent(recommendation));
+        return Investor.submitInvestment(recommendation, api, tracker, balance, accountListener);
+    }
+
+    private static void fire(final Event event, final EventListener<Event> accountListener) {
+        Events.fire(event);
+        accountListener.handle(event);
+    }
+
+    /**
+     * Sends the investment command to the Zonky API, without checking the balance first.
+     *
+     * @param recommendation Recommendation to invest.
+     * @param api API to invest through.
+     * @param tracker Status of the investing session.
+     * @param balance Balance available for this investment, used for reporting.
+     * @param accountListener Will receive the events of this investment, in addition to {@link Events}.
+     * @return Present if operation succeeded, empty otherwise.
+     */
+    private static Optional<Investment> submitInvestment(final Recommendation recommendation, final ZonkyProxy api,
+                                                         final InvestmentTracker tracker, final BigDecimal balance,
+                                                         final EventListener<Event> accountListener) {
+        final int loanId = recommendation.getLoanDescriptor().getLoan().getId();
+        Investor.fire(new InvestmentRequestedEvent(recommendation), accountListener);
         final ZonkyResponse response = api.invest(recommendation, tracker.isSeenBefore(loanId));
         Investor.LOGGER.debug("Response for loan {}: {}.", loanId, response);
         final String providerId = api.getConfirmationProviderId().orElse("-");
         switch (response.getType()) {
             case REJECTED:
                 return api.getConfirmationProviderId().map(c -> {
-                    Events.fire(new InvestmentRejectedEvent(recommendation, balance.intValue(), providerId));
+                    Investor.fire(new InvestmentRejectedEvent(recommendation, balance.intValue(), providerId),
+                            accountListener);
                     // rejected through a confirmation provider => forget
                     tracker.discardLoan(loanId);
                     return Optional.<Investment>empty();
                 }).orElseGet(() -> {
                     // rejected due to no confirmation provider => make available for direct investment later
-                    Events.fire(new InvestmentSkippedEvent(recommendation));
+                    Investor.fire(new InvestmentSkippedEvent(recommendation), accountListener);
                     Investor.LOGGER.debug("Loan #{} protected by CAPTCHA, will check back later.", loanId);
                     tracker.ignoreLoan(loanId);
                     return Optional.empty();
                 });
             case DELEGATED:
-                Events.fire(new InvestmentDelegatedEvent(recommendation, balance.intValue(), providerId));
+                Investor.fire(new InvestmentDelegatedEvent(recommendation, balance.intValue(), providerId),
+                        accountListener);
                 if (recommendation.isConfirmationRequired()) {
                     // confirmation required, delegation successful => forget
                     tracker.discardLoan(loanId);
@@ -107,11 +167,12 @@ class Investor {
             case INVESTED:
                 final int confirmedAmount = response.getConfirmedAmount().getAsInt();
                 final Investment i = new Investment(recommendation.getLoanDescriptor().getLoan(), confirmedAmount);
-                Events.fire(new InvestmentMadeEvent(i, balance.intValue() - confirmedAmount, api.isDryRun()));
+                Investor.fire(new InvestmentMadeEvent(i, balance.intValue() - confirmedAmount, api.isDryRun()),
+                        accountListener);
                 tracker.makeInvestment(i);
                 return Optional.of(i);
             case SEEN_BEFORE:
-                Events.fire(new InvestmentSkippedEvent(recommendation));
+                Investor.fire(new InvestmentSkippedEvent(recommendation), accountListener);
                 return Optional.empty();
             default:
                 throw new IllegalStateException("Not possible.");
@@ -136,34 +197,65 @@ class Investor {
      * @return Every blocked amount represents a future investment. This method returns such investments.
      */
     static List<Investment> retrieveInvestmentsRepresentedByBlockedAmounts(final ZonkyProxy api) {
+        return Investor.retrieveInvestmentsRepresentedByBlockedAmounts(
+                api.execute(zonky -> zonky.getBlockedAmounts(Integer.MAX_VALUE, 0)), api);
+    }
+
+    /**
+     * Same as {@link #retrieveInvestmentsRepresentedByBlockedAmounts(ZonkyProxy)}, with blocked amounts already known.
+     *
+     * @param blockedAmounts Blocked amounts from the user's wallet.
+     * @param api Authenticated API that will be used to retrieve the loans.
+     * @return Every blocked amount represents a future investment. This method returns such investments.
+     */
+    static List<Investment> retrieveInvestmentsRepresentedByBlockedAmounts(final List<BlockedAmount> blockedAmounts,
+                                                                           final ZonkyProxy api) {
         // first group all blocked amounts by the loan ID and sum them
         final Map<Integer, Integer> amountsBlockedByLoans =
-                api.execute(zonky -> zonky.getBlockedAmounts(Integer.MAX_VALUE, 0))
-                        .stream()
+                blockedAmounts.stream()
                         .filter(blocked -> blocked.getLoanId() > 0) // 0 == Zonky investors' fee
                         .collect(Collectors.groupingBy(BlockedAmount::getLoanId,
                                 Collectors.summingInt(BlockedAmount::getAmount)));
         // and then fetch all the loans in parallel, converting them into investments
         return Collections.unmodifiableList(amountsBlockedByLoans.entrySet().parallelStream()
                 .map(entry ->
-                        Retriever.retrieve(() -> Optional.of(api.execute((zonky) -> zonky.getLoan(entry.getKey()))))
+                        Retriever.retrieve(() -> Optional.of(Investor.getLoan(entry.getKey(), api)))
                                 .map(l -> new Investment(l, entry.getValue()))
                                 .orElseThrow(() -> new RuntimeException("Loan retrieval failed."))
                 ).collect(Collectors.toList()));
     }
 
     /**
-     * Zonky API may return {@link ZonkyApi#getStatistics()} as null if the account has no previous investments.
+     * Investments only need what the marketplace provides, therefore a cached summary is enough.
      *
-     * @param api API to execute the operation.
-     * @return Either what the API returns, or an empty object.
+     * @param loanId ID of the loan to retrieve.
+     * @param api Authenticated API that will be used to retrieve the loan, if not cached.
+     * @return The loan, possibly only its summary.
      */
-    private static Statistics retrieveStatistics(final ZonkyProxy api) {
-        final Statistics returned = api.execute(ZonkyApi::getStatistics);
-        return returned == null ? new Statistics() : returned;
+    private static LoanSummary getLoan(final int loanId, final ZonkyProxy api) {
+        return LoanCache.INSTANCE.getCachedLoan(loanId)
+                .orElseGet(() -> LoanCache.INSTANCE.getLoan(loanId, id -> api.execute(zonky -> zonky.getLoan(id))));
+    }
+
+    /**
+     * Unlike {@link #getLoan(int, ZonkyProxy)}, always retrieve the loan from Zonky. Loans asked for explicitly need
+     * not be on the marketplace, and the cache may therefore have stale remaining investment for them.
+     *
+     * @param loanId ID of the loan to retrieve.
+     * @param api Authenticated API that will be used to retrieve the loan.
+     * @return The loan, which also replaces whatever was cached for it.
+     */
+    private static Loan getFreshLoan(final int loanId, final ZonkyProxy api) {
+        final Loan loan = api.execute(zonky -> zonky.getLoan(loanId));
+        LoanCache.INSTANCE.seed(loan);
+        return loan;
     }
 
     private final ZonkyProxy api;
+    private final AccountSnapshot account;
+    private final String stateNamespace;
+    private final EventListener<Event> accountListener;
+    private final int concurrentInvestments;
     private BigDecimal balance;
 
     /**
@@ -172,11 +264,80 @@ class Investor {
      * @param initialBalance How much available cash the user has in their wallet.
      */
     public Investor(final ZonkyProxy api, final BigDecimal initialBalance) {
+        this(api, initialBalance, Defaults.getMaximumConcurrentInvestments());
+    }
+
+    /**
+     * Constructor which allows for concurrent investing.
+     * @param api Authenticated API ready to communicate with the server.
+     * @param initialBalance How much available cash the user has in their wallet.
+     * @param concurrentInvestments Maximum number of investments to attempt at the same time.
+     */
+    Investor(final ZonkyProxy api, final BigDecimal initialBalance, final int concurrentInvestments) {
+        this(api, initialBalance, concurrentInvestments, AccountSnapshot.uncached());
+    }
+
+    /**
+     * Constructor which allows for concurrent investing and for reuse of account information.
+     * @param api Authenticated API ready to communicate with the server.
+     * @param initialBalance How much available cash the user has in their wallet.
+     * @param concurrentInvestments Maximum number of investments to attempt at the same time.
+     * @param account Source of account information, such as statistics and blocked amounts.
+     */
+    Investor(final ZonkyProxy api, final BigDecimal initialBalance, final int concurrentInvestments,
+             final AccountSnapshot account) {
+        this(api, initialBalance, concurrentInvestments, account, InvestmentTracker.SHARED_NAMESPACE,
+                Investor.NO_ACCOUNT_LISTENER);
+    }
+
+    /**
+     * Constructor which allows for several accounts to be invested from independently of one another.
+     * @param api Authenticated API ready to communicate with the server.
+     * @param initialBalance How much available cash the user has in their wallet.
+     * @param concurrentInvestments Maximum number of investments to attempt at the same time.
+     * @param account Source of account information, such as statistics and blocked amounts.
+     * @param stateNamespace Namespace for the state kept between sessions, see {@link InvestmentTracker}.
+     * @param accountListener Will receive the investment events, which unlike {@link Events} only come from this
+     * account.
+     */
+    Investor(final ZonkyProxy api, final BigDecimal initialBalance, final int concurrentInvestments,
+             final AccountSnapshot account, final String stateNamespace, final EventListener<Event> accountListener) {
         this.api = api;
+        this.account = account;
+        this.stateNamespace = stateNamespace;
+        this.accountListener = accountListener;
+        this.concurrentInvestments = Math.max(1, concurrentInvestments);
         this.balance = initialBalance;
         Investor.LOGGER.info("Starting account balance: {} CZK.", this.balance);
     }
 
+    /**
+     * Same as {@link #actuallyInvest(Recommendation, ZonkyProxy, InvestmentTracker, EventListener)}, but only if the
+     * loan is not already being invested into from the same account, such as by {@link CaptchaSniper}.
+     *
+     * @param recommendation Recommendation to invest.
+     * @param tracker Status of the investing session.
+     * @return Present if operation succeeded, empty otherwise.
+     */
+    private Optional<Investment> claimAndInvest(final Recommendation recommendation, final InvestmentTracker tracker) {
+        final int loanId = recommendation.getLoanDescriptor().getLoan().getId();
+        if (!this.account.claim(loanId)) {
+            Investor.LOGGER.debug("Not investing into loan #{}, already invested or being invested into.", loanId);
+            return Optional.empty();
+        }
+        boolean isInvested = false;
+        try {
+            final Optional<Investment> result =
+                    Investor.actuallyInvest(recommendation, this.api, tracker, this.accountListener);
+            isInvested = result.isPresent();
+            return result;
+        } finally {
+            if (!isInvested) {
+                this.account.releaseClaim(loanId);
+            }
+        }
+    }
+
     /**
      * One of the two entry points to the investment API. This takes the strategy, determines suitable loans, and tries
      * to invest in as many of them as the balance allows.
@@ -192,12 +353,14 @@ class Investor {
             return Collections.emptyList(); // no need to do anything else
         }
         // read our investment statistics
-        final Statistics stats = Investor.retrieveStatistics(this.api);
+        final Statistics stats = this.account.getStatistics(this.api);
         Investor.LOGGER.debug("The sum total of principal remaining on active loans: {} CZK.",
                 stats.getCurrentOverview().getPrincipalLeft());
         // figure out which loans we can still put money into
-        final InvestmentTracker tracker = new InvestmentTracker(loans, this.balance);
-        tracker.registerExistingInvestments(Investor.retrieveInvestmentsRepresentedByBlockedAmounts(this.api));
+        final InvestmentTracker tracker = new InvestmentTracker(loans, this.balance, true, this.stateNamespace);
+        tracker.registerExistingInvestments(
+                Investor.retrieveInvestmentsRepresentedByBlockedAmounts(this.account.getBlockedAmounts(this.api),
+                        this.api));
         // invest the money
         this.runInvestmentLoop(strategy, tracker, stats, minimumInvestmentAmount);
         return tracker.getInvestmentsMade();
@@ -213,27 +376,128 @@ class Investor {
         PortfolioOverview portfolio =
                 PortfolioOverview.calculate(tracker.getCurrentBalance(), stats, tracker.getAllInvestments());
         Events.fire(new StrategyStartedEvent(strategy, tracker.getAvailableLoans(), portfolio));
+        if (this.concurrentInvestments > 1) {
+            portfolio = this.investConcurrently(strategy, tracker, portfolio, minimumInvestmentAmount);
+        } else {
+            portfolio = this.investSerially(strategy, tracker, portfolio, minimumInvestmentAmount);
+        }
+        Events.fire(new StrategyCompletedEvent(strategy, tracker.getInvestmentsMade(), portfolio));
+        // report
+        this.balance = tracker.getCurrentBalance();
+        Investor.LOGGER.info("Current value of portfolio is {} CZK, annual expected yield is {} % ({} CZK).",
+                portfolio.getCzkAvailable() + portfolio.getCzkInvested(),
+                portfolio.getRelativeExpectedYield().scaleByPowerOfTen(2).setScale(2, RoundingMode.HALF_EVEN),
+                portfolio.getCzkExpectedYield());
+    }
+
+    private PortfolioOverview investSerially(final InvestmentStrategy strategy, final InvestmentTracker tracker,
+                                             final PortfolioOverview initialPortfolio,
+                                             final BigDecimal minimumInvestmentAmount) {
+        PortfolioOverview portfolio = initialPortfolio;
         do {
             Investor.LOGGER.debug("Current share of unpaid loans with a given rating: {}.",
                     portfolio.getSharesOnInvestment());
-            final boolean investmentWasMade = strategy.recommend(tracker.getAvailableLoans(), portfolio).stream()
+            final Optional<Investment> investment = strategy.recommend(tracker.getAvailableLoans(), portfolio).stream()
                     .peek(r -> Events.fire(new LoanRecommendedEvent(r)))
-                    .map(r -> Investor.actuallyInvest(r, this.api, tracker))
+                    .map(r -> this.claimAndInvest(r, tracker))
                     .flatMap(o -> o.map(Stream::of).orElse(Stream.empty()))
-                    .findFirst()
-                    .isPresent();
-            if (!investmentWasMade) { // there is nothing to invest into; RoboZonky is finished now
+                    .findFirst();
+            if (!investment.isPresent()) { // there is nothing to invest into; RoboZonky is finished now
                 break;
             }
-            portfolio = PortfolioOverview.calculate(tracker.getCurrentBalance(), stats, tracker.getAllInvestments());
+            portfolio = portfolio.add(investment.get()); // no need to recalculate everything from scratch
         } while (tracker.getCurrentBalance().compareTo(minimumInvestmentAmount) >= 0);
-        Events.fire(new StrategyCompletedEvent(strategy, tracker.getInvestmentsMade(), portfolio));
-        // report
-        this.balance = tracker.getCurrentBalance();
-        Investor.LOGGER.info("Current value of portfolio is {} CZK, annual expected yield is {} % ({} CZK).",
-                portfolio.getCzkAvailable() + portfolio.getCzkInvested(),
-                portfolio.getRelativeExpectedYield().scaleByPowerOfTen(2).setScale(2, RoundingMode.HALF_EVEN),
-                portfolio.getCzkExpectedYield());
+        return portfolio;
+    }
+
+    /**
+     * Picks up to {@link #concurrentInvestments} recommendations, reserving balance for each of them in the tracker.
+     * Every recommendation is made against a portfolio which already includes the previously picked ones, so that the
+     * strategy's portfolio constraints still hold should all of them succeed.
+     *
+     * @param strategy Strategy to make the recommendations.
+     * @param tracker Status of the investing session.
+     * @param portfolio Current portfolio.
+     * @param attempted Loans that were already attempted in this session, will not be picked again.
+     * @return Recommendations to invest into, with their respective amounts already reserved.
+     */
+    private Collection<Recommendation> pickRecommendations(final InvestmentStrategy strategy,
+                                                           final InvestmentTracker tracker,
+                                                           final PortfolioOverview portfolio,
+                                                           final Collection<Integer> attempted) {
+        final Collection<Recommendation> picked = new ArrayList<>(this.concurrentInvestments);
+        PortfolioOverview speculativePortfolio = portfolio;
+        while (picked.size() < this.concurrentInvestments) {
+            final List<LoanDescriptor> available = tracker.getAvailableLoans().stream()
+                    .filter(l -> !attempted.contains(l.getLoan().getId()))
+                    .collect(Collectors.toList());
+            final Optional<Recommendation> recommendation = strategy.recommend(available, speculativePortfolio)
+                    .stream()
+                    .filter(r -> tracker.reserve(r.getRecommendedInvestmentAmount()))
+                    .findFirst();
+            if (!recommendation.isPresent()) {
+                break;
+            }
+            final Recommendation r = recommendation.get();
+            Events.fire(new LoanRecommendedEvent(r));
+            attempted.add(r.getLoanDescriptor().getLoan().getId());
+            picked.add(r);
+            speculativePortfolio = speculativePortfolio.add(new Investment(r.getLoanDescriptor().getLoan(),
+                    r.getRecommendedInvestmentAmount()));
+        }
+        return picked;
+    }
+
+    private Collection<Investment> submitConcurrently(final Collection<Recommendation> recommendations,
+                                                      final InvestmentTracker tracker) {
+        final List<CompletableFuture<Optional<Investment>>> futures = recommendations.stream()
+                .map(r -> CompletableFuture.supplyAsync(() -> {
+                    final int amount = r.getRecommendedInvestmentAmount();
+                    try { // the reservation makes sure we have the money, no need to check the balance
+                        final BigDecimal balance = tracker.getCurrentBalance().add(BigDecimal.valueOf(amount));
+                        return Investor.submitInvestment(r, this.api, tracker, balance, this.accountListener);
+                    } finally {
+                        tracker.releaseReservation(amount);
+                    }
+                }, Investor.INVESTING_POOL))
+                .collect(Collectors.toList());
+        final Collection<Investment> result = new ArrayList<>(futures.size());
+        RuntimeException failure = null;
+        for (final CompletableFuture<Optional<Investment>> future : futures) { // wait for all to finish
+            try {
+                future.join().ifPresent(result::add);
+            } catch (final CompletionException ex) {
+                Investor.LOGGER.debug("Concurrent investment failed.", ex.getCause());
+                if (failure == null) {
+                    failure = (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause() : ex;
+                }
+            }
+        }
+        if (failure != null) { // same as the serial loop, investment failures terminate the session
+            throw failure;
+        }
+        return result;
+    }
+
+    private PortfolioOverview investConcurrently(final InvestmentStrategy strategy, final InvestmentTracker tracker,
+                                                 final PortfolioOverview initialPortfolio,
+                                                 final BigDecimal minimumInvestmentAmount) {
+        PortfolioOverview portfolio = initialPortfolio;
+        final Collection<Integer> attempted = new HashSet<>();
+        do {
+            Investor.LOGGER.debug("Current share of unpaid loans with a given rating: {}.",
+                    portfolio.getSharesOnInvestment());
+            final Collection<Recommendation> recommendations =
+                    this.pickRecommendations(strategy, tracker, portfolio, attempted);
+            if (recommendations.isEmpty()) { // there is nothing to invest into; RoboZonky is finished now
+                break;
+            }
+            Investor.LOGGER.debug("Investing concurrently into {} loans.", recommendations.size());
+            for (final Investment i : this.submitConcurrently(recommendations, tracker)) {
+                portfolio = portfolio.add(i);
+            }
+        } while (tracker.getCurrentBalance().compareTo(minimumInvestmentAmount) >= 0);
+        return portfolio;
     }
 
     /**
@@ -245,15 +509,37 @@ class Investor {
      * @return Present if investment succeeded, empty otherwise.
      */
     public Optional<Investment> invest(final int loanId, final int loanAmount, final TemporalAmount captchaDuration) {
-        final Loan l = api.execute(zonky -> zonky.getLoan(loanId));
+        final Loan l = Investor.getFreshLoan(loanId, api);
         final Optional<Recommendation> r = new LoanDescriptor(l, captchaDuration).recommend(loanAmount, false);
-        final InvestmentTracker t = new InvestmentTracker(Collections.emptyList(), this.balance);
-        final Optional<Investment> result = r.map(r2 -> Investor.actuallyInvest(r2, this.api, t))
+        final InvestmentTracker t =
+                new InvestmentTracker(Collections.emptyList(), this.balance, false, this.stateNamespace);
+        final Optional<Investment> result = r.map(r2 -> this.claimAndInvest(r2, t))
                 .orElse(Optional.empty());
         this.balance = t.getCurrentBalance();
         return result;
     }
 
+    /**
+     * Invests into a loan that was recommended before, without consulting the strategy again. See
+     * {@link CaptchaSniper}.
+     *
+     * @param recommendation Recommendation made by the strategy earlier.
+     * @return Present if investment succeeded, empty otherwise.
+     */
+    Optional<Investment> invest(final Recommendation recommendation) {
+        final InvestmentTracker t =
+                new InvestmentTracker(Collections.singleton(recommendation.getLoanDescriptor()), this.balance, false,
+                        this.stateNamespace);
+        if (t.getAvailableLoans().isEmpty()) { // discarded in the meantime
+            return Optional.empty();
+        }
+        final Optional<Investment> result = this.claimAndInvest(recommendation, t);
+        // the regular investing will otherwise not know about this investment, and could attempt it again
+        result.ifPresent(i -> t.discardLoan(i.getLoanId()));
+        this.balance = t.getCurrentBalance();
+        return result;
+    }
+
     public BigDecimal getBalance() {
         return balance;
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+/**
+ * Set of loan IDs, backed by an open-addressing hash table with linear probing. Unlike a {@link java.util.Set} of
+ * {@link Integer}s, it does not allocate anything on lookup and the lookups do not get any slower as the set grows.
+ *
+ * Every ID carries a timestamp of when it was last seen, so that IDs which have not been seen in a while can be
+ * evicted through {@link #evictOlderThan(long)}.
+ */
+final class LoanIdSet {
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    /**
+     * Spread the bits of the ID, so that sequential IDs do not end up in sequential slots.
+     *
+     * @param id ID to hash.
+     * @return The hash.
+     */
+    private static int hash(final int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int[] ids;
+    private long[] timestamps;
+    private boolean[] occupied;
+    private int size = 0;
+
+    public LoanIdSet() {
+        this.allocate(LoanIdSet.MINIMUM_CAPACITY);
+    }
+
+    private void allocate(final int capacity) {
+        this.ids = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.occupied = new boolean[capacity];
+    }
+
+    private int getHomeSlot(final int id) {
+        return LoanIdSet.hash(id) & (ids.length - 1);
+    }
+
+    /**
+     * Locate the ID in the table.
+     *
+     * @param id ID to look up.
+     * @return Non-negative slot if found, otherwise (-slot - 1) where slot is the first free slot for the ID.
+     */
+    private int locate(final int id) {
+        final int mask = ids.length - 1;
+        int slot = this.getHomeSlot(id);
+        while (occupied[slot]) {
+            if (ids[slot] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    private void resize(final int capacity) {
+        final int[] oldIds = this.ids;
+        final long[] oldTimestamps = this.timestamps;
+        final boolean[] oldOccupied = this.occupied;
+        this.allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldOccupied[i]) {
+                final int slot = -this.locate(oldIds[i]) - 1;
+                this.ids[slot] = oldIds[i];
+                this.timestamps[slot] = oldTimestamps[i];
+                this.occupied[slot] = true;
+            }
+        }
+    }
+
+    /**
+     * Remove the entry at a given slot, shifting the following entries back so that no lookup chain is broken.
+     *
+     * @param slot Slot to clear.
+     */
+    private void removeAt(final int slot) {
+        final int mask = ids.length - 1;
+        int free = slot;
+        occupied[free] = false;
+        size--;
+        int current = free;
+        while (true) {
+            current = (current + 1) & mask;
+            if (!occupied[current]) {
+                return;
+            }
+            final int home = this.getHomeSlot(ids[current]);
+            final boolean staysInPlace = (free <= current) ?
+                    (free < home && home <= current) :
+                    (free < home || home <= current);
+            if (staysInPlace) {
+                continue;
+            }
+            ids[free] = ids[current];
+            timestamps[free] = timestamps[current];
+            occupied[free] = true;
+            occupied[current] = false;
+            free = current;
+        }
+    }
+
+    /**
+     * Add an ID to the set.
+     *
+     * @param id ID to add.
+     * @param timestamp When the ID was seen.
+     * @return True if the ID was not in the set before.
+     */
+    public synchronized boolean add(final int id, final long timestamp) {
+        final int slot = this.locate(id);
+        if (slot >= 0) {
+            timestamps[slot] = Math.max(timestamps[slot], timestamp);
+            return false;
+        }
+        if ((size + 1) * 2 > ids.length) { // keep load factor under 0.5
+            this.resize(ids.length * 2);
+            return this.add(id, timestamp);
+        }
+        final int freeSlot = -slot - 1;
+        ids[freeSlot] = id;
+        timestamps[freeSlot] = timestamp;
+        occupied[freeSlot] = true;
+        size++;
+        return true;
+    }
+
+    /**
+     * Whether or not the set contains an ID. If so, record that the ID has been seen.
+     *
+     * @param id ID to look up.
+     * @param timestamp When the ID was seen.
+     * @return True if the set contains the ID.
+     */
+    public synchronized boolean touch(final int id, final long timestamp) {
+        final int slot = this.locate(id);
+        if (slot < 0) {
+            return false;
+        }
+        timestamps[slot] = Math.max(timestamps[slot], timestamp);
+        return true;
+    }
+
+    public synchronized boolean contains(final int id) {
+        return this.locate(id) >= 0;
+    }
+
+    /**
+     * Remove all IDs that have not been seen since a given point in time.
+     *
+     * @param timestamp IDs last seen before this will be removed.
+     * @return How many IDs were removed.
+     */
+    public synchronized int evictOlderThan(final long timestamp) {
+        int evicted = 0;
+        int slot = 0;
+        while (slot < ids.length) {
+            if (occupied[slot] && timestamps[slot] < timestamp) {
+                this.removeAt(slot); // another entry may have been shifted into this slot, so check it again
+                evicted++;
+            } else {
+                slot++;
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+}
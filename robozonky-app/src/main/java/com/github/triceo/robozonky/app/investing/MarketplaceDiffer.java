@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+
+/**
+ * Compares consecutive marketplace checks and determines which loans were added, changed or removed in between. Loans
+ * are identified by their ID, and considered changed when any of the following changes: remaining investment,
+ * whether or not the loan is covered or published, and whether or not the loan is still protected by CAPTCHA.
+ *
+ * The last of these is not a property of the loan itself, but it needs to be included - otherwise a loan whose CAPTCHA
+ * protection has just ended would look the same as before and would never be re-evaluated.
+ */
+final class MarketplaceDiffer {
+
+    private static final class LoanState {
+
+        private final LoanDescriptor descriptor;
+        private final double remainingInvestment;
+        private final boolean covered, published, captchaProtected;
+
+        public LoanState(final LoanDescriptor descriptor, final OffsetDateTime now) {
+            final LoanSummary loan = descriptor.getLoan();
+            this.descriptor = descriptor;
+            this.remainingInvestment = loan.getRemainingInvestment();
+            this.covered = loan.isCovered();
+            this.published = loan.isPublished();
+            this.captchaProtected = descriptor.getLoanCaptchaProtectionEndDateTime()
+                    .map(captchaEnds -> captchaEnds.isAfter(now))
+                    .orElse(false);
+        }
+
+        public LoanDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        public boolean isSameAs(final MarketplaceDiffer.LoanState other) {
+            return Double.compare(remainingInvestment, other.remainingInvestment) == 0 &&
+                    covered == other.covered &&
+                    published == other.published &&
+                    captchaProtected == other.captchaProtected;
+        }
+
+    }
+
+    private Map<Integer, MarketplaceDiffer.LoanState> previous = Collections.emptyMap();
+
+    /**
+     * Compare the given loans with the loans received during the previous call of this method.
+     *
+     * @param loans Loans currently available on the marketplace.
+     * @return Full view of the marketplace, along with the changes since the previous call.
+     */
+    public synchronized MarketplaceView diff(final Collection<LoanDescriptor> loans) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final Map<Integer, MarketplaceDiffer.LoanState> current = new LinkedHashMap<>(loans.size());
+        final Collection<LoanDescriptor> added = new ArrayList<>(0), changed = new ArrayList<>(0);
+        loans.forEach(ld -> {
+            final MarketplaceDiffer.LoanState state = new MarketplaceDiffer.LoanState(ld, now);
+            final MarketplaceDiffer.LoanState previousState = this.previous.get(ld.getLoan().getId());
+            if (previousState == null) {
+                added.add(ld);
+            } else if (!previousState.isSameAs(state)) {
+                changed.add(ld);
+            }
+            current.put(ld.getLoan().getId(), state);
+        });
+        final Collection<LoanDescriptor> removed = this.previous.entrySet().stream()
+                .filter(e -> !current.containsKey(e.getKey()))
+                .map(e -> e.getValue().getDescriptor())
+                .collect(Collectors.toList());
+        this.previous = current;
+        return new MarketplaceView(new ArrayList<>(loans), added, changed, removed);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+
+/**
+ * Represents the marketplace as it was seen during one particular check. Besides the full view, it also carries the
+ * changes since the previous check, as determined by {@link MarketplaceDiffer}.
+ */
+final class MarketplaceView {
+
+    private final Collection<LoanDescriptor> loans, added, changed, removed;
+
+    MarketplaceView(final Collection<LoanDescriptor> loans, final Collection<LoanDescriptor> added,
+                    final Collection<LoanDescriptor> changed, final Collection<LoanDescriptor> removed) {
+        this.loans = Collections.unmodifiableCollection(loans);
+        this.added = Collections.unmodifiableCollection(added);
+        this.changed = Collections.unmodifiableCollection(changed);
+        this.removed = Collections.unmodifiableCollection(removed);
+    }
+
+    /**
+     *
+     * @return All loans currently available on the marketplace.
+     */
+    public Collection<LoanDescriptor> getLoans() {
+        return loans;
+    }
+
+    /**
+     *
+     * @return Loans that were not on the marketplace during the previous check.
+     */
+    public Collection<LoanDescriptor> getAdded() {
+        return added;
+    }
+
+    /**
+     *
+     * @return Loans that were on the marketplace during the previous check, but have since changed.
+     */
+    public Collection<LoanDescriptor> getChanged() {
+        return changed;
+    }
+
+    /**
+     *
+     * @return Loans that were on the marketplace during the previous check, but are no longer there. Will carry the
+     * last known state of those loans.
+     */
+    public Collection<LoanDescriptor> getRemoved() {
+        return removed;
+    }
+
+    /**
+     *
+     * @return True if any loans were added, changed or removed since the previous check.
+     */
+    public boolean isChanged() {
+        return !(added.isEmpty() && changed.isEmpty() && removed.isEmpty());
+    }
+
+    @Override
+    public String toString() {
+        return "MarketplaceView{" +
+                "loans=" + loans.size() +
+                ", added=" + added.size() +
+                ", changed=" + changed.size() +
+                ", removed=" + removed.size() +
+                '}';
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
+import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
+import com.github.triceo.robozonky.app.management.MBean;
+import com.github.triceo.robozonky.app.management.Polling;
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Same as {@link DaemonInvestmentMode}, but investing from several accounts at once. The marketplace is only checked
+ * once for all of them, and every change is then handed over to an {@link AccountPipeline} per account. The accounts
+ * do not share any state, and each of them invests in its own thread, so that no account can delay the others.
+ */
+public class MultiAccountDaemonInvestmentMode implements InvestmentMode {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiAccountDaemonInvestmentMode.class);
+
+    /**
+     * The marketplace may only leave out loans that none of the accounts are interested in.
+     *
+     * @param profiles Interest profiles of the individual accounts.
+     * @return Empty if any of the accounts may be interested in any loan.
+     */
+    static Optional<InterestProfile> merge(final Collection<Optional<InterestProfile>> profiles) {
+        if (profiles.isEmpty() || profiles.stream().anyMatch(p -> !p.isPresent())) {
+            return Optional.empty();
+        }
+        final Collection<InterestProfile> present = profiles.stream()
+                .map(Optional::get)
+                .collect(Collectors.toList());
+        final Set<Rating> ratings = EnumSet.noneOf(Rating.class);
+        present.forEach(p -> ratings.addAll(p.getRatings()));
+        final int minimumTerm = present.stream().mapToInt(InterestProfile::getMinimumTermInMonths).min().getAsInt();
+        final int maximumTerm = present.stream().mapToInt(InterestProfile::getMaximumTermInMonths).max().getAsInt();
+        final int minimumRemaining =
+                present.stream().mapToInt(InterestProfile::getMinimumRemainingInvestment).min().getAsInt();
+        return Optional.of(new InterestProfile(ratings, minimumTerm, maximumTerm, minimumRemaining));
+    }
+
+    private final Collection<Account> accounts;
+    private final boolean isFaultTolerant;
+    private final Marketplace marketplace;
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+    private final TemporalAmount maximumSleepPeriod;
+    private final AdaptivePolling polling;
+    /**
+     * Only used to tell whether the marketplace changed, for the purposes of {@link AdaptivePolling}. Investments are
+     * tracked by every {@link AccountPipeline} separately.
+     */
+    private final ResultTracker marketplaceTracker = new ResultTracker();
+
+    public MultiAccountDaemonInvestmentMode(final Collection<Account> accounts, final boolean isFaultTolerant,
+                                            final Marketplace marketplace, final TemporalAmount maximumSleepPeriod,
+                                            final TemporalAmount periodBetweenChecks) {
+        if (accounts.isEmpty()) {
+            throw new IllegalArgumentException("At least one account is required.");
+        }
+        this.accounts = Collections.unmodifiableList(new ArrayList<>(accounts));
+        this.isFaultTolerant = isFaultTolerant;
+        this.marketplace = marketplace;
+        this.maximumSleepPeriod = maximumSleepPeriod;
+        final Duration minimumDelay = Duration.ofSeconds(periodBetweenChecks.get(ChronoUnit.SECONDS));
+        final Duration maximumDelay = Duration.ofSeconds(Defaults.getMaximumMarketplaceCheckDelayInSeconds());
+        this.polling = new AdaptivePolling(minimumDelay, maximumDelay);
+        DaemonInvestmentMode.addShutdownHook();
+    }
+
+    public MultiAccountDaemonInvestmentMode(final Collection<Account> accounts, final boolean isFaultTolerant,
+                                            final Marketplace marketplace) {
+        this(accounts, isFaultTolerant, marketplace, Duration.ofMinutes(60), Duration.ofSeconds(1));
+    }
+
+    @Override
+    public boolean isFaultTolerant() {
+        return isFaultTolerant;
+    }
+
+    @Override
+    public boolean isDryRun() {
+        return accounts.stream().allMatch(a -> a.getProxyBuilder().isDryRun());
+    }
+
+    private Optional<InterestProfile> getInterestProfile() {
+        return MultiAccountDaemonInvestmentMode.merge(accounts.stream()
+                .map(a -> a.getStrategy().getLatest().flatMap(InvestmentStrategy::getInterestProfile))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * @param apiProviderSupplier Will be called to create a provider for every account, as the authenticated APIs of
+     * one provider all share the same token.
+     * @return Investments made.
+     */
+    Optional<Collection<Investment>> execute(final Supplier<ApiProvider> apiProviderSupplier) {
+        DaemonInvestmentMode.blockUntilReleased();
+        final List<AccountPipeline> pipelines = accounts.stream()
+                .map(a -> new AccountPipeline(a, apiProviderSupplier.get(), maximumSleepPeriod))
+                .collect(Collectors.toList());
+        MultiAccountDaemonInvestmentMode.LOGGER.info("Investing from {} accounts: {}.", pipelines.size(),
+                pipelines.stream().map(AccountPipeline::getUsername).collect(Collectors.joining(", ")));
+        try {
+            marketplace.registerListener(loans -> {
+                polling.register(marketplaceTracker.acceptMarketplace(loans));
+                pipelines.forEach(p -> p.accept(loans)); // returns immediately, the pipelines invest on their own
+            });
+            marketplace.registerInterestProfile(this::getInterestProfile);
+            DaemonInvestmentMode.startMarketplace(marketplace, executor, polling);
+            MultiAccountDaemonInvestmentMode.LOGGER.trace("Will wait for user stop.");
+            final Semaphore circuitBreaker = DaemonInvestmentMode.BLOCK_UNTIL_RELEASED;
+            circuitBreaker.acquireUninterruptibly(Math.max(1, circuitBreaker.availablePermits()));
+            MultiAccountDaemonInvestmentMode.LOGGER.trace("User stop received.");
+            circuitBreaker.release();
+            return Optional.of(pipelines.stream()
+                    .flatMap(p -> p.getInvestmentsMade().stream())
+                    .collect(Collectors.toList()));
+        } catch (final Exception ex) {
+            MultiAccountDaemonInvestmentMode.LOGGER.error("Failed executing investments.", ex);
+            return Optional.empty();
+        } finally { // pipelines hold on to authenticated sessions and their API providers
+            pipelines.forEach(AccountPipeline::close);
+        }
+    }
+
+    @Override
+    public Optional<Collection<Investment>> get() {
+        return this.execute(ApiProvider::new);
+    }
+
+    @Override
+    public void close() throws Exception {
+        MultiAccountDaemonInvestmentMode.LOGGER.trace("Closing investing operations.");
+        InvestmentTracker.flush();
+        DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release(); // just in case
+        this.executor.shutdownNow();
+        ((Polling) MBean.POLLING.getImplementation()).unregister(polling);
+        this.marketplace.close();
+    }
+}
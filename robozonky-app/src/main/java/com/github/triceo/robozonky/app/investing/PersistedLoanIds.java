@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.triceo.robozonky.internal.api.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Set of loan IDs kept in memory for the lifetime of the application and persisted to {@link State} in the
+ * background. Changes are coalesced, so that many modifications in quick succession result in a single write. Use
+ * {@link #flush()} to persist pending changes immediately, such as when the application is shutting down.
+ */
+final class PersistedLoanIds {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistedLoanIds.class);
+    private static final Duration FLUSH_DELAY = Duration.ofSeconds(1);
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "rzStateWriter");
+        t.setDaemon(true); // pending writes will be flushed explicitly on shutdown
+        return t;
+    });
+
+    private static Set<Integer> read(final State.ClassSpecificState state, final String propertyName) {
+        return state.getValue(propertyName)
+                .filter(s -> !s.trim().isEmpty())
+                .map(s -> Stream.of(s.split(","))
+                        .map(Integer::parseInt)
+                        .collect(Collectors.toCollection(HashSet::new)))
+                .orElse(new HashSet<>(0));
+    }
+
+    private static String write(final Collection<Integer> ids) {
+        return ids.stream()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+
+    private final State.ClassSpecificState state;
+    private final String propertyName;
+    private final Object writeLock = new Object();
+    private Set<Integer> ids;
+    private boolean dirty = false, flushScheduled = false;
+
+    public PersistedLoanIds(final State.ClassSpecificState state, final String propertyName) {
+        this.state = state;
+        this.propertyName = propertyName;
+    }
+
+    private Set<Integer> getIds() { // only read the state once, and only when first needed
+        if (ids == null) {
+            ids = PersistedLoanIds.read(state, propertyName);
+        }
+        return ids;
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        PersistedLoanIds.WRITER.schedule(this::flush, PersistedLoanIds.FLUSH_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean contains(final int loanId) {
+        return this.getIds().contains(loanId);
+    }
+
+    public synchronized void add(final int loanId) {
+        if (this.getIds().add(loanId)) {
+            this.markDirty();
+        }
+    }
+
+    /**
+     * Forget all IDs that are not given.
+     *
+     * @param loanIds IDs to keep.
+     */
+    public synchronized void retainAll(final Collection<Integer> loanIds) {
+        if (this.getIds().retainAll(loanIds)) {
+            this.markDirty();
+        }
+    }
+
+    /**
+     *
+     * @return Copy of the IDs currently held.
+     */
+    public synchronized Collection<Integer> getAll() {
+        return new HashSet<>(this.getIds());
+    }
+
+    /**
+     * Write the pending changes, if any, to the underlying {@link State}.
+     *
+     * @return True if a write was performed.
+     */
+    public boolean flush() {
+        synchronized (writeLock) { // make sure newer snapshots are never overwritten by older ones
+            final Optional<String> snapshot;
+            synchronized (this) {
+                flushScheduled = false;
+                snapshot = dirty ? Optional.of(PersistedLoanIds.write(this.getIds())) : Optional.empty();
+                dirty = false;
+            }
+            return snapshot.map(s -> {
+                PersistedLoanIds.LOGGER.trace("Persisting '{}': {}.", propertyName, s);
+                return state.setValue(propertyName, s);
+            }).orElse(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PersistedLoanIds{" +
+                "propertyName='" + propertyName + '\'' +
+                '}';
+    }
+}
@@ -24,8 +24,10 @@ import java.util.Collections;
 import java.util.stream.Collectors;
 
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.common.remote.ConnectionPool;
+import com.github.triceo.robozonky.common.remote.LoanCache;
 import com.github.triceo.robozonky.internal.api.Defaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,32 +35,101 @@ import org.slf4j.LoggerFactory;
 class ResultTracker {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ResultTracker.class);
+    private static final Duration EVICTION_CHECK_INTERVAL = Duration.ofMinutes(1);
     static final TemporalAmount CAPTCHA_DELAY = Duration.ofSeconds(Defaults.getCaptchaDelayInSeconds());
 
     /**
      * We are using volatile so that the write operation is guaranteed to be atomic.
      */
     private volatile Collection<Investment> investmentsMade = new ArrayList<>(0);
+    /**
+     * Used for all lookups, so that the cost of a marketplace check does not grow with the amount of investments made.
+     */
+    private final LoanIdSet loansInvested = new LoanIdSet();
+    private final MarketplaceDiffer differ = new MarketplaceDiffer();
+    private final long evictAfterInMillis;
+    private final long evictionCheckIntervalInMillis;
+    private long lastEvictionCheck = 0;
+
+    public ResultTracker() {
+        this(Duration.ofMinutes(Defaults.getInvestedLoanEvictionInMinutes()));
+    }
+
+    /**
+     * @param evictAfter Loans invested into will be forgotten after not being seen on the marketplace for this long.
+     * Negative to never forget.
+     */
+    ResultTracker(final Duration evictAfter) {
+        this(evictAfter, ResultTracker.EVICTION_CHECK_INTERVAL);
+    }
+
+    /**
+     * @param evictAfter Loans invested into will be forgotten after not being seen on the marketplace for this long.
+     * Negative to never forget.
+     * @param evictionCheckInterval Looking for loans to forget will happen at most this often.
+     */
+    ResultTracker(final Duration evictAfter, final Duration evictionCheckInterval) {
+        this.evictAfterInMillis = evictAfter.toMillis();
+        this.evictionCheckIntervalInMillis = evictionCheckInterval.toMillis();
+    }
 
-    public Collection<LoanDescriptor> acceptLoansFromMarketplace(final Collection<Loan> loans) {
+    /**
+     * Forget loans invested into which have not been seen on the marketplace for too long, so that the index does not
+     * grow without bounds over the lifetime of the daemon. Investments made into them are kept.
+     *
+     * @param now Current time in milliseconds since the epoch.
+     */
+    synchronized void evictIfNecessary(final long now) {
+        if (evictAfterInMillis < 0 || now - lastEvictionCheck < evictionCheckIntervalInMillis) {
+            return;
+        }
+        lastEvictionCheck = now;
+        final int evicted = loansInvested.evictOlderThan(now - evictAfterInMillis);
+        if (evicted > 0) {
+            ResultTracker.LOGGER.debug("Forgot {} loans no longer on the marketplace.", evicted);
+        }
+    }
+
+    public Collection<LoanDescriptor> acceptLoansFromMarketplace(final Collection<? extends LoanSummary> loans) {
         if (loans == null) {
             ResultTracker.LOGGER.info("Marketplace returned null loans, possible Zonky downtime.");
             return Collections.emptyList();
         }
-        return loans.stream()
+        LoanCache.INSTANCE.seed(loans); // marketplace has the freshest data, no need to retrieve the loans later
+        final long now = System.currentTimeMillis();
+        final Collection<LoanDescriptor> result = loans.stream()
+                .filter(l -> !loansInvested.touch(l.getId(), now))
                 .filter(l -> l.getRemainingInvestment() >= Defaults.MINIMUM_INVESTMENT_IN_CZK)
-                .filter(l -> investmentsMade.stream().noneMatch(i -> i.getLoanId() == l.getId()))
                 .map(l -> new LoanDescriptor(l, ResultTracker.CAPTCHA_DELAY))
                 .collect(Collectors.toList());
+        // have a connection ready for when the loans can be invested into by the robot
+        result.forEach(l -> l.getLoanCaptchaProtectionEndDateTime().ifPresent(ConnectionPool.INSTANCE::warmUpBefore));
+        this.evictIfNecessary(now);
+        return result;
     }
 
-    public void acceptInvestmentsFromRobot(final Collection<Investment> investments) {
+    /**
+     * Same as {@link #acceptLoansFromMarketplace(Collection)}, but also determines what changed since the previous
+     * call of this method.
+     *
+     * @param loans Loans as received from the marketplace.
+     * @return Loans that are available for investing, along with the changes since the previous call.
+     */
+    public MarketplaceView acceptMarketplace(final Collection<? extends LoanSummary> loans) {
+        return differ.diff(this.acceptLoansFromMarketplace(loans));
+    }
+
+    public synchronized void acceptInvestmentsFromRobot(final Collection<Investment> investments) {
+        final long now = System.currentTimeMillis();
         investments.stream()
-                .filter(i -> investmentsMade.stream().noneMatch(i2 -> i2.getLoanId() == i.getLoanId()))
+                .filter(i -> loansInvested.add(i.getLoanId(), now))
                 .forEach(i -> investmentsMade.add(i));
     }
 
-    public Collection<Investment> getInvestmentsMade() {
-        return Collections.unmodifiableCollection(investmentsMade);
+    /**
+     * @return All investments made, including those into loans that have already been forgotten.
+     */
+    public synchronized Collection<Investment> getInvestmentsMade() {
+        return Collections.unmodifiableCollection(new ArrayList<>(investmentsMade));
     }
 }
@@ -28,7 +28,7 @@ import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
 import com.github.triceo.robozonky.api.marketplaces.Marketplace;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
@@ -65,8 +65,10 @@ public class SingleShotInvestmentMode extends AbstractInvestmentMode {
     }
 
     @Override
-    protected void openMarketplace(final Consumer<Collection<Loan>> target) {
+    protected void openMarketplace(final Consumer<Collection<LoanSummary>> target) {
         marketplace.registerListener(target);
+        marketplace.registerInterestProfile(() -> refreshableStrategy.getLatest()
+                .flatMap(InvestmentStrategy::getInterestProfile));
         marketplace.run();
     }
 
@@ -21,24 +21,33 @@ import java.time.Duration;
 import java.time.temporal.TemporalAmount;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.github.triceo.robozonky.api.Refreshable;
+import com.github.triceo.robozonky.api.notifications.Event;
+import com.github.triceo.robozonky.api.notifications.EventListener;
 import com.github.triceo.robozonky.api.notifications.ExecutionCompletedEvent;
 import com.github.triceo.robozonky.api.notifications.ExecutionStartedEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentSkippedEvent;
 import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
 import com.github.triceo.robozonky.app.Events;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
+import com.github.triceo.robozonky.app.authentication.Session;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
 import com.github.triceo.robozonky.internal.api.Defaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-class StrategyExecution implements Function<Collection<LoanDescriptor>, Collection<Investment>> {
+class StrategyExecution implements Function<Collection<LoanDescriptor>, Collection<Investment>>,
+                                   AutoCloseable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StrategyExecution.class);
 
@@ -73,9 +82,23 @@ class StrategyExecution implements Function<Collection<LoanDescriptor>, Collecti
     }
 
     static Collection<Investment> invest(final ZonkyProxy proxy, final InvestmentCommand command) {
-        final BigDecimal balance = StrategyExecution.getAvailableBalance(proxy);
+        return StrategyExecution.invest(proxy, command, AccountSnapshot.uncached());
+    }
+
+    static Collection<Investment> invest(final ZonkyProxy proxy, final InvestmentCommand command,
+                                         final AccountSnapshot account) {
+        return StrategyExecution.invest(proxy, command, account, InvestmentTracker.SHARED_NAMESPACE, e -> {
+            // nobody is interested
+        });
+    }
+
+    static Collection<Investment> invest(final ZonkyProxy proxy, final InvestmentCommand command,
+                                         final AccountSnapshot account, final String stateNamespace,
+                                         final EventListener<Event> accountListener) {
+        final BigDecimal balance = account.getBalance(proxy);
         Events.fire(new ExecutionStartedEvent(proxy.getUsername(), command.getLoans(), balance.intValue()));
-        final Investor investor = new Investor(proxy, balance);
+        final Investor investor = new Investor(proxy, balance, Defaults.getMaximumConcurrentInvestments(), account,
+                stateNamespace, accountListener);
         final Collection<Investment> result = command.apply(investor);
         Events.fire(new ExecutionCompletedEvent(proxy.getUsername(), result, investor.getBalance().intValue()));
         return Collections.unmodifiableCollection(result);
@@ -86,15 +109,36 @@ class StrategyExecution implements Function<Collection<LoanDescriptor>, Collecti
     private final ZonkyProxy.Builder proxyBuilder;
     private final Refreshable<InvestmentStrategy> refreshableStrategy;
     private final TemporalAmount maximumSleepPeriod;
-
+    private final String stateNamespace;
+    private final AccountSnapshot account = new AccountSnapshot();
+    private final CaptchaSniper sniper = new CaptchaSniper(this::invest, this::retrieveLoan);
+    private final boolean isSniperEnabled = Defaults.isCaptchaSniperEnabled();
+    private Session session;
+
+    /**
+     * @param apiProvider Provider of the APIs to invest through.
+     * @param proxyBuilder Builds the proxies to invest through.
+     * @param strategy Strategy to invest with.
+     * @param auth Authentication to the account to invest from.
+     * @param maximumSleepPeriod The longest time that the application may sleep.
+     * @param stateNamespace Namespace for the state kept between sessions, so that several executions may invest
+     * from different accounts without affecting one another.
+     */
     public StrategyExecution(final ApiProvider apiProvider, final ZonkyProxy.Builder proxyBuilder,
                              final Refreshable<InvestmentStrategy> strategy, final AuthenticationHandler auth,
-                             final TemporalAmount maximumSleepPeriod) {
+                             final TemporalAmount maximumSleepPeriod, final String stateNamespace) {
         this.apiProvider = apiProvider;
         this.authenticationHandler = auth;
         this.proxyBuilder = proxyBuilder;
         this.refreshableStrategy = strategy;
         this.maximumSleepPeriod = maximumSleepPeriod;
+        this.stateNamespace = stateNamespace;
+    }
+
+    public StrategyExecution(final ApiProvider apiProvider, final ZonkyProxy.Builder proxyBuilder,
+                             final Refreshable<InvestmentStrategy> strategy, final AuthenticationHandler auth,
+                             final TemporalAmount maximumSleepPeriod) {
+        this(apiProvider, proxyBuilder, strategy, auth, maximumSleepPeriod, InvestmentTracker.SHARED_NAMESPACE);
     }
 
     public StrategyExecution(final ApiProvider apiProvider, final ZonkyProxy.Builder proxyBuilder,
@@ -102,15 +146,68 @@ class StrategyExecution implements Function<Collection<LoanDescriptor>, Collecti
         this(apiProvider, proxyBuilder, strategy, auth, Duration.ofMinutes(60));
     }
 
+    /**
+     * Receives the investment events of this execution only. Listeners registered with {@link Events} would also
+     * receive the events of any other execution, investing from a different account.
+     *
+     * @param event Event fired by {@link Investor}.
+     */
+    private void handle(final Event event) {
+        if (event instanceof InvestmentMadeEvent) {
+            final InvestmentMadeEvent e = (InvestmentMadeEvent) event;
+            account.handle(e);
+            if (isSniperEnabled) {
+                sniper.disarm(e.getInvestment().getLoanId());
+            }
+        } else if (event instanceof InvestmentSkippedEvent && isSniperEnabled) {
+            // loans skipped due to CAPTCHA will be invested into as soon as it expires, unless invested otherwise
+            sniper.arm(((InvestmentSkippedEvent) event).getRecommendation());
+        }
+    }
+
+    private synchronized Session getSession() { // only authenticate when actually needed
+        if (session == null) {
+            session = authenticationHandler.openSession(apiProvider);
+        }
+        return session;
+    }
+
     Collection<Investment> invest(final InvestmentStrategy strategy, final Collection<LoanDescriptor> loans) {
-        return authenticationHandler.execute(apiProvider, api -> {
+        return this.getSession().execute(api -> {
             final InvestmentCommand c = new StrategyExecution.StrategyBasedInvestmentCommand(strategy, loans);
-            return StrategyExecution.invest(proxyBuilder.build(api), c);
+            return StrategyExecution.invest(proxyBuilder.build(api), c, account, stateNamespace, this::handle);
+        });
+    }
+
+    private Loan retrieveLoan(final int loanId) {
+        return this.getSession().execute(api -> api.getLoan(loanId));
+    }
+
+    Optional<Investment> invest(final Recommendation recommendation) {
+        return this.getSession().execute(api -> {
+            final ZonkyProxy proxy = proxyBuilder.build(api);
+            // CAPTCHA may have expired long after the recommendation was made, the balance may have changed since
+            final BigDecimal balance = account.getFreshBalance(proxy);
+            final int amount = recommendation.getRecommendedInvestmentAmount();
+            if (balance.compareTo(BigDecimal.valueOf(amount)) < 0) {
+                StrategyExecution.LOGGER.debug("Balance of {} CZK too low to invest {} CZK.", balance, amount);
+                return Optional.empty();
+            }
+            final Investor investor = new Investor(proxy, balance, 1, account, stateNamespace, this::handle);
+            return investor.invest(recommendation);
         });
     }
 
     Collection<Investment> justReauth() {
-        return authenticationHandler.execute(apiProvider, null);
+        if (!account.isRefreshDue()) {
+            this.getSession().refresh();
+            return Collections.emptyList();
+        }
+        // nothing else to do, so retrieve account information now instead of when investing
+        return this.getSession().execute(api -> {
+            account.refresh(proxyBuilder.build(api));
+            return Collections.emptyList();
+        });
     }
 
     @Override
@@ -120,17 +217,22 @@ class StrategyExecution implements Function<Collection<LoanDescriptor>, Collecti
         }
         return refreshableStrategy.getLatest()
                 .map(strategy -> {
-                    final Activity activity = new Activity(loans, maximumSleepPeriod);
+                    final Activity activity = new Activity(loans, maximumSleepPeriod, stateNamespace);
                     final boolean shouldSleep = activity.shouldSleep();
                     if (shouldSleep) {
                         final Collection<Investment> empty = justReauth();
                         StrategyExecution.LOGGER.info("RoboZonky is asleep as there is nothing going on.");
                         return empty;
                     } else {
-                        StrategyExecution.LOGGER.debug("Sending following loans to the investor: {}.", loans.stream()
-                                .peek(l -> Events.fire(new LoanArrivedEvent(l)))
-                                .map(l -> String.valueOf(l.getLoan().getId()))
-                                .collect(Collectors.joining(", ")));
+                        if (Events.isListenedTo(LoanArrivedEvent.class)) {
+                            loans.forEach(l -> Events.fire(new LoanArrivedEvent(l)));
+                        }
+                        if (StrategyExecution.LOGGER.isDebugEnabled()) {
+                            StrategyExecution.LOGGER.debug("Sending following loans to the investor: {}.",
+                                    loans.stream()
+                                            .map(l -> String.valueOf(l.getLoan().getId()))
+                                            .collect(Collectors.joining(", ")));
+                        }
                         final Collection<Investment> investments = invest(strategy, loans);
                         activity.settle();
                         return investments;
@@ -140,4 +242,12 @@ class StrategyExecution implements Function<Collection<LoanDescriptor>, Collecti
                     return Collections.emptyList();
                 });
     }
+
+    @Override
+    public synchronized void close() {
+        sniper.close();
+        if (session != null) {
+            session.close();
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.github.triceo.robozonky.common.remote.ApiStatistics;
+import com.github.triceo.robozonky.common.remote.EndpointStatistics;
+
+class ApiCalls implements ApiCallsMBean {
+
+    private static <T> Map<String, T> get(final Function<EndpointStatistics, T> getter) {
+        return ApiStatistics.INSTANCE.getAll().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> getter.apply(e.getValue()), (a, b) -> b,
+                        LinkedHashMap::new));
+    }
+
+    @Override
+    public Map<String, Long> getCallCount() {
+        return ApiCalls.get(EndpointStatistics::getCallCount);
+    }
+
+    @Override
+    public Map<String, Long> getErrorCount() {
+        return ApiCalls.get(EndpointStatistics::getErrorCount);
+    }
+
+    @Override
+    public Map<String, Double> getErrorRate() {
+        return ApiCalls.get(EndpointStatistics::getErrorRate);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMedianInMillis() {
+        return ApiCalls.get(s -> s.getLatencyInMillis(50));
+    }
+
+    @Override
+    public Map<String, Double> getLatency90thPercentileInMillis() {
+        return ApiCalls.get(s -> s.getLatencyInMillis(90));
+    }
+
+    @Override
+    public Map<String, Double> getLatency99thPercentileInMillis() {
+        return ApiCalls.get(s -> s.getLatencyInMillis(99));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaximumInMillis() {
+        return ApiCalls.get(EndpointStatistics::getMaximumLatencyInMillis);
+    }
+
+    @Override
+    public Map<String, Map<Integer, Long>> getStatusCodes() {
+        return ApiCalls.get(EndpointStatistics::getStatusCodes);
+    }
+
+    @Override
+    public void reset() {
+        ApiStatistics.INSTANCE.reset();
+    }
+
+    /**
+     * The statistics are read live from {@link ApiStatistics}, therefore they are never stale.
+     *
+     * @return Always null.
+     */
+    @Override
+    public OffsetDateTime getLatestUpdatedDateTime() {
+        return null;
+    }
+}
@@ -26,6 +26,8 @@ import com.github.triceo.robozonky.api.notifications.InvestmentDelegatedEvent;
 import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
 import com.github.triceo.robozonky.api.notifications.InvestmentRejectedEvent;
 import com.github.triceo.robozonky.api.notifications.ListenerService;
+import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanRecommendedEvent;
 import com.github.triceo.robozonky.api.notifications.RoboZonkyInitializedEvent;
 import com.github.triceo.robozonky.api.notifications.StrategyCompletedEvent;
 import com.github.triceo.robozonky.api.notifications.StrategyStartedEvent;
@@ -41,13 +43,31 @@ public class JmxListenerService implements ListenerService {
             };
         } else if (Objects.equals(eventType, InvestmentDelegatedEvent.class)) {
             final Investments bean = (Investments)MBean.INVESTMENTS.getImplementation();
-            return event -> bean.addDelegatedInvestment((InvestmentDelegatedEvent)event);
+            final ReactionTimes times = (ReactionTimes)MBean.REACTION_TIMES.getImplementation();
+            return event -> {
+                bean.addDelegatedInvestment((InvestmentDelegatedEvent)event);
+                times.registerSubmission((InvestmentDelegatedEvent)event);
+            };
         } else if (Objects.equals(eventType, InvestmentRejectedEvent.class)) {
             final Investments bean = (Investments)MBean.INVESTMENTS.getImplementation();
-            return event -> bean.addRejectedInvestment((InvestmentRejectedEvent)event);
+            final ReactionTimes times = (ReactionTimes)MBean.REACTION_TIMES.getImplementation();
+            return event -> {
+                bean.addRejectedInvestment((InvestmentRejectedEvent)event);
+                times.registerSubmission((InvestmentRejectedEvent)event);
+            };
         } else if (Objects.equals(eventType, InvestmentMadeEvent.class)) {
             final Investments bean = (Investments)MBean.INVESTMENTS.getImplementation();
-            return event -> bean.addSuccessfulInvestment((InvestmentMadeEvent) event);
+            final ReactionTimes times = (ReactionTimes)MBean.REACTION_TIMES.getImplementation();
+            return event -> {
+                bean.addSuccessfulInvestment((InvestmentMadeEvent) event);
+                times.registerSubmission((InvestmentMadeEvent) event);
+            };
+        } else if (Objects.equals(eventType, LoanArrivedEvent.class)) {
+            final ReactionTimes bean = (ReactionTimes) MBean.REACTION_TIMES.getImplementation();
+            return event -> bean.registerArrival((LoanArrivedEvent) event);
+        } else if (Objects.equals(eventType, LoanRecommendedEvent.class)) {
+            final ReactionTimes bean = (ReactionTimes) MBean.REACTION_TIMES.getImplementation();
+            return event -> bean.registerRecommendation((LoanRecommendedEvent) event);
         } else if (Objects.equals(eventType, RoboZonkyInitializedEvent.class)) {
             final Runtime bean = (Runtime) MBean.RUNTIME.getImplementation();
             return event -> bean.registerInitialization((RoboZonkyInitializedEvent) event);
@@ -67,4 +87,9 @@ public class JmxListenerService implements ListenerService {
         return Refreshable.createImmutable(JmxListenerService.newListener(eventType));
     }
 
+    @Override
+    public boolean isSupported(final Class<? extends Event> eventType) {
+        return JmxListenerService.newListener(eventType) != null;
+    }
+
 }
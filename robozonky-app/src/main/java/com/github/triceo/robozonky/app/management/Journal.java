@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import com.github.triceo.robozonky.api.notifications.Event;
+import com.github.triceo.robozonky.app.EventJournal;
+import com.github.triceo.robozonky.app.Events;
+
+class Journal implements JournalMBean {
+
+    private static String[] toStrings(final List<Event> events) {
+        return events.stream().map(e -> e.getCreatedOn() + " " + e).toArray(String[]::new);
+    }
+
+    private final EventJournal journal;
+
+    public Journal() {
+        this(Events.getJournal());
+    }
+
+    Journal(final EventJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public int getCapacity() {
+        return journal.getCapacity();
+    }
+
+    @Override
+    public String[] dump() {
+        return Journal.toStrings(journal.getAll());
+    }
+
+    @Override
+    public String[] dumpForLoan(final int loanId) {
+        return Journal.toStrings(journal.getForLoan(loanId));
+    }
+
+    @Override
+    public OffsetDateTime getLatestUpdatedDateTime() {
+        final List<Event> events = journal.getAll();
+        return events.isEmpty() ? null : events.get(events.size() - 1).getCreatedOn();
+    }
+
+    @Override
+    public void reset() {
+        journal.clear();
+    }
+
+}
@@ -48,6 +48,36 @@ public enum MBean {
         protected BaseMBean createImplementation() {
             return new Portfolio();
         }
+    },
+    REMOTE {
+        @Override
+        protected BaseMBean createImplementation() {
+            return new Remote();
+        }
+    },
+    API_CALLS {
+        @Override
+        protected BaseMBean createImplementation() {
+            return new ApiCalls();
+        }
+    },
+    REACTION_TIMES {
+        @Override
+        protected BaseMBean createImplementation() {
+            return new ReactionTimes();
+        }
+    },
+    POLLING {
+        @Override
+        protected BaseMBean createImplementation() {
+            return new Polling();
+        }
+    },
+    JOURNAL {
+        @Override
+        protected BaseMBean createImplementation() {
+            return new Journal();
+        }
     };
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MBean.class);
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.triceo.robozonky.app.investing.AdaptivePolling;
+
+/**
+ * Shows the live state of {@link AdaptivePolling} of the daemon currently checking the marketplace, if any.
+ */
+public class Polling implements PollingMBean {
+
+    private final AtomicReference<AdaptivePolling> polling = new AtomicReference<>();
+
+    Polling() {
+        // no external instances
+    }
+
+    /**
+     * @param polling Polling of the daemon that has just started checking the marketplace.
+     */
+    public void register(final AdaptivePolling polling) {
+        this.polling.set(polling);
+    }
+
+    /**
+     * @param polling Polling of a daemon that has stopped checking the marketplace. Ignored unless it was the last one
+     * {@link #register(AdaptivePolling)}ed.
+     */
+    public void unregister(final AdaptivePolling polling) {
+        this.polling.compareAndSet(polling, null);
+    }
+
+    @Override
+    public long getCurrentIntervalInMillis() {
+        final AdaptivePolling current = polling.get();
+        return current == null ? -1 : current.getCurrentInterval().toMillis();
+    }
+
+    @Override
+    public List<Integer> getBusyHours() {
+        final AdaptivePolling current = polling.get();
+        return current == null ? Collections.emptyList() : current.getBusyHours();
+    }
+
+    /**
+     * The learned activity is meant to survive for days, it would be counter-productive to reset it from here.
+     */
+    @Override
+    public void reset() {
+        // nothing to do
+    }
+
+    /**
+     * The values are read live from {@link AdaptivePolling}, therefore they are never stale.
+     *
+     * @return Always null.
+     */
+    @Override
+    public OffsetDateTime getLatestUpdatedDateTime() {
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.util.List;
+
+public interface PollingMBean extends BaseMBean {
+
+    /**
+     *
+     * @return Delay before the next marketplace check, or -1 if the marketplace is not being checked periodically.
+     */
+    long getCurrentIntervalInMillis();
+
+    /**
+     *
+     * @return Hours of the day during which loans are usually released, as learned from the marketplace.
+     */
+    List<Integer> getBusyHours();
+
+}
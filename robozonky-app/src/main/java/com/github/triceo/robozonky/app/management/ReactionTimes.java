@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.triceo.robozonky.api.notifications.InvestmentDelegatedEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.notifications.InvestmentRejectedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanRecommendedEvent;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
+import com.github.triceo.robozonky.common.remote.LatencyHistogram;
+
+/**
+ * Measures how quickly the robot reacts to new loans. Loans protected by CAPTCHA can not be invested into by the robot
+ * before the protection expires, unless the investment is delegated. Therefore, when the robot acts on a loan after
+ * its CAPTCHA protection expired, the time is measured from the expiration and not from the loan being published.
+ *
+ * Loans that were already on the marketplace when the robot started say nothing about how quickly it reacts, and
+ * would only skew the numbers. Latencies are therefore only measured from moments after the robot started.
+ */
+class ReactionTimes implements ReactionTimesMBean {
+
+    private static final int MAX_PENDING_LOANS = 1000, MAX_RECENT_LOANS = 100;
+
+    private static final class Timeline {
+
+        private final OffsetDateTime publishedOn, captchaExpiresOn, arrivedOn;
+        private OffsetDateTime recommendedOn, submittedOn;
+        private String outcome;
+
+        public Timeline(final LoanDescriptor loan, final OffsetDateTime arrivedOn) {
+            this.publishedOn = loan.getLoan().getDatePublished();
+            this.captchaExpiresOn = loan.getLoanCaptchaProtectionEndDateTime().orElse(publishedOn);
+            this.arrivedOn = arrivedOn;
+        }
+
+        public OffsetDateTime getAvailableOn(final OffsetDateTime moment) {
+            return moment.isAfter(captchaExpiresOn) ? captchaExpiresOn : publishedOn;
+        }
+
+        private String since(final OffsetDateTime moment) {
+            return moment == null ? "-" : "+" + ReactionTimes.millisBetween(publishedOn, moment) + " ms";
+        }
+
+        @Override
+        public String toString() {
+            return "published " + publishedOn + ", seen " + since(arrivedOn) + ", recommended " + since(recommendedOn)
+                    + ", submitted " + since(submittedOn) + " (" + outcome + ")";
+        }
+    }
+
+    private static long millisBetween(final OffsetDateTime start, final OffsetDateTime end) {
+        return Math.max(0, Duration.between(start, end).toMillis()); // clocks of Zonky and the robot may differ
+    }
+
+    private static Map<String, Long> describe(final LatencyHistogram histogram) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        result.put("count", histogram.getCount());
+        result.put("p50", histogram.getPercentile(50));
+        result.put("p90", histogram.getPercentile(90));
+        result.put("p99", histogram.getPercentile(99));
+        result.put("max", histogram.getMaximum());
+        return result;
+    }
+
+    private static <K, V> Map<K, V> newBoundedMap(final int maxSize) {
+        return new LinkedHashMap<K, V>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    private final OffsetDateTime startedOn;
+    private LatencyHistogram sighting = new LatencyHistogram(), recommendation = new LatencyHistogram(),
+            submission = new LatencyHistogram();
+    private final Map<Integer, ReactionTimes.Timeline>
+            pending = ReactionTimes.newBoundedMap(ReactionTimes.MAX_PENDING_LOANS),
+            recent = ReactionTimes.newBoundedMap(ReactionTimes.MAX_RECENT_LOANS);
+    private OffsetDateTime lastUpdatedDateTime;
+
+    public ReactionTimes() {
+        this(OffsetDateTime.now());
+    }
+
+    /**
+     * @param startedOn Latencies will only be measured from moments after this one.
+     */
+    ReactionTimes(final OffsetDateTime startedOn) {
+        this.startedOn = startedOn;
+    }
+
+    private void record(final LatencyHistogram histogram, final OffsetDateTime start, final OffsetDateTime end) {
+        if (start.isBefore(startedOn)) { // the robot was not running, so it could not have reacted
+            return;
+        }
+        histogram.record(ReactionTimes.millisBetween(start, end));
+    }
+
+    @Override
+    public synchronized Map<String, Long> getSightingLatencyInMillis() {
+        return ReactionTimes.describe(sighting);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getRecommendationLatencyInMillis() {
+        return ReactionTimes.describe(recommendation);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getSubmissionLatencyInMillis() {
+        return ReactionTimes.describe(submission);
+    }
+
+    @Override
+    public synchronized Map<Integer, String> getRecentLoans() {
+        final Map<Integer, String> result = new LinkedHashMap<>();
+        recent.forEach((id, timeline) -> result.put(id, timeline.toString()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private ReactionTimes.Timeline getTimeline(final LoanDescriptor loan, final OffsetDateTime arrivedOn) {
+        return pending.computeIfAbsent(loan.getLoan().getId(), id -> {
+            final ReactionTimes.Timeline timeline = new ReactionTimes.Timeline(loan, arrivedOn);
+            this.record(sighting, timeline.publishedOn, arrivedOn);
+            return timeline;
+        });
+    }
+
+    synchronized void registerArrival(final LoanArrivedEvent event) {
+        this.getTimeline(event.getLoanDescriptor(), event.getCreatedOn());
+    }
+
+    synchronized void registerRecommendation(final LoanRecommendedEvent event) {
+        final OffsetDateTime now = event.getCreatedOn();
+        final ReactionTimes.Timeline timeline = this.getTimeline(event.getRecommendation().getLoanDescriptor(), now);
+        if (timeline.recommendedOn == null) {
+            timeline.recommendedOn = now;
+            this.record(recommendation, timeline.getAvailableOn(now), now);
+        }
+    }
+
+    private void registerSubmission(final int loanId, final OffsetDateTime submittedOn, final String outcome) {
+        final ReactionTimes.Timeline timeline = pending.remove(loanId);
+        if (timeline == null) { // never seen arriving, nothing to measure against
+            return;
+        }
+        timeline.submittedOn = submittedOn;
+        timeline.outcome = outcome;
+        this.record(submission, timeline.getAvailableOn(submittedOn), submittedOn);
+        recent.put(loanId, timeline);
+        this.lastUpdatedDateTime = submittedOn;
+    }
+
+    private void registerSubmission(final Recommendation recommendation, final OffsetDateTime submittedOn,
+                                    final String outcome) {
+        this.registerSubmission(recommendation.getLoanDescriptor().getLoan().getId(), submittedOn, outcome);
+    }
+
+    synchronized void registerSubmission(final InvestmentMadeEvent event) {
+        this.registerSubmission(event.getInvestment().getLoanId(), event.getCreatedOn(), "invested");
+    }
+
+    synchronized void registerSubmission(final InvestmentDelegatedEvent event) {
+        this.registerSubmission(event.getRecommendation(), event.getCreatedOn(), "delegated");
+    }
+
+    synchronized void registerSubmission(final InvestmentRejectedEvent event) {
+        this.registerSubmission(event.getRecommendation(), event.getCreatedOn(), "rejected");
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.sighting = new LatencyHistogram();
+        this.recommendation = new LatencyHistogram();
+        this.submission = new LatencyHistogram();
+        this.pending.clear();
+        this.recent.clear();
+        this.lastUpdatedDateTime = null;
+    }
+
+    @Override
+    public OffsetDateTime getLatestUpdatedDateTime() {
+        return this.lastUpdatedDateTime;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.util.Map;
+
+public interface ReactionTimesMBean extends BaseMBean {
+
+    /**
+     * Time from loan being published to the robot first seeing it on the marketplace.
+     * @return Keys are "count", "p50", "p90", "p99" and "max", values in milliseconds except for the count.
+     */
+    Map<String, Long> getSightingLatencyInMillis();
+
+    /**
+     * Time from loan becoming available to the robot to the strategy recommending it.
+     * @return Same structure as {@link #getSightingLatencyInMillis()}.
+     */
+    Map<String, Long> getRecommendationLatencyInMillis();
+
+    /**
+     * Time from loan becoming available to the robot to the investment having been submitted to Zonky.
+     * @return Same structure as {@link #getSightingLatencyInMillis()}.
+     */
+    Map<String, Long> getSubmissionLatencyInMillis();
+
+    /**
+     *
+     * @return Most recent loans that were invested into or attempted, with their timeline.
+     */
+    Map<Integer, String> getRecentLoans();
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.OffsetDateTime;
+
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.common.remote.ConnectionPool;
+
+class Remote implements RemoteMBean {
+
+    @Override
+    public long getClientsCreated() {
+        return ApiProvider.getClientsCreated();
+    }
+
+    @Override
+    public long getClientsReused() {
+        return ApiProvider.getClientsReused();
+    }
+
+    @Override
+    public double getClientReuseRate() {
+        return ApiProvider.getClientReuseRate();
+    }
+
+    @Override
+    public int getLeasedConnections() {
+        return ConnectionPool.INSTANCE.getLeasedConnections();
+    }
+
+    @Override
+    public int getAvailableConnections() {
+        return ConnectionPool.INSTANCE.getAvailableConnections();
+    }
+
+    @Override
+    public void reset() {
+        ApiProvider.resetClientStatistics();
+    }
+
+    /**
+     * The statistics are read live from {@link ApiProvider}, therefore they are never stale.
+     *
+     * @return Always null.
+     */
+    @Override
+    public OffsetDateTime getLatestUpdatedDateTime() {
+        return null;
+    }
+}
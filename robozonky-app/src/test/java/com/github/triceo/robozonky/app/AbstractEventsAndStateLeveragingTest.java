@@ -29,8 +29,9 @@ public abstract class AbstractEventsAndStateLeveragingTest extends AbstractState
 
     @After
     public void clear() {
-        Events.getFired().clear();
+        Events.getJournal().clear();
         Events.INSTANCE.registries.clear();
+        Events.INSTANCE.mailboxes.clear();
     }
 
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.stream.IntStream;
+
+import com.github.triceo.robozonky.api.notifications.Event;
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
+import com.github.triceo.robozonky.api.notifications.RoboZonkyStartingEvent;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class EventJournalTest {
+
+    @Test
+    public void overwritesOldest() {
+        final EventJournal journal = new EventJournal(2);
+        final Event first = new RoboZonkyStartingEvent(""), second = new RoboZonkyStartingEvent(""),
+                third = new RoboZonkyStartingEvent("");
+        journal.add(first);
+        journal.add(second);
+        Assertions.assertThat(journal.getAll()).containsExactly(first, second);
+        journal.add(third);
+        Assertions.assertThat(journal.getAll()).containsExactly(second, third);
+        journal.clear();
+        Assertions.assertThat(journal.getAll()).isEmpty();
+        journal.add(first);
+        Assertions.assertThat(journal.getAll()).containsExactly(first);
+    }
+
+    @Test
+    public void queries() {
+        final EventJournal journal = new EventJournal(10);
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+        final Event starting = new RoboZonkyStartingEvent("");
+        final LoanArrivedEvent arrived = new LoanArrivedEvent(new LoanDescriptor(loan));
+        final InvestmentMadeEvent made = new InvestmentMadeEvent(new Investment(loan, 200), 800);
+        final InvestmentMadeEvent other = new InvestmentMadeEvent(new Investment(new Loan(2, 1000), 200), 600);
+        journal.add(starting);
+        journal.add(arrived);
+        journal.add(made);
+        journal.add(other);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(journal.getOfType(InvestmentMadeEvent.class)).containsExactly(made, other);
+            softly.assertThat(journal.getForLoan(1)).containsExactly(arrived, made);
+            softly.assertThat(journal.getForLoan(3)).isEmpty();
+            softly.assertThat(journal.getCreatedBetween(starting.getCreatedOn(),
+                    other.getCreatedOn().plus(Duration.ofMillis(1)))).containsExactly(starting, arrived, made, other);
+            softly.assertThat(journal.getCreatedBetween(OffsetDateTime.now().plus(Duration.ofDays(1)),
+                    OffsetDateTime.now().plus(Duration.ofDays(2)))).isEmpty();
+        });
+    }
+
+    @Test
+    public void boundedUnderConcurrentAdditions() {
+        final EventJournal journal = new EventJournal(100);
+        IntStream.range(0, 10_000).parallel().forEach(i -> journal.add(new RoboZonkyStartingEvent("")));
+        Assertions.assertThat(journal.getAll()).hasSize(100);
+    }
+
+}
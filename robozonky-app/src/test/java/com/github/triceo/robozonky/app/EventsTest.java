@@ -16,12 +16,16 @@
 
 package com.github.triceo.robozonky.app;
 
+import java.util.concurrent.CountDownLatch;
+
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.notifications.EventListener;
+import com.github.triceo.robozonky.api.notifications.RoboZonkyEndingEvent;
 import com.github.triceo.robozonky.api.notifications.RoboZonkyStartingEvent;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 public class EventsTest extends AbstractEventsAndStateLeveragingTest {
@@ -29,6 +33,7 @@ public class EventsTest extends AbstractEventsAndStateLeveragingTest {
     @Test
     public void firingAndFailing() {
         final EventListener<RoboZonkyStartingEvent> listener = Mockito.mock(EventListener.class);
+        Mockito.when(listener.isInterestedIn(ArgumentMatchers.any())).thenReturn(true);
         final Refreshable<EventListener<RoboZonkyStartingEvent>> r = Refreshable.createImmutable(listener);
         r.run();
         Mockito.doThrow(RuntimeException.class).when(listener).handle(ArgumentMatchers.any());
@@ -36,7 +41,82 @@ public class EventsTest extends AbstractEventsAndStateLeveragingTest {
         final RoboZonkyStartingEvent e = new RoboZonkyStartingEvent("");
         Events.fire(e);
         Assertions.assertThat(Events.getFired()).contains(e);
-        Mockito.verify(listener).handle(ArgumentMatchers.eq(e));
+        Mockito.verify(listener, Mockito.timeout(1000)).handle(ArgumentMatchers.eq(e));
+    }
+
+    @Test
+    public void firingAndWaitingInOrder() {
+        final EventListener<RoboZonkyStartingEvent> listener = Mockito.mock(EventListener.class);
+        Mockito.when(listener.isInterestedIn(ArgumentMatchers.any())).thenReturn(true);
+        final Refreshable<EventListener<RoboZonkyStartingEvent>> r = Refreshable.createImmutable(listener);
+        r.run();
+        Events.INSTANCE.loadListeners(RoboZonkyStartingEvent.class, r);
+        final RoboZonkyStartingEvent first = new RoboZonkyStartingEvent("");
+        final RoboZonkyStartingEvent second = new RoboZonkyStartingEvent("");
+        Events.fire(first);
+        Events.fireAndWait(second); // handled only after the first one
+        final InOrder inOrder = Mockito.inOrder(listener);
+        inOrder.verify(listener).handle(ArgumentMatchers.same(first));
+        inOrder.verify(listener).handle(ArgumentMatchers.same(second));
+        Assertions.assertThat(Events.getFired()).containsExactly(first, second);
+    }
+
+    @Test
+    public void sameListenerReceivesEventsOfAllTypesInOrder() {
+        final EventListener listener = Mockito.mock(EventListener.class);
+        Mockito.when(listener.isInterestedIn(ArgumentMatchers.any())).thenReturn(true);
+        final RoboZonkyStartingEvent first = new RoboZonkyStartingEvent("");
+        final RoboZonkyEndingEvent second = new RoboZonkyEndingEvent("");
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(i -> {
+            release.await();
+            return null;
+        }).when(listener).handle(ArgumentMatchers.same(first));
+        Events.INSTANCE.addListener(RoboZonkyStartingEvent.class, listener);
+        Events.INSTANCE.addListener(RoboZonkyEndingEvent.class, listener);
+        Events.fire(first);
+        Events.fire(second);
+        Mockito.verify(listener, Mockito.after(100).never()).handle(ArgumentMatchers.same(second));
+        release.countDown();
+        Events.fireAndWait(new RoboZonkyStartingEvent("")); // make sure everything was handled
+        final InOrder inOrder = Mockito.inOrder(listener);
+        inOrder.verify(listener).handle(ArgumentMatchers.same(first));
+        inOrder.verify(listener).handle(ArgumentMatchers.same(second));
+    }
+
+    @Test
+    public void firingAndWaitingAlsoWaitsForOtherEvents() {
+        final EventListener<RoboZonkyStartingEvent> listener = Mockito.mock(EventListener.class);
+        Mockito.when(listener.isInterestedIn(ArgumentMatchers.any())).thenReturn(true);
+        Mockito.doAnswer(i -> {
+            Thread.sleep(100); // give the other event a chance to overtake this one
+            return null;
+        }).when(listener).handle(ArgumentMatchers.any());
+        Events.INSTANCE.addListener(RoboZonkyStartingEvent.class, listener);
+        final RoboZonkyStartingEvent e = new RoboZonkyStartingEvent("");
+        Events.fire(e);
+        Events.fireAndWait(new RoboZonkyEndingEvent("")); // nobody listens to this one
+        Mockito.verify(listener).handle(ArgumentMatchers.same(e));
+    }
+
+    @Test
+    public void uninterestedListenerSkipped() {
+        final EventListener<RoboZonkyStartingEvent> listener = Mockito.mock(EventListener.class);
+        Mockito.when(listener.isInterestedIn(ArgumentMatchers.any())).thenReturn(false);
+        final Refreshable<EventListener<RoboZonkyStartingEvent>> r = Refreshable.createImmutable(listener);
+        r.run();
+        Events.INSTANCE.loadListeners(RoboZonkyStartingEvent.class, r);
+        Events.fireAndWait(new RoboZonkyStartingEvent(""));
+        Mockito.verify(listener, Mockito.never()).handle(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void listenedTo() {
+        System.setProperty("robozonky.debug.enable_event_storage", "false");
+        Assertions.assertThat(Events.isListenedTo(RoboZonkyStartingEvent.class)).isFalse();
+        final EventListener<RoboZonkyStartingEvent> listener = Mockito.mock(EventListener.class);
+        Events.INSTANCE.addListener(RoboZonkyStartingEvent.class, listener);
+        Assertions.assertThat(Events.isListenedTo(RoboZonkyStartingEvent.class)).isTrue();
     }
 
 }
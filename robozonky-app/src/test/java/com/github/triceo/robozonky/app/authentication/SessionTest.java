@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.authentication;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.JAXBException;
+
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.ZonkyOAuthApi;
+import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.common.secrets.SecretProvider;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class SessionTest {
+
+    private static ZonkyApiToken newToken() {
+        return new ZonkyApiToken(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 299);
+    }
+
+    private static ApiProvider mockProvider(final ZonkyApi zonky, final ZonkyOAuthApi oauth) {
+        final ApiProvider apiProvider = Mockito.mock(ApiProvider.class);
+        Mockito.when(apiProvider.authenticated(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> new ApiProvider.ApiWrapper<>(ZonkyApi.class, zonky));
+        Mockito.when(apiProvider.oauth())
+                .thenAnswer(invocation -> new ApiProvider.ApiWrapper<>(ZonkyOAuthApi.class, oauth));
+        return apiProvider;
+    }
+
+    @Test
+    public void passwordBasedLogsInOnce() {
+        final SecretProvider secrets = SecretProvider.fallback("user", "pass".toCharArray());
+        final ZonkyApi zonky = Mockito.mock(ZonkyApi.class);
+        final ZonkyOAuthApi oauth = Mockito.mock(ZonkyOAuthApi.class);
+        Mockito.when(oauth.login(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any())).thenReturn(SessionTest.newToken());
+        final ApiProvider apiProvider = SessionTest.mockProvider(zonky, oauth);
+        final Session session = AuthenticationHandler.passwordBased(secrets).openSession(apiProvider);
+        Assertions.assertThat(session.refresh()).isFalse(); // not yet authenticated, will not authenticate
+        final int first = session.execute(api -> 1), second = session.execute(api -> 2);
+        Assertions.assertThat(first).isEqualTo(1);
+        Assertions.assertThat(second).isEqualTo(2);
+        Assertions.assertThat(session.refresh()).isTrue();
+        session.close();
+        Mockito.verify(oauth, Mockito.times(1))
+                .login(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(apiProvider, Mockito.times(1)).authenticated(ArgumentMatchers.any());
+        Mockito.verify(zonky, Mockito.times(1)).logout();
+    }
+
+    @Test
+    public void operationsDoNotWaitForEachOther() throws Exception {
+        final SecretProvider secrets = SecretProvider.fallback("user", "pass".toCharArray());
+        final ZonkyOAuthApi oauth = Mockito.mock(ZonkyOAuthApi.class);
+        Mockito.when(oauth.login(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any())).thenReturn(SessionTest.newToken());
+        final ApiProvider apiProvider = SessionTest.mockProvider(Mockito.mock(ZonkyApi.class), oauth);
+        final Session session = AuthenticationHandler.passwordBased(secrets).openSession(apiProvider);
+        final CountDownLatch started = new CountDownLatch(1), released = new CountDownLatch(1);
+        final CompletableFuture<Boolean> slow = CompletableFuture.supplyAsync(() -> session.execute(api -> {
+            started.countDown();
+            try {
+                return released.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException ex) {
+                return false;
+            }
+        }));
+        Assertions.assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        final int fast = session.execute(api -> 1); // would block until the slow operation finished
+        released.countDown();
+        Assertions.assertThat(fast).isEqualTo(1);
+        Assertions.assertThat(slow.get(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void tokenBasedRefreshesExpiringToken() throws JAXBException {
+        // token obtained 250 seconds ago will expire in less than the 60 seconds before expiration
+        final ZonkyApiToken existing = new ZonkyApiToken(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                OffsetDateTime.now().minusSeconds(250));
+        final String marshalled = ZonkyApiToken.marshal(existing);
+        final SecretProvider secrets = Mockito.mock(SecretProvider.class);
+        Mockito.when(secrets.getToken()).then(invocation -> Optional.of(new StringReader(marshalled)));
+        Mockito.when(secrets.setToken(ArgumentMatchers.any())).thenReturn(true);
+        final ZonkyApi zonky = Mockito.mock(ZonkyApi.class);
+        final ZonkyOAuthApi oauth = Mockito.mock(ZonkyOAuthApi.class);
+        Mockito.when(oauth.refresh(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(SessionTest.newToken());
+        final ApiProvider apiProvider = SessionTest.mockProvider(zonky, oauth);
+        final Session session =
+                AuthenticationHandler.tokenBased(secrets, Duration.ofSeconds(60)).openSession(apiProvider);
+        session.execute(api -> 1);
+        session.execute(api -> 2);
+        session.close();
+        Mockito.verify(oauth, Mockito.times(1))
+                .refresh(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(oauth, Mockito.never())
+                .login(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(secrets, Mockito.times(1)).setToken(ArgumentMatchers.any());
+        Mockito.verify(zonky, Mockito.never()).logout();
+    }
+
+}
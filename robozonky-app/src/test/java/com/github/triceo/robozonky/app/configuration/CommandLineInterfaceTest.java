@@ -16,12 +16,16 @@
 
 package com.github.triceo.robozonky.app.configuration;
 
+import java.io.File;
 import java.util.Optional;
 
 import com.github.triceo.robozonky.app.investing.DaemonInvestmentMode;
 import com.github.triceo.robozonky.app.investing.DirectInvestmentMode;
 import com.github.triceo.robozonky.app.investing.InvestmentMode;
+import com.github.triceo.robozonky.app.investing.MultiAccountDaemonInvestmentMode;
 import com.github.triceo.robozonky.app.investing.SingleShotInvestmentMode;
+import com.github.triceo.robozonky.common.secrets.KeyStoreHandler;
+import com.github.triceo.robozonky.common.secrets.SecretProvider;
 import org.assertj.core.api.Assertions;
 import org.junit.Before;
 import org.junit.Rule;
@@ -74,6 +78,26 @@ public class CommandLineInterfaceTest {
         Assertions.assertThat(cfg).isPresent().containsInstanceOf(DaemonInvestmentMode.class);
     }
 
+    @Test
+    public void validMultiAccountDaemonCli() throws Exception {
+        final File keyStore = File.createTempFile("robozonky-", ".keystore");
+        keyStore.delete();
+        final char[] password = "password".toCharArray();
+        SecretProvider.keyStoreBased(KeyStoreHandler.create(keyStore, password), "someone.else", password);
+        final Optional<InvestmentMode> cfg = CommandLineInterface.parse("-u", "someone", "-p", "password",
+                "daemon", "-s", "somewhere", "-o", keyStore.getAbsolutePath() + "=elsewhere");
+        Assertions.assertThat(cfg).isPresent().containsInstanceOf(MultiAccountDaemonInvestmentMode.class);
+    }
+
+    @Test
+    public void invalidMultiAccountDaemonCli() {
+        // will fail since the account is missing its strategy
+        final Optional<InvestmentMode> cfg = CommandLineInterface.parse("-u", "someone", "-p", "password",
+                "daemon", "-s", "somewhere", "-o", "somewhere.keystore");
+        Assertions.assertThat(cfg).isEmpty();
+        Assertions.assertThat(systemOutRule.getLog()).contains(CommandLineInterface.getScriptIdentifier());
+    }
+
     @Test
     public void validSingleShotCli() {
         // will fail since inside AuthenticationCommandLineFragment, -u and -g are exclusive
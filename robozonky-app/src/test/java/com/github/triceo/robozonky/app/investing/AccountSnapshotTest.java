@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.entities.BlockedAmount;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Wallet;
+import org.assertj.core.api.SoftAssertions;
+import org.assertj.core.groups.Tuple;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class AccountSnapshotTest extends AbstractInvestingTest {
+
+    private static ZonkyApi mockApi() {
+        final ZonkyApi api = Mockito.mock(ZonkyApi.class);
+        Mockito.when(api.getWallet()).thenReturn(new Wallet(1, 2, BigDecimal.valueOf(1000), BigDecimal.valueOf(1000)));
+        Mockito.when(api.getBlockedAmounts(ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt()))
+                .thenReturn(Collections.emptyList());
+        return api;
+    }
+
+    @Test
+    public void cached() {
+        final ZonkyApi api = AccountSnapshotTest.mockApi();
+        final ZonkyProxy proxy = new ZonkyProxy.Builder().build(api);
+        final AccountSnapshot snapshot = new AccountSnapshot(Duration.ofMinutes(1));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.isRefreshDue()).isTrue();
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(1000));
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(1000));
+            softly.assertThat(snapshot.getStatistics(proxy)).isNotNull(); // null from the API is replaced
+            softly.assertThat(snapshot.getBlockedAmounts(proxy)).isEmpty();
+            softly.assertThat(snapshot.isRefreshDue()).isFalse();
+        });
+        Mockito.verify(api, Mockito.times(1)).getWallet();
+        Mockito.verify(api, Mockito.times(1)).getStatistics();
+    }
+
+    @Test
+    public void freshBalance() {
+        final ZonkyApi api = AccountSnapshotTest.mockApi();
+        final ZonkyProxy proxy = new ZonkyProxy.Builder().build(api);
+        final AccountSnapshot snapshot = new AccountSnapshot(Duration.ofMinutes(1));
+        snapshot.getBalance(proxy);
+        Mockito.doReturn(new Wallet(1, 2, BigDecimal.valueOf(500), BigDecimal.valueOf(500))).when(api).getWallet();
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(1000));
+            softly.assertThat(snapshot.getFreshBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(500));
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(500));
+        });
+        Mockito.verify(api, Mockito.times(2)).getWallet();
+    }
+
+    @Test
+    public void uncached() {
+        final ZonkyApi api = AccountSnapshotTest.mockApi();
+        final ZonkyProxy proxy = new ZonkyProxy.Builder().build(api);
+        final AccountSnapshot snapshot = AccountSnapshot.uncached();
+        snapshot.getBalance(proxy);
+        snapshot.getBalance(proxy);
+        Mockito.verify(api, Mockito.times(2)).getWallet();
+    }
+
+    @Test
+    public void investmentReflected() {
+        final ZonkyProxy proxy = new ZonkyProxy.Builder().build(AccountSnapshotTest.mockApi());
+        final AccountSnapshot snapshot = new AccountSnapshot(Duration.ofMinutes(1));
+        snapshot.refresh(proxy);
+        final Investment i = new Investment(AbstractInvestingTest.mockLoan(1), 200);
+        snapshot.handle(new InvestmentMadeEvent(i, 800, true)); // dry run changes nothing
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(1000));
+            softly.assertThat(snapshot.getBlockedAmounts(proxy)).isEmpty();
+        });
+        snapshot.handle(new InvestmentMadeEvent(i, 800, false));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.getBalance(proxy)).isEqualByComparingTo(BigDecimal.valueOf(800));
+            softly.assertThat(snapshot.getBlockedAmounts(proxy))
+                    .extracting(BlockedAmount::getLoanId, BlockedAmount::getAmount)
+                    .containsOnly(Tuple.tuple(1, 200));
+        });
+    }
+
+    @Test
+    public void claims() {
+        final AccountSnapshot snapshot = new AccountSnapshot(Duration.ofMinutes(1));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.claim(1)).isTrue();
+            softly.assertThat(snapshot.claim(1)).isFalse(); // already claimed
+            softly.assertThat(snapshot.claim(2)).isTrue();
+        });
+        snapshot.releaseClaim(1);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(snapshot.claim(1)).isTrue();
+            softly.assertThat(AccountSnapshot.uncached().claim(1)).isTrue(); // not shared between accounts
+        });
+    }
+
+}
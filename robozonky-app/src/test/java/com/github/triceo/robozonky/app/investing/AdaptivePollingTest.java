@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Collections;
+
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.common.AbstractStateLeveragingTest;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+public class AdaptivePollingTest extends AbstractStateLeveragingTest {
+
+    private static final Duration MINIMUM = Duration.ofSeconds(1), MAXIMUM = Duration.ofSeconds(60);
+
+    private static final class MovableClock extends Clock {
+
+        private Instant now = Instant.EPOCH;
+
+        public void move(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static MarketplaceView quiet() {
+        final Collection<LoanDescriptor> none = Collections.emptyList();
+        return new MarketplaceView(none, none, none, none);
+    }
+
+    private static MarketplaceView active() {
+        final Collection<LoanDescriptor> none = Collections.emptyList();
+        final Collection<LoanDescriptor> one =
+                Collections.singletonList(new LoanDescriptor(new Loan(1, 1000, OffsetDateTime.now())));
+        return new MarketplaceView(one, one, none, none);
+    }
+
+    @Test
+    public void backsOffWhenQuiet() {
+        final AdaptivePolling polling =
+                new AdaptivePolling(AdaptivePollingTest.MINIMUM, AdaptivePollingTest.MAXIMUM, new MovableClock());
+        Assertions.assertThat(polling.getCurrentInterval()).isEqualTo(AdaptivePollingTest.MINIMUM);
+        Assertions.assertThat(polling.register(AdaptivePollingTest.quiet())).isEqualTo(Duration.ofSeconds(2));
+        Assertions.assertThat(polling.register(AdaptivePollingTest.quiet())).isEqualTo(Duration.ofSeconds(4));
+        for (int i = 0; i < 10; i++) {
+            polling.register(AdaptivePollingTest.quiet());
+        }
+        Assertions.assertThat(polling.getCurrentInterval()).isEqualTo(AdaptivePollingTest.MAXIMUM);
+    }
+
+    @Test
+    public void speedsUpWhenActive() {
+        final AdaptivePolling polling =
+                new AdaptivePolling(AdaptivePollingTest.MINIMUM, AdaptivePollingTest.MAXIMUM, new MovableClock());
+        for (int i = 0; i < 10; i++) {
+            polling.register(AdaptivePollingTest.quiet());
+        }
+        Assertions.assertThat(polling.register(AdaptivePollingTest.active())).isEqualTo(AdaptivePollingTest.MINIMUM);
+    }
+
+    @Test
+    public void maximumNeverBelowMinimum() {
+        final AdaptivePolling polling =
+                new AdaptivePolling(AdaptivePollingTest.MAXIMUM, AdaptivePollingTest.MINIMUM, new MovableClock());
+        Assertions.assertThat(polling.register(AdaptivePollingTest.quiet())).isEqualTo(AdaptivePollingTest.MAXIMUM);
+    }
+
+    @Test
+    public void learnsBusyHours() {
+        final MovableClock clock = new MovableClock();
+        final AdaptivePolling polling = new AdaptivePolling(AdaptivePollingTest.MINIMUM, AdaptivePollingTest.MAXIMUM,
+                clock);
+        polling.register(AdaptivePollingTest.active()); // first check is ignored
+        clock.move(Duration.ofHours(10));
+        polling.register(AdaptivePollingTest.active());
+        Assertions.assertThat(polling.getBusyHours()).containsExactly(10);
+        // stay quiet for a while, close to the busy hour; the delay must not grow all the way to the maximum
+        clock.move(Duration.ofMinutes(30));
+        for (int i = 0; i < 10; i++) {
+            polling.register(AdaptivePollingTest.quiet());
+        }
+        Assertions.assertThat(polling.getCurrentInterval()).isEqualTo(AdaptivePollingTest.MINIMUM.multipliedBy(4));
+        // and the knowledge is persisted for the next run, once the hour is over
+        clock.move(Duration.ofHours(1));
+        polling.register(AdaptivePollingTest.quiet());
+        final AdaptivePolling another = new AdaptivePolling(AdaptivePollingTest.MINIMUM, AdaptivePollingTest.MAXIMUM,
+                clock);
+        Assertions.assertThat(another.getBusyHours()).containsExactly(10);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
+import com.github.triceo.robozonky.common.remote.LoanCache;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CaptchaSniperTest extends AbstractInvestingTest {
+
+    private static Recommendation recommend(final Loan loan, final Duration captcha) {
+        return new LoanDescriptor(loan, captcha).recommend(200).get();
+    }
+
+    @Before
+    public void emptyCache() {
+        LoanCache.INSTANCE.clear();
+    }
+
+    @Test
+    public void firesWhenCaptchaExpires() throws InterruptedException {
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+        LoanCache.INSTANCE.seed(loan);
+        final CountDownLatch latch = new CountDownLatch(1);
+        try (final CaptchaSniper sniper = new CaptchaSniper(r -> {
+            latch.countDown();
+            return Optional.of(new Investment(r.getLoanDescriptor().getLoan(), r.getRecommendedInvestmentAmount()));
+        }, id -> loan)) {
+            // long enough for the assertions below to run before the CAPTCHA expires, even on a slow machine
+            final Recommendation r = CaptchaSniperTest.recommend(loan, Duration.ofSeconds(3));
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(sniper.arm(r)).isTrue();
+                softly.assertThat(sniper.arm(r)).isFalse(); // already armed
+                softly.assertThat(sniper.getArmedCount()).isEqualTo(1);
+                softly.assertThat(latch.getCount()).isEqualTo(1); // not fired yet
+            });
+            Assertions.assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+            Assertions.assertThat(sniper.getArmedCount()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void notArmedWithoutCaptcha() {
+        try (final CaptchaSniper sniper = new CaptchaSniper(r -> Optional.empty(), id -> null)) {
+            final Loan loan = new Loan(1, 1000, OffsetDateTime.now().minus(Duration.ofMinutes(1)));
+            Assertions.assertThat(sniper.arm(CaptchaSniperTest.recommend(loan, Duration.ofSeconds(1)))).isFalse();
+        }
+    }
+
+    @Test
+    public void disarmed() {
+        final AtomicBoolean called = new AtomicBoolean(false);
+        try (final CaptchaSniper sniper = new CaptchaSniper(r -> {
+            called.set(true);
+            return Optional.empty();
+        }, id -> null)) {
+            final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+            LoanCache.INSTANCE.seed(loan);
+            final Recommendation r = CaptchaSniperTest.recommend(loan, Duration.ofMinutes(1));
+            sniper.arm(r);
+            sniper.disarm(loan.getId());
+            Assertions.assertThat(sniper.getArmedCount()).isEqualTo(0);
+            sniper.fire(r);
+        }
+        Assertions.assertThat(called.get()).isFalse();
+    }
+
+    @Test
+    public void invalidWhenFullyFunded() {
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+        final Recommendation r = CaptchaSniperTest.recommend(loan, Duration.ofMinutes(1));
+        LoanCache.INSTANCE.seed(new Loan(1, 0, OffsetDateTime.now()));
+        Assertions.assertThat(CaptchaSniper.isStillValid(r, id -> loan)).isFalse();
+    }
+
+    @Test
+    public void loadsLoanWhenNotCached() {
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+        final Recommendation r = CaptchaSniperTest.recommend(loan, Duration.ofMinutes(1));
+        final AtomicBoolean called = new AtomicBoolean(false);
+        Assertions.assertThat(CaptchaSniper.isStillValid(r, id -> {
+            called.set(true);
+            return loan;
+        })).isTrue();
+        Assertions.assertThat(called.get()).isTrue();
+        Assertions.assertThat(LoanCache.INSTANCE.getCachedLoan(loan.getId())).contains(loan);
+    }
+
+}
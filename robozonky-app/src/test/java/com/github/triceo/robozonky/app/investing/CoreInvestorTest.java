@@ -22,6 +22,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.github.triceo.robozonky.api.notifications.Event;
 import com.github.triceo.robozonky.api.notifications.StrategyCompletedEvent;
@@ -30,6 +32,9 @@ import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
 import com.github.triceo.robozonky.api.remote.entities.Loan;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.PortfolioOverview;
+import com.github.triceo.robozonky.internal.api.Defaults;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Test;
@@ -89,4 +94,29 @@ public class CoreInvestorTest extends AbstractInvestingTest {
         Assertions.assertThat(result).isEmpty();
     }
 
+    @Test
+    public void concurrentInvestmentLoop() {
+        final List<LoanDescriptor> loans = IntStream.range(0, 10)
+                .mapToObj(i -> AbstractInvestingTest.mockLoanDescriptor())
+                .collect(Collectors.toList());
+        final InvestmentStrategy strategy = Mockito.mock(InvestmentStrategy.class);
+        Mockito.when(strategy.recommend(ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            final Collection<LoanDescriptor> available = invocation.getArgument(0);
+            final PortfolioOverview portfolio = invocation.getArgument(1);
+            return available.stream()
+                    .filter(l -> portfolio.getCzkAvailable() >= Defaults.MINIMUM_INVESTMENT_IN_CZK)
+                    .map(l -> l.recommend(Defaults.MINIMUM_INVESTMENT_IN_CZK).get())
+                    .collect(Collectors.toList());
+        });
+        final ZonkyProxy proxy = new ZonkyProxy.Builder().asDryRun().build(Mockito.mock(ZonkyApi.class));
+        final int originalBalance = Defaults.MINIMUM_INVESTMENT_IN_CZK * 5;
+        final Investor i = new Investor(proxy, BigDecimal.valueOf(originalBalance), 3);
+        final Collection<Investment> result = i.invest(strategy, loans);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(result).hasSize(5);
+            softly.assertThat(result.stream().map(Investment::getLoanId).distinct().count()).isEqualTo(5);
+            softly.assertThat(i.getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        });
+    }
+
 }
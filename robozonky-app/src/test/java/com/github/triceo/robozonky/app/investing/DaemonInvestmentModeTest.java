@@ -20,6 +20,7 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +34,7 @@ import com.github.triceo.robozonky.api.marketplaces.Marketplace;
 import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
 import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.api.strategies.Recommendation;
@@ -63,18 +65,19 @@ public class DaemonInvestmentModeTest extends AbstractInvestingTest {
 
     private static final class TestMarketplace implements Marketplace {
 
-        private Consumer<Collection<Loan>> listener;
-        private final Collection<Loan> toReturn;
+        private Consumer<Collection<LoanSummary>> listener;
+        private final Collection<LoanSummary> toReturn;
         private final ExpectedTreatment treatment;
+        private final CountDownLatch checked = new CountDownLatch(1);
         private boolean closed = false;
 
-        public TestMarketplace(final Collection<Loan> toReturn, final ExpectedTreatment treatment) {
+        public TestMarketplace(final Collection<LoanSummary> toReturn, final ExpectedTreatment treatment) {
             this.toReturn = toReturn;
             this.treatment = treatment;
         }
 
         @Override
-        public boolean registerListener(final Consumer<Collection<Loan>> listener) {
+        public boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
             this.listener = listener;
             return true;
         }
@@ -88,9 +91,17 @@ public class DaemonInvestmentModeTest extends AbstractInvestingTest {
             return closed;
         }
 
+        /**
+         * @return Released once the listener has processed the marketplace for the first time.
+         */
+        public CountDownLatch getChecked() {
+            return checked;
+        }
+
         @Override
         public void run() {
             this.listener.accept(toReturn);
+            checked.countDown();
         }
 
         @Override
@@ -133,12 +144,13 @@ public class DaemonInvestmentModeTest extends AbstractInvestingTest {
         try (final DaemonInvestmentMode mode = new DaemonInvestmentMode(
                 AuthenticationHandler.passwordBased(SecretProvider.fallback("username", new char[0])),
                 new ZonkyProxy.Builder().asDryRun(), false, m, s)) {
-            final Future<Boolean> wasLockedByUser = Executors.newScheduledThreadPool(1).schedule(() -> {
+            final Future<Boolean> wasLockedByUser = Executors.newSingleThreadExecutor().submit(() -> {
+                Assertions.assertThat(m.getChecked().await(5, TimeUnit.SECONDS)).isTrue();
                 LoggerFactory.getLogger(DaemonInvestmentModeTest.class).info("Sending request to terminate.");
                 final boolean result = DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.hasQueuedThreads();
                 DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release();
                 return result;
-            }, 1, TimeUnit.SECONDS);
+            });
             final Optional<Collection<Investment>> result = mode.execute(p);
             Assertions.assertThat(wasLockedByUser.get()).isTrue();
             Assertions.assertThat(result).matches(o -> o.map(c -> c.size() == 1).orElse(false));
@@ -87,4 +87,53 @@ public class InvestmentTrackerTest extends AbstractInvestingTest {
         Assertions.assertThat(it2.getAvailableLoans()).isNotEmpty().doesNotContain(ld);
     }
 
+    @Test
+    public void untouchablesIsolatedByNamespace() {
+        final LoanDescriptor ld = AbstractInvestingTest.mockLoanDescriptor();
+        final int loanId = ld.getLoan().getId();
+        final Collection<LoanDescriptor> lds = Arrays.asList(ld, AbstractInvestingTest.mockLoanDescriptor());
+        final BigDecimal balance = BigDecimal.valueOf(10000);
+        final InvestmentTracker it = new InvestmentTracker(lds, balance, true, "first@somewhere.cz");
+        it.discardLoan(loanId);
+        // other namespaces are not affected
+        final InvestmentTracker it2 = new InvestmentTracker(lds, balance, true, "second@somewhere.cz");
+        final InvestmentTracker it3 = new InvestmentTracker(lds, balance);
+        // the same namespace is
+        final InvestmentTracker it4 = new InvestmentTracker(lds, balance, true, "first@somewhere.cz");
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(it2.isDiscarded(loanId)).isFalse();
+            softly.assertThat(it2.getAvailableLoans()).contains(ld);
+            softly.assertThat(it3.isDiscarded(loanId)).isFalse();
+            softly.assertThat(it4.isDiscarded(loanId)).isTrue();
+            softly.assertThat(it4.getAvailableLoans()).doesNotContain(ld);
+        });
+    }
+
+    @Test
+    public void untouchablesWrittenOnFlush() {
+        final LoanDescriptor ld = AbstractInvestingTest.mockLoanDescriptor();
+        final int loanId = ld.getLoan().getId();
+        final InvestmentTracker it = new InvestmentTracker(Collections.singleton(ld), BigDecimal.valueOf(10000));
+        it.discardLoan(loanId);
+        InvestmentTracker.flush();
+        Assertions.assertThat(InvestmentTracker.STATE.getValue("untouchableInvestments"))
+                .contains(String.valueOf(loanId));
+    }
+
+    @Test
+    public void reservations() {
+        final InvestmentTracker it = new InvestmentTracker(Collections.emptyList(), BigDecimal.valueOf(1000));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(it.reserve(600)).isTrue();
+            softly.assertThat(it.reserve(600)).isFalse();
+            softly.assertThat(it.getCurrentBalance()).isEqualByComparingTo(BigDecimal.valueOf(400));
+            softly.assertThat(it.getReservedBalance()).isEqualByComparingTo(BigDecimal.valueOf(600));
+        });
+        it.releaseReservation(600);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(it.getCurrentBalance()).isEqualByComparingTo(BigDecimal.valueOf(1000));
+            softly.assertThat(it.getReservedBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+        });
+    }
+
 }
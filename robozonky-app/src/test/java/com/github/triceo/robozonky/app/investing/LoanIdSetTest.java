@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class LoanIdSetTest {
+
+    @Test
+    public void addAndContains() {
+        final LoanIdSet set = new LoanIdSet();
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(set.add(1, 0)).isTrue();
+            softly.assertThat(set.add(1, 0)).isFalse();
+            softly.assertThat(set.add(0, 0)).isTrue();
+            softly.assertThat(set.add(-1, 0)).isTrue();
+            softly.assertThat(set.contains(1)).isTrue();
+            softly.assertThat(set.contains(0)).isTrue();
+            softly.assertThat(set.contains(-1)).isTrue();
+            softly.assertThat(set.contains(2)).isFalse();
+            softly.assertThat(set.touch(2, 0)).isFalse();
+            softly.assertThat(set.size()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void growing() {
+        final LoanIdSet set = new LoanIdSet();
+        IntStream.range(0, 10_000).forEach(i -> set.add(i, 0));
+        Assertions.assertThat(set.size()).isEqualTo(10_000);
+        Assertions.assertThat(IntStream.range(0, 10_000).allMatch(set::contains)).isTrue();
+        Assertions.assertThat(set.contains(10_000)).isFalse();
+    }
+
+    @Test
+    public void eviction() {
+        final LoanIdSet set = new LoanIdSet();
+        IntStream.range(0, 1000).forEach(i -> set.add(i, i % 2)); // odd IDs are newer
+        IntStream.range(0, 1000).filter(i -> i % 3 == 0).forEach(i -> set.touch(i, 2)); // refresh some
+        final int expectedEvicted = (int)IntStream.range(0, 1000).filter(i -> i % 2 == 0 && i % 3 != 0).count();
+        Assertions.assertThat(set.evictOlderThan(1)).isEqualTo(expectedEvicted);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(set.size()).isEqualTo(1000 - expectedEvicted);
+            IntStream.range(0, 1000).forEach(i -> {
+                final boolean shouldBeKept = i % 2 == 1 || i % 3 == 0;
+                softly.assertThat(set.contains(i)).as("Contains " + i).isEqualTo(shouldBeKept);
+            });
+        });
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class MarketplaceDifferTest {
+
+    private static LoanDescriptor mockLoanDescriptor(final int id, final double remaining) {
+        final Loan loan = Mockito.mock(Loan.class);
+        Mockito.when(loan.getId()).thenReturn(id);
+        Mockito.when(loan.getRemainingInvestment()).thenReturn(remaining);
+        Mockito.when(loan.getDatePublished()).thenReturn(OffsetDateTime.now().minusDays(1));
+        return new LoanDescriptor(loan, Duration.ZERO);
+    }
+
+    @Test
+    public void firstViewIsAllAdded() {
+        final LoanDescriptor ld = MarketplaceDifferTest.mockLoanDescriptor(1, 1000);
+        final MarketplaceView view = new MarketplaceDiffer().diff(Collections.singletonList(ld));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(view.isChanged()).isTrue();
+            softly.assertThat(view.getLoans()).containsExactly(ld);
+            softly.assertThat(view.getAdded()).containsExactly(ld);
+            softly.assertThat(view.getChanged()).isEmpty();
+            softly.assertThat(view.getRemoved()).isEmpty();
+        });
+    }
+
+    @Test
+    public void sameViewIsUnchanged() {
+        final LoanDescriptor ld = MarketplaceDifferTest.mockLoanDescriptor(1, 1000);
+        final MarketplaceDiffer differ = new MarketplaceDiffer();
+        differ.diff(Collections.singletonList(ld));
+        final MarketplaceView view = differ.diff(Collections.singletonList(ld));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(view.isChanged()).isFalse();
+            softly.assertThat(view.getLoans()).containsExactly(ld);
+        });
+    }
+
+    @Test
+    public void addedChangedAndRemoved() {
+        final LoanDescriptor first = MarketplaceDifferTest.mockLoanDescriptor(1, 1000);
+        final LoanDescriptor second = MarketplaceDifferTest.mockLoanDescriptor(2, 1000);
+        final LoanDescriptor secondChanged = MarketplaceDifferTest.mockLoanDescriptor(2, 800);
+        final LoanDescriptor third = MarketplaceDifferTest.mockLoanDescriptor(3, 1000);
+        final MarketplaceDiffer differ = new MarketplaceDiffer();
+        differ.diff(Arrays.asList(first, second));
+        final MarketplaceView view = differ.diff(Arrays.asList(secondChanged, third));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(view.isChanged()).isTrue();
+            softly.assertThat(view.getLoans()).containsExactly(secondChanged, third);
+            softly.assertThat(view.getAdded()).containsExactly(third);
+            softly.assertThat(view.getChanged()).containsExactly(secondChanged);
+            softly.assertThat(view.getRemoved()).containsExactly(first);
+        });
+    }
+
+    @Test
+    public void captchaExpirationIsChange() {
+        final Loan loan = Mockito.mock(Loan.class);
+        Mockito.when(loan.getId()).thenReturn(1);
+        Mockito.when(loan.getRemainingInvestment()).thenReturn(1000.0);
+        Mockito.when(loan.getDatePublished()).thenReturn(OffsetDateTime.now());
+        final LoanDescriptor ld = new LoanDescriptor(loan, Duration.ofDays(1));
+        final MarketplaceDiffer differ = new MarketplaceDiffer();
+        differ.diff(Collections.singletonList(ld));
+        // captcha protection ended in the meantime
+        final LoanDescriptor ld2 = new LoanDescriptor(loan, Duration.ZERO);
+        Assertions.assertThat(differ.diff(Collections.singletonList(ld2)).getChanged()).containsExactly(ld2);
+    }
+
+}
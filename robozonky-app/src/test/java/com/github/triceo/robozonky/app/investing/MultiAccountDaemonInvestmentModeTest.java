@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.github.triceo.robozonky.api.Refreshable;
+import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.ZonkyOAuthApi;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.entities.Wallet;
+import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
+import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import com.github.triceo.robozonky.api.strategies.Recommendation;
+import com.github.triceo.robozonky.app.ShutdownEnabler;
+import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
+import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.common.secrets.SecretProvider;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.ProvideSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class MultiAccountDaemonInvestmentModeTest extends AbstractInvestingTest {
+
+    private static final class TestMarketplace implements Marketplace {
+
+        private Consumer<Collection<LoanSummary>> listener;
+        private final Supplier<Collection<LoanSummary>> toReturn;
+
+        public TestMarketplace(final Supplier<Collection<LoanSummary>> toReturn) {
+            this.toReturn = toReturn;
+        }
+
+        @Override
+        public boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
+            this.listener = listener;
+            return true;
+        }
+
+        @Override
+        public ExpectedTreatment specifyExpectedTreatment() {
+            return ExpectedTreatment.POLLING;
+        }
+
+        @Override
+        public void run() {
+            this.listener.accept(toReturn.get());
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Like the real provider, all authenticated APIs share the token which was given to the provider last.
+     */
+    private static final class TokenRecordingApiProvider extends ApiProvider {
+
+        private final Map<Integer, String> tokensByLoan;
+        private final CyclicBarrier authenticated;
+        private volatile String token;
+
+        public TokenRecordingApiProvider(final Map<Integer, String> tokensByLoan, final CyclicBarrier authenticated) {
+            this.tokensByLoan = tokensByLoan;
+            this.authenticated = authenticated;
+        }
+
+        @Override
+        public ApiProvider.ApiWrapper<ZonkyOAuthApi> oauth() {
+            final ZonkyOAuthApi oauth = Mockito.mock(ZonkyOAuthApi.class);
+            Mockito.when(oauth.login(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                    ArgumentMatchers.any())).thenAnswer(i -> new ZonkyApiToken(i.getArgument(0), "", 299));
+            return new ApiProvider.ApiWrapper<>(ZonkyOAuthApi.class, oauth);
+        }
+
+        @Override
+        public synchronized ApiProvider.ApiWrapper<ZonkyApi> authenticated(final ZonkyApiToken token) {
+            this.token = new String(token.getAccessToken());
+            final ZonkyApi zonky = Mockito.mock(ZonkyApi.class);
+            Mockito.when(zonky.getWallet()).thenAnswer(i -> {
+                authenticated.await(5, TimeUnit.SECONDS); // all accounts have authenticated by now
+                return new Wallet(1, 2, BigDecimal.valueOf(1000), BigDecimal.valueOf(1000));
+            });
+            Mockito.doAnswer(i -> {
+                final Investment investment = i.getArgument(0);
+                tokensByLoan.put(investment.getLoanId(), this.token);
+                return null;
+            }).when(zonky).invest(ArgumentMatchers.any());
+            return new ApiProvider.ApiWrapper<>(ZonkyApi.class, zonky);
+        }
+    }
+
+    private static Account newAccount(final String username, final InvestmentStrategy strategy) {
+        return MultiAccountDaemonInvestmentModeTest.newAccount(username, strategy, true);
+    }
+
+    private static Account newAccount(final String username, final InvestmentStrategy strategy,
+                                      final boolean isDryRun) {
+        final Refreshable<InvestmentStrategy> s = Refreshable.createImmutable(strategy);
+        s.run();
+        final AuthenticationHandler auth =
+                AuthenticationHandler.passwordBased(SecretProvider.fallback(username, new char[0]));
+        final ZonkyProxy.Builder builder = new ZonkyProxy.Builder().asUser(username);
+        return new Account(auth, isDryRun ? builder.asDryRun() : builder, s);
+    }
+
+    private static InvestmentStrategy recommending(final Loan loan) {
+        final Recommendation r = new LoanDescriptor(loan, Duration.ZERO).recommend(200, false).get();
+        final InvestmentStrategy strategy = Mockito.mock(InvestmentStrategy.class);
+        Mockito.when(strategy.recommend(ArgumentMatchers.anyCollection(), ArgumentMatchers.any())).thenAnswer(i -> {
+            final Collection<LoanDescriptor> available = i.getArgument(0);
+            return available.stream().anyMatch(d -> d.getLoan().getId() == loan.getId()) ?
+                    Collections.singletonList(r) :
+                    Collections.emptyList();
+        });
+        return strategy;
+    }
+
+    @Rule
+    public final ProvideSystemProperty dryRunBalance = // no need to mock wallet
+            new ProvideSystemProperty("robozonky.default.dry_run_balance", String.valueOf(1000));
+
+    @Before
+    public void setupApp() {
+        ShutdownEnabler.DAEMON_ALLOWED_TO_TERMINATE.release(); // make sure the daemon is allowed to quit
+        DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release();
+    }
+
+    @Test
+    public void mergesInterestProfiles() {
+        final InterestProfile first = new InterestProfile(EnumSet.of(Rating.A), 6, 24, 1000);
+        final InterestProfile second = new InterestProfile(EnumSet.of(Rating.B), 12, 48, 400);
+        Assertions.assertThat(MultiAccountDaemonInvestmentMode.merge(Arrays.asList(Optional.of(first),
+                Optional.of(second))))
+                .contains(new InterestProfile(EnumSet.of(Rating.A, Rating.B), 6, 48, 400));
+    }
+
+    @Test
+    public void noInterestProfileWhenAnyAccountInterestedInEverything() {
+        final InterestProfile first = new InterestProfile(EnumSet.of(Rating.A), 6, 24, 1000);
+        Assertions.assertThat(MultiAccountDaemonInvestmentMode.merge(Arrays.asList(Optional.of(first),
+                Optional.empty()))).isEmpty();
+    }
+
+    @Test(timeout = 10000)
+    public void accountsInvestWithTheirOwnTokens() throws Exception {
+        final Loan first = new Loan(1, 10000, OffsetDateTime.now().minusHours(1));
+        final Loan second = new Loan(2, 10000, OffsetDateTime.now().minusHours(1));
+        final Collection<Account> accounts = Arrays.asList(
+                MultiAccountDaemonInvestmentModeTest.newAccount("first@somewhere.cz",
+                        MultiAccountDaemonInvestmentModeTest.recommending(first), false),
+                MultiAccountDaemonInvestmentModeTest.newAccount("second@somewhere.cz",
+                        MultiAccountDaemonInvestmentModeTest.recommending(second), false));
+        final Map<Integer, String> tokensByLoan = new ConcurrentHashMap<>();
+        final CyclicBarrier authenticated = new CyclicBarrier(accounts.size());
+        final Collection<ApiProvider> providers = new CopyOnWriteArrayList<>();
+        final Supplier<ApiProvider> supplier = () -> {
+            final ApiProvider p = new MultiAccountDaemonInvestmentModeTest.TokenRecordingApiProvider(tokensByLoan,
+                    authenticated);
+            providers.add(p);
+            return p;
+        };
+        final Marketplace m =
+                new MultiAccountDaemonInvestmentModeTest.TestMarketplace(() -> Arrays.asList(first, second));
+        try (final MultiAccountDaemonInvestmentMode mode = new MultiAccountDaemonInvestmentMode(accounts, false, m)) {
+            final CompletableFuture<Optional<Collection<Investment>>> execution =
+                    CompletableFuture.supplyAsync(() -> mode.execute(supplier));
+            while (tokensByLoan.size() < accounts.size()) { // wait for both accounts to invest
+                Thread.sleep(10);
+            }
+            DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release();
+            Assertions.assertThat(execution.get()).isPresent();
+        }
+        Assertions.assertThat(tokensByLoan)
+                .containsEntry(first.getId(), "first@somewhere.cz")
+                .containsEntry(second.getId(), "second@somewhere.cz");
+        Assertions.assertThat(providers).hasSize(accounts.size());
+        providers.forEach(p -> Assertions.assertThatThrownBy(p::anonymous) // closed together with the pipelines
+                .isInstanceOf(IllegalStateException.class));
+    }
+
+    @Test(timeout = 10000)
+    public void slowAccountDoesNotDelayOthers() throws Exception {
+        final Loan l = new Loan(1, 10000, OffsetDateTime.now());
+        final Recommendation r = new LoanDescriptor(l).recommend(200, false).get();
+        // the first account never finishes investing
+        final CountDownLatch neverReleased = new CountDownLatch(1);
+        final InvestmentStrategy slow = Mockito.mock(InvestmentStrategy.class);
+        Mockito.when(slow.recommend(ArgumentMatchers.anyCollection(), ArgumentMatchers.any())).thenAnswer(i -> {
+            neverReleased.await();
+            return Collections.emptyList();
+        });
+        // the second account invests while the first one is still busy
+        final Loan newer = new Loan(2, 10000, OffsetDateTime.now());
+        final CountDownLatch fastDone = new CountDownLatch(1);
+        final InvestmentStrategy fast = Mockito.mock(InvestmentStrategy.class);
+        Mockito.when(fast.recommend(ArgumentMatchers.anyCollection(), ArgumentMatchers.any())).thenAnswer(i -> {
+            final Collection<LoanDescriptor> available = i.getArgument(0);
+            if (available.stream().anyMatch(d -> d.getLoan().getId() == newer.getId())) { // 1st one recorded by now
+                fastDone.countDown();
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(r);
+        });
+        final ApiProvider p = Mockito.mock(ApiProvider.class);
+        final ZonkyApi z = Mockito.mock(ZonkyApi.class);
+        Mockito.when(z.getLoan(ArgumentMatchers.eq(l.getId()))).thenReturn(l);
+        Mockito.when(p.authenticated(ArgumentMatchers.any()))
+                .thenReturn(new ApiProvider.ApiWrapper<>(ZonkyApi.class, z));
+        Mockito.when(p.oauth()).thenReturn(Mockito.mock(ApiProvider.ApiWrapper.class));
+        final Collection<Account> accounts = Arrays.asList(
+                MultiAccountDaemonInvestmentModeTest.newAccount("slow@somewhere.cz", slow),
+                MultiAccountDaemonInvestmentModeTest.newAccount("fast@somewhere.cz", fast));
+        // every later check of the marketplace brings a new loan, so that the fast account is asked again
+        final AtomicInteger checks = new AtomicInteger(0);
+        final Marketplace m = new MultiAccountDaemonInvestmentModeTest.TestMarketplace(() ->
+                checks.getAndIncrement() == 0 ? Collections.singletonList(l) : Arrays.asList(l, newer));
+        try (final MultiAccountDaemonInvestmentMode mode = new MultiAccountDaemonInvestmentMode(accounts, false, m)) {
+            final CompletableFuture<Optional<Collection<Investment>>> execution =
+                    CompletableFuture.supplyAsync(() -> mode.execute(() -> p));
+            Assertions.assertThat(fastDone.await(5, TimeUnit.SECONDS)).isTrue();
+            DaemonInvestmentMode.BLOCK_UNTIL_RELEASED.release();
+            final Optional<Collection<Investment>> result = execution.get();
+            Assertions.assertThat(result).isPresent();
+            Assertions.assertThat(result.get()).extracting(Investment::getLoanId).containsExactly(l.getId());
+        }
+    }
+
+}
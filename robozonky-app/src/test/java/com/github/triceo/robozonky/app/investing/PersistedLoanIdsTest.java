@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.investing;
+
+import java.util.Arrays;
+
+import com.github.triceo.robozonky.common.AbstractStateLeveragingTest;
+import com.github.triceo.robozonky.internal.api.State;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class PersistedLoanIdsTest extends AbstractStateLeveragingTest {
+
+    private static final String PROPERTY = "ids";
+
+    private static State.ClassSpecificState getState() {
+        return State.INSTANCE.forClass(PersistedLoanIdsTest.class);
+    }
+
+    @Test
+    public void readsExistingState() {
+        PersistedLoanIdsTest.getState().setValue(PersistedLoanIdsTest.PROPERTY, "1,2,3");
+        final PersistedLoanIds ids =
+                new PersistedLoanIds(PersistedLoanIdsTest.getState(), PersistedLoanIdsTest.PROPERTY);
+        Assertions.assertThat(ids.getAll()).containsOnly(1, 2, 3);
+    }
+
+    @Test
+    public void flushesOnlyWhenDirty() {
+        final PersistedLoanIds ids =
+                new PersistedLoanIds(PersistedLoanIdsTest.getState(), PersistedLoanIdsTest.PROPERTY);
+        Assertions.assertThat(ids.flush()).isFalse();
+        ids.add(3);
+        ids.add(1);
+        ids.add(2);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(ids.contains(1)).isTrue();
+            softly.assertThat(ids.flush()).isTrue();
+            softly.assertThat(ids.flush()).isFalse();
+            softly.assertThat(PersistedLoanIdsTest.getState().getValue(PersistedLoanIdsTest.PROPERTY))
+                    .contains("1,2,3");
+        });
+        ids.add(1); // already present, not a change
+        Assertions.assertThat(ids.flush()).isFalse();
+    }
+
+    @Test
+    public void retaining() {
+        final PersistedLoanIds ids =
+                new PersistedLoanIds(PersistedLoanIdsTest.getState(), PersistedLoanIdsTest.PROPERTY);
+        ids.add(1);
+        ids.add(2);
+        ids.flush();
+        ids.retainAll(Arrays.asList(2, 3));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(ids.getAll()).containsOnly(2);
+            softly.assertThat(ids.flush()).isTrue();
+            softly.assertThat(PersistedLoanIdsTest.getState().getValue(PersistedLoanIdsTest.PROPERTY)).contains("2");
+        });
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package com.github.triceo.robozonky.app.investing;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -65,4 +66,33 @@ public class ResultTrackerTest {
         Assertions.assertThat(result.get(0)).matches(ld -> ld.getLoan().getId() == usefulLoan.getId());
     }
 
+    @Test
+    public void forgettingLoansNoLongerOnMarketplace() {
+        final Loan loan = Mockito.mock(Loan.class);
+        Mockito.when(loan.getId()).thenReturn(1);
+        Mockito.when(loan.getRemainingInvestment()).thenReturn(1000.0);
+        Mockito.when(loan.getDatePublished()).thenReturn(OffsetDateTime.now());
+        final ResultTracker t = new ResultTracker(Duration.ZERO, Duration.ZERO);
+        t.acceptInvestmentsFromRobot(Collections.singleton(new Investment(loan, 200)));
+        Assertions.assertThat(t.acceptLoansFromMarketplace(Collections.singletonList(loan))).isEmpty();
+        Assertions.assertThat(t.getInvestmentsMade()).hasSize(1);
+        t.evictIfNecessary(System.currentTimeMillis() + 1); // the loan was last seen before this
+        Assertions.assertThat(t.getInvestmentsMade()).hasSize(1); // only the index is evicted
+        Assertions.assertThat(t.acceptLoansFromMarketplace(Collections.singletonList(loan))).hasSize(1);
+    }
+
+    @Test
+    public void notForgettingLoansBeforeCheckInterval() {
+        final Loan loan = Mockito.mock(Loan.class);
+        Mockito.when(loan.getId()).thenReturn(1);
+        Mockito.when(loan.getRemainingInvestment()).thenReturn(1000.0);
+        Mockito.when(loan.getDatePublished()).thenReturn(OffsetDateTime.now());
+        final ResultTracker t = new ResultTracker(Duration.ZERO, Duration.ofHours(1));
+        t.acceptInvestmentsFromRobot(Collections.singleton(new Investment(loan, 200)));
+        Assertions.assertThat(t.acceptLoansFromMarketplace(Collections.singletonList(loan))).isEmpty();
+        t.evictIfNecessary(System.currentTimeMillis() + 1); // throttled, since the marketplace check just evicted
+        Assertions.assertThat(t.acceptLoansFromMarketplace(Collections.singletonList(loan))).isEmpty();
+        Assertions.assertThat(t.getInvestmentsMade()).hasSize(1);
+    }
+
 }
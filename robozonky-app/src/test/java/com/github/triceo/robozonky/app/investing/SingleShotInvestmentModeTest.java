@@ -32,6 +32,7 @@ import com.github.triceo.robozonky.api.notifications.ExecutionStartedEvent;
 import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
 import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.entities.Wallet;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.app.authentication.AuthenticationHandler;
@@ -47,16 +48,16 @@ public class SingleShotInvestmentModeTest extends AbstractInvestingTest {
 
     private static final class TestMarketplace implements Marketplace {
 
-        private Consumer<Collection<Loan>> listener;
-        private final Collection<Loan> toReturn;
+        private Consumer<Collection<LoanSummary>> listener;
+        private final Collection<LoanSummary> toReturn;
         private boolean closed = false;
 
-        public TestMarketplace(final Collection<Loan> toReturn) {
+        public TestMarketplace(final Collection<LoanSummary> toReturn) {
             this.toReturn = toReturn;
         }
 
         @Override
-        public boolean registerListener(final Consumer<Collection<Loan>> listener) {
+        public boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
             this.listener = listener;
             return true;
         }
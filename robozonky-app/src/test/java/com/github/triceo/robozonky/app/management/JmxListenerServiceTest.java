@@ -183,6 +183,7 @@ public class JmxListenerServiceTest {
 
     @Test
     public void set() {
+        Assertions.assertThat(new JmxListenerService().isSupported(eventType)).isTrue();
         SoftAssertions.assertSoftly(assertionsBefore);
         this.handleEvent(event);
         SoftAssertions.assertSoftly(assertionsAfter);
@@ -193,6 +194,7 @@ public class JmxListenerServiceTest {
     @Test
     public void setInvalid() {
         final JmxListenerService service = new JmxListenerService();
+        Assertions.assertThat(service.isSupported(RoboZonkyEndingEvent.class)).isFalse();
         final Refreshable<EventListener<RoboZonkyEndingEvent>> r = service.findListener(RoboZonkyEndingEvent.class);
         r.run();
         Assertions.assertThat(r.getLatest()).isEmpty();
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.app.management;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
+import com.github.triceo.robozonky.api.notifications.LoanArrivedEvent;
+import com.github.triceo.robozonky.api.notifications.LoanRecommendedEvent;
+import com.github.triceo.robozonky.api.remote.entities.Investment;
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class ReactionTimesTest {
+
+    @Test
+    public void timelineRecorded() {
+        final ReactionTimes times = new ReactionTimes(OffsetDateTime.now().minus(Duration.ofHours(1)));
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now().minus(Duration.ofMinutes(10)));
+        final LoanDescriptor ld = new LoanDescriptor(loan, Duration.ofMinutes(9));
+        times.registerArrival(new LoanArrivedEvent(ld));
+        times.registerArrival(new LoanArrivedEvent(ld)); // only the first sighting counts
+        times.registerRecommendation(new LoanRecommendedEvent(ld.recommend(200).get()));
+        final InvestmentMadeEvent made = new InvestmentMadeEvent(new Investment(loan, 200), 1000);
+        times.registerSubmission(made);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(times.getSightingLatencyInMillis()).containsEntry("count", 1L);
+            softly.assertThat(times.getSightingLatencyInMillis().get("max"))
+                    .isGreaterThanOrEqualTo(Duration.ofMinutes(10).toMillis());
+            // measured from CAPTCHA expiry, as the loan was only acted upon after that
+            softly.assertThat(times.getSubmissionLatencyInMillis()).containsEntry("count", 1L);
+            softly.assertThat(times.getSubmissionLatencyInMillis().get("max"))
+                    .isBetween(Duration.ofMinutes(1).toMillis(), Duration.ofMinutes(2).toMillis());
+            softly.assertThat(times.getRecentLoans()).containsOnlyKeys(loan.getId());
+            softly.assertThat(times.getLatestUpdatedDateTime()).isEqualTo(made.getCreatedOn());
+        });
+        times.reset();
+        Assertions.assertThat(times.getRecentLoans()).isEmpty();
+    }
+
+    @Test
+    public void loansPublishedBeforeStartNotMeasured() {
+        final ReactionTimes times = new ReactionTimes();
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now().minus(Duration.ofMinutes(10)));
+        final LoanDescriptor ld = new LoanDescriptor(loan, Duration.ZERO);
+        times.registerArrival(new LoanArrivedEvent(ld));
+        times.registerSubmission(new InvestmentMadeEvent(new Investment(loan, 200), 1000));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(times.getSightingLatencyInMillis()).containsEntry("count", 0L);
+            softly.assertThat(times.getSubmissionLatencyInMillis()).containsEntry("count", 0L);
+            softly.assertThat(times.getRecentLoans()).containsOnlyKeys(loan.getId());
+        });
+    }
+
+    @Test
+    public void submissionWithoutArrivalIgnored() {
+        final ReactionTimes times = new ReactionTimes();
+        final Loan loan = new Loan(1, 1000, OffsetDateTime.now());
+        times.registerSubmission(new InvestmentMadeEvent(new Investment(loan, 200), 1000));
+        Assertions.assertThat(times.getSubmissionLatencyInMillis()).containsEntry("count", 0L);
+    }
+
+}
@@ -31,23 +31,26 @@ import com.github.triceo.robozonky.api.confirmations.RequestId;
 import com.github.triceo.robozonky.api.notifications.EventListener;
 import com.github.triceo.robozonky.api.notifications.RoboZonkyTestingEvent;
 import com.github.triceo.robozonky.api.remote.ZonkyApi;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.common.remote.LoanCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class Checker {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Checker.class);
-    private static final Comparator<Loan> SUBCOMPARATOR =
-            Comparator.comparing(Loan::getRemainingInvestment).reversed();
-    private static final Comparator<Loan> COMPARATOR =
-            Comparator.comparing(Loan::getInterestRate).thenComparing(Checker.SUBCOMPARATOR);
+    private static final Comparator<LoanSummary> SUBCOMPARATOR =
+            Comparator.comparing(LoanSummary::getRemainingInvestment).reversed();
+    private static final Comparator<LoanSummary> COMPARATOR =
+            Comparator.comparing(LoanSummary::getInterestRate).thenComparing(Checker.SUBCOMPARATOR);
 
-    static Optional<Loan> getOneLoanFromMarketplace(final Supplier<ApiProvider> apiProviderSupplier) {
+    static Optional<LoanSummary> getOneLoanFromMarketplace(final Supplier<ApiProvider> apiProviderSupplier) {
         try (final ApiProvider p = apiProviderSupplier.get()) {
             final ApiProvider.ApiWrapper<ZonkyApi> oauth = p.anonymous();
-            final Collection<Loan> loans = oauth.execute((Function<ZonkyApi, List<Loan>>) ZonkyApi::getLoans);
+            final Collection<LoanSummary> loans =
+                    oauth.execute((Function<ZonkyApi, List<LoanSummary>>) ZonkyApi::getLoans);
+            LoanCache.INSTANCE.seed(loans);
             /*
              * find a loan that is likely to stay on the marketplace for so long that the notification will
              * successfully come through.
@@ -59,8 +62,8 @@ public class Checker {
         }
     }
 
-    static Optional<Boolean> notifyProvider(final Loan loan, final ConfirmationProvider zonkoid, final String username,
-                                            final char[] secret) {
+    static Optional<Boolean> notifyProvider(final LoanSummary loan, final ConfirmationProvider zonkoid,
+                                            final String username, final char[] secret) {
         final RequestId id = new RequestId(username, secret);
         return zonkoid.requestConfirmation(id, loan.getId(), 200)
                 .map(c -> {
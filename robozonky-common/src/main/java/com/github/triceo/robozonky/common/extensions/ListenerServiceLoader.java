@@ -16,7 +16,11 @@
 
 package com.github.triceo.robozonky.common.extensions;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,19 +44,40 @@ public final class ListenerServiceLoader {
         return StreamSupport.stream(iterable.spliterator(), false);
     }
 
+    static <T extends Event> Map<ListenerService, Refreshable<EventListener<T>>> loadBySource(
+            final Class<T> eventType, final Iterable<ListenerService> loader, final Scheduler scheduler) {
+        return ListenerServiceLoader.iteratorToStream(loader)
+                .parallel()
+                .filter(s -> s.isSupported(eventType))
+                .peek(s -> ListenerServiceLoader.LOGGER.debug("Processing '{}' for {}.", s.getClass(), eventType))
+                .map(s -> new AbstractMap.SimpleImmutableEntry<>(s, s.findListener(eventType)))
+                .filter(e -> e.getValue() != null)
+                .peek(e -> scheduler.submit(e.getValue()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
     static <T extends Event> List<Refreshable<EventListener<T>>> load(final Class<T> eventType,
                                                                       final Iterable<ListenerService> loader,
                                                                       final Scheduler scheduler) {
-        return ListenerServiceLoader.iteratorToStream(loader)
-                .parallel()
-                .peek(s -> ListenerServiceLoader.LOGGER.debug("Processing '{}'.", s.getClass()))
-                .map(s -> s.findListener(eventType))
-                .peek(scheduler::submit)
-                .collect(Collectors.toList());
+        return new ArrayList<>(ListenerServiceLoader.loadBySource(eventType, loader, scheduler).values());
     }
 
     public static <T extends Event> List<Refreshable<EventListener<T>>> load(final Class<T> eventType) {
         return ListenerServiceLoader.load(eventType, ListenerServiceLoader.LOADER, Scheduler.BACKGROUND_SCHEDULER);
     }
 
+    /**
+     * Same as {@link #load(Class)}, but also tells which service each of the listeners comes from.
+     *
+     * @param eventType Event to find listeners for.
+     * @param <T> Event to find listeners for.
+     * @return Listeners, keyed by the {@link ListenerService} that provided them. The services are only instantiated
+     * once, therefore the same service is returned for every event type.
+     */
+    public static <T extends Event> Map<ListenerService, Refreshable<EventListener<T>>> loadBySource(
+            final Class<T> eventType) {
+        return ListenerServiceLoader.loadBySource(eventType, ListenerServiceLoader.LOADER,
+                Scheduler.BACKGROUND_SCHEDULER);
+    }
+
 }
@@ -16,30 +16,30 @@
 
 package com.github.triceo.robozonky.common.remote;
 
-import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Stream;
 import javax.xml.ws.WebServiceClient;
 
 import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.api.remote.ZonkyOAuthApi;
 import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.triceo.robozonky.internal.api.Defaults;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
 import org.jboss.resteasy.client.jaxrs.cache.BrowserCacheFeature;
+import org.jboss.resteasy.client.jaxrs.cache.LightweightBrowserCache;
 import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
 import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
 import org.jboss.resteasy.plugins.providers.RegisterBuiltin;
@@ -50,8 +50,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provides instances of APIs for the rest of RoboZonky to use. When no longer needed, the ApiProvider needs to be
- * {@link #close()}ed in order to not leak {@link WebServiceClient}s that weren't already closed by
- * {@link ApiProvider.ApiWrapper#close()}.
+ * {@link #close()}ed in order to not leak {@link WebServiceClient}s.
+ *
+ * RESTEasy client proxies are expensive to create, therefore the provider keeps one per API, URL and filter and hands
+ * out the same instance on every request. Authenticated APIs share a single client whose token is replaced on every
+ * call to {@link #authenticated(ZonkyApiToken)}; for that reason, one provider should only ever serve one user.
  */
 public class ApiProvider implements AutoCloseable {
 
@@ -72,7 +75,8 @@ public class ApiProvider implements AutoCloseable {
 
     /**
      * Represents a close-able RESTEasy client proxy. Users should preferably call {@link #close()} after they're
-     * done with the API.
+     * done with the API. Wrappers shared through {@link ApiProvider} ignore {@link #close()}, as their client is
+     * released when the provider itself is closed.
      *
      * @param <T> Type of the API to be handled.
      */
@@ -82,23 +86,32 @@ public class ApiProvider implements AutoCloseable {
 
         private final ResteasyClient client;
         private final T api;
+        private final boolean isShared;
 
         public ApiWrapper(final Class<T> apiClass, T api) {
             this(apiClass, api, null);
         }
 
         public ApiWrapper(final Class<T> apiClass, final T api, final ResteasyClient client) {
+            this(apiClass, api, client, false);
+        }
+
+        ApiWrapper(final Class<T> apiClass, final T api, final ResteasyClient client, final boolean isShared) {
             ApiProvider.ApiWrapper.LOGGER.trace("Registering {} REST client: {}.", apiClass.getSimpleName(), client);
             this.client = client;
             this.api = api;
+            this.isShared = isShared;
         }
 
         public <S> S execute(final Function<T, S> function) {
-            return function.apply(api);
+            return ApiStatistics.INSTANCE.measure(() -> function.apply(api));
         }
 
         public void execute(final Consumer<T> function) {
-            function.accept(api);
+            ApiStatistics.INSTANCE.measure(() -> {
+                function.accept(api);
+                return null;
+            });
         }
 
         boolean isClosed() {
@@ -106,7 +119,14 @@ public class ApiProvider implements AutoCloseable {
         }
 
         @Override
-        public synchronized void close() {
+        public void close() {
+            if (isShared) {
+                return;
+            }
+            this.destroy();
+        }
+
+        synchronized void destroy() {
             if (client != null && !client.isClosed()) {
                 ApiProvider.ApiWrapper.LOGGER.trace("Destroying REST client: {}.", client);
                 client.close();
@@ -122,19 +142,100 @@ public class ApiProvider implements AutoCloseable {
             ApiProvider.RESTEASY.registerProvider(jsonProvider);
         }
     }
-    private static final HttpClientConnectionManager CONNECTION_MANAGER = new PoolingHttpClientConnectionManager();
-    private static final String ZONKY_URL = "https://api.zonky.cz";
+    public static final String ZONKY_URL = "https://api.zonky.cz";
+    /**
+     * Shared by the anonymous clients of all providers, so that cached responses survive between providers and are
+     * bounded in size for the whole process. Responses to authenticated requests must never end up here, as the
+     * cache is keyed by URL only and would serve one user's responses to another.
+     */
+    private static final BrowserCacheFeature BROWSER_CACHE = ApiProvider.newBrowserCacheFeature();
+    private static final MarketplaceReader MARKETPLACE_READER = new MarketplaceReader();
+    private static final AtomicLong CLIENTS_CREATED = new AtomicLong(0), CLIENTS_REUSED = new AtomicLong(0);
+
+    /**
+     * Identifies a cached client. Filters are compared by identity, since a filter instance is registered with the
+     * client and any state it carries (such as the authentication token) belongs to that client.
+     */
+    private static final class ClientKey {
+
+        private final Class<?> api;
+        private final String url;
+        private final RoboZonkyFilter filter;
+
+        public ClientKey(final Class<?> api, final String url, final RoboZonkyFilter filter) {
+            this.api = api;
+            this.url = url;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            } else if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ApiProvider.ClientKey clientKey = (ApiProvider.ClientKey) o;
+            return api == clientKey.api && filter == clientKey.filter && Objects.equals(url, clientKey.url);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(api, url, System.identityHashCode(filter));
+        }
+    }
+
+    /**
+     *
+     * @return Number of RESTEasy clients created by all providers since start or last
+     * {@link #resetClientStatistics()}.
+     */
+    public static long getClientsCreated() {
+        return ApiProvider.CLIENTS_CREATED.get();
+    }
+
+    /**
+     *
+     * @return Number of API requests that were served by an already existing RESTEasy client, since start or last
+     * {@link #resetClientStatistics()}.
+     */
+    public static long getClientsReused() {
+        return ApiProvider.CLIENTS_REUSED.get();
+    }
 
     /**
-     * Use weak references so that the clients aren't kept around forever, with all the entities they carry.
+     *
+     * @return Share of API requests served by an already existing RESTEasy client, 0 when none requested yet.
      */
-    private final Collection<WeakReference<AutoCloseable>> clients = new ArrayList<>();
+    public static double getClientReuseRate() {
+        final long reused = ApiProvider.getClientsReused();
+        final long total = reused + ApiProvider.getClientsCreated();
+        return total == 0 ? 0.0 : reused / (double) total;
+    }
+
+    public static void resetClientStatistics() {
+        ApiProvider.CLIENTS_CREATED.set(0);
+        ApiProvider.CLIENTS_REUSED.set(0);
+    }
+
+    private final Map<ApiProvider.ClientKey, ApiProvider.ApiWrapper<?>> clients = new HashMap<>();
+    private final RoboZonkyFilter anonymousFilter = new RoboZonkyFilter();
+    private final RoboZonkyFilter oauthFilter = new AuthenticationFilter();
+    private AuthenticatedFilter authenticatedFilter;
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
     protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
+    private static BrowserCacheFeature newBrowserCacheFeature() {
+        final LightweightBrowserCache cache = new LightweightBrowserCache();
+        cache.setMaxBytes(Defaults.getHttpCacheSizeInKilobytes() * 1024L);
+        final BrowserCacheFeature feature = new BrowserCacheFeature();
+        feature.setCache(cache);
+        return feature;
+    }
+
     private static ResteasyClient newResteasyClient() {
         final CloseableHttpClient httpClient = HttpClientBuilder.create()
-                .setConnectionManager(ApiProvider.CONNECTION_MANAGER)
+                .setConnectionManager(ConnectionPool.INSTANCE.getManager())
                 .build();
         final ClientHttpEngine httpEngine = new ApiProvider.RedirectingHttpClient(httpClient);
         return new ResteasyClientBuilder()
@@ -144,25 +245,42 @@ public class ApiProvider implements AutoCloseable {
     }
 
     /**
-     * Instantiate an API as a RESTEasy client proxy.
+     * Instantiate an API as a RESTEasy client proxy, or retrieve one that was instantiated before for the same
+     * arguments.
      *
      * @param api RESTEasy endpoint.
      * @param url URL to the web API represented by the endpoint.
-     * @param filter Filter to use when communicating with the endpoint.
+     * @param filter Filter to use when communicating with the endpoint. Same instance must be passed in order for the
+     * client to be reused.
      * @param <T> API type.
      * @return RESTEasy client proxy for the API, ready to be called.
      */
-    protected <T> ApiProvider.ApiWrapper<T> obtain(final Class<T> api, final String url, final RoboZonkyFilter filter) {
+    @SuppressWarnings("unchecked")
+    protected synchronized <T> ApiProvider.ApiWrapper<T> obtain(final Class<T> api, final String url,
+                                                               final RoboZonkyFilter filter) {
         if (this.isClosed.get()) {
             throw new IllegalStateException("Attempting to use an already destroyed ApiProvider.");
         }
+        final ApiProvider.ClientKey key = new ApiProvider.ClientKey(api, url, filter);
+        final ApiProvider.ApiWrapper<?> existing = this.clients.get(key);
+        if (existing != null && !existing.isClosed()) {
+            ApiProvider.CLIENTS_REUSED.incrementAndGet();
+            return (ApiProvider.ApiWrapper<T>) existing;
+        }
         final ResteasyClient client = ApiProvider.newResteasyClient();
-        final T proxy = client.register(filter)
+        final ResteasyWebTarget target = client.register(filter)
                 .target(url)
-                .register(new BrowserCacheFeature())
-                .proxy(api);
-        final ApiProvider.ApiWrapper<T> wrapper = new ApiProvider.ApiWrapper<>(api, proxy, client);
-        this.clients.add(new WeakReference<>(wrapper));
+                .register(new StatisticsFilter(ApiStatistics.INSTANCE))
+                .register(ApiProvider.MARKETPLACE_READER);
+        if (filter == this.anonymousFilter) { // responses are the same for everyone
+            target.register(ApiProvider.BROWSER_CACHE);
+        } else if (!(filter instanceof ConditionalRequestFilter)) { // would turn 304 into a parsed response
+            target.register(ApiProvider.newBrowserCacheFeature()); // only ever used by this client
+        }
+        final T proxy = target.proxy(api);
+        final ApiProvider.ApiWrapper<T> wrapper = new ApiProvider.ApiWrapper<>(api, proxy, client, true);
+        this.clients.put(key, wrapper);
+        ApiProvider.CLIENTS_CREATED.incrementAndGet();
         return wrapper;
     }
 
@@ -173,7 +291,7 @@ public class ApiProvider implements AutoCloseable {
      * @throws IllegalStateException If {@link #close()} already called.
      */
     public ApiProvider.ApiWrapper<ZonkyOAuthApi> oauth() {
-        return this.obtain(ZonkyOAuthApi.class, ApiProvider.ZONKY_URL, new AuthenticationFilter());
+        return this.obtain(ZonkyOAuthApi.class, ApiProvider.ZONKY_URL, this.oauthFilter);
     }
 
     /**
@@ -183,18 +301,24 @@ public class ApiProvider implements AutoCloseable {
      * @throws IllegalStateException If {@link #close()} already called.
      */
     public ApiProvider.ApiWrapper<ZonkyApi> anonymous() {
-        return this.obtain(ZonkyApi.class, ApiProvider.ZONKY_URL, new RoboZonkyFilter());
+        return this.obtain(ZonkyApi.class, ApiProvider.ZONKY_URL, this.anonymousFilter);
     }
 
     /**
-     * Retrieve user-specific Zonky API which requires authentication.
+     * Retrieve user-specific Zonky API which requires authentication. All previously retrieved authenticated APIs
+     * from this provider will start using the new token as well.
      *
      * @param token The Zonky API token, representing an authenticated user.
      * @return New API instance.
      * @throws IllegalStateException If {@link #close()} already called.
      */
-    public ApiProvider.ApiWrapper<ZonkyApi> authenticated(final ZonkyApiToken token) {
-        return this.obtain(ZonkyApi.class, ApiProvider.ZONKY_URL, new AuthenticatedFilter(token));
+    public synchronized ApiProvider.ApiWrapper<ZonkyApi> authenticated(final ZonkyApiToken token) {
+        if (this.authenticatedFilter == null) {
+            this.authenticatedFilter = new AuthenticatedFilter(token);
+        } else {
+            this.authenticatedFilter.setToken(token);
+        }
+        return this.obtain(ZonkyApi.class, ApiProvider.ZONKY_URL, this.authenticatedFilter);
     }
 
     @Override
@@ -202,18 +326,15 @@ public class ApiProvider implements AutoCloseable {
         if (this.isClosed.get()) {
             return;
         }
-        this.clients.stream()
-                .flatMap(w -> w.get() == null ? Stream.empty() : Stream.of(w.get()))
-                .forEach(c -> {
-                    try {
-                        c.close();
-                    } catch (final Exception ex) {
-                        LOGGER.trace("Failed closing client: {}.", c, ex);
-                    }
-                });
+        this.clients.values().forEach(c -> {
+            try {
+                c.destroy();
+            } catch (final Exception ex) {
+                LOGGER.trace("Failed closing client: {}.", c, ex);
+            }
+        });
+        this.clients.clear();
         this.isClosed.set(true);
-        ApiProvider.CONNECTION_MANAGER.closeExpiredConnections();
-        ApiProvider.CONNECTION_MANAGER.closeIdleConnections(5, TimeUnit.MINUTES);
     }
 
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Collects {@link EndpointStatistics} for every remote endpoint called through {@link ApiProvider}. Calls are measured
+ * by {@link ApiProvider.ApiWrapper}, from the moment the request is sent until the response has been fully read, so
+ * that the time spent parsing the response is included. {@link StatisticsFilter} tells which endpoint is being called
+ * and what the response was; calls which end without a response, such as on network errors, are recorded as errors.
+ */
+public final class ApiStatistics {
+
+    /**
+     * Status code recorded for calls which ended without any response.
+     */
+    static final int NO_RESPONSE = -1;
+
+    public static final ApiStatistics INSTANCE = new ApiStatistics();
+
+    /**
+     * Path segments that identify entities, such as loan IDs, so that all calls to the same endpoint are counted
+     * together.
+     */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    static String getEndpointName(final String method, final URI uri) {
+        final String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        return method + " " + uri.getHost() + ApiStatistics.ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * The remote call currently being made by a thread, within {@link #measure(Supplier)}.
+     */
+    private final class Measurement {
+
+        private String endpoint;
+        private long startedOn;
+        private int statusCode;
+
+        public void start(final String endpoint) {
+            this.finish(); // the previous call of the same measurement has been fully read by now
+            this.endpoint = endpoint;
+            this.startedOn = System.nanoTime();
+            this.statusCode = ApiStatistics.NO_RESPONSE;
+        }
+
+        public void respond(final int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        public void finish() {
+            if (endpoint == null) {
+                return;
+            }
+            ApiStatistics.this.record(endpoint, System.nanoTime() - startedOn, statusCode);
+            endpoint = null;
+        }
+    }
+
+    private final Map<String, EndpointStatistics> endpoints = new ConcurrentHashMap<>();
+    private final ThreadLocal<ApiStatistics.Measurement> measurements = new ThreadLocal<>();
+
+    ApiStatistics() {
+        // no external instances
+    }
+
+    /**
+     * Record every remote call made by the current thread while executing the given code.
+     *
+     * @param code Code that calls the remote endpoints.
+     * @param <T> Return type of the code.
+     * @return Whatever the code returned.
+     */
+    <T> T measure(final Supplier<T> code) {
+        if (measurements.get() != null) { // nested, the outer measurement will record the calls
+            return code.get();
+        }
+        final ApiStatistics.Measurement measurement = new ApiStatistics.Measurement();
+        measurements.set(measurement);
+        try {
+            return code.get();
+        } finally {
+            measurements.remove();
+            measurement.finish();
+        }
+    }
+
+    void started(final String endpoint) {
+        final ApiStatistics.Measurement measurement = measurements.get();
+        if (measurement != null) {
+            measurement.start(endpoint);
+        }
+    }
+
+    void responded(final int statusCode) {
+        final ApiStatistics.Measurement measurement = measurements.get();
+        if (measurement != null) {
+            measurement.respond(statusCode);
+        }
+    }
+
+    void record(final String endpoint, final long durationInNanos, final int statusCode) {
+        endpoints.computeIfAbsent(endpoint, k -> new EndpointStatistics()).record(durationInNanos, statusCode);
+    }
+
+    /**
+     *
+     * @return Statistics of every endpoint called since start or last {@link #reset()}, ordered by endpoint.
+     */
+    public SortedMap<String, EndpointStatistics> getAll() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(endpoints));
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+}
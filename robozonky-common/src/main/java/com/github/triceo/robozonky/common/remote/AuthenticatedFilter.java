@@ -23,9 +23,19 @@ import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
 
 final class AuthenticatedFilter extends RoboZonkyFilter {
 
-    private final char[] accessToken; // treat the access token as if it were a password
+    private volatile char[] accessToken; // treat the access token as if it were a password
 
     public AuthenticatedFilter(final ZonkyApiToken token) {
+        this.setToken(token);
+    }
+
+    /**
+     * Replace the token used to authenticate subsequent requests, so that the client that this filter is registered
+     * with need not be re-created.
+     *
+     * @param token New token.
+     */
+    void setToken(final ZonkyApiToken token) {
         this.accessToken = token.getAccessToken();
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.RedirectionException;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+/**
+ * Makes repeated GET requests conditional, so that the server may answer HTTP 304 Not Modified instead of sending the
+ * same content again. ETag and Last-Modified of the latest successful response are remembered per URI, for as long as
+ * the filter instance lives.
+ *
+ * A 304 response has no body, and RESTEasy client proxies will therefore throw {@link RedirectionException} for it.
+ * Callers need to keep whatever they built from the original response and fall back to it, see
+ * {@link #isNotModified(Throwable)}. For the same reason, clients using this filter do not use the shared browser
+ * cache of {@link ApiProvider}, which would otherwise turn the 304 into a fully parsed copy of the cached response.
+ */
+public class ConditionalRequestFilter extends RoboZonkyFilter {
+
+    private static final int MAX_REMEMBERED_URIS = 100;
+
+    private static final class Validators {
+
+        private final String entityTag, lastModified;
+
+        public Validators(final String entityTag, final String lastModified) {
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     *
+     * @param ex Exception thrown by a RESTEasy client proxy.
+     * @return True if the exception only signifies that the resource has not changed since the last request.
+     */
+    public static boolean isNotModified(final Throwable ex) {
+        return ex instanceof RedirectionException &&
+                ((RedirectionException) ex).getResponse().getStatus() == Response.Status.NOT_MODIFIED.getStatusCode();
+    }
+
+    private final Map<URI, ConditionalRequestFilter.Validators> validators = new LinkedHashMap<URI,
+            ConditionalRequestFilter.Validators>() {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<URI, ConditionalRequestFilter.Validators> eldest) {
+            return this.size() > ConditionalRequestFilter.MAX_REMEMBERED_URIS;
+        }
+    };
+
+    @Override
+    public void filter(final ClientRequestContext clientRequestContext) throws IOException {
+        super.filter(clientRequestContext);
+        if (!Objects.equals(clientRequestContext.getMethod(), HttpMethod.GET)) {
+            return;
+        }
+        final ConditionalRequestFilter.Validators v;
+        synchronized (validators) {
+            v = validators.get(clientRequestContext.getUri());
+        }
+        if (v == null) {
+            return;
+        }
+        if (v.entityTag != null) {
+            clientRequestContext.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, v.entityTag);
+        }
+        if (v.lastModified != null) {
+            clientRequestContext.getHeaders().putSingle(HttpHeaders.IF_MODIFIED_SINCE, v.lastModified);
+        }
+    }
+
+    @Override
+    public void filter(final ClientRequestContext clientRequestContext,
+                       final ClientResponseContext clientResponseContext) throws IOException {
+        super.filter(clientRequestContext, clientResponseContext);
+        if (!Objects.equals(clientRequestContext.getMethod(), HttpMethod.GET) ||
+                clientResponseContext.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+            return;
+        }
+        final URI uri = clientRequestContext.getUri();
+        final String entityTag = clientResponseContext.getHeaderString(HttpHeaders.ETAG);
+        final String lastModified = clientResponseContext.getHeaderString(HttpHeaders.LAST_MODIFIED);
+        final boolean isSuccess =
+                clientResponseContext.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL;
+        synchronized (validators) {
+            if (isSuccess && (entityTag != null || lastModified != null)) {
+                validators.put(uri, new ConditionalRequestFilter.Validators(entityTag, lastModified));
+            } else {
+                validators.remove(uri);
+            }
+        }
+    }
+
+    /**
+     * Forget all validators, so that the next request for every URI will be unconditional. Use when the content
+     * built from the original response is no longer available.
+     */
+    public void reset() {
+        synchronized (validators) {
+            validators.clear();
+        }
+    }
+
+}
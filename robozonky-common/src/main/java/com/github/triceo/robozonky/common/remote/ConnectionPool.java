@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the HTTP connections shared by all {@link ApiProvider}s. Connections which have been idle for too long are
+ * closed in the background. Shortly before moments when RoboZonky is expected to need Zonky quickly, such as when
+ * CAPTCHA protection of a loan expires, a connection to Zonky is opened in advance so that the request that matters
+ * need not wait for DNS, TCP and TLS.
+ */
+public final class ConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    public static final ConnectionPool INSTANCE =
+            new ConnectionPool(Defaults.getMaximumHttpConnections(), Defaults.getMaximumHttpConnectionsPerRoute(),
+                    Duration.ofSeconds(Defaults.getHttpConnectionIdleTimeoutInSeconds()),
+                    Duration.ofSeconds(Defaults.getHttpConnectionWarmUpInSeconds()));
+
+    private final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread t = new Thread(r, "rzConnectionPool");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Duration warmUpLead;
+    /**
+     * Warm-ups falling into the same window are only performed once, as the connection stays open in the meantime.
+     */
+    private final Set<Long> scheduledWarmUps = ConcurrentHashMap.newKeySet();
+
+    ConnectionPool(final int maxTotal, final int maxPerRoute, final Duration idleTimeout, final Duration warmUpLead) {
+        this.manager.setMaxTotal(maxTotal);
+        this.manager.setDefaultMaxPerRoute(maxPerRoute);
+        this.warmUpLead = warmUpLead;
+        final long idleMillis = idleTimeout.toMillis();
+        final long checkMillis = Math.max(1000, idleMillis / 2);
+        this.executor.scheduleWithFixedDelay(() -> {
+            manager.closeExpiredConnections();
+            manager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+        }, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+        ConnectionPool.LOGGER.debug("Up to {} HTTP connections, {} per route, idle for up to {} ms.", maxTotal,
+                maxPerRoute, idleMillis);
+    }
+
+    HttpClientConnectionManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Open a connection to the given URL and leave it in the pool, for subsequent requests to use.
+     *
+     * @param url URL to connect to.
+     * @return True if the connection succeeded.
+     */
+    public boolean warmUp(final String url) {
+        try (final CloseableHttpClient client = HttpClientBuilder.create()
+                .setConnectionManager(manager)
+                .setConnectionManagerShared(true) // closing the client must not close the pool
+                .setUserAgent(Defaults.ROBOZONKY_USER_AGENT)
+                .build();
+             final CloseableHttpResponse response = client.execute(new HttpHead(url))) {
+            EntityUtils.consume(response.getEntity()); // releases the connection back to the pool
+            ConnectionPool.LOGGER.debug("Warmed up connection to {}, HTTP {}.", url,
+                    response.getStatusLine().getStatusCode());
+            return true;
+        } catch (final IOException ex) {
+            ConnectionPool.LOGGER.debug("Failed warming up connection to {}.", url, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Schedule a connection to Zonky to be opened shortly before the given moment.
+     *
+     * @param moment When the connection will be needed.
+     * @return True if scheduled, false if warm-ups disabled, too late or another warm-up already covers the moment.
+     */
+    public boolean warmUpBefore(final OffsetDateTime moment) {
+        return this.warmUpBefore(moment.toInstant(), Instant.now());
+    }
+
+    boolean warmUpBefore(final Instant moment, final Instant now) {
+        final long leadMillis = warmUpLead.toMillis();
+        if (leadMillis <= 0) {
+            return false;
+        }
+        final long delayMillis = Duration.between(now, moment).toMillis() - leadMillis;
+        if (delayMillis < 0) {
+            return false;
+        }
+        final long window = moment.toEpochMilli() / leadMillis;
+        if (!scheduledWarmUps.add(window)) {
+            return false;
+        }
+        ConnectionPool.LOGGER.trace("Will warm up connection in {} ms.", delayMillis);
+        executor.schedule(() -> {
+            scheduledWarmUps.remove(window);
+            this.warmUp(ApiProvider.ZONKY_URL);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     *
+     * @return Connections currently in use.
+     */
+    public int getLeasedConnections() {
+        return manager.getTotalStats().getLeased();
+    }
+
+    /**
+     *
+     * @return Connections currently open and ready to be used.
+     */
+    public int getAvailableConnections() {
+        return manager.getTotalStats().getAvailable();
+    }
+
+}
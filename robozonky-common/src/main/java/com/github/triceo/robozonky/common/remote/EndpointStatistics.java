@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and response codes of calls to a single remote endpoint.
+ */
+public final class EndpointStatistics {
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    void record(final long durationInNanos, final int statusCode) {
+        latencies.record(TimeUnit.NANOSECONDS.toMicros(durationInNanos));
+        if (statusCode == ApiStatistics.NO_RESPONSE) {
+            errors.increment();
+            return;
+        }
+        statusCodes.computeIfAbsent(statusCode, k -> new LongAdder()).increment();
+        if (statusCode >= 400) {
+            errors.increment();
+        }
+    }
+
+    public long getCallCount() {
+        return latencies.getCount();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     *
+     * @return Share of calls which ended with an HTTP error or without any response, 0 when no calls made.
+     */
+    public double getErrorRate() {
+        final long calls = this.getCallCount();
+        return calls == 0 ? 0.0 : this.getErrorCount() / (double) calls;
+    }
+
+    /**
+     *
+     * @param percentile Between 0 and 100.
+     * @return Latency in milliseconds below which the given percentage of calls completed.
+     */
+    public double getLatencyInMillis(final double percentile) {
+        return latencies.getPercentile(percentile) / 1000.0;
+    }
+
+    public double getMaximumLatencyInMillis() {
+        return latencies.getMaximum() / 1000.0;
+    }
+
+    /**
+     *
+     * @return HTTP status codes received, with the number of times each was received. Calls which ended without any
+     * response are not included.
+     */
+    public SortedMap<Integer, Long> getStatusCodes() {
+        final SortedMap<Integer, Long> result = new TreeMap<>();
+        statusCodes.forEach((code, count) -> result.put(code, count.sum()));
+        return Collections.unmodifiableSortedMap(result);
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records values in buckets of exponentially growing size, so that percentiles can be estimated with constant memory
+ * and without locking. Every power of two is split into eight buckets, which keeps the error of any estimate below
+ * 13 %.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - LatencyHistogram.SUB_BUCKET_BITS) * LatencyHistogram.SUB_BUCKETS;
+
+    static int getBucket(final long value) {
+        if (value < LatencyHistogram.SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - LatencyHistogram.SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (LatencyHistogram.SUB_BUCKETS - 1);
+        return (shift + 1) * LatencyHistogram.SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param bucket Bucket index.
+     * @return The highest value that falls into the bucket.
+     */
+    static long getHighestValue(final int bucket) {
+        if (bucket < LatencyHistogram.SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = bucket / LatencyHistogram.SUB_BUCKETS - 1;
+        final int subBucket = bucket % LatencyHistogram.SUB_BUCKETS;
+        final long lowest = (long) (LatencyHistogram.SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final AtomicLong count = new AtomicLong(0), max = new AtomicLong(0);
+
+    public void record(final long value) {
+        counts.incrementAndGet(LatencyHistogram.getBucket(value));
+        count.incrementAndGet();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaximum() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile Between 0 and 100.
+     * @return Estimate of the value below which the given percentage of recorded values fall. 0 if none recorded.
+     */
+    public long getPercentile(final double percentile) {
+        final long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        final long threshold = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= threshold) {
+                return Math.min(LatencyHistogram.getHighestValue(i), this.getMaximum());
+            }
+        }
+        return this.getMaximum(); // concurrent updates may have increased count after the buckets were read
+    }
+
+}
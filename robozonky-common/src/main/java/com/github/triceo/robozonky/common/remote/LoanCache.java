@@ -0,0 +1,207 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps recently seen loans, so that they need not be retrieved from Zonky over and over again. Loans are
+ * either retrieved through {@link #getLoan(int, IntFunction)} or {@link #seed(Collection)}ed from data that
+ * already contains them, such as the marketplace. When many threads ask for the same loan at the same time, only one
+ * of them will actually retrieve it and the others will wait for the result.
+ *
+ * The marketplace only provides {@link LoanSummary}s. Those are enough for {@link #getCachedLoan(int)}, but
+ * {@link #getLoan(int, IntFunction)} will retrieve the full {@link Loan} the first time it is asked for it. Seeding a
+ * summary never replaces full detail that has not yet expired, so that the detail need not be retrieved again.
+ */
+public class LoanCache {
+
+    private static final class Entry {
+
+        private final LoanSummary loan;
+        private final Instant expiresOn;
+
+        public Entry(final LoanSummary loan, final Instant expiresOn) {
+            this.loan = loan;
+            this.expiresOn = expiresOn;
+        }
+
+        public LoanSummary getLoan() {
+            return loan;
+        }
+
+        public boolean isDetail() {
+            return loan instanceof Loan;
+        }
+
+        public boolean isExpired(final Instant now) {
+            return !now.isBefore(expiresOn);
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoanCache.class);
+    public static final LoanCache INSTANCE =
+            new LoanCache(Duration.ofSeconds(Defaults.getLoanCacheTimeToLiveInSeconds()),
+                    Defaults.getLoanCacheMaximumSize(), Clock.systemUTC());
+
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Map<Integer, LoanCache.Entry> entries;
+    private final Map<Integer, CompletableFuture<Loan>> inFlight = new ConcurrentHashMap<>();
+
+    LoanCache(final Duration timeToLive, final int maximumSize, final Clock clock) {
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<Integer, LoanCache.Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, LoanCache.Entry> eldest) {
+                return this.size() > maximumSize;
+            }
+        });
+    }
+
+    private static RuntimeException unwrap(final CompletionException ex) {
+        final Throwable cause = ex.getCause();
+        return (cause instanceof RuntimeException) ? (RuntimeException) cause : ex;
+    }
+
+    /**
+     * Retrieve a loan from the cache, without trying to load it.
+     *
+     * @param loanId ID of the loan.
+     * @return Empty if not cached or expired. Full {@link Loan} if that is what was cached.
+     */
+    public Optional<LoanSummary> getCachedLoan(final int loanId) {
+        final LoanCache.Entry e = entries.get(loanId);
+        if (e == null) {
+            return Optional.empty();
+        } else if (e.isExpired(clock.instant())) {
+            entries.remove(loanId, e);
+            return Optional.empty();
+        } else {
+            return Optional.of(e.getLoan());
+        }
+    }
+
+    /**
+     * Retrieve full detail of a loan from the cache, loading it if necessary.
+     *
+     * @param loanId ID of the loan.
+     * @param loader Will be called to retrieve the loan when it is not cached, or when only its summary is cached,
+     * such as by calling Zonky.
+     * @return The loan in question.
+     */
+    public Loan getLoan(final int loanId, final IntFunction<Loan> loader) {
+        final Optional<Loan> cached = this.getCachedDetail(loanId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        final CompletableFuture<Loan> ours = new CompletableFuture<>();
+        final CompletableFuture<Loan> theirs = inFlight.putIfAbsent(loanId, ours);
+        if (theirs != null) { // somebody else is already loading
+            LoanCache.LOGGER.trace("Waiting for loan #{} to be retrieved.", loanId);
+            try {
+                return theirs.join();
+            } catch (final CompletionException ex) {
+                throw LoanCache.unwrap(ex);
+            }
+        }
+        try {
+            final Optional<Loan> loadedMeanwhile = this.getCachedDetail(loanId);
+            if (loadedMeanwhile.isPresent()) { // somebody else finished loading before we started
+                ours.complete(loadedMeanwhile.get());
+                return loadedMeanwhile.get();
+            }
+            LoanCache.LOGGER.trace("Retrieving loan #{}.", loanId);
+            final Loan loan = loader.apply(loanId);
+            this.seed(loan);
+            ours.complete(loan);
+            return loan;
+        } catch (final RuntimeException ex) {
+            ours.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(loanId, ours);
+        }
+    }
+
+    private Optional<Loan> getCachedDetail(final int loanId) {
+        return this.getCachedLoan(loanId)
+                .filter(l -> l instanceof Loan)
+                .map(l -> (Loan) l);
+    }
+
+    /**
+     * Store a loan in the cache, replacing any previous version. A summary will not replace full detail which has not
+     * yet expired.
+     *
+     * @param loan Loan to store, either summary or full detail. Null will be ignored.
+     */
+    public void seed(final LoanSummary loan) {
+        if (loan == null) {
+            return;
+        }
+        final Instant now = clock.instant();
+        final LoanCache.Entry fresh = new LoanCache.Entry(loan, now.plus(timeToLive));
+        if (fresh.isDetail()) {
+            entries.put(loan.getId(), fresh);
+        } else {
+            entries.merge(loan.getId(), fresh, (old, e) -> old.isDetail() && !old.isExpired(now) ? old : e);
+        }
+    }
+
+    /**
+     * Store loans in the cache, replacing any previous versions as described in {@link #seed(LoanSummary)}.
+     *
+     * @param loans Loans to store.
+     */
+    public void seed(final Collection<? extends LoanSummary> loans) {
+        loans.forEach(this::seed);
+    }
+
+    /**
+     * Remove all loans from the cache.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     *
+     * @return Number of loans in the cache, including those which have already expired.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.entities.LoanDecoder;
+
+/**
+ * Reads lists of loans, as returned by the marketplace endpoints, using {@link LoanDecoder} instead of the generic
+ * JSON provider. Every other type is left to the generic provider.
+ */
+@Consumes(MediaType.APPLICATION_JSON)
+final class MarketplaceReader implements MessageBodyReader<List<LoanSummary>> {
+
+    private final LoanDecoder decoder = new LoanDecoder();
+
+    @Override
+    public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations,
+                              final MediaType mediaType) {
+        if (!List.class.equals(type) || !(genericType instanceof ParameterizedType)) {
+            return false;
+        }
+        final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        return arguments.length == 1 && LoanSummary.class.equals(arguments[0]);
+    }
+
+    @Override
+    public List<LoanSummary> readFrom(final Class<List<LoanSummary>> type, final Type genericType,
+                                      final Annotation[] annotations, final MediaType mediaType,
+                                      final MultivaluedMap<String, String> httpHeaders,
+                                      final InputStream entityStream) throws IOException, WebApplicationException {
+        return decoder.decode(entityStream);
+    }
+
+}
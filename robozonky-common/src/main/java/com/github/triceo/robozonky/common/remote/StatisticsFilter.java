@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.io.IOException;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+/**
+ * Tells {@link ApiStatistics} which endpoint is being called and what it responded. The calls themselves are measured
+ * by {@link ApiProvider.ApiWrapper}, as only that knows when the response has been fully read.
+ */
+final class StatisticsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private final ApiStatistics statistics;
+
+    public StatisticsFilter(final ApiStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void filter(final ClientRequestContext clientRequestContext) throws IOException {
+        statistics.started(ApiStatistics.getEndpointName(clientRequestContext.getMethod(),
+                clientRequestContext.getUri()));
+    }
+
+    @Override
+    public void filter(final ClientRequestContext clientRequestContext,
+                       final ClientResponseContext clientResponseContext) throws IOException {
+        statistics.responded(clientResponseContext.getStatus());
+    }
+
+}
@@ -18,6 +18,7 @@ package com.github.triceo.robozonky.common;
 
 import java.io.File;
 
+import com.github.triceo.robozonky.common.remote.LoanCache;
 import com.github.triceo.robozonky.util.Scheduler;
 import org.junit.After;
 import org.slf4j.Logger;
@@ -27,6 +28,11 @@ public abstract class AbstractStateLeveragingTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStateLeveragingTest.class);
 
+    @After
+    public void clearLoanCache() {
+        LoanCache.INSTANCE.clear();
+    }
+
     @After
     public void reinitScheduler() {
         Scheduler.BACKGROUND_SCHEDULER.reinit();
@@ -17,7 +17,9 @@
 package com.github.triceo.robozonky.common.extensions;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.notifications.EventListener;
@@ -37,10 +39,12 @@ public class ListenerServiceLoaderTest {
         final RoboZonkyStartingEvent e = new RoboZonkyStartingEvent("");
         final EventListener<RoboZonkyStartingEvent> l = Mockito.mock(EventListener.class);
         final ListenerService s1 = Mockito.mock(ListenerService.class);
+        Mockito.when(s1.isSupported(ArgumentMatchers.any())).thenReturn(true);
         final Refreshable<EventListener<RoboZonkyStartingEvent>> returned = Refreshable.createImmutable(l);
         returned.run();
         Mockito.doReturn(returned).when(s1).findListener(ArgumentMatchers.eq(e.getClass()));
         final ListenerService s2 = Mockito.mock(ListenerService.class);
+        Mockito.when(s2.isSupported(ArgumentMatchers.any())).thenReturn(true);
         Mockito.doReturn(Refreshable.createImmutable()).when(s2).findListener(ArgumentMatchers.eq(e.getClass()));
         final Iterable<ListenerService> s = () -> Arrays.asList(s1, s2).iterator();
         final List<Refreshable<EventListener<RoboZonkyStartingEvent>>> r =
@@ -56,4 +60,35 @@ public class ListenerServiceLoaderTest {
 
     }
 
+    @Test
+    public void loadingBySource() {
+        final ListenerService s1 = Mockito.mock(ListenerService.class);
+        Mockito.when(s1.isSupported(ArgumentMatchers.any())).thenReturn(true);
+        final Refreshable<EventListener<RoboZonkyStartingEvent>> first =
+                Refreshable.createImmutable(Mockito.mock(EventListener.class));
+        Mockito.doReturn(first).when(s1).findListener(ArgumentMatchers.eq(RoboZonkyStartingEvent.class));
+        final ListenerService s2 = Mockito.mock(ListenerService.class);
+        Mockito.when(s2.isSupported(ArgumentMatchers.any())).thenReturn(true);
+        final Refreshable<EventListener<RoboZonkyStartingEvent>> second =
+                Refreshable.createImmutable(Mockito.mock(EventListener.class));
+        Mockito.doReturn(second).when(s2).findListener(ArgumentMatchers.eq(RoboZonkyStartingEvent.class));
+        final Iterable<ListenerService> s = () -> Arrays.asList(s1, s2).iterator();
+        final Map<ListenerService, Refreshable<EventListener<RoboZonkyStartingEvent>>> r =
+                ListenerServiceLoader.loadBySource(RoboZonkyStartingEvent.class, s, new Scheduler());
+        Assertions.assertThat(r).containsOnlyKeys(s1, s2);
+        Assertions.assertThat(r.get(s1)).isSameAs(first);
+        Assertions.assertThat(r.get(s2)).isSameAs(second);
+    }
+
+    @Test
+    public void unsupportedSkipped() {
+        final ListenerService s1 = Mockito.mock(ListenerService.class);
+        Mockito.when(s1.isSupported(ArgumentMatchers.any())).thenReturn(false);
+        final Iterable<ListenerService> s = () -> Collections.singleton(s1).iterator();
+        final List<Refreshable<EventListener<RoboZonkyStartingEvent>>> r =
+                ListenerServiceLoader.load(RoboZonkyStartingEvent.class, s, new Scheduler());
+        Assertions.assertThat(r).isEmpty();
+        Mockito.verify(s1, Mockito.never()).findListener(ArgumentMatchers.any());
+    }
+
 }
@@ -20,7 +20,7 @@ import java.util.List;
 import java.util.function.Function;
 
 import com.github.triceo.robozonky.api.remote.ZonkyApi;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.entities.ZonkyApiToken;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
@@ -35,7 +35,7 @@ public class ApiProviderTest {
             api = provider.authenticated(Mockito.mock(ZonkyApiToken.class));
             Assertions.assertThat(api).isNotNull();
         }
-        Assertions.assertThatThrownBy(() -> api.execute((Function<ZonkyApi, List<Loan>>) ZonkyApi::getLoans))
+        Assertions.assertThatThrownBy(() -> api.execute((Function<ZonkyApi, List<LoanSummary>>) ZonkyApi::getLoans))
                 .isInstanceOf(IllegalStateException.class);
     }
 
@@ -53,6 +53,24 @@ public class ApiProviderTest {
         }
     }
 
+    @Test
+    public void clientsReused() {
+        ApiProvider.resetClientStatistics();
+        try (final ApiProvider provider = new ApiProvider()) {
+            final ApiProvider.ApiWrapper<ZonkyApi> first = provider.anonymous();
+            first.close(); // shared wrappers are only closed with the provider
+            Assertions.assertThat(first.isClosed()).isFalse();
+            Assertions.assertThat(provider.anonymous()).isSameAs(first);
+            final ApiProvider.ApiWrapper<ZonkyApi> authenticated =
+                    provider.authenticated(Mockito.mock(ZonkyApiToken.class));
+            Assertions.assertThat(authenticated).isNotSameAs(first);
+            Assertions.assertThat(provider.authenticated(Mockito.mock(ZonkyApiToken.class))).isSameAs(authenticated);
+        }
+        Assertions.assertThat(ApiProvider.getClientsCreated()).isEqualTo(2);
+        Assertions.assertThat(ApiProvider.getClientsReused()).isEqualTo(2);
+        Assertions.assertThat(ApiProvider.getClientReuseRate()).isEqualTo(0.5);
+    }
+
     @Test
     public void obtainClosedThrows() {  // tests double-closing as a side-effect
         try (final ApiProvider provider = new ApiProvider()) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class ApiStatisticsTest {
+
+    @Test
+    public void endpointNames() {
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(ApiStatistics.getEndpointName("GET", URI.create("https://api.zonky.cz/loans/123")))
+                    .isEqualTo("GET api.zonky.cz/loans/{id}");
+            softly.assertThat(ApiStatistics.getEndpointName("GET", URI.create("https://api.zonky.cz/loans/1/a2")))
+                    .isEqualTo("GET api.zonky.cz/loans/{id}/a2");
+            softly.assertThat(ApiStatistics.getEndpointName("POST", URI.create("https://api.zonky.cz")))
+                    .isEqualTo("POST api.zonky.cz/");
+        });
+    }
+
+    @Test
+    public void recording() {
+        final ApiStatistics statistics = new ApiStatistics();
+        statistics.record("a", TimeUnit.MILLISECONDS.toNanos(10), 200);
+        statistics.record("a", TimeUnit.MILLISECONDS.toNanos(20), 500);
+        final EndpointStatistics a = statistics.getAll().get("a");
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(a.getCallCount()).isEqualTo(2);
+            softly.assertThat(a.getErrorCount()).isEqualTo(1);
+            softly.assertThat(a.getErrorRate()).isEqualTo(0.5);
+            softly.assertThat(a.getMaximumLatencyInMillis()).isEqualTo(20.0);
+            softly.assertThat(a.getStatusCodes()).containsOnlyKeys(200, 500);
+        });
+        statistics.reset();
+        Assertions.assertThat(statistics.getAll()).isEmpty();
+    }
+
+    @Test
+    public void measuring() {
+        final ApiStatistics statistics = new ApiStatistics();
+        statistics.started("ignored"); // not measured
+        final String result = statistics.measure(() -> {
+            statistics.started("a");
+            statistics.responded(200);
+            statistics.started("b");
+            statistics.responded(404);
+            return "result";
+        });
+        Assertions.assertThat(result).isEqualTo("result");
+        Assertions.assertThat(statistics.getAll()).containsOnlyKeys("a", "b");
+        Assertions.assertThat(statistics.getAll().get("b").getErrorCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void measuringFailureWithoutResponse() {
+        final ApiStatistics statistics = new ApiStatistics();
+        Assertions.assertThatThrownBy(() -> statistics.measure(() -> {
+            statistics.started("a");
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        final EndpointStatistics a = statistics.getAll().get("a");
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(a.getCallCount()).isEqualTo(1);
+            softly.assertThat(a.getErrorCount()).isEqualTo(1);
+            softly.assertThat(a.getStatusCodes()).isEmpty();
+        });
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.io.IOException;
+import java.net.URI;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.RedirectionException;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ConditionalRequestFilterTest extends AbstractCommonFilterTest {
+
+    private static final URI MARKETPLACE = URI.create("https://api.zonky.cz/loans/marketplace");
+    private static final String ETAG = "\"abc\"", LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private static ClientRequestContext mockRequest(final String method) {
+        final ClientRequestContext crc = Mockito.mock(ClientRequestContext.class);
+        Mockito.when(crc.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        Mockito.when(crc.getMethod()).thenReturn(method);
+        Mockito.when(crc.getUri()).thenReturn(ConditionalRequestFilterTest.MARKETPLACE);
+        return crc;
+    }
+
+    private static ClientResponseContext mockResponse(final Response.Status status) {
+        final ClientResponseContext response = Mockito.mock(ClientResponseContext.class);
+        Mockito.when(response.getStatus()).thenReturn(status.getStatusCode());
+        Mockito.when(response.getStatusInfo()).thenReturn(status);
+        Mockito.when(response.getHeaderString(HttpHeaders.ETAG)).thenReturn(ConditionalRequestFilterTest.ETAG);
+        Mockito.when(response.getHeaderString(HttpHeaders.LAST_MODIFIED))
+                .thenReturn(ConditionalRequestFilterTest.LAST_MODIFIED);
+        return response;
+    }
+
+    @Override
+    protected RoboZonkyFilter getTestedFilter() {
+        return new ConditionalRequestFilter();
+    }
+
+    @Test
+    public void firstRequestUnconditional() throws IOException {
+        final ClientRequestContext crc = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        new ConditionalRequestFilter().filter(crc);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(crc.getHeaders()).doesNotContainKey(HttpHeaders.IF_NONE_MATCH);
+            softly.assertThat(crc.getHeaders()).doesNotContainKey(HttpHeaders.IF_MODIFIED_SINCE);
+        });
+    }
+
+    @Test
+    public void followingRequestConditional() throws IOException {
+        final ConditionalRequestFilter filter = new ConditionalRequestFilter();
+        final ClientRequestContext first = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(first);
+        filter.filter(first, ConditionalRequestFilterTest.mockResponse(Response.Status.OK));
+        final ClientRequestContext second = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(second);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(second.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))
+                    .isEqualTo(ConditionalRequestFilterTest.ETAG);
+            softly.assertThat(second.getHeaders().getFirst(HttpHeaders.IF_MODIFIED_SINCE))
+                    .isEqualTo(ConditionalRequestFilterTest.LAST_MODIFIED);
+        });
+        // after reset, the request is unconditional again
+        filter.reset();
+        final ClientRequestContext third = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(third);
+        Assertions.assertThat(third.getHeaders()).doesNotContainKey(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    @Test
+    public void failureForgetsValidators() throws IOException {
+        final ConditionalRequestFilter filter = new ConditionalRequestFilter();
+        final ClientRequestContext first = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(first, ConditionalRequestFilterTest.mockResponse(Response.Status.OK));
+        filter.filter(first, ConditionalRequestFilterTest.mockResponse(Response.Status.SERVICE_UNAVAILABLE));
+        final ClientRequestContext second = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(second);
+        Assertions.assertThat(second.getHeaders()).doesNotContainKey(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    @Test
+    public void otherMethodsUnconditional() throws IOException {
+        final ConditionalRequestFilter filter = new ConditionalRequestFilter();
+        final ClientRequestContext get = ConditionalRequestFilterTest.mockRequest(HttpMethod.GET);
+        filter.filter(get, ConditionalRequestFilterTest.mockResponse(Response.Status.OK));
+        final ClientRequestContext post = ConditionalRequestFilterTest.mockRequest(HttpMethod.POST);
+        filter.filter(post);
+        Assertions.assertThat(post.getHeaders()).doesNotContainKey(HttpHeaders.IF_NONE_MATCH);
+    }
+
+    @Test
+    public void notModified() {
+        final Response notModified = Response.notModified().build();
+        final Response movedPermanently = Response.status(Response.Status.MOVED_PERMANENTLY).build();
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(ConditionalRequestFilter.isNotModified(new RedirectionException(notModified)))
+                    .isTrue();
+            softly.assertThat(ConditionalRequestFilter.isNotModified(new RedirectionException(movedPermanently)))
+                    .isFalse();
+            softly.assertThat(ConditionalRequestFilter.isNotModified(new IllegalStateException())).isFalse();
+        });
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class ConnectionPoolTest {
+
+    @Test
+    public void warmUpsCoalesced() {
+        final ConnectionPool pool = new ConnectionPool(2, 1, Duration.ofMinutes(1), Duration.ofSeconds(5));
+        final Instant now = Instant.now();
+        final Instant moment = now.plus(Duration.ofHours(1));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(pool.warmUpBefore(moment, now)).isTrue();
+            softly.assertThat(pool.warmUpBefore(moment, now)).isFalse();
+            softly.assertThat(pool.warmUpBefore(moment.plus(Duration.ofMinutes(1)), now)).isTrue();
+            softly.assertThat(pool.warmUpBefore(now.plus(Duration.ofSeconds(1)), now)).isFalse(); // too late
+            softly.assertThat(pool.getLeasedConnections()).isEqualTo(0);
+        });
+    }
+
+    @Test
+    public void warmUpsDisabled() {
+        final ConnectionPool pool = new ConnectionPool(2, 1, Duration.ofMinutes(1), Duration.ZERO);
+        final Instant now = Instant.now();
+        SoftAssertions.assertSoftly(softly ->
+                softly.assertThat(pool.warmUpBefore(now.plus(Duration.ofHours(1)), now)).isFalse());
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.util.stream.LongStream;
+
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsRoundTrip() {
+        SoftAssertions.assertSoftly(softly -> LongStream.of(0, 1, 7, 8, 9, 100, 1_000, 123_456, Long.MAX_VALUE)
+                .forEach(value -> {
+                    final int bucket = LatencyHistogram.getBucket(value);
+                    softly.assertThat(LatencyHistogram.getHighestValue(bucket)).isGreaterThanOrEqualTo(value);
+                    if (bucket > 0) {
+                        softly.assertThat(LatencyHistogram.getHighestValue(bucket - 1)).isLessThan(value);
+                    }
+                }));
+    }
+
+    @Test
+    public void empty() {
+        final LatencyHistogram h = new LatencyHistogram();
+        Assertions.assertThat(h.getPercentile(99)).isEqualTo(0);
+    }
+
+    @Test
+    public void percentiles() {
+        final LatencyHistogram h = new LatencyHistogram();
+        LongStream.rangeClosed(1, 1000).forEach(h::record);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(h.getCount()).isEqualTo(1000);
+            softly.assertThat(h.getMaximum()).isEqualTo(1000);
+            softly.assertThat(h.getPercentile(50)).isBetween(500L, 564L); // within the precision of the histogram
+            softly.assertThat(h.getPercentile(99)).isBetween(990L, 1000L);
+            softly.assertThat(h.getPercentile(100)).isEqualTo(1000);
+        });
+    }
+
+}
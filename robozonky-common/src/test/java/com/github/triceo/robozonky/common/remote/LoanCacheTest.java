@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.common.remote;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LoanCacheTest {
+
+    private static Loan mockLoan(final int id) {
+        final Loan loan = Mockito.mock(Loan.class);
+        Mockito.when(loan.getId()).thenReturn(id);
+        return loan;
+    }
+
+    @Test
+    public void loadsOnlyOnce() {
+        final LoanCache cache = new LoanCache(Duration.ofMinutes(1), 10, Clock.systemUTC());
+        final AtomicInteger calls = new AtomicInteger(0);
+        final Loan loan = LoanCacheTest.mockLoan(1);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(cache.getCachedLoan(1)).isEmpty();
+            softly.assertThat(cache.getLoan(1, id -> {
+                calls.incrementAndGet();
+                return loan;
+            })).isSameAs(loan);
+            softly.assertThat(cache.getLoan(1, id -> {
+                calls.incrementAndGet();
+                return loan;
+            })).isSameAs(loan);
+            softly.assertThat(calls.get()).isEqualTo(1);
+            softly.assertThat(cache.getCachedLoan(1)).contains(loan);
+        });
+    }
+
+    @Test
+    public void loadsDetailWhenOnlySummaryCached() {
+        final LoanCache cache = new LoanCache(Duration.ofMinutes(1), 10, Clock.systemUTC());
+        final LoanSummary summary = new LoanSummary(1, 200);
+        cache.seed(summary);
+        final Loan loan = LoanCacheTest.mockLoan(1);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(cache.getCachedLoan(1)).contains(summary);
+            softly.assertThat(cache.getLoan(1, id -> loan)).isSameAs(loan);
+            softly.assertThat(cache.getCachedLoan(1)).contains(loan);
+        });
+        cache.seed(summary); // summary does not replace the detail
+        Assertions.assertThat(cache.getCachedLoan(1)).contains(loan);
+    }
+
+    @Test
+    public void expires() {
+        final LoanCache cache = new LoanCache(Duration.ZERO, 10, Clock.systemUTC());
+        cache.seed(LoanCacheTest.mockLoan(1));
+        Assertions.assertThat(cache.getCachedLoan(1)).isEmpty();
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final LoanCache cache = new LoanCache(Duration.ofMinutes(1), 2, Clock.systemUTC());
+        cache.seed(Arrays.asList(LoanCacheTest.mockLoan(1), LoanCacheTest.mockLoan(2)));
+        cache.getCachedLoan(1); // 2 is now the least recently used
+        cache.seed(LoanCacheTest.mockLoan(3));
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(cache.size()).isEqualTo(2);
+            softly.assertThat(cache.getCachedLoan(1)).isPresent();
+            softly.assertThat(cache.getCachedLoan(2)).isEmpty();
+            softly.assertThat(cache.getCachedLoan(3)).isPresent();
+        });
+    }
+
+    @Test
+    public void concurrentRequestsLoadOnce() throws Exception {
+        final LoanCache cache = new LoanCache(Duration.ofMinutes(1), 10, Clock.systemUTC());
+        final Loan loan = LoanCacheTest.mockLoan(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        final CountDownLatch loading = new CountDownLatch(1), release = new CountDownLatch(1);
+        final CompletableFuture<Loan> first = CompletableFuture.supplyAsync(() -> cache.getLoan(1, id -> {
+            calls.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return loan;
+        }));
+        Assertions.assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+        final CompletableFuture<Loan> second = CompletableFuture.supplyAsync(() -> cache.getLoan(1, id -> {
+            calls.incrementAndGet();
+            return LoanCacheTest.mockLoan(1);
+        }));
+        release.countDown();
+        final Loan firstResult = first.get(10, TimeUnit.SECONDS), secondResult = second.get(10, TimeUnit.SECONDS);
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(firstResult).isSameAs(loan);
+            softly.assertThat(secondResult).isSameAs(loan);
+            softly.assertThat(calls.get()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void failureIsNotCached() {
+        final LoanCache cache = new LoanCache(Duration.ofMinutes(1), 10, Clock.systemUTC());
+        Assertions.assertThatThrownBy(() -> cache.getLoan(1, id -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(cache.getCachedLoan(1)).isEmpty();
+    }
+
+}
@@ -17,14 +17,14 @@ package com.github.triceo.robozonky.strategy.rules.facts;
 
 import java.time.OffsetDateTime;
 
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 
 public class ProposedLoan {
 
     public ProposedLoan(final LoanDescriptor loanDescriptor) {
-        final Loan loan = loanDescriptor.getLoan();
+        final LoanSummary loan = loanDescriptor.getLoan();
         this.id = loan.getId();
         this.termInMonths = loan.getTermInMonths();
         this.amount = (int)loan.getAmount();
@@ -18,37 +18,91 @@ package com.github.triceo.robozonky.marketplaces;
 
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
 import com.github.triceo.robozonky.api.marketplaces.Marketplace;
 import com.github.triceo.robozonky.api.remote.Api;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
+import com.github.triceo.robozonky.common.remote.ConditionalRequestFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-abstract class AbstractMarketplace implements Marketplace {
+abstract class AbstractMarketplace<T extends Api> implements Marketplace {
 
-    private final Collection<Consumer<Collection<Loan>>> loanListeners = new LinkedHashSet<>();
+    protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    private final Collection<Consumer<Collection<LoanSummary>>> loanListeners = new LinkedHashSet<>();
     private final MarketplaceApiProvider apis = new MarketplaceApiProvider();
+    private Collection<LoanSummary> latestLoans = null;
+    private Supplier<Optional<InterestProfile>> interestProfile = Optional::empty;
+    private Optional<InterestProfile> latestProfile = Optional.empty();
+
+    protected abstract ApiProvider.ApiWrapper<T> newApi(final MarketplaceApiProvider apiProvider);
 
-    protected abstract ApiProvider.ApiWrapper<? extends Api> newApi(final MarketplaceApiProvider apiProvider);
+    /**
+     * Retrieve the loans from the marketplace. Implementations that can filter on the server side should override.
+     *
+     * @param api The marketplace.
+     * @param profile Loans that the runtime is interested in, if known.
+     * @return Loans present on the marketplace.
+     */
+    protected List<LoanSummary> getLoans(final T api, final Optional<InterestProfile> profile) {
+        return api.getLoans();
+    }
 
     @Override
-    public synchronized boolean registerListener(final Consumer<Collection<Loan>> listener) {
+    public synchronized boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
         return this.loanListeners.add(listener);
     }
 
+    @Override
+    public synchronized void registerInterestProfile(final Supplier<Optional<InterestProfile>> profile) {
+        this.interestProfile = profile;
+    }
+
     @Override
     public ExpectedTreatment specifyExpectedTreatment() {
         return ExpectedTreatment.POLLING;
     }
 
+    private Collection<LoanSummary> getLoans() {
+        final Optional<InterestProfile> profile = interestProfile.get();
+        if (!profile.equals(latestProfile)) { // latest loans were retrieved with different filters
+            LOGGER.debug("Interest profile changed to {}.", profile);
+            apis.forgetResponses();
+            latestLoans = null;
+            latestProfile = profile;
+        }
+        try (final ApiProvider.ApiWrapper<T> apiWrapper = this.newApi(apis)) {
+            final Function<T, List<LoanSummary>> retrieval = api -> this.getLoans(api, profile);
+            latestLoans = apiWrapper.execute(retrieval);
+        } catch (final RuntimeException ex) {
+            if (!ConditionalRequestFilter.isNotModified(ex)) {
+                throw ex;
+            } else if (latestLoans == null) { // validators outlived the content, such as when parsing failed
+                apis.forgetResponses();
+                throw ex;
+            }
+            LOGGER.trace("Marketplace not modified.");
+        }
+        return latestLoans;
+    }
+
+    /**
+     * When the marketplace has not changed since the last check, listeners receive the very same loans as before,
+     * without them being retrieved and parsed again.
+     */
     @Override
     public synchronized void run() {
-        try (final ApiProvider.ApiWrapper<? extends Api> apiWrapper = this.newApi(apis)) {
-            final Collection<Loan> loans = apiWrapper.execute(Api::getLoans);
-            loanListeners.forEach(l -> l.accept(loans));
-        }
+        final Collection<LoanSummary> loans = this.getLoans();
+        loanListeners.forEach(l -> l.accept(loans));
     }
 
     @Override
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.marketplaces;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks several marketplaces at the same time and merges what they see, so that a loan is known as soon as the first
+ * of them sees it. Loans are told apart by their ID. When the marketplaces disagree on how much remains to be invested
+ * into a loan, the smallest amount wins - remaining investment never grows, so the smallest amount is the freshest.
+ *
+ * Listeners receive the merged marketplace once per check, when all the sources responded or the timeout expired,
+ * whichever comes first. Sources which keep lagging behind the others, failing or timing out are demoted: their loans
+ * are ignored and they are only checked every few rounds, until they catch up again. Some sources apply the
+ * {@link InterestProfile} and some do not, therefore only loans within the profile count when looking for lagging
+ * sources.
+ */
+class CompositeMarketplace implements Marketplace {
+
+    /**
+     * Keeps track of how a single marketplace has been doing. Only accessed while holding the lock of the composite.
+     */
+    static final class Source {
+
+        private static final int DEMOTE_AFTER_STRIKES = 3;
+        private static final double LATENCY_WEIGHT = 0.3;
+
+        private final Marketplace marketplace;
+        private final AtomicBoolean checking = new AtomicBoolean(false);
+        private volatile Collection<LoanSummary> latest = Collections.emptyList();
+        private long latencyInMillis = -1;
+        private Instant lastSuccess = null;
+        private int strikes = 0;
+        private boolean demoted = false;
+
+        Source(final Marketplace marketplace) {
+            this.marketplace = marketplace;
+            this.marketplace.registerListener(loans -> this.latest = loans);
+        }
+
+        public String getName() {
+            return marketplace.getClass().getSimpleName();
+        }
+
+        public Optional<Duration> getLatency() {
+            return latencyInMillis < 0 ? Optional.empty() : Optional.of(Duration.ofMillis(latencyInMillis));
+        }
+
+        public Optional<Instant> getLastSuccess() {
+            return Optional.ofNullable(lastSuccess);
+        }
+
+        public boolean isDemoted() {
+            return demoted;
+        }
+
+        private void recordLatency(final long millis) {
+            this.latencyInMillis = latencyInMillis < 0 ? millis :
+                    Math.round((1 - Source.LATENCY_WEIGHT) * latencyInMillis + Source.LATENCY_WEIGHT * millis);
+        }
+
+        private void recordSuccess() {
+            this.lastSuccess = Instant.now();
+            this.strikes = 0;
+            if (demoted) {
+                CompositeMarketplace.LOGGER.info("Marketplace {} caught up, no longer ignored.", this.getName());
+                demoted = false;
+            }
+        }
+
+        private void recordStrike(final String reason) {
+            this.strikes++;
+            CompositeMarketplace.LOGGER.debug("Marketplace {} {}, strike #{}.", this.getName(), reason, strikes);
+            if (!demoted && strikes >= Source.DEMOTE_AFTER_STRIKES) {
+                CompositeMarketplace.LOGGER.info("Marketplace {} keeps lagging behind, will be ignored.",
+                        this.getName());
+                demoted = true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Source{" +
+                    "name=" + getName() +
+                    ", latency=" + getLatency().map(Duration::toString).orElse("unknown") +
+                    ", lastSuccess=" + lastSuccess +
+                    ", strikes=" + strikes +
+                    ", demoted=" + demoted +
+                    '}';
+        }
+    }
+
+    /**
+     * State of a single check of all the sources.
+     */
+    private static final class Round {
+
+        private final int number;
+        private final Map<CompositeMarketplace.Source, Collection<LoanSummary>> responses = new HashMap<>();
+        private final Set<CompositeMarketplace.Source> failures = new HashSet<>();
+        private final Map<Integer, LoanSummary> merged = new LinkedHashMap<>();
+        private boolean trustedResponded = false;
+
+        public Round(final int number) {
+            this.number = number;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeMarketplace.class);
+    private static final int CHECK_DEMOTED_EVERY = 5;
+
+    private final List<CompositeMarketplace.Source> sources;
+    private final Collection<Consumer<Collection<LoanSummary>>> loanListeners = new LinkedHashSet<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        final Thread t = new Thread(r, "rzMarketplace");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Duration timeout;
+    private volatile Supplier<Optional<InterestProfile>> interestProfile = Optional::empty;
+    private CompositeMarketplace.Round current = new CompositeMarketplace.Round(0);
+    /**
+     * Loans and their remaining investment, as seen by all sources in the previous round.
+     */
+    private Map<Integer, Double> seenBefore = Collections.emptyMap();
+
+    CompositeMarketplace(final Collection<? extends Marketplace> sources, final Duration timeout) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one marketplace required.");
+        }
+        final boolean allPolling = sources.stream()
+                .allMatch(m -> m.specifyExpectedTreatment() == ExpectedTreatment.POLLING);
+        if (!allPolling) {
+            throw new IllegalArgumentException("Only polling marketplaces may be combined.");
+        }
+        this.sources = sources.stream().map(CompositeMarketplace.Source::new).collect(Collectors.toList());
+        this.timeout = timeout;
+    }
+
+    CompositeMarketplace(final Collection<? extends Marketplace> sources) {
+        this(sources, Duration.ofSeconds(Defaults.getMarketplaceSourceTimeoutInSeconds()));
+    }
+
+    List<CompositeMarketplace.Source> getSources() {
+        return Collections.unmodifiableList(sources);
+    }
+
+    @Override
+    public synchronized boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
+        return this.loanListeners.add(listener);
+    }
+
+    @Override
+    public void registerInterestProfile(final Supplier<Optional<InterestProfile>> profile) {
+        this.interestProfile = profile;
+        sources.forEach(s -> s.marketplace.registerInterestProfile(profile));
+    }
+
+    @Override
+    public ExpectedTreatment specifyExpectedTreatment() {
+        return ExpectedTreatment.POLLING;
+    }
+
+    private boolean isTrusted(final CompositeMarketplace.Source source) {
+        return !source.isDemoted() || sources.stream().allMatch(CompositeMarketplace.Source::isDemoted);
+    }
+
+    private boolean isDue(final CompositeMarketplace.Source source, final int round) {
+        return this.isTrusted(source) || round % CompositeMarketplace.CHECK_DEMOTED_EVERY == 0;
+    }
+
+    private synchronized void accept(final CompositeMarketplace.Round round, final CompositeMarketplace.Source source,
+                                     final Collection<LoanSummary> loans, final long latencyInMillis) {
+        source.recordLatency(latencyInMillis);
+        if (round != current) {
+            LOGGER.debug("Marketplace {} responded too late.", source.getName());
+            return;
+        }
+        round.responses.put(source, loans);
+        if (!this.isTrusted(source)) {
+            return;
+        }
+        round.trustedResponded = true;
+        for (final LoanSummary loan : loans) {
+            final LoanSummary known = round.merged.get(loan.getId());
+            if (known == null || loan.getRemainingInvestment() < known.getRemainingInvestment()) {
+                round.merged.put(loan.getId(), loan);
+            }
+        }
+    }
+
+    private synchronized void fail(final CompositeMarketplace.Round round, final CompositeMarketplace.Source source) {
+        if (round == current) {
+            round.failures.add(source);
+        }
+    }
+
+    private void check(final CompositeMarketplace.Round round, final CompositeMarketplace.Source source) {
+        final long start = System.nanoTime();
+        try {
+            source.marketplace.run();
+            final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            this.accept(round, source, source.latest, latency);
+        } catch (final Exception ex) {
+            LOGGER.debug("Marketplace {} failed.", source.getName(), ex);
+            this.fail(round, source);
+        } finally {
+            source.checking.set(false);
+        }
+    }
+
+    /**
+     * A source is lagging when it does not know of a loan that was seen in the previous round and is still seen now,
+     * or when it reports more remaining investment than was already seen in the previous round.
+     *
+     * @param loans What the source has seen.
+     * @param seenNow Loans and their remaining investment, as seen by all sources in this round.
+     * @return True if the source is at least one round behind.
+     */
+    private boolean isLagging(final Collection<LoanSummary> loans, final Map<Integer, Double> seenNow) {
+        final Map<Integer, Double> own = this.getRemainingInvestments(loans.stream());
+        return seenBefore.entrySet().stream().anyMatch(e -> {
+            final int id = e.getKey();
+            final Double remaining = own.get(id);
+            if (remaining == null) {
+                return seenNow.containsKey(id);
+            } else {
+                return remaining > e.getValue();
+            }
+        });
+    }
+
+    /**
+     * @param loans Loans as seen by any of the sources.
+     * @return Loans within the interest profile, if any, and their smallest remaining investment.
+     */
+    private Map<Integer, Double> getRemainingInvestments(final Stream<LoanSummary> loans) {
+        final Optional<InterestProfile> profile = interestProfile.get();
+        return loans.filter(l -> profile.map(p -> p.isInterestedIn(l)).orElse(true))
+                .collect(Collectors.toMap(LoanSummary::getId, LoanSummary::getRemainingInvestment, Math::min));
+    }
+
+    /**
+     * Close the round, judging every source checked.
+     *
+     * @param round Round to close.
+     * @param checked Sources checked in the round.
+     * @return Merged marketplace to forward to listeners, empty if no trusted source responded.
+     */
+    private synchronized Optional<Collection<LoanSummary>> evaluate(
+            final CompositeMarketplace.Round round, final Collection<CompositeMarketplace.Source> checked) {
+        final Map<Integer, Double> seenNow =
+                this.getRemainingInvestments(round.responses.values().stream().flatMap(Collection::stream));
+        checked.forEach(s -> {
+            final Collection<LoanSummary> loans = round.responses.get(s);
+            if (loans != null) {
+                if (this.isLagging(loans, seenNow)) {
+                    s.recordStrike("is lagging");
+                } else {
+                    s.recordSuccess();
+                }
+            } else if (round.failures.contains(s)) {
+                s.recordStrike("failed");
+            } else {
+                s.recordStrike("timed out");
+            }
+        });
+        seenBefore = seenNow;
+        LOGGER.trace("Marketplace sources: {}.", sources);
+        if (!round.trustedResponded) {
+            return Optional.empty();
+        }
+        return Optional.of(Collections.unmodifiableList(new ArrayList<>(round.merged.values())));
+    }
+
+    private synchronized Collection<Consumer<Collection<LoanSummary>>> getLoanListeners() {
+        return new ArrayList<>(loanListeners);
+    }
+
+    private synchronized CompositeMarketplace.Round nextRound() {
+        current = new CompositeMarketplace.Round(current.number + 1);
+        return current;
+    }
+
+    /**
+     * Checks all the sources that are due and waits for them, but no longer than the timeout. Then forwards what the
+     * sources responded with. Sources which are still being checked from the previous round are skipped.
+     */
+    @Override
+    public void run() {
+        final CompositeMarketplace.Round round = this.nextRound();
+        final Collection<CompositeMarketplace.Source> checked = sources.stream()
+                .filter(s -> this.isDue(s, round.number))
+                .filter(s -> s.checking.compareAndSet(false, true))
+                .collect(Collectors.toList());
+        final CompletableFuture<?>[] checks = checked.stream()
+                .map(s -> CompletableFuture.runAsync(() -> this.check(round, s), executor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(checks).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (final TimeoutException ex) {
+            LOGGER.debug("Not all marketplaces responded within {}.", timeout);
+        } catch (final ExecutionException ex) { // never happens, checks handle their own failures
+            LOGGER.debug("Marketplace check failed.", ex);
+        }
+        final Optional<Collection<LoanSummary>> result = this.evaluate(round, checked);
+        result.ifPresent(loans -> { // listeners may take long, they must not block the sources still responding
+            LOGGER.trace("Forwarding {} loans.", loans.size());
+            this.getLoanListeners().forEach(l -> l.accept(loans));
+        });
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdownNow();
+        Exception failure = null;
+        for (final CompositeMarketplace.Source s : sources) {
+            try {
+                s.marketplace.close();
+            } catch (final Exception ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
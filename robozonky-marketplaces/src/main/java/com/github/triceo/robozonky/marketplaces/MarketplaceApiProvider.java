@@ -16,13 +16,28 @@
 
 package com.github.triceo.robozonky.marketplaces;
 
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
-import com.github.triceo.robozonky.common.remote.RoboZonkyFilter;
+import com.github.triceo.robozonky.common.remote.ConditionalRequestFilter;
 
+/**
+ * Marketplaces are checked very often and their content mostly stays the same. Therefore, all requests made through
+ * this provider are conditional and may end with HTTP 304, see {@link ConditionalRequestFilter}.
+ */
 class MarketplaceApiProvider extends ApiProvider {
 
     private static final String ZOTIFY_URL = "https://zotify.cz";
-    private static final RoboZonkyFilter FILTER = new RoboZonkyFilter();
+    private final ConditionalRequestFilter filter = new ConditionalRequestFilter();
+
+    /**
+     * Retrieve Zonky's marketplace.
+     *
+     * @return New API instance.
+     * @throws IllegalStateException If {@link #close()} already called.
+     */
+    public ApiProvider.ApiWrapper<ZonkyApi> zonky() {
+        return this.obtain(ZonkyApi.class, ApiProvider.ZONKY_URL, this.filter);
+    }
 
     /**
      * Retrieve Zotify's marketplace cache.
@@ -31,7 +46,14 @@ class MarketplaceApiProvider extends ApiProvider {
      * @throws IllegalStateException If {@link #close()} already called.
      */
     public ApiProvider.ApiWrapper<ZotifyApi> zotify() {
-        return this.obtain(ZotifyApi.class, MarketplaceApiProvider.ZOTIFY_URL, MarketplaceApiProvider.FILTER);
+        return this.obtain(ZotifyApi.class, MarketplaceApiProvider.ZOTIFY_URL, this.filter);
+    }
+
+    /**
+     * Make the next request to every marketplace unconditional.
+     */
+    public void forgetResponses() {
+        this.filter.reset();
     }
 
 }
@@ -16,6 +16,9 @@
 
 package com.github.triceo.robozonky.marketplaces;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -27,6 +30,11 @@ import org.slf4j.LoggerFactory;
 public class RobozonkyMarketplaceService implements MarketplaceService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RobozonkyMarketplaceService.class);
+    /**
+     * Marketplace ID such as "stream:https://example.com/marketplace" listens to the feed at that URL, see
+     * {@link StreamingMarketplace}.
+     */
+    static final String STREAM_PREFIX = "stream:";
 
     @Override
     public Optional<Marketplace> find(final String marketplaceId, final char... secret) {
@@ -35,6 +43,21 @@ public class RobozonkyMarketplaceService implements MarketplaceService {
             return Optional.of(new ZotifyMarketplace());
         } else if (Objects.equals("zonky", marketplaceId)) {
                 return Optional.of(new ZonkyMarketplace());
+        } else if (Objects.equals("all", marketplaceId)) {
+            return Optional.of(new CompositeMarketplace(Arrays.asList(new ZonkyMarketplace(),
+                    new ZotifyMarketplace())));
+        } else if (marketplaceId != null && marketplaceId.startsWith(RobozonkyMarketplaceService.STREAM_PREFIX)) {
+            final String url = marketplaceId.substring(RobozonkyMarketplaceService.STREAM_PREFIX.length());
+            try {
+                final URL u = new URL(url);
+                if (u.getProtocol().startsWith("http")) {
+                    return Optional.of(new StreamingMarketplace(u));
+                }
+            } catch (final MalformedURLException ex) {
+                RobozonkyMarketplaceService.LOGGER.debug("Failed parsing marketplace stream URL.", ex);
+            }
+            RobozonkyMarketplaceService.LOGGER.warn("Invalid marketplace stream URL '{}'.", url);
+            return Optional.empty();
         } else {
             return Optional.empty();
         }
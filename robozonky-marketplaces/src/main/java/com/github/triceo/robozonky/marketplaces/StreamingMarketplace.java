@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.marketplaces;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
+import com.github.triceo.robozonky.api.remote.entities.LoanDecoder;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens to a feed of Server-Sent Events, instead of asking for the marketplace over and over again. Loans are
+ * forwarded to the listeners the moment they arrive. The feed is expected to send the following events, each of them
+ * carrying a JSON array of loans in the same format as the Zonky marketplace:
+ *
+ * <ul>
+ * <li>"marketplace", with the entire marketplace. Should be sent whenever a client connects.</li>
+ * <li>"loans" (or unnamed), with loans that were added or changed. Loans with no remaining investment are removed.</li>
+ * </ul>
+ *
+ * When the connection drops, it is re-established after a delay, which grows with every unsuccessful attempt. The
+ * feed may override the initial delay through the "retry" field. When reconnecting, the ID of the last event received
+ * is sent in the "Last-Event-ID" header, so that the feed may resume where it left off.
+ */
+class StreamingMarketplace implements Marketplace {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingMarketplace.class);
+    /**
+     * Lower bound for the delay requested by the feed, so that a bogus "retry" does not make us reconnect in a loop.
+     */
+    private static final Duration MINIMUM_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAXIMUM_RECONNECT_DELAY = Duration.ofMinutes(1);
+    /**
+     * Feeds are expected to send comments every now and then to keep the connection alive. When nothing arrives for
+     * this long, the connection is considered dead.
+     */
+    private static final int READ_TIMEOUT_IN_MILLIS = (int) Duration.ofMinutes(2).toMillis();
+    private static final int CONNECT_TIMEOUT_IN_MILLIS = (int) Duration.ofSeconds(10).toMillis();
+
+    private final URL url;
+    private final LoanDecoder decoder = new LoanDecoder();
+    private final Collection<Consumer<Collection<LoanSummary>>> loanListeners = new LinkedHashSet<>();
+    private final Map<Integer, LoanSummary> loans = new LinkedHashMap<>();
+    private volatile long reconnectDelayInMillis;
+    private volatile String lastEventId = null;
+    private volatile HttpURLConnection connection = null;
+    private volatile boolean isClosed = false;
+
+    StreamingMarketplace(final URL url, final Duration reconnectDelay) {
+        this.url = url;
+        this.reconnectDelayInMillis = reconnectDelay.toMillis();
+    }
+
+    StreamingMarketplace(final URL url) {
+        this(url, Duration.ofSeconds(1));
+    }
+
+    @Override
+    public synchronized boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
+        return this.loanListeners.add(listener);
+    }
+
+    @Override
+    public ExpectedTreatment specifyExpectedTreatment() {
+        return ExpectedTreatment.LISTENING;
+    }
+
+    String getLastEventId() {
+        return lastEventId;
+    }
+
+    private void dispatch(final String type, final String data) {
+        final boolean isFullMarketplace;
+        switch (type) {
+            case "marketplace":
+                isFullMarketplace = true;
+                break;
+            case "loans":
+            case "message":
+                isFullMarketplace = false;
+                break;
+            default:
+                LOGGER.debug("Ignoring event '{}'.", type);
+                return;
+        }
+        final List<LoanSummary> received;
+        try {
+            received = decoder.decode(new ByteArrayInputStream(data.getBytes(Defaults.CHARSET)));
+        } catch (final IOException ex) { // skip the event, otherwise we would receive it again after reconnecting
+            LOGGER.warn("Ignoring malformed event '{}'.", type, ex);
+            return;
+        }
+        synchronized (this) {
+            if (isFullMarketplace) {
+                loans.clear();
+            }
+            received.forEach(l -> {
+                if (l.getRemainingInvestment() > 0) {
+                    loans.put(l.getId(), l);
+                } else {
+                    loans.remove(l.getId());
+                }
+            });
+            final Collection<LoanSummary> result = Collections.unmodifiableList(new ArrayList<>(loans.values()));
+            loanListeners.forEach(l -> l.accept(result));
+        }
+    }
+
+    /**
+     * Reads events until the stream ends, as described by the Server-Sent Events specification.
+     *
+     * @param reader Stream to read.
+     * @return True if at least one event was received.
+     * @throws IOException When reading fails.
+     */
+    private boolean read(final BufferedReader reader) throws IOException {
+        boolean receivedAny = false;
+        String type = null, id = lastEventId;
+        final StringBuilder data = new StringBuilder();
+        boolean hasData = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) { // end of event
+                lastEventId = id;
+                if (hasData) {
+                    this.dispatch(type == null ? "message" : type, data.toString());
+                    receivedAny = true;
+                }
+                type = null;
+                data.setLength(0);
+                hasData = false;
+                continue;
+            } else if (line.startsWith(":")) { // comment, used to keep the connection alive
+                continue;
+            }
+            final int colon = line.indexOf(':');
+            final String field = colon < 0 ? line : line.substring(0, colon);
+            final String value = colon < 0 ? "" :
+                    line.startsWith(" ", colon + 1) ? line.substring(colon + 2) : line.substring(colon + 1);
+            switch (field) {
+                case "event":
+                    type = value;
+                    break;
+                case "data":
+                    if (hasData) {
+                        data.append('\n');
+                    }
+                    data.append(value);
+                    hasData = true;
+                    break;
+                case "id":
+                    if (value.indexOf('\0') < 0) {
+                        id = value;
+                    }
+                    break;
+                case "retry":
+                    try {
+                        reconnectDelayInMillis =
+                                Math.max(Long.parseLong(value), StreamingMarketplace.MINIMUM_RETRY_DELAY.toMillis());
+                    } catch (final NumberFormatException ex) {
+                        LOGGER.debug("Ignoring invalid retry '{}'.", value);
+                    }
+                    break;
+                default:
+                    LOGGER.trace("Ignoring unknown field '{}'.", field);
+            }
+        }
+        return receivedAny;
+    }
+
+    private boolean listen() throws IOException {
+        final HttpURLConnection c = (HttpURLConnection) url.openConnection();
+        this.connection = c;
+        try {
+            c.setConnectTimeout(StreamingMarketplace.CONNECT_TIMEOUT_IN_MILLIS);
+            c.setReadTimeout(StreamingMarketplace.READ_TIMEOUT_IN_MILLIS);
+            c.setRequestProperty("Accept", "text/event-stream");
+            c.setRequestProperty("Cache-Control", "no-cache");
+            final String id = lastEventId;
+            if (id != null) {
+                c.setRequestProperty("Last-Event-ID", id);
+            }
+            final int status = c.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected HTTP status " + status + ".");
+            }
+            LOGGER.debug("Connected to {}, resuming after event {}.", url, id);
+            try (final BufferedReader reader =
+                         new BufferedReader(new InputStreamReader(c.getInputStream(), Defaults.CHARSET))) {
+                return this.read(reader);
+            }
+        } finally {
+            this.connection = null;
+            c.disconnect();
+        }
+    }
+
+    /**
+     * Keeps listening until interrupted or closed.
+     */
+    @Override
+    public void run() {
+        long delay = reconnectDelayInMillis;
+        while (!isClosed && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (this.listen()) {
+                    delay = reconnectDelayInMillis; // the connection was working, no need to back off
+                }
+                LOGGER.debug("Stream ended.");
+            } catch (final IOException ex) {
+                if (isClosed) {
+                    break;
+                }
+                LOGGER.warn("Stream failed, reconnecting in {} ms: {}.", delay, ex.getMessage());
+                LOGGER.debug("Stream failure.", ex);
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, StreamingMarketplace.MAXIMUM_RECONNECT_DELAY.toMillis());
+        }
+        LOGGER.debug("Stopped listening to {}.", url);
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        final HttpURLConnection c = this.connection;
+        if (c != null) { // unblocks the thread reading the stream
+            c.disconnect();
+        }
+    }
+}
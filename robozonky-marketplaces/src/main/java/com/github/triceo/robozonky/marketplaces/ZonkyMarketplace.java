@@ -16,14 +16,38 @@
 
 package com.github.triceo.robozonky.marketplaces;
 
-import com.github.triceo.robozonky.api.remote.Api;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.triceo.robozonky.api.remote.ZonkyApi;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.enums.Ratings;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
 
-class ZonkyMarketplace extends AbstractMarketplace {
+class ZonkyMarketplace extends AbstractMarketplace<ZonkyApi> {
+
+    @Override
+    protected ApiProvider.ApiWrapper<ZonkyApi> newApi(final MarketplaceApiProvider apiProvider) {
+        return apiProvider.zonky();
+    }
 
+    /**
+     * Zonky is able to filter the marketplace, which means fewer loans to transfer and parse on every check.
+     */
     @Override
-    protected ApiProvider.ApiWrapper<? extends Api> newApi(final MarketplaceApiProvider apiProvider) {
-        return apiProvider.anonymous();
+    protected List<LoanSummary> getLoans(final ZonkyApi api, final Optional<InterestProfile> profile) {
+        if (!profile.isPresent()) {
+            return api.getLoans();
+        }
+        final InterestProfile p = profile.get();
+        final Ratings ratings = Ratings.of(p.getRatings());
+        final int leastRemaining = p.getMinimumRemainingInvestment() - 1; // Zonky only supports "greater than"
+        if (p.isMaximumTermBounded()) {
+            return api.getLoans(ratings, leastRemaining, p.getMinimumTermInMonths(), p.getMaximumTermInMonths());
+        } else {
+            return api.getLoans(ratings, leastRemaining, p.getMinimumTermInMonths());
+        }
     }
 
 }
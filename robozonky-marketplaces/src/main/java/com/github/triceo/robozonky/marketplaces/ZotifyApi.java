@@ -24,7 +24,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
 import com.github.triceo.robozonky.api.remote.Api;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 
 /**
  * Simple Zonky API cache from zotify.cz.
@@ -37,7 +37,7 @@ interface ZotifyApi extends Api {
     @GET
     @Path("/json")
     @Override
-    List<Loan> getLoans();
+    List<LoanSummary> getLoans();
 
 }
 
@@ -16,13 +16,12 @@
 
 package com.github.triceo.robozonky.marketplaces;
 
-import com.github.triceo.robozonky.api.remote.Api;
 import com.github.triceo.robozonky.common.remote.ApiProvider;
 
-class ZotifyMarketplace extends AbstractMarketplace {
+class ZotifyMarketplace extends AbstractMarketplace<ZotifyApi> {
 
     @Override
-    protected ApiProvider.ApiWrapper<? extends Api> newApi(final MarketplaceApiProvider apiProvider) {
+    protected ApiProvider.ApiWrapper<ZotifyApi> newApi(final MarketplaceApiProvider apiProvider) {
         return apiProvider.zotify();
     }
 
@@ -22,7 +22,7 @@ import java.util.function.Consumer;
 
 import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
 import com.github.triceo.robozonky.api.marketplaces.Marketplace;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.AfterClass;
 import org.junit.Test;
@@ -45,7 +45,7 @@ public class AbstractMarketplaceTest {
 
     @Test
     public void retrieval() throws Exception {
-        final Consumer<Collection<Loan>> consumer = Mockito.mock(Consumer.class);
+        final Consumer<Collection<LoanSummary>> consumer = Mockito.mock(Consumer.class);
         try (final Marketplace market = marketClass.newInstance()) {
             Mockito.verify(consumer, Mockito.never()).accept(ArgumentMatchers.any());
             SoftAssertions.assertSoftly(softly -> {
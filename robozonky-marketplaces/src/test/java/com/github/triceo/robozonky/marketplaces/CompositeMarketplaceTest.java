@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.marketplaces;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
+import com.github.triceo.robozonky.api.marketplaces.Marketplace;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class CompositeMarketplaceTest {
+
+    private static class TestMarketplace implements Marketplace {
+
+        private final Supplier<Collection<LoanSummary>> loans;
+        private final AtomicInteger checks = new AtomicInteger(0);
+        private Consumer<Collection<LoanSummary>> listener;
+
+        public TestMarketplace(final Supplier<Collection<LoanSummary>> loans) {
+            this.loans = loans;
+        }
+
+        public TestMarketplace(final LoanSummary... loans) {
+            this(() -> Arrays.asList(loans));
+        }
+
+        @Override
+        public boolean registerListener(final Consumer<Collection<LoanSummary>> listener) {
+            this.listener = listener;
+            return true;
+        }
+
+        @Override
+        public ExpectedTreatment specifyExpectedTreatment() {
+            return ExpectedTreatment.POLLING;
+        }
+
+        @Override
+        public void run() {
+            checks.incrementAndGet();
+            listener.accept(loans.get());
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+
+    private static LoanSummary loan(final int id, final int remaining) {
+        final LoanSummary loan = new LoanSummary(id, 10000);
+        final LoanSummary spy = Mockito.spy(loan);
+        Mockito.doReturn((double) remaining).when(spy).getRemainingInvestment();
+        return spy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<Collection<LoanSummary>> mockListener() {
+        return Mockito.mock(Consumer.class);
+    }
+
+    @Test
+    public void mergesByIdWithFreshestRemainingInvestment() throws Exception {
+        final LoanSummary stale = CompositeMarketplaceTest.loan(1, 1000), fresh = CompositeMarketplaceTest.loan(1, 500),
+                other = CompositeMarketplaceTest.loan(2, 2000);
+        final Consumer<Collection<LoanSummary>> listener = CompositeMarketplaceTest.mockListener();
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(
+                new TestMarketplace(stale, other), new TestMarketplace(fresh)), Duration.ofSeconds(10))) {
+            m.registerListener(listener);
+            m.run();
+            final ArgumentCaptor<Collection<LoanSummary>> captor = ArgumentCaptor.forClass(Collection.class);
+            Mockito.verify(listener, Mockito.atLeastOnce()).accept(captor.capture());
+            Assertions.assertThat(captor.getValue()).containsOnly(fresh, other);
+        }
+    }
+
+    @Test
+    public void forwardsOnceAfterAllSourcesRespond() throws Exception {
+        final LoanSummary first = CompositeMarketplaceTest.loan(1, 1000),
+                second = CompositeMarketplaceTest.loan(2, 1000);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestMarketplace slow = new TestMarketplace(() -> {
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singleton(second);
+        });
+        final Consumer<Collection<LoanSummary>> listener = CompositeMarketplaceTest.mockListener();
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(new TestMarketplace(first), slow),
+                Duration.ofSeconds(10))) {
+            m.registerListener(listener);
+            final CompletableFuture<Void> run = CompletableFuture.runAsync(m);
+            Mockito.verify(listener, Mockito.after(500).never()).accept(ArgumentMatchers.any());
+            release.countDown();
+            run.get(10, TimeUnit.SECONDS);
+            Mockito.verify(listener).accept(Arrays.asList(first, second));
+            Mockito.verify(listener, Mockito.times(1)).accept(ArgumentMatchers.any());
+        }
+    }
+
+    @Test
+    public void forwardsAfterTimeout() throws Exception {
+        final LoanSummary first = CompositeMarketplaceTest.loan(1, 1000),
+                second = CompositeMarketplaceTest.loan(2, 1000);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestMarketplace slow = new TestMarketplace(() -> {
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singleton(second);
+        });
+        final Consumer<Collection<LoanSummary>> listener = CompositeMarketplaceTest.mockListener();
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(new TestMarketplace(first), slow),
+                Duration.ofMillis(500))) {
+            m.registerListener(listener);
+            m.run();
+            release.countDown(); // too late for the round
+            Mockito.verify(listener).accept(Collections.singletonList(first));
+            Mockito.verify(listener, Mockito.after(500).times(1)).accept(ArgumentMatchers.any());
+        }
+    }
+
+    @Test
+    public void loansOutsideOfProfileDoNotCountTowardsLagging() throws Exception {
+        final LoanSummary inProfile = CompositeMarketplaceTest.loan(1, 1000),
+                outOfProfile = CompositeMarketplaceTest.loan(2, 100);
+        // the first source applies the profile, the second one does not
+        final TestMarketplace filtering = new TestMarketplace(inProfile),
+                unfiltered = new TestMarketplace(inProfile, outOfProfile);
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(filtering, unfiltered),
+                Duration.ofSeconds(10))) {
+            m.registerListener(CompositeMarketplaceTest.mockListener());
+            m.registerInterestProfile(() -> Optional.of(new InterestProfile(EnumSet.allOf(Rating.class), 0,
+                    Integer.MAX_VALUE, 200)));
+            for (int i = 0; i < 4; i++) {
+                m.run();
+            }
+            Assertions.assertThat(m.getSources())
+                    .extracting(CompositeMarketplace.Source::isDemoted)
+                    .containsOnly(false);
+        }
+    }
+
+    @Test
+    public void demotesLaggingSource() throws Exception {
+        final LoanSummary first = CompositeMarketplaceTest.loan(1, 1000),
+                second = CompositeMarketplaceTest.loan(2, 1000);
+        final TestMarketplace good = new TestMarketplace(first, second), lagging = new TestMarketplace(second);
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(good, lagging),
+                Duration.ofSeconds(10))) {
+            m.registerListener(CompositeMarketplaceTest.mockListener());
+            for (int i = 0; i < 4; i++) { // first round has nothing to compare to, then 3 strikes
+                m.run();
+            }
+            final CompositeMarketplace.Source goodSource = m.getSources().get(0),
+                    laggingSource = m.getSources().get(1);
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(goodSource.isDemoted()).isFalse();
+                softly.assertThat(goodSource.getLatency()).isPresent();
+                softly.assertThat(goodSource.getLastSuccess()).isPresent();
+                softly.assertThat(laggingSource.isDemoted()).isTrue();
+            });
+            m.run(); // round 5 checks demoted sources
+            m.run(); // round 6 does not
+            SoftAssertions.assertSoftly(softly -> {
+                softly.assertThat(good.checks.get()).isEqualTo(6);
+                softly.assertThat(lagging.checks.get()).isEqualTo(5);
+            });
+        }
+    }
+
+    @Test
+    public void survivesFailingSource() throws Exception {
+        final LoanSummary loan = CompositeMarketplaceTest.loan(1, 1000);
+        final TestMarketplace failing = new TestMarketplace(() -> {
+            throw new IllegalStateException("Testing.");
+        });
+        final Consumer<Collection<LoanSummary>> listener = CompositeMarketplaceTest.mockListener();
+        try (final CompositeMarketplace m = new CompositeMarketplace(Arrays.asList(failing,
+                new TestMarketplace(loan)), Duration.ofSeconds(10))) {
+            m.registerListener(listener);
+            m.run();
+            Mockito.verify(listener).accept(Collections.singletonList(loan));
+            Mockito.verify(listener, Mockito.times(1)).accept(ArgumentMatchers.any());
+        }
+    }
+
+    @Test
+    public void rejectsListeningSources() {
+        final Marketplace listening = Mockito.mock(Marketplace.class);
+        Mockito.when(listening.specifyExpectedTreatment()).thenReturn(ExpectedTreatment.LISTENING);
+        Assertions.assertThatThrownBy(() -> new CompositeMarketplace(Collections.singleton(listening)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -35,6 +35,23 @@ public class RoboZonkyMarketplaceServiceTest {
                 .isPresent().containsInstanceOf(ZonkyMarketplace.class);
     }
 
+    @Test
+    public void compositeRetrieval() {
+        Assertions.assertThat(new RobozonkyMarketplaceService().find("all"))
+                .isPresent().containsInstanceOf(CompositeMarketplace.class);
+    }
+
+    @Test
+    public void streamRetrieval() {
+        Assertions.assertThat(new RobozonkyMarketplaceService().find("stream:http://localhost/marketplace"))
+                .isPresent().containsInstanceOf(StreamingMarketplace.class);
+    }
+
+    @Test
+    public void streamWithWrongUrl() {
+        Assertions.assertThat(new RobozonkyMarketplaceService().find("stream:file:///tmp/marketplace")).isEmpty();
+    }
+
     @Test
     public void nonexistent() {
         Assertions.assertThat(new RobozonkyMarketplaceService().find(UUID.randomUUID().toString())).isEmpty();
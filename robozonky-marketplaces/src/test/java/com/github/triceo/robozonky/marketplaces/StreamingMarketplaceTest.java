@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.marketplaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.github.triceo.robozonky.api.marketplaces.ExpectedTreatment;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the marketplace against a local server which stands in for the real feed.
+ */
+public class StreamingMarketplaceTest {
+
+    private final AtomicInteger connections = new AtomicInteger(0);
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private HttpServer server;
+
+    private static void send(final OutputStream stream, final String event) throws IOException {
+        stream.write(event.getBytes(StandardCharsets.UTF_8));
+        stream.flush();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final int connection = connections.incrementAndGet();
+        lastEventIds.add(String.valueOf(exchange.getRequestHeaders().getFirst("Last-Event-ID")));
+        if (connection == 1) { // the feed is temporarily down
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (final OutputStream stream = exchange.getResponseBody()) {
+            if (connection == 2) { // send some events and drop the connection
+                StreamingMarketplaceTest.send(stream, "retry: 10\n: keep-alive\n\n");
+                StreamingMarketplaceTest.send(stream, "event: marketplace\nid: 1\n" +
+                        "data: [{\"id\": 1, \"rating\": \"A\", \"remainingInvestment\": 1000}]\n\n");
+                StreamingMarketplaceTest.send(stream, "event: loans\nid: 2\n" +
+                        "data: [{\"id\": 2, \"rating\": \"B\",\n" +
+                        "data: \"remainingInvestment\": 2000}]\n\n");
+            } else { // resume and keep the connection open
+                StreamingMarketplaceTest.send(stream, "event: loans\nid: 3\n" +
+                        "data: [{\"id\": 1, \"rating\": \"A\", \"remainingInvestment\": 0}]\n\n");
+                release.await(10, TimeUnit.SECONDS);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/marketplace", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        release.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void receivesEventsAndResumes() throws Exception {
+        final URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/marketplace");
+        final List<List<Integer>> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch allReceived = new CountDownLatch(3);
+        final StreamingMarketplace m = new StreamingMarketplace(url, Duration.ofMillis(10));
+        m.registerListener((Collection<LoanSummary> loans) -> {
+            received.add(loans.stream().map(LoanSummary::getId).collect(Collectors.toList()));
+            allReceived.countDown();
+        });
+        Assertions.assertThat(m.specifyExpectedTreatment()).isEqualTo(ExpectedTreatment.LISTENING);
+        final CompletableFuture<Void> listening = CompletableFuture.runAsync(m);
+        Assertions.assertThat(allReceived.await(10, TimeUnit.SECONDS)).isTrue();
+        m.close();
+        listening.get(10, TimeUnit.SECONDS); // closing stops the listening
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(received).containsExactly(Collections.singletonList(1), Arrays.asList(1, 2),
+                    Collections.singletonList(2));
+            softly.assertThat(lastEventIds).startsWith("null", "null", "2");
+            softly.assertThat(m.getLastEventId()).isEqualTo("3");
+        });
+    }
+
+}
@@ -18,16 +18,16 @@ package com.github.triceo.robozonky.notifications.email;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.github.triceo.robozonky.api.notifications.Event;
 import com.github.triceo.robozonky.api.notifications.EventListener;
-import com.github.triceo.robozonky.internal.api.Defaults;
 import com.github.triceo.robozonky.notifications.Counter;
-import org.apache.commons.mail.Email;
-import org.apache.commons.mail.EmailException;
-import org.apache.commons.mail.SimpleEmail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,18 +40,11 @@ abstract class AbstractEmailingListener<T extends Event> implements EventListene
         return sw.toString();
     }
 
-    private static Email createNewEmail(final EmailNotificationProperties properties) throws EmailException {
-        final Email email = new SimpleEmail();
-        email.setCharset(Defaults.CHARSET.displayName());
-        email.setHostName(properties.getSmtpHostname());
-        email.setSmtpPort(properties.getSmtpPort());
-        email.setStartTLSRequired(properties.isStartTlsRequired());
-        email.setSSLOnConnect(properties.isSslOnConnectRequired());
-        email.setAuthentication(properties.getSmtpUsername(), properties.getSmtpPassword());
-        email.setFrom(properties.getSender(), "RoboZonky @ " + properties.getLocalHostAddress());
-        email.addTo(properties.getRecipient());
-        return email;
-    }
+    /**
+     * Only the e-mails for events which end RoboZonky are waited for, all others are sent in the background. This is
+     * how long to wait for them.
+     */
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofSeconds(30);
 
     protected final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
     private final Counter emailsOfThisType;
@@ -75,21 +68,48 @@ abstract class AbstractEmailingListener<T extends Event> implements EventListene
         return Collections.emptyMap();
     }
 
+    /**
+     * When several e-mails of this type are waiting to be sent, they may be merged into a single digest e-mail.
+     *
+     * @param count Number of e-mails merged.
+     * @return Subject of the digest e-mail, or empty if the e-mails must be sent separately.
+     */
+    Optional<String> getDigestSubject(final int count) {
+        return Optional.empty();
+    }
+
+    /**
+     *
+     * @return True if {@link #handle(Event)} should only return after the e-mail was sent, such as when the application
+     * is about to end.
+     */
+    boolean isDeliveryAwaited() {
+        return false;
+    }
+
     @Override
     public void handle(final T event) {
         if (!this.shouldSendEmail(event)) {
             LOGGER.debug("Will not send e-mail.");
             return;
         } else try {
-            final Email email = AbstractEmailingListener.createNewEmail(properties);
-            email.setSubject(this.getSubject(event));
-            email.setMsg(TemplateProcessor.INSTANCE.process(this.getTemplateFileName(), this.getData(event)));
-            LOGGER.debug("Will send '{}' from {} to {} through {}:{} as {}.",
-                    email.getSubject(), email.getFromAddress(), email.getToAddresses(), email.getHostName(),
-                    email.getSmtpPort(), properties.getSmtpUsername());
-            email.send();
-            emailsOfThisType.increase();
-            this.properties.getGlobalCounter().increase();
+            final String subject = this.getSubject(event);
+            final String body = TemplateProcessor.INSTANCE.process(this.getTemplateFileName(), this.getData(event));
+            LOGGER.debug("Will send '{}' to {} as {}.", subject, properties.getRecipient(),
+                    properties.getSmtpUsername());
+            final Outbox.Message message =
+                    new Outbox.Message(properties, this.getClass(), subject, body, this::getDigestSubject);
+            // only e-mails actually sent count towards the limits
+            final CompletableFuture<Void> delivery = Outbox.INSTANCE.send(message).thenRun(() -> {
+                emailsOfThisType.increase();
+                this.properties.getGlobalCounter().increase();
+            });
+            if (this.isDeliveryAwaited()) {
+                delivery.get(AbstractEmailingListener.DELIVERY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending e-mail.", ex);
         } catch (final Exception ex) {
             throw new RuntimeException("Failed processing event.", ex);
         }
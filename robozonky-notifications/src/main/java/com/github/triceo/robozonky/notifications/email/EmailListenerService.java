@@ -16,6 +16,9 @@
 
 package com.github.triceo.robozonky.notifications.email;
 
+import java.util.Objects;
+import java.util.stream.Stream;
+
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.notifications.Event;
 import com.github.triceo.robozonky.api.notifications.EventListener;
@@ -30,4 +33,9 @@ public final class EmailListenerService implements ListenerService {
         return new RefreshableEmailEventListener<>(properties, eventType);
     }
 
+    @Override
+    public boolean isSupported(final Class<? extends Event> eventType) {
+        return Stream.of(SupportedListener.values()).anyMatch(l -> Objects.equals(l.getEventType(), eventType));
+    }
+
 }
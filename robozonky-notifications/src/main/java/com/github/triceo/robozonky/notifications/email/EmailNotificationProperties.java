@@ -17,6 +17,7 @@
 package com.github.triceo.robozonky.notifications.email;
 
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.github.triceo.robozonky.internal.api.Defaults;
 import com.github.triceo.robozonky.notifications.NotificationProperties;
@@ -29,7 +30,10 @@ class EmailNotificationProperties extends NotificationProperties {
         return listener.getLabel() + "." + property;
     }
 
-    private String localHostAddress;
+    /**
+     * Shared by all instances, as a new one is created every time the configuration changes.
+     */
+    private static final AtomicReference<String> LOCAL_HOST_ADDRESS = new AtomicReference<>();
 
     EmailNotificationProperties(final EmailNotificationProperties source) {
         this(source.getProperties());
@@ -39,12 +43,14 @@ class EmailNotificationProperties extends NotificationProperties {
         super(source);
     }
 
-    public synchronized String getLocalHostAddress() {
-        if (localHostAddress == null) {
-            // lazy init so that the remote request penalty is not incurred needlessly
-            localHostAddress = Defaults.getHostAddress();
+    public String getLocalHostAddress() {
+        // lazy init so that the remote request penalty is not incurred needlessly
+        final String cached = EmailNotificationProperties.LOCAL_HOST_ADDRESS.get();
+        if (cached != null) {
+            return cached;
         }
-        return localHostAddress;
+        EmailNotificationProperties.LOCAL_HOST_ADDRESS.compareAndSet(null, Defaults.getHostAddress());
+        return EmailNotificationProperties.LOCAL_HOST_ADDRESS.get();
     }
 
     public String getSender() {
@@ -18,9 +18,10 @@ package com.github.triceo.robozonky.notifications.email;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import com.github.triceo.robozonky.api.notifications.InvestmentDelegatedEvent;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 
 final class InvestmentDelegatedEventListener extends AbstractEmailingListener<InvestmentDelegatedEvent> {
 
@@ -41,7 +42,7 @@ final class InvestmentDelegatedEventListener extends AbstractEmailingListener<In
 
     @Override
     Map<String, Object> getData(final InvestmentDelegatedEvent event) {
-        final Loan loan = event.getRecommendation().getLoanDescriptor().getLoan();
+        final LoanSummary loan = event.getRecommendation().getLoanDescriptor().getLoan();
         final Map<String, Object> result = new HashMap<>();
         result.put("loanId", loan.getId());
         result.put("loanRecommendation", event.getRecommendation().getRecommendedInvestmentAmount());
@@ -53,6 +54,9 @@ final class InvestmentDelegatedEventListener extends AbstractEmailingListener<In
         return result;
     }
 
-
+    @Override
+    Optional<String> getDigestSubject(final int count) {
+        return Optional.of("Delegované investice - počet: " + count);
+    }
 
 }
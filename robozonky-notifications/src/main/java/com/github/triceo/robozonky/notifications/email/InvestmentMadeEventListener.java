@@ -18,6 +18,7 @@ package com.github.triceo.robozonky.notifications.email;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import com.github.triceo.robozonky.api.notifications.InvestmentMadeEvent;
 import com.github.triceo.robozonky.api.remote.entities.Investment;
@@ -58,4 +59,9 @@ final class InvestmentMadeEventListener extends AbstractEmailingListener<Investm
         super.handle(event);
     }
 
+    @Override
+    Optional<String> getDigestSubject(final int count) {
+        return Optional.of("Nové investice - počet: " + count);
+    }
+
 }
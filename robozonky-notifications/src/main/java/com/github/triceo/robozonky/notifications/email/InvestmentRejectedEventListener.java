@@ -18,9 +18,10 @@ package com.github.triceo.robozonky.notifications.email;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import com.github.triceo.robozonky.api.notifications.InvestmentRejectedEvent;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 
 final class InvestmentRejectedEventListener extends AbstractEmailingListener<InvestmentRejectedEvent> {
 
@@ -41,7 +42,7 @@ final class InvestmentRejectedEventListener extends AbstractEmailingListener<Inv
 
     @Override
     Map<String, Object> getData(final InvestmentRejectedEvent event) {
-        final Loan loan = event.getRecommendation().getLoanDescriptor().getLoan();
+        final LoanSummary loan = event.getRecommendation().getLoanDescriptor().getLoan();
         final Map<String, Object> result = new HashMap<>();
         result.put("loanId", event.getRecommendation().getLoanDescriptor().getLoan().getId());
         result.put("loanRecommendation", event.getRecommendation().getRecommendedInvestmentAmount());
@@ -52,4 +53,9 @@ final class InvestmentRejectedEventListener extends AbstractEmailingListener<Inv
         return result;
     }
 
+    @Override
+    Optional<String> getDigestSubject(final int count) {
+        return Optional.of("Zamítnuté investice - počet: " + count);
+    }
+
 }
@@ -18,9 +18,10 @@ package com.github.triceo.robozonky.notifications.email;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import com.github.triceo.robozonky.api.notifications.InvestmentSkippedEvent;
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 
 final class InvestmentSkippedEventListener extends AbstractEmailingListener<InvestmentSkippedEvent> {
 
@@ -40,7 +41,7 @@ final class InvestmentSkippedEventListener extends AbstractEmailingListener<Inve
 
     @Override
     Map<String, Object> getData(final InvestmentSkippedEvent event) {
-        final Loan loan = event.getRecommendation().getLoanDescriptor().getLoan();
+        final LoanSummary loan = event.getRecommendation().getLoanDescriptor().getLoan();
         final Map<String, Object> result = new HashMap<>();
         result.put("loanId", loan.getId());
         result.put("loanRecommendation", event.getRecommendation().getRecommendedInvestmentAmount());
@@ -50,4 +51,9 @@ final class InvestmentSkippedEventListener extends AbstractEmailingListener<Inve
         return result;
     }
 
+    @Override
+    Optional<String> getDigestSubject(final int count) {
+        return Optional.of("Dočasně přeskočené půjčky - počet: " + count);
+    }
+
 }
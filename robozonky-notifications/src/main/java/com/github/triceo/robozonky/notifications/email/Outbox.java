@@ -0,0 +1,325 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.notifications.email;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import com.github.triceo.robozonky.internal.api.Defaults;
+import org.apache.commons.mail.Email;
+import org.apache.commons.mail.EmailException;
+import org.apache.commons.mail.SimpleEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends e-mails in the background, so that the listeners never wait for the SMTP server. E-mails which arrive in quick
+ * succession are sent over a single SMTP connection, and those of the same kind are merged into a single digest e-mail
+ * if the listener allows it. Failed deliveries are retried, with an increasing delay between the attempts.
+ */
+enum Outbox {
+
+    INSTANCE; // fast thread-safe singleton
+
+    static final class Message {
+
+        private final EmailNotificationProperties properties;
+        private final Class<?> source;
+        private final String subject, body;
+        private final IntFunction<Optional<String>> digestSubject;
+        private final CompletableFuture<Void> delivery = new CompletableFuture<>();
+
+        /**
+         *
+         * @param properties Where and how to send the e-mail.
+         * @param source Messages from the same source may be merged into a digest.
+         * @param subject Subject of the e-mail.
+         * @param body Text of the e-mail.
+         * @param digestSubject Given the number of e-mails merged, returns the subject of the digest. Empty if the
+         * e-mails must not be merged.
+         */
+        public Message(final EmailNotificationProperties properties, final Class<?> source, final String subject,
+                       final String body, final IntFunction<Optional<String>> digestSubject) {
+            this.properties = properties;
+            this.source = source;
+            this.subject = subject;
+            this.body = body;
+            this.digestSubject = digestSubject;
+        }
+
+        public EmailNotificationProperties getProperties() {
+            return properties;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        /**
+         *
+         * @return Completes once the e-mail was sent, or exceptionally once all attempts to send it failed.
+         */
+        public CompletableFuture<Void> getDelivery() {
+            return delivery;
+        }
+
+    }
+
+    /**
+     * One or more {@link Message}s, sent as a single e-mail.
+     */
+    private static final class Envelope {
+
+        private final Collection<Outbox.Message> messages;
+        private final String subject, body;
+
+        public Envelope(final Outbox.Message message) {
+            this.messages = Collections.singleton(message);
+            this.subject = message.subject;
+            this.body = message.body;
+        }
+
+        public Envelope(final List<Outbox.Message> messages, final String subject) {
+            this.messages = messages;
+            this.subject = subject;
+            this.body = messages.stream().map(m -> m.body).collect(Collectors.joining("\n\n---\n\n"));
+        }
+
+        public Email toEmail() throws EmailException {
+            final EmailNotificationProperties properties = messages.iterator().next().getProperties();
+            final Email email = new SimpleEmail();
+            email.setCharset(Defaults.CHARSET.displayName());
+            email.setHostName(properties.getSmtpHostname());
+            email.setSmtpPort(properties.getSmtpPort());
+            email.setStartTLSRequired(properties.isStartTlsRequired());
+            email.setSSLOnConnect(properties.isSslOnConnectRequired());
+            email.setAuthentication(properties.getSmtpUsername(), properties.getSmtpPassword());
+            email.setFrom(properties.getSender(), "RoboZonky @ " + properties.getLocalHostAddress());
+            email.addTo(properties.getRecipient());
+            email.setSubject(subject);
+            email.setMsg(body);
+            return email;
+        }
+
+        public void delivered() {
+            messages.forEach(m -> m.getDelivery().complete(null));
+        }
+
+        public void failed(final Exception ex) {
+            messages.forEach(m -> m.getDelivery().completeExceptionally(ex));
+        }
+
+        @Override
+        public String toString() {
+            return "'" + subject + "'";
+        }
+
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Outbox.class);
+    /**
+     * After an e-mail arrives, wait this long for more before sending. Every new e-mail restarts the wait.
+     */
+    private static final Duration BURST_WINDOW = Duration.ofSeconds(2);
+    private static final int MAXIMUM_BURST_SIZE = 50;
+    private static final int MAXIMUM_ATTEMPTS = 5;
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(5);
+
+    /**
+     * E-mails can only share an SMTP connection when they are to be sent through the same server as the same user.
+     */
+    private static String getConnectionId(final Outbox.Message message) {
+        final EmailNotificationProperties p = message.getProperties();
+        return p.getSmtpUsername() + "@" + p.getSmtpHostname() + ":" + p.getSmtpPort() + ";" +
+                p.isStartTlsRequired() + ";" + p.isSslOnConnectRequired();
+    }
+
+    private static List<Outbox.Envelope> toEnvelopes(final List<Outbox.Message> messages) {
+        final Map<Class<?>, List<Outbox.Message>> bySource = messages.stream()
+                .collect(Collectors.groupingBy(m -> m.source, LinkedHashMap::new, Collectors.toList()));
+        final List<Outbox.Envelope> result = new ArrayList<>();
+        bySource.values().forEach(similar -> {
+            final Outbox.Message first = similar.get(0);
+            final Optional<String> digestSubject = similar.size() > 1 ?
+                    first.digestSubject.apply(similar.size()) : Optional.empty();
+            if (digestSubject.isPresent()) {
+                result.add(new Outbox.Envelope(similar, digestSubject.get()));
+            } else {
+                similar.forEach(m -> result.add(new Outbox.Envelope(m)));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param envelope Envelope to turn into an e-mail.
+     * @return Empty if the e-mail is broken, in which case the envelope has already been failed, since retrying would
+     * not help.
+     */
+    private static Optional<Email> prepare(final Outbox.Envelope envelope) {
+        try {
+            final Email email = envelope.toEmail();
+            email.buildMimeMessage();
+            return Optional.of(email);
+        } catch (final EmailException | RuntimeException ex) {
+            Outbox.LOGGER.warn("Failed preparing {}, will not send it.", envelope, ex);
+            envelope.failed(ex);
+            return Optional.empty();
+        }
+    }
+
+    private static void close(final Transport transport) {
+        try {
+            transport.close();
+        } catch (final MessagingException ex) { // whatever was sent is already delivered
+            Outbox.LOGGER.debug("Failed closing SMTP connection.", ex);
+        }
+    }
+
+    /**
+     * Sends over a single SMTP connection, removing envelopes from the queue as they are sent. Envelopes which can
+     * never be sent, such as those with an invalid recipient, are failed and removed right away.
+     */
+    private static void send(final Deque<Outbox.Envelope> pending) throws EmailException, MessagingException {
+        Transport transport = null;
+        try {
+            while (!pending.isEmpty()) {
+                final Outbox.Envelope envelope = pending.getFirst();
+                final Optional<Email> prepared = Outbox.prepare(envelope);
+                if (!prepared.isPresent()) {
+                    pending.removeFirst();
+                    continue;
+                }
+                final Email email = prepared.get();
+                if (transport == null) { // all the e-mails share the connection settings, the first one will do
+                    transport = email.getMailSession().getTransport();
+                    transport.connect();
+                }
+                final MimeMessage message = email.getMimeMessage();
+                message.saveChanges();
+                Outbox.LOGGER.debug("Sending {} to {} through {}:{}.", envelope, email.getToAddresses(),
+                        email.getHostName(), email.getSmtpPort());
+                try {
+                    transport.sendMessage(message, message.getAllRecipients());
+                } catch (final SendFailedException ex) { // the server refused this particular e-mail
+                    Outbox.LOGGER.warn("Server refused {}, will not send it again.", envelope, ex);
+                    pending.removeFirst();
+                    envelope.failed(ex);
+                    continue;
+                }
+                pending.removeFirst();
+                envelope.delivered();
+            }
+        } finally {
+            if (transport != null) {
+                Outbox.close(transport);
+            }
+        }
+    }
+
+    private static void deliver(final List<Outbox.Envelope> envelopes) throws InterruptedException {
+        final Deque<Outbox.Envelope> pending = new ArrayDeque<>(envelopes);
+        Duration delay = Outbox.INITIAL_RETRY_DELAY;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            try {
+                Outbox.send(pending);
+            } catch (final EmailException | MessagingException | RuntimeException ex) {
+                if (pending.isEmpty()) { // nothing left to retry
+                    Outbox.LOGGER.debug("Failed after sending all e-mails.", ex);
+                } else if (attempt == Outbox.MAXIMUM_ATTEMPTS) {
+                    Outbox.LOGGER.warn("Failed sending e-mails, giving up on {}.", pending, ex);
+                    pending.forEach(e -> e.failed(ex));
+                    return;
+                } else {
+                    Outbox.LOGGER.info("Failed sending e-mails, will retry in {} seconds.", delay.getSeconds(), ex);
+                    Thread.sleep(delay.toMillis());
+                    delay = delay.multipliedBy(2);
+                }
+            }
+        }
+    }
+
+    private final BlockingQueue<Outbox.Message> queue = new LinkedBlockingQueue<>();
+    private final AtomicBoolean isStarted = new AtomicBoolean(false);
+
+    /**
+     * Queue the e-mail for sending, without waiting for it to be sent.
+     *
+     * @param message E-mail to send.
+     * @return {@link Message#getDelivery()}.
+     */
+    public CompletableFuture<Void> send(final Outbox.Message message) {
+        queue.add(message);
+        if (isStarted.compareAndSet(false, true)) {
+            final Thread sender = new Thread(this::run, "rzEmail");
+            sender.setDaemon(true);
+            sender.start();
+        }
+        return message.getDelivery();
+    }
+
+    private List<Outbox.Message> takeBurst() throws InterruptedException {
+        final List<Outbox.Message> burst = new ArrayList<>();
+        burst.add(queue.take());
+        while (burst.size() < Outbox.MAXIMUM_BURST_SIZE) {
+            final Outbox.Message next = queue.poll(Outbox.BURST_WINDOW.toMillis(), TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+            burst.add(next);
+        }
+        return burst;
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Map<String, List<Outbox.Message>> byConnection = this.takeBurst().stream()
+                        .collect(Collectors.groupingBy(Outbox::getConnectionId, LinkedHashMap::new,
+                                Collectors.toList()));
+                for (final List<Outbox.Message> messages : byConnection.values()) {
+                    Outbox.deliver(Outbox.toEnvelopes(messages));
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            Outbox.LOGGER.debug("Stopped sending e-mails, {} left unsent.", queue.size());
+            isStarted.set(false);
+        }
+    }
+
+}
@@ -46,4 +46,10 @@ class RoboZonkyCrashedEventListener extends AbstractEmailingListener<RoboZonkyCr
         event.getCause().ifPresent(cause -> result.put("cause", AbstractEmailingListener.stackTraceToString(cause)));
         return result;
     }
+
+    @Override
+    boolean isDeliveryAwaited() {
+        return true;
+    }
+
 }
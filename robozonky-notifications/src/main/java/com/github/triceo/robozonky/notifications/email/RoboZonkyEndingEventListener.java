@@ -34,4 +34,9 @@ class RoboZonkyEndingEventListener extends AbstractEmailingListener<RoboZonkyEnd
         return "ending.ftl";
     }
 
+    @Override
+    boolean isDeliveryAwaited() {
+        return true;
+    }
+
 }
@@ -41,4 +41,10 @@ class RoboZonkyTestingEventListener extends AbstractEmailingListener<RoboZonkyTe
     Map<String, Object> getData(final RoboZonkyTestingEvent event) {
         return Collections.emptyMap();
     }
+
+    @Override
+    boolean isDeliveryAwaited() {
+        return true;
+    }
+
 }
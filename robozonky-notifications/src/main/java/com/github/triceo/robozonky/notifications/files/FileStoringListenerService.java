@@ -16,6 +16,9 @@
 
 package com.github.triceo.robozonky.notifications.files;
 
+import java.util.Objects;
+import java.util.stream.Stream;
+
 import com.github.triceo.robozonky.api.Refreshable;
 import com.github.triceo.robozonky.api.notifications.Event;
 import com.github.triceo.robozonky.api.notifications.EventListener;
@@ -30,4 +33,9 @@ public final class FileStoringListenerService implements ListenerService {
         return new RefreshableFileEventListener<>(properties, eventType);
     }
 
+    @Override
+    public boolean isSupported(final Class<? extends Event> eventType) {
+        return Stream.of(SupportedListener.values()).anyMatch(l -> Objects.equals(l.getEventType(), eventType));
+    }
+
 }
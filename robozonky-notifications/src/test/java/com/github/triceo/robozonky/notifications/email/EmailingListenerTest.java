@@ -38,6 +38,7 @@ public class EmailingListenerTest extends AbstractEmailingListenerTest {
         l.handle(this.event);
         Assertions.assertThat(l.getData(this.event)).isNotNull();
         Assertions.assertThat(l.shouldSendEmail(this.event)).isTrue();
+        Assertions.assertThat(greenMail.waitForIncomingEmail(10000, 1)).isTrue(); // sent in the background
         Assertions.assertThat(greenMail.getReceivedMessages()).hasSize(1);
         final MimeMessage m = greenMail.getReceivedMessages()[0];
         Assertions.assertThat(m.getContentType()).contains(Defaults.CHARSET.displayName());
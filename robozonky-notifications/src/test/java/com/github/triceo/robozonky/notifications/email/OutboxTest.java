@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Lukáš Petrovický
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.triceo.robozonky.notifications.email;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.mail.internet.MimeMessage;
+
+import com.github.triceo.robozonky.api.Refreshable;
+import com.icegreen.greenmail.junit.GreenMailRule;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.ProvideSystemProperty;
+import org.mockito.Mockito;
+
+public class OutboxTest {
+
+    @Rule
+    public final GreenMailRule greenMail = new GreenMailRule(ServerSetupTest.SMTP);
+
+    @Rule
+    public final ProvideSystemProperty myPropertyHasMyValue = new ProvideSystemProperty(
+            RefreshableEmailNotificationProperties.CONFIG_FILE_LOCATION_PROPERTY,
+            EmailNotificationPropertiesTest.class.getResource("notifications-enabled.cfg").toString());
+
+    private static EmailNotificationProperties getProperties() {
+        final Refreshable<EmailNotificationProperties> r = new RefreshableEmailNotificationProperties();
+        r.run();
+        return r.getLatest().get();
+    }
+
+    @Test
+    public void burstMergedIntoDigest() throws Exception {
+        final EmailNotificationProperties properties = OutboxTest.getProperties();
+        final CompletableFuture<Void> first = Outbox.INSTANCE.send(new Outbox.Message(properties, String.class,
+                "First", "First body.", count -> Optional.of("Digest of " + count)));
+        final CompletableFuture<Void> second = Outbox.INSTANCE.send(new Outbox.Message(properties, String.class,
+                "Second", "Second body.", count -> Optional.of("Digest of " + count)));
+        final CompletableFuture<Void> separate = Outbox.INSTANCE.send(new Outbox.Message(properties, Integer.class,
+                "Separate", "Separate body.", count -> Optional.empty()));
+        CompletableFuture.allOf(first, second, separate).get(30, TimeUnit.SECONDS);
+        Assertions.assertThat(greenMail.waitForIncomingEmail(10000, 2)).isTrue();
+        final MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertThat(received).hasSize(2);
+        Assertions.assertThat(received[0].getSubject()).isEqualTo("Digest of 2");
+        Assertions.assertThat((String) received[0].getContent()).contains("First body.", "Second body.");
+        Assertions.assertThat(received[1].getSubject()).isEqualTo("Separate");
+    }
+
+    @Test
+    public void brokenEmailDoesNotBlockOthers() throws Exception {
+        final EmailNotificationProperties properties = OutboxTest.getProperties();
+        final EmailNotificationProperties broken = Mockito.spy(properties);
+        Mockito.doReturn(properties.getSmtpUsername()).when(broken).getSmtpUsername(); // same connection as the rest
+        Mockito.doReturn("").when(broken).getRecipient();
+        final CompletableFuture<Void> failing = Outbox.INSTANCE.send(new Outbox.Message(broken, String.class,
+                "Broken", "Broken body.", count -> Optional.empty()));
+        final CompletableFuture<Void> working = Outbox.INSTANCE.send(new Outbox.Message(properties, Integer.class,
+                "Working", "Working body.", count -> Optional.empty()));
+        working.get(30, TimeUnit.SECONDS);
+        Assertions.assertThat(failing).isCompletedExceptionally();
+        Assertions.assertThat(greenMail.waitForIncomingEmail(10000, 1)).isTrue();
+        final MimeMessage[] received = greenMail.getReceivedMessages();
+        Assertions.assertThat(received).hasSize(1);
+        Assertions.assertThat(received[0].getSubject()).isEqualTo("Working");
+    }
+
+}
@@ -69,4 +69,10 @@ public class FileStoringListenerServiceTest {
     public void doesNotSupportsUnknownEvent() {
         Assertions.assertThat(getListener(RoboZonkyStartingEvent.class).getLatest()).isEmpty();
     }
+
+    @Test
+    public void declaresSupportedEvents() {
+        Assertions.assertThat(service.isSupported(InvestmentMadeEvent.class)).isTrue();
+        Assertions.assertThat(service.isSupported(RoboZonkyStartingEvent.class)).isFalse();
+    }
 }
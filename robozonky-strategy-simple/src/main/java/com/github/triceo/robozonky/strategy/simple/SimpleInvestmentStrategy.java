@@ -31,8 +31,9 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
 import com.github.triceo.robozonky.api.strategies.InvestmentStrategy;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.api.strategies.PortfolioOverview;
@@ -113,6 +114,36 @@ class SimpleInvestmentStrategy implements InvestmentStrategy {
         }
     }
 
+    /**
+     * Loans of ratings which can never be accepted are left out. Terms and remaining investment are the loosest bounds
+     * among the remaining ratings.
+     *
+     * @return Empty if no rating is ever acceptable, in which case there is nothing to narrow down.
+     */
+    @Override
+    public Optional<InterestProfile> getInterestProfile() {
+        final Collection<StrategyPerRating> acceptable = this.individualStrategies.values().stream()
+                .filter(StrategyPerRating::isEverAcceptable)
+                .collect(Collectors.toList());
+        if (acceptable.isEmpty()) {
+            return Optional.empty();
+        }
+        final Collection<Rating> ratings = acceptable.stream()
+                .map(StrategyPerRating::getRating)
+                .collect(Collectors.toList());
+        final int minimumTerm = acceptable.stream()
+                .mapToInt(StrategyPerRating::getMinimumAcceptableTerm)
+                .min().getAsInt();
+        final int maximumTerm = acceptable.stream()
+                .mapToInt(StrategyPerRating::getMaximumAcceptableTerm)
+                .max().getAsInt();
+        final int minimumRemaining = acceptable.stream()
+                .mapToInt(StrategyPerRating::getMinimumInvestmentAmount)
+                .min().getAsInt();
+        return Optional.of(new InterestProfile(ratings, minimumTerm, maximumTerm,
+                Math.max(minimumRemaining, Defaults.MINIMUM_INVESTMENT_IN_CZK)));
+    }
+
     private boolean isAcceptable(final PortfolioOverview portfolio) {
         final int availableBalance = portfolio.getCzkAvailable();
         if (availableBalance < this.minimumBalance) {
@@ -161,7 +192,7 @@ class SimpleInvestmentStrategy implements InvestmentStrategy {
                 .collect(Collectors.toList()));
     }
 
-    int recommendInvestmentAmount(final Loan loan, final PortfolioOverview portfolio) {
+    int recommendInvestmentAmount(final LoanSummary loan, final PortfolioOverview portfolio) {
         if (!this.isAcceptable(portfolio)) {
             return 0;
         }
@@ -19,8 +19,9 @@ package com.github.triceo.robozonky.strategy.simple;
 import java.math.BigDecimal;
 import java.util.Optional;
 
-import com.github.triceo.robozonky.api.remote.entities.Loan;
+import com.github.triceo.robozonky.api.remote.entities.LoanSummary;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.internal.api.Defaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,17 +74,44 @@ class StrategyPerRating {
         return this.rating;
     }
 
-    private boolean isAcceptableTerm(final Loan loan) {
+    public int getMinimumAcceptableTerm() {
+        return this.minimumAcceptableTerm;
+    }
+
+    public int getMaximumAcceptableTerm() {
+        return this.maximumAcceptableTerm;
+    }
+
+    public int getMinimumInvestmentAmount() {
+        return this.minimumInvestmentAmount;
+    }
+
+    /**
+     * Whether there exists a portfolio and a loan for which {@link #recommendInvestmentAmount(LoanSummary)} would
+     * recommend something.
+     *
+     * @return False if loans of this rating will never be invested into.
+     */
+    public boolean isEverAcceptable() {
+        return this.maximumShare.compareTo(BigDecimal.ZERO) > 0 &&
+                this.maximumInvestmentShare.compareTo(BigDecimal.ZERO) > 0 &&
+                this.maximumInvestmentAmount >= Defaults.MINIMUM_INVESTMENT_IN_CZK &&
+                this.minimumInvestmentAmount <= this.maximumInvestmentAmount &&
+                this.minimumAcceptableTerm <= this.maximumAcceptableTerm &&
+                this.minimumAskAmount <= this.maximumAskAmount;
+    }
+
+    private boolean isAcceptableTerm(final LoanSummary loan) {
         final int term = loan.getTermInMonths();
         return term >= this.minimumAcceptableTerm && term <= this.maximumAcceptableTerm;
     }
 
-    private boolean isAcceptableAsk(final Loan loan) {
+    private boolean isAcceptableAsk(final LoanSummary loan) {
         final int ask = (int)loan.getAmount();
         return ask >= this.minimumAskAmount && ask <= this.maximumAskAmount;
     }
 
-    public boolean isAcceptable(final Loan loan) {
+    public boolean isAcceptable(final LoanSummary loan) {
         if (loan.getRating() != this.rating) {
             throw new IllegalArgumentException("Loan " + loan + " should never have gotten here.");
         } else if (!isAcceptableTerm(loan)) {
@@ -98,7 +126,7 @@ class StrategyPerRating {
         return true;
     }
 
-    public Optional<int[]> recommendInvestmentAmount(final Loan loan) {
+    public Optional<int[]> recommendInvestmentAmount(final LoanSummary loan) {
         if (loan.getRating() != this.rating) {
             throw new IllegalArgumentException("Loan " + loan + " should never have gotten here.");
         } else if (!this.isAcceptable(loan)) {
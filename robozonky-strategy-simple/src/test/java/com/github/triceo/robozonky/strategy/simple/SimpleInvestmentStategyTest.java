@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 
 import com.github.triceo.robozonky.api.remote.entities.Loan;
 import com.github.triceo.robozonky.api.remote.enums.Rating;
+import com.github.triceo.robozonky.api.strategies.InterestProfile;
 import com.github.triceo.robozonky.api.strategies.LoanDescriptor;
 import com.github.triceo.robozonky.api.strategies.PortfolioOverview;
 import com.github.triceo.robozonky.api.strategies.Recommendation;
@@ -95,6 +96,29 @@ public class SimpleInvestmentStategyTest {
                 .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void interestProfileOnlyCoversAcceptableRatings() {
+        final Optional<InterestProfile> profile = overallStrategy.getInterestProfile();
+        Assertions.assertThat(profile).isPresent();
+        final InterestProfile p = profile.get();
+        SoftAssertions.assertSoftly(softly -> {
+            softly.assertThat(p.getRatings())
+                    .containsOnly(SimpleInvestmentStategyTest.RATING_A, SimpleInvestmentStategyTest.RATING_B);
+            softly.assertThat(p.getMinimumTermInMonths())
+                    .isEqualTo(SimpleInvestmentStategyTest.TESTED_TERM_LENGTH - 1);
+            softly.assertThat(p.isMaximumTermBounded()).isFalse(); // rating A has no maximum
+            softly.assertThat(p.getMinimumRemainingInvestment()).isEqualTo(Defaults.MINIMUM_INVESTMENT_IN_CZK);
+        });
+    }
+
+    @Test
+    public void noInterestProfileWhenNothingAcceptable() {
+        final Map<Rating, StrategyPerRating> strategies = new EnumMap<>(Rating.class);
+        Arrays.stream(Rating.values()).forEach(r -> strategies.put(r, Mockito.mock(StrategyPerRating.class)));
+        final SimpleInvestmentStrategy s = new SimpleInvestmentStrategy(0, Integer.MAX_VALUE, strategies);
+        Assertions.assertThat(s.getInterestProfile()).isEmpty();
+    }
+
     @Test
     public void properlyRecommendingInvestmentSize() {
         final BigDecimal loanAmount = BigDecimal.valueOf(100000.0);